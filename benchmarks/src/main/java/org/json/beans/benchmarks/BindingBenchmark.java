@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.json.beans.JsonValue;
+import org.json.beans.impl.Decoder;
+import org.json.beans.impl.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Измерения разбора, записи, обращения к одному свойству и проверки документов сгенерированными
+ * классами для каждого {@link Scenario сценария}. Методы с суффиксом {@code Tree} выполняют ту же
+ * работу через разбор в дерево Jackson и служат базой для сравнения.
+ * <p>
+ * Каждое измерение включает разбор документа, кроме {@code encode*}, которые записывают заранее
+ * разобранное значение. {@code accessProjected} индексирует только нужное свойство корня и
+ * прекращает просмотр, как только нашел его. {@code decodeBinary} читает тот же документ из
+ * двоичного сообщения сгенерированного класса {@code Binary}: реализация {@code Binary.Impl} читает
+ * свойства прямо из сообщения по их позициям, поэтому сравнение с {@code decode} показывает выигрыш
+ * от отказа от разбора текста.
+ *
+ * @author Mingun
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BindingBenchmark {
+  @Param({"FLAT", "WIDE", "DEEP", "SCALAR_ARRAYS", "UNION"})
+  Scenario scenario;
+
+  /** Документ сценария в виде массива байт для базовой реализации. */
+  private byte[] bytes;
+  /** Тот же документ в буфере для сгенерированных классов. */
+  private ByteBuffer buffer;
+  /** Тот же документ в двоичном виде. */
+  private ByteBuffer binary;
+  private Decoder<? extends JsonValue> decoder;
+  private Decoder<? extends JsonValue> cursor;
+  private Decoder<? extends JsonValue> projected;
+  /**
+   * Значение, которое записывается сгенерированным {@code Writer}. Это курсор, поэтому запись идет
+   * по свойствам, а не копированием исходного текста, как было бы для ленивой реализации.
+   */
+  private JsonValue encoded;
+  /** Получатель записываемых данных. */
+  private final Sink sink = new Sink();
+  /** Писатель переиспользуется между вызовами, чтобы не измерять выделение его буфера. */
+  private JsonWriter writer;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  /** Разобранное дерево документа для записи базовой реализацией. */
+  private JsonNode tree;
+
+  @Setup
+  public void setup() throws IOException {
+    bytes = scenario.document(new Random(42)).getBytes(UTF_8);
+    buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    decoder = scenario.decoder();
+    cursor = scenario.cursor();
+    projected = scenario.projected();
+    encoded = scenario.cursor().decode(buffer, 0);
+    binary = ByteBuffer.wrap(scenario.encodeBinary(decoder.decode(buffer, 0)));
+    writer = new JsonWriter(sink);
+    tree = mapper.readTree(bytes);
+    // Документ должен соответствовать схеме, иначе измерения проверки бессмысленны
+    scenario.validate(buffer);
+  }
+
+  @Benchmark
+  public void decode(Blackhole bh) {
+    scenario.walk(decoder.decode(buffer, 0), bh);
+  }
+  @Benchmark
+  public void decodeCursor(Blackhole bh) {
+    scenario.walk(cursor.decode(buffer, 0), bh);
+  }
+  @Benchmark
+  public void decodeBinary(Blackhole bh) {
+    scenario.walk(scenario.decodeBinary(binary), bh);
+  }
+  @Benchmark
+  public void decodeTree(Blackhole bh) throws IOException {
+    Tree.walk(mapper.readTree(bytes), bh);
+  }
+
+  @Benchmark
+  public void access(Blackhole bh) {
+    scenario.access(decoder.decode(buffer, 0), bh);
+  }
+  @Benchmark
+  public void accessCursor(Blackhole bh) {
+    scenario.access(cursor.decode(buffer, 0), bh);
+  }
+  @Benchmark
+  public void accessProjected(Blackhole bh) {
+    scenario.access(projected.decode(buffer, 0), bh);
+  }
+  @Benchmark
+  public JsonNode accessTree() throws IOException {
+    return mapper.readTree(bytes).at(scenario.pointer);
+  }
+
+  @Benchmark
+  public void encode() throws IOException {
+    scenario.encode(writer, encoded);
+    writer.flush();
+  }
+  @Benchmark
+  public byte[] encodeBinary() {
+    return scenario.encodeBinary(encoded);
+  }
+  @Benchmark
+  public void encodeTree() throws IOException {
+    mapper.writeValue(sink, tree);
+  }
+
+  @Benchmark
+  public void validate() {
+    scenario.validate(buffer);
+  }
+
+  /** Поток, отбрасывающий записанные данные. */
+  private static final class Sink extends OutputStream {
+    @Override
+    public void write(int b) {}
+    @Override
+    public void write(byte[] b, int off, int len) {}
+  }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.benchmarks;
+
+import com.helger.jcodemodel.JPackage;
+import com.helger.jcodemodel.writer.AbstractCodeWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.Schema;
+import net.jimblackler.jsonschemafriend.SchemaStore;
+import org.json.beans.codegen.Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Измерение скорости генерации кода для синтетической схемы с большим количеством определений в
+ * {@code $defs}. Определения ссылаются друг на друга по кругу, в массивах и в {@code oneOf}, поэтому
+ * на каждое определение приходится несколько ссылок. Время на одно определение не должно расти с
+ * увеличением их количества.
+ *
+ * @author Mingun
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+public class GeneratorBenchmark {
+  @Param({"500", "2000", "6000"})
+  int definitions;
+
+  private Schema schema;
+
+  @Setup
+  public void setup() throws IOException, GenerationException {
+    final Path directory = Files.createTempDirectory("schemas");
+    final Path file = directory.resolve("large.json");
+    try {
+      Files.write(file, schema(definitions).getBytes(UTF_8));
+      schema = new SchemaStore().loadSchema(file.toFile());
+    } finally {
+      Files.delete(file);
+      Files.delete(directory);
+    }
+  }
+
+  /** Генерирует классы вместе с проверками и выводит их код в никуда. */
+  @Benchmark
+  public void generate() throws Exception {
+    new Generator(true).generate(schema, new Discard());
+  }
+
+  /**
+   * Строит схему с указанным количеством определений объектов.
+   *
+   * @param count Количество определений
+   *
+   * @return Текст схемы
+   */
+  static String schema(int count) {
+    final StringBuilder sb = new StringBuilder()
+      .append("{\"$schema\":\"https://json-schema.org/draft/2020-12/schema\",")
+      .append("\"type\":\"object\",\"properties\":{\"root\":{\"$ref\":\"#/$defs/Type0\"}},")
+      .append("\"$defs\":{");
+    for (int i = 0; i < count; ++i) {
+      if (i > 0) sb.append(',');
+      sb.append("\"Type").append(i).append("\":{\"type\":\"object\",\"required\":[\"id\"],\"properties\":{")
+        .append("\"id\":{\"type\":\"integer\"},")
+        .append("\"name\":{\"type\":\"string\"},")
+        .append("\"score\":{\"type\":\"number\"},")
+        .append("\"enabled\":{\"type\":\"boolean\"},")
+        .append("\"status\":{\"enum\":[\"new\",\"active\",\"archived\"]},")
+        .append("\"next\":{\"$ref\":\"#/$defs/Type").append((i + 1) % count).append("\"},")
+        .append("\"items\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/$defs/Type").append((i * 7 + 3) % count).append("\"}},")
+        .append("\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}},")
+        .append("\"nested\":{\"type\":\"object\",\"properties\":{\"x\":{\"type\":\"integer\"},\"y\":{\"type\":\"number\"}}}");
+      if (i % 10 == 0) {
+        sb.append(",\"choice\":{\"oneOf\":[")
+          .append("{\"$ref\":\"#/$defs/Type").append((i + 2) % count).append("\"},")
+          .append("{\"$ref\":\"#/$defs/Type").append((i + 5) % count).append("\"}]}");
+      }
+      sb.append("}}");
+    }
+    return sb.append("}}").toString();
+  }
+
+  /** Получатель исходного кода, отбрасывающий его. */
+  private static final class Discard extends AbstractCodeWriter {
+    Discard() {
+      super(UTF_8, "\n");
+    }
+
+    @Override
+    public OutputStream openBinary(JPackage pkg, String fileName) {
+      return new OutputStream() {
+        @Override
+        public void write(int b) {}
+        @Override
+        public void write(byte[] b, int off, int len) {}
+      };
+    }
+    @Override
+    public void close() {}
+  }
+}
\ No newline at end of file
@@ -0,0 +1,552 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.json.beans.JsonBooleanArray;
+import org.json.beans.JsonDoubleArray;
+import org.json.beans.JsonLongArray;
+import org.json.beans.JsonStringArray;
+import org.json.beans.JsonValue;
+import org.json.beans.benchmarks.model.Deep;
+import org.json.beans.benchmarks.model.Deep.Level1Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type.Level3Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type.Level3Type.Level4Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type.Level3Type.Level4Type.Level5Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type.Level3Type.Level4Type.Level5Type.Level6Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type.Level3Type.Level4Type.Level5Type.Level6Type.Level7Type;
+import org.json.beans.benchmarks.model.Deep.Level1Type.Level2Type.Level3Type.Level4Type.Level5Type.Level6Type.Level7Type.Level8Type;
+import org.json.beans.benchmarks.model.Flat;
+import org.json.beans.benchmarks.model.ScalarArrays;
+import org.json.beans.benchmarks.model.Union;
+import org.json.beans.benchmarks.model.Union.EventsItemType;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant0Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant1Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant2Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant3Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant4Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant5Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant6Type;
+import org.json.beans.benchmarks.model.Union.EventsItemType.Variant7Type;
+import org.json.beans.benchmarks.model.Wide;
+import org.json.beans.impl.Decoder;
+import org.json.beans.impl.JsonWriter;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Сценарии измерений: схема из {@code src/main/schemas}, типичный документ для нее и операции над
+ * сгенерированными для нее классами. Документы строятся детерминированно, чтобы результаты разных
+ * запусков были сравнимы.
+ *
+ * @author Mingun
+ */
+public enum Scenario {
+  /** Небольшой объект из скалярных свойств. */
+  FLAT("/sku") {
+    @Override
+    String document(Random random) {
+      return "{\"id\":" + (1 + random.nextInt(1_000_000))
+        + ",\"name\":\"Product " + random.nextInt(1000) + '"'
+        + ",\"price\":" + random.nextInt(100_000) / 100.0
+        + ",\"quantity\":" + random.nextInt(500)
+        + ",\"active\":" + random.nextBoolean()
+        + ",\"category\":\"music\""
+        + ",\"rating\":" + random.nextInt(50) / 10.0
+        + ",\"sku\":\"ABC-" + (100_000 + random.nextInt(900_000)) + "\"}";
+    }
+    @Override
+    Decoder<? extends JsonValue> decoder() { return Flat.Impl.DECODER; }
+    @Override
+    Decoder<? extends JsonValue> cursor() { return Flat.Cursor.reusing(); }
+    @Override
+    Decoder<? extends JsonValue> projected() { return Flat.Cursor.project("sku"); }
+    @Override
+    void walk(JsonValue value, Blackhole bh) {
+      final Flat v = (Flat)value;
+      bh.consume(v.getIdAsLong());
+      bh.consume(v.getName().value());
+      bh.consume(v.getPriceAsDouble());
+      bh.consume(v.getQuantityAsLong());
+      bh.consume(v.getActiveAsBoolean());
+      bh.consume(v.getCategory());
+      bh.consume(v.getRatingAsDouble());
+      bh.consume(v.getSku().value());
+    }
+    @Override
+    void access(JsonValue value, Blackhole bh) {
+      bh.consume(((Flat)value).getSku().value());
+    }
+    @Override
+    void encode(JsonWriter out, JsonValue value) throws IOException {
+      Flat.Writer.write(out, (Flat)value);
+    }
+    @Override
+    void validate(ByteBuffer buffer) {
+      Flat.Validator.validate(buffer, 0);
+    }
+    @Override
+    byte[] encodeBinary(JsonValue value) {
+      return Flat.Binary.encode((Flat)value);
+    }
+    @Override
+    JsonValue decodeBinary(ByteBuffer buffer) {
+      return Flat.Binary.decode(buffer);
+    }
+  },
+  /** Объект из 64 скалярных свойств разных типов. */
+  WIDE("/field63") {
+    @Override
+    String document(Random random) {
+      final StringBuilder sb = new StringBuilder("{");
+      for (int i = 0; i < 64; ++i) {
+        if (i > 0) sb.append(',');
+        sb.append(String.format("\"field%02d\":", i));
+        switch (i % 4) {
+          case 0: sb.append(random.nextInt()); break;
+          case 1: sb.append("\"value ").append(random.nextInt(1000)).append('"'); break;
+          case 2: sb.append(random.nextInt(1_000_000) / 1000.0); break;
+          default: sb.append(random.nextBoolean()); break;
+        }
+      }
+      return sb.append('}').toString();
+    }
+    @Override
+    Decoder<? extends JsonValue> decoder() { return Wide.Impl.DECODER; }
+    @Override
+    Decoder<? extends JsonValue> cursor() { return Wide.Cursor.reusing(); }
+    @Override
+    Decoder<? extends JsonValue> projected() { return Wide.Cursor.project("field63"); }
+    @Override
+    void walk(JsonValue value, Blackhole bh) {
+      final Wide v = (Wide)value;
+      bh.consume(v.getField00AsLong());
+      bh.consume(v.getField01().value());
+      bh.consume(v.getField02AsDouble());
+      bh.consume(v.getField03AsBoolean());
+      bh.consume(v.getField04AsLong());
+      bh.consume(v.getField05().value());
+      bh.consume(v.getField06AsDouble());
+      bh.consume(v.getField07AsBoolean());
+      bh.consume(v.getField08AsLong());
+      bh.consume(v.getField09().value());
+      bh.consume(v.getField10AsDouble());
+      bh.consume(v.getField11AsBoolean());
+      bh.consume(v.getField12AsLong());
+      bh.consume(v.getField13().value());
+      bh.consume(v.getField14AsDouble());
+      bh.consume(v.getField15AsBoolean());
+      bh.consume(v.getField16AsLong());
+      bh.consume(v.getField17().value());
+      bh.consume(v.getField18AsDouble());
+      bh.consume(v.getField19AsBoolean());
+      bh.consume(v.getField20AsLong());
+      bh.consume(v.getField21().value());
+      bh.consume(v.getField22AsDouble());
+      bh.consume(v.getField23AsBoolean());
+      bh.consume(v.getField24AsLong());
+      bh.consume(v.getField25().value());
+      bh.consume(v.getField26AsDouble());
+      bh.consume(v.getField27AsBoolean());
+      bh.consume(v.getField28AsLong());
+      bh.consume(v.getField29().value());
+      bh.consume(v.getField30AsDouble());
+      bh.consume(v.getField31AsBoolean());
+      bh.consume(v.getField32AsLong());
+      bh.consume(v.getField33().value());
+      bh.consume(v.getField34AsDouble());
+      bh.consume(v.getField35AsBoolean());
+      bh.consume(v.getField36AsLong());
+      bh.consume(v.getField37().value());
+      bh.consume(v.getField38AsDouble());
+      bh.consume(v.getField39AsBoolean());
+      bh.consume(v.getField40AsLong());
+      bh.consume(v.getField41().value());
+      bh.consume(v.getField42AsDouble());
+      bh.consume(v.getField43AsBoolean());
+      bh.consume(v.getField44AsLong());
+      bh.consume(v.getField45().value());
+      bh.consume(v.getField46AsDouble());
+      bh.consume(v.getField47AsBoolean());
+      bh.consume(v.getField48AsLong());
+      bh.consume(v.getField49().value());
+      bh.consume(v.getField50AsDouble());
+      bh.consume(v.getField51AsBoolean());
+      bh.consume(v.getField52AsLong());
+      bh.consume(v.getField53().value());
+      bh.consume(v.getField54AsDouble());
+      bh.consume(v.getField55AsBoolean());
+      bh.consume(v.getField56AsLong());
+      bh.consume(v.getField57().value());
+      bh.consume(v.getField58AsDouble());
+      bh.consume(v.getField59AsBoolean());
+      bh.consume(v.getField60AsLong());
+      bh.consume(v.getField61().value());
+      bh.consume(v.getField62AsDouble());
+      bh.consume(v.getField63AsBoolean());
+    }
+    @Override
+    void access(JsonValue value, Blackhole bh) {
+      bh.consume(((Wide)value).getField63AsBoolean());
+    }
+    @Override
+    void encode(JsonWriter out, JsonValue value) throws IOException {
+      Wide.Writer.write(out, (Wide)value);
+    }
+    @Override
+    void validate(ByteBuffer buffer) {
+      Wide.Validator.validate(buffer, 0);
+    }
+    @Override
+    byte[] encodeBinary(JsonValue value) {
+      return Wide.Binary.encode((Wide)value);
+    }
+    @Override
+    JsonValue decodeBinary(ByteBuffer buffer) {
+      return Wide.Binary.decode(buffer);
+    }
+  },
+  /** Девять вложенных друг в друга объектов. */
+  DEEP("/level1/level2/level3/level4/level5/level6/level7/level8/value") {
+    @Override
+    String document(Random random) {
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i <= 8; ++i) {
+        if (i > 0) sb.append(",\"level").append(i).append("\":");
+        sb.append("{\"value\":").append(random.nextInt()).append(",\"name\":\"node ").append(i).append('"');
+      }
+      for (int i = 0; i <= 8; ++i) {
+        sb.append('}');
+      }
+      return sb.toString();
+    }
+    @Override
+    Decoder<? extends JsonValue> decoder() { return Deep.Impl.DECODER; }
+    @Override
+    Decoder<? extends JsonValue> cursor() { return Deep.Cursor.reusing(); }
+    @Override
+    Decoder<? extends JsonValue> projected() { return Deep.Cursor.project("level1"); }
+    @Override
+    void walk(JsonValue value, Blackhole bh) {
+      final Deep v = (Deep)value;
+      bh.consume(v.getValueAsLong());
+      bh.consume(v.getName().value());
+      final Level1Type l1 = v.getLevel1();
+      bh.consume(l1.getValueAsLong());
+      bh.consume(l1.getName().value());
+      final Level2Type l2 = l1.getLevel2();
+      bh.consume(l2.getValueAsLong());
+      bh.consume(l2.getName().value());
+      final Level3Type l3 = l2.getLevel3();
+      bh.consume(l3.getValueAsLong());
+      bh.consume(l3.getName().value());
+      final Level4Type l4 = l3.getLevel4();
+      bh.consume(l4.getValueAsLong());
+      bh.consume(l4.getName().value());
+      final Level5Type l5 = l4.getLevel5();
+      bh.consume(l5.getValueAsLong());
+      bh.consume(l5.getName().value());
+      final Level6Type l6 = l5.getLevel6();
+      bh.consume(l6.getValueAsLong());
+      bh.consume(l6.getName().value());
+      final Level7Type l7 = l6.getLevel7();
+      bh.consume(l7.getValueAsLong());
+      bh.consume(l7.getName().value());
+      final Level8Type l8 = l7.getLevel8();
+      bh.consume(l8.getValueAsLong());
+      bh.consume(l8.getName().value());
+    }
+    @Override
+    void access(JsonValue value, Blackhole bh) {
+      final Deep v = (Deep)value;
+      bh.consume(v.getLevel1().getLevel2().getLevel3().getLevel4().getLevel5().getLevel6().getLevel7().getLevel8().getValueAsLong());
+    }
+    @Override
+    void encode(JsonWriter out, JsonValue value) throws IOException {
+      Deep.Writer.write(out, (Deep)value);
+    }
+    @Override
+    void validate(ByteBuffer buffer) {
+      Deep.Validator.validate(buffer, 0);
+    }
+    @Override
+    byte[] encodeBinary(JsonValue value) {
+      return Deep.Binary.encode((Deep)value);
+    }
+    @Override
+    JsonValue decodeBinary(ByteBuffer buffer) {
+      return Deep.Binary.decode(buffer);
+    }
+  },
+  /** Четыре массива скаляров по 1000 элементов. */
+  SCALAR_ARRAYS("/ids/999") {
+    @Override
+    String document(Random random) {
+      final StringBuilder sb = new StringBuilder("{\"ids\":[");
+      for (int i = 0; i < SIZE; ++i) {
+        if (i > 0) sb.append(',');
+        sb.append(random.nextLong());
+      }
+      sb.append("],\"values\":[");
+      for (int i = 0; i < SIZE; ++i) {
+        if (i > 0) sb.append(',');
+        sb.append(random.nextDouble());
+      }
+      sb.append("],\"flags\":[");
+      for (int i = 0; i < SIZE; ++i) {
+        if (i > 0) sb.append(',');
+        sb.append(random.nextBoolean());
+      }
+      sb.append("],\"labels\":[");
+      for (int i = 0; i < SIZE; ++i) {
+        if (i > 0) sb.append(',');
+        sb.append("\"label ").append(random.nextInt(SIZE)).append('"');
+      }
+      return sb.append("]}").toString();
+    }
+    @Override
+    Decoder<? extends JsonValue> decoder() { return ScalarArrays.Impl.DECODER; }
+    @Override
+    Decoder<? extends JsonValue> cursor() { return ScalarArrays.Cursor.reusing(); }
+    @Override
+    Decoder<? extends JsonValue> projected() { return ScalarArrays.Cursor.project("ids"); }
+    @Override
+    void walk(JsonValue value, Blackhole bh) {
+      final ScalarArrays v = (ScalarArrays)value;
+      final JsonLongArray ids = v.getIds();
+      for (int i = 0; i < ids.size(); ++i) {
+        bh.consume(ids.get(i));
+      }
+      final JsonDoubleArray values = v.getValues();
+      for (int i = 0; i < values.size(); ++i) {
+        bh.consume(values.get(i));
+      }
+      final JsonBooleanArray flags = v.getFlags();
+      for (int i = 0; i < flags.size(); ++i) {
+        bh.consume(flags.get(i));
+      }
+      final JsonStringArray labels = v.getLabels();
+      for (int i = 0; i < labels.size(); ++i) {
+        bh.consume(labels.get(i));
+      }
+    }
+    @Override
+    void access(JsonValue value, Blackhole bh) {
+      bh.consume(((ScalarArrays)value).getIds().get(SIZE - 1));
+    }
+    @Override
+    void encode(JsonWriter out, JsonValue value) throws IOException {
+      ScalarArrays.Writer.write(out, (ScalarArrays)value);
+    }
+    @Override
+    void validate(ByteBuffer buffer) {
+      ScalarArrays.Validator.validate(buffer, 0);
+    }
+    @Override
+    byte[] encodeBinary(JsonValue value) {
+      return ScalarArrays.Binary.encode((ScalarArrays)value);
+    }
+    @Override
+    JsonValue decodeBinary(ByteBuffer buffer) {
+      return ScalarArrays.Binary.decode(buffer);
+    }
+  },
+  /** Массив из 256 событий, каждое из которых -- один из 8 вариантов {@code oneOf}. */
+  UNION("/events/255") {
+    @Override
+    String document(Random random) {
+      final StringBuilder sb = new StringBuilder("{\"events\":[");
+      for (int i = 0; i < 256; ++i) {
+        if (i > 0) sb.append(',');
+        final int kind = random.nextInt(8);
+        sb.append("{\"type\":\"").append(EVENTS[kind]).append("\",\"timestamp\":").append(1_600_000_000_000L + i);
+        switch (kind) {
+          case 0: sb.append(",\"x\":").append(random.nextInt(1920)).append(",\"y\":").append(random.nextInt(1080)); break;
+          case 1: sb.append(",\"code\":\"Key").append((char)('A' + random.nextInt(26))).append("\",\"shift\":").append(random.nextBoolean()); break;
+          case 2: sb.append(",\"delta\":").append(random.nextInt(2000) / 10.0); break;
+          case 3: sb.append(",\"width\":").append(random.nextInt(1920)).append(",\"height\":").append(random.nextInt(1080)); break;
+          case 4:
+          case 5: sb.append(",\"target\":\"#element").append(random.nextInt(100)).append('"'); break;
+          case 6: sb.append(",\"duration\":").append(random.nextInt(10_000) / 10.0); break;
+          default: sb.append(",\"message\":\"Error ").append(random.nextInt(100)).append("\",\"line\":").append(random.nextInt(5000)); break;
+        }
+        sb.append('}');
+      }
+      return sb.append("]}").toString();
+    }
+    @Override
+    Decoder<? extends JsonValue> decoder() { return Union.Impl.DECODER; }
+    @Override
+    Decoder<? extends JsonValue> cursor() { return Union.Cursor.reusing(); }
+    @Override
+    Decoder<? extends JsonValue> projected() { return Union.Cursor.project("events"); }
+    @Override
+    void walk(JsonValue value, Blackhole bh) {
+      for (final EventsItemType event : ((Union)value).getEvents().value()) {
+        final JsonValue variant = event.asVariant();
+        if (variant instanceof Variant0Type) {
+          final Variant0Type v = (Variant0Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getXAsLong());
+          bh.consume(v.getYAsLong());
+        } else
+        if (variant instanceof Variant1Type) {
+          final Variant1Type v = (Variant1Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getCode().value());
+          bh.consume(v.getShiftAsBoolean());
+        } else
+        if (variant instanceof Variant2Type) {
+          final Variant2Type v = (Variant2Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getDeltaAsDouble());
+        } else
+        if (variant instanceof Variant3Type) {
+          final Variant3Type v = (Variant3Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getWidthAsLong());
+          bh.consume(v.getHeightAsLong());
+        } else
+        if (variant instanceof Variant4Type) {
+          final Variant4Type v = (Variant4Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getTarget().value());
+        } else
+        if (variant instanceof Variant5Type) {
+          final Variant5Type v = (Variant5Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getTarget().value());
+        } else
+        if (variant instanceof Variant6Type) {
+          final Variant6Type v = (Variant6Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getDurationAsDouble());
+        } else
+        if (variant instanceof Variant7Type) {
+          final Variant7Type v = (Variant7Type)variant;
+          bh.consume(v.getTimestampAsLong());
+          bh.consume(v.getMessage().value());
+          bh.consume(v.getLineAsLong());
+        }
+      }
+    }
+    @Override
+    void access(JsonValue value, Blackhole bh) {
+      bh.consume(((Union)value).getEvents().value().get(255).asVariant());
+    }
+    @Override
+    void encode(JsonWriter out, JsonValue value) throws IOException {
+      Union.Writer.write(out, (Union)value);
+    }
+    @Override
+    void validate(ByteBuffer buffer) {
+      Union.Validator.validate(buffer, 0);
+    }
+    @Override
+    byte[] encodeBinary(JsonValue value) {
+      return Union.Binary.encode((Union)value);
+    }
+    @Override
+    JsonValue decodeBinary(ByteBuffer buffer) {
+      return Union.Binary.decode(buffer);
+    }
+  };
+
+  /** Количество элементов в каждом массиве сценария {@link #SCALAR_ARRAYS}. */
+  static final int SIZE = 1000;
+  /** Значения свойства {@code type} вариантов в сценарии {@link #UNION} в порядке вариантов. */
+  static final String[] EVENTS = {"click", "key", "scroll", "resize", "focus", "blur", "load", "error"};
+
+  /**
+   * JSON Pointer на свойство, к которому обращается {@link #access}. Используется для того же
+   * обращения к дереву в базовой реализации.
+   */
+  final String pointer;
+
+  Scenario(String pointer) {
+    this.pointer = pointer;
+  }
+
+  /**
+   * Строит документ сценария.
+   *
+   * @param random Источник данных с фиксированным начальным значением
+   *
+   * @return Текст JSON документа
+   */
+  abstract String document(Random random);
+  /** @return Фабрика ленивых реализаций корневого типа */
+  abstract Decoder<? extends JsonValue> decoder();
+  /** @return Фабрика, переставляющая один и тот же курсор корневого типа */
+  abstract Decoder<? extends JsonValue> cursor();
+  /** @return Фабрика курсора корневого типа, индексирующего только свойство, нужное {@link #access} */
+  abstract Decoder<? extends JsonValue> projected();
+  /**
+   * Читает все значения документа через сгенерированные методы доступа.
+   *
+   * @param value Корневое значение
+   * @param bh Потребитель прочитанных значений
+   */
+  abstract void walk(JsonValue value, Blackhole bh);
+  /**
+   * Читает одно значение, находящееся в конце документа.
+   *
+   * @param value Корневое значение
+   * @param bh Потребитель прочитанного значения
+   */
+  abstract void access(JsonValue value, Blackhole bh);
+  /**
+   * Записывает значение сгенерированным классом {@code Writer}.
+   *
+   * @param out Получатель JSON
+   * @param value Корневое значение
+   *
+   * @throws IOException При ошибке записи
+   */
+  abstract void encode(JsonWriter out, JsonValue value) throws IOException;
+  /**
+   * Проверяет документ сгенерированным классом {@code Validator}.
+   *
+   * @param buffer Буфер с документом, начинающимся с нулевой позиции
+   */
+  abstract void validate(ByteBuffer buffer);
+  /**
+   * Записывает значение в двоичном виде сгенерированным классом {@code Binary}.
+   *
+   * @param value Корневое значение
+   *
+   * @return Сообщение
+   */
+  abstract byte[] encodeBinary(JsonValue value);
+  /**
+   * Читает значение из двоичного сообщения сгенерированным классом {@code Binary}.
+   *
+   * @param buffer Буфер с сообщением, начинающимся в текущей позиции
+   *
+   * @return Корневое значение
+   */
+  abstract JsonValue decodeBinary(ByteBuffer buffer);
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Обход дерева Jackson -- базовая реализация, с которой сравниваются сгенерированные классы.
+ * Читает все значения документа, так же как {@link Scenario#walk}.
+ *
+ * @author Mingun
+ */
+final class Tree {
+  private Tree() {}
+
+  /**
+   * Читает все скалярные значения поддерева.
+   *
+   * @param node Корень поддерева
+   * @param bh Потребитель прочитанных значений
+   */
+  static void walk(JsonNode node, Blackhole bh) {
+    switch (node.getNodeType()) {
+      case OBJECT:
+      case ARRAY:
+        for (final JsonNode child : node) {
+          walk(child, bh);
+        }
+        break;
+      case NUMBER:
+        if (node.isIntegralNumber()) {
+          bh.consume(node.longValue());
+        } else {
+          bh.consume(node.doubleValue());
+        }
+        break;
+      case STRING:
+        bh.consume(node.textValue());
+        break;
+      case BOOLEAN:
+        bh.consume(node.booleanValue());
+        break;
+      default:
+        bh.consume(node);
+        break;
+    }
+  }
+}
\ No newline at end of file
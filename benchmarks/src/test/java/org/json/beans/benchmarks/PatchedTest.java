@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.benchmarks;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonPatchException;
+import org.json.beans.benchmarks.model.Deep;
+import org.json.beans.benchmarks.model.ScalarArrays;
+import org.json.beans.benchmarks.model.Union;
+import org.json.beans.impl.ContentHash;
+import org.json.beans.impl.Encoder;
+import org.json.beans.impl.JsonWriter;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки JSON Patch (RFC 6902) и JSON Merge Patch (RFC 7386), применяемых сгенерированными
+ * версиями объектов {@code Patched}.
+ *
+ * @author Mingun
+ */
+public class PatchedTest {
+  private static final String DEEP = "{\"value\":0,\"name\":\"root\",\"level1\":{\"value\":1,\"name\":\"one\","
+    + "\"level2\":{\"value\":2,\"level3\":{\"value\":3,\"name\":\"three\"}}}}";
+
+  private static ByteBuffer json(String text) {
+    return ByteBuffer.wrap(text.getBytes(UTF_8));
+  }
+  private static Deep deep(String text) {
+    return Deep.Impl.DECODER.decode(json(text));
+  }
+  private static Deep patch(Deep target, String patch) {
+    return Deep.Patched.patch(target, json(patch), 0);
+  }
+  private static <T> void assertJson(String expected, Encoder<T> encoder, T actual) {
+    final ByteBuffer doc = ByteBuffer.wrap(JsonWriter.encode(encoder, actual));
+    assertTrue(ContentHash.equal(json(expected), 0, doc, 0), () -> expected + " != " + new String(doc.array(), UTF_8));
+  }
+
+  @Test
+  public void replacesNestedProperty() {
+    final Deep source = deep(DEEP);
+    final Deep result = patch(source, "[{\"op\":\"replace\",\"path\":\"/level1/level2/value\",\"value\":20}]");
+    assertEquals(20, result.getLevel1().getLevel2().getValueAsLong());
+    // Незатронутые поддеревья разделяются с исходным документом
+    assertSame(source.getName(), result.getName());
+    assertSame(source.getLevel1().getName(), result.getLevel1().getName());
+    assertSame(source.getLevel1().getLevel2().getLevel3(), result.getLevel1().getLevel2().getLevel3());
+    assertEquals(2, source.getLevel1().getLevel2().getValueAsLong());
+  }
+  @Test
+  public void copiesAndMovesProperties() {
+    final Deep source = deep(DEEP);
+    final Deep copied = patch(source, "[{\"op\":\"copy\",\"from\":\"/level1/level2/level3/name\",\"path\":\"/name\"}]");
+    assertEquals("three", copied.getName().value());
+    assertEquals("three", copied.getLevel1().getLevel2().getLevel3().getName().value());
+
+    final Deep moved = patch(source, "[{\"op\":\"move\",\"from\":\"/level1/name\",\"path\":\"/level1/level2/name\"}]");
+    assertNull(moved.getLevel1().getName());
+    assertEquals("one", moved.getLevel1().getLevel2().getName().value());
+    assertSame(source.getLevel1().getLevel2().getLevel3(), moved.getLevel1().getLevel2().getLevel3());
+
+    final Deep subtree = patch(source, "[{\"op\":\"copy\",\"from\":\"/level1/level2/level3\",\"path\":\"/level1/level2/level3/level4\"}]");
+    assertJson(
+      "{\"value\":3,\"name\":\"three\",\"level4\":{\"value\":3,\"name\":\"three\"}}",
+      Deep.Level1Type.Level2Type.Level3Type.Writer.ENCODER,
+      subtree.getLevel1().getLevel2().getLevel3()
+    );
+  }
+  @Test
+  public void rejectsMoveIntoOwnChild() {
+    final Deep source = deep(DEEP);
+    assertThrows(JsonPatchException.class, () -> patch(source, "[{\"op\":\"move\",\"from\":\"/level1\",\"path\":\"/level1/level2/level3/level4\"}]"));
+  }
+  @Test
+  public void treatsNullAsAbsent() {
+    final Deep absent = deep("{\"value\":1}");
+    final Deep nulled = deep("{\"value\":1,\"name\":null}");
+    patch(absent, "[{\"op\":\"test\",\"path\":\"/name\",\"value\":null}]");
+    patch(nulled, "[{\"op\":\"test\",\"path\":\"/name\",\"value\":null}]");
+    assertThrows(JsonPatchException.class, () -> patch(absent, "[{\"op\":\"test\",\"path\":\"/name\",\"value\":\"x\"}]"));
+    assertThrows(JsonPatchException.class, () -> patch(absent, "[{\"op\":\"remove\",\"path\":\"/name\"}]"));
+    assertThrows(JsonPatchException.class, () -> patch(absent, "[{\"op\":\"replace\",\"path\":\"/level1/value\",\"value\":2}]"));
+    assertEquals(absent, nulled);
+  }
+  @Test
+  public void decodesEscapesInPropertyNames() {
+    final JsonPatchException ex = assertThrows(JsonPatchException.class, () -> patch(
+      deep(DEEP),
+      "[{\"op\":\"add\",\"path\":\"/level1/na~1me~0\",\"value\":\"x\"}]"
+    ));
+    assertEquals("/level1/na~1me~0", ex.getPath());
+    assertTrue(ex.getMessage().contains("'na/me~'"), ex.getMessage());
+  }
+  @Test
+  public void patchesScalarArrays() {
+    final ScalarArrays source = ScalarArrays.Impl.DECODER.decode(json("{\"ids\":[1,2],\"values\":[],\"flags\":[true],\"labels\":[\"a\"]}"));
+    final ScalarArrays result = ScalarArrays.Patched.patch(source, json(
+      "[{\"op\":\"add\",\"path\":\"/ids/-\",\"value\":3},{\"op\":\"add\",\"path\":\"/ids/0\",\"value\":0},"
+      + "{\"op\":\"replace\",\"path\":\"/labels/0\",\"value\":\"b\"},{\"op\":\"remove\",\"path\":\"/flags/0\"}]"
+    ), 0);
+    assertJson("{\"ids\":[0,1,2,3],\"values\":[],\"flags\":[],\"labels\":[\"b\"]}", ScalarArrays.Writer.ENCODER, result);
+    assertSame(source.getValues(), result.getValues());
+    assertThrows(JsonPatchException.class, () -> ScalarArrays.Patched.patch(source, json("[{\"op\":\"remove\",\"path\":\"/ids/01\"}]"), 0));
+    assertThrows(JsonPatchException.class, () -> ScalarArrays.Patched.patch(source, json("[{\"op\":\"remove\",\"path\":\"/ids/-\"}]"), 0));
+    assertThrows(JsonPatchException.class, () -> ScalarArrays.Patched.patch(source, json("[{\"op\":\"add\",\"path\":\"/ids/3\",\"value\":0}]"), 0));
+  }
+  @Test
+  public void patchesArraysOfVariants() {
+    final Union source = Union.Impl.DECODER.decode(json(
+      "{\"events\":[{\"type\":\"click\",\"timestamp\":1,\"x\":5},{\"type\":\"key\",\"timestamp\":2,\"code\":\"A\"}]}"
+    ));
+    final Union result = Union.Patched.patch(source, json(
+      "[{\"op\":\"replace\",\"path\":\"/events/0/x\",\"value\":6},"
+      + "{\"op\":\"add\",\"path\":\"/events/-\",\"value\":{\"type\":\"blur\",\"timestamp\":3}}]"
+    ), 0);
+    assertJson(
+      "{\"events\":[{\"type\":\"click\",\"timestamp\":1,\"x\":6},{\"type\":\"key\",\"timestamp\":2,\"code\":\"A\"},{\"type\":\"blur\",\"timestamp\":3}]}",
+      Union.Writer.ENCODER,
+      result
+    );
+    assertSame(source.getEvents().value().get(1), result.getEvents().value().get(1));
+  }
+  @Test
+  public void mergesIntoAbsentTarget() {
+    final Deep merged = Deep.Patched.merge(null, json("{\"value\":1,\"level1\":{\"value\":2,\"name\":null}}"), 0);
+    assertJson("{\"value\":1,\"level1\":{\"value\":2}}", Deep.Writer.ENCODER, merged);
+    assertEquals(deep("{\"level1\":{\"value\":2},\"value\":1}"), merged);
+  }
+  @Test
+  public void mergesSharingUnchangedSubtrees() {
+    final Deep source = deep(DEEP);
+    final Deep merged = Deep.Patched.merge(source, json("{\"name\":null,\"level1\":{\"level2\":{\"name\":\"two\"}}}"), 0);
+    assertNull(merged.getName());
+    assertEquals("two", merged.getLevel1().getLevel2().getName().value());
+    assertSame(source.getLevel1().getName(), merged.getLevel1().getName());
+    assertSame(source.getLevel1().getLevel2().getLevel3(), merged.getLevel1().getLevel2().getLevel3());
+  }
+  @Test
+  public void rejectsUndeclaredMergeMembers() {
+    final Deep source = deep(DEEP);
+    final JsonPatchException ex = assertThrows(JsonPatchException.class, () -> Deep.Patched.merge(
+      source,
+      json("{\"level1\":{\"value\":5,\"extra\":1}}"),
+      0
+    ));
+    assertEquals("/extra", ex.getPath());
+  }
+  @Test
+  public void comparesVersionsByContent() {
+    final Deep source = deep(DEEP);
+    final Deep same = patch(source, "[{\"op\":\"test\",\"path\":\"/level1/value\",\"value\":1.0}]");
+    assertEquals(source, same);
+    assertEquals(same, source);
+    assertEquals(source.hashCode(), same.hashCode());
+
+    final Deep changed = source.withName(null);
+    assertNotEquals(source, changed);
+    assertEquals(deep("{\"value\":0,\"level1\":{\"value\":1,\"name\":\"one\",\"level2\":{\"value\":2,\"level3\":{\"value\":3,\"name\":\"three\"}}}}"), changed);
+    assertEquals(changed, Deep.Cursor.reusing().decode(json(
+      "{\"level1\":{\"value\":1,\"name\":\"one\",\"level2\":{\"value\":2,\"level3\":{\"value\":3,\"name\":\"three\"}}},\"value\":0}"
+    )));
+  }
+}
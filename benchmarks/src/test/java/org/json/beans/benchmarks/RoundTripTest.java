@@ -0,0 +1,192 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.json.beans.JsonValue;
+import org.json.beans.ValidationException;
+import org.json.beans.benchmarks.model.Deep;
+import org.json.beans.benchmarks.model.Flat;
+import org.json.beans.benchmarks.model.ScalarArrays;
+import org.json.beans.benchmarks.model.Union;
+import org.json.beans.benchmarks.model.Wide;
+import org.json.beans.impl.BinaryObject;
+import org.json.beans.impl.ContentHash;
+import org.json.beans.impl.Decoder;
+import org.json.beans.impl.JsonWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки того, что сгенерированные для схем {@link Scenario сценариев} классы {@code Impl},
+ * {@code Cursor}, {@code Writer}, {@code Binary} и {@code Validator} согласованы между собой:
+ * документ, прочитанный любым представлением и записанный обратно, совпадает с исходным по
+ * содержанию, а представления одного документа равны друг другу.
+ *
+ * @author Mingun
+ */
+public class RoundTripTest {
+  /** Количество документов, проверяемых для каждого сценария. */
+  private static final int DOCUMENTS = 8;
+
+  private static ByteBuffer json(String text) {
+    return ByteBuffer.wrap(text.getBytes(UTF_8));
+  }
+  private static ByteBuffer document(Scenario scenario, int seed) {
+    return json(scenario.document(new Random(seed)));
+  }
+  /** Записывает значение сгенерированным классом {@code Writer} сценария. */
+  private static ByteBuffer write(Scenario scenario, JsonValue value) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (JsonWriter out = new JsonWriter(bytes)) {
+      scenario.encode(out, value);
+    }
+    return ByteBuffer.wrap(bytes.toByteArray());
+  }
+  private static void assertSameJson(ByteBuffer expected, ByteBuffer actual) {
+    assertTrue(ContentHash.equal(expected, 0, actual, 0),
+      () -> new String(expected.array(), UTF_8) + " != " + new String(actual.array(), UTF_8)
+    );
+  }
+  private static void assertEqualViews(JsonValue expected, JsonValue actual) {
+    assertEquals(expected, actual);
+    assertEquals(actual, expected);
+    assertEquals(expected.hashCode(), actual.hashCode());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Scenario.class)
+  public void implWritesDocumentBack(Scenario scenario) throws IOException {
+    for (int seed = 0; seed < DOCUMENTS; ++seed) {
+      final ByteBuffer doc = document(scenario, seed);
+      final JsonValue value = scenario.decoder().decode(doc, 0);
+      final ByteBuffer written = write(scenario, value);
+      assertSameJson(doc, written);
+      assertEqualViews(value, scenario.decoder().decode(written, 0));
+    }
+  }
+  @ParameterizedTest
+  @EnumSource(Scenario.class)
+  public void cursorMatchesImpl(Scenario scenario) throws IOException {
+    final Decoder<? extends JsonValue> cursor = scenario.cursor();
+    for (int seed = 0; seed < DOCUMENTS; ++seed) {
+      final ByteBuffer doc = document(scenario, seed);
+      final JsonValue impl = scenario.decoder().decode(doc, 0);
+      final JsonValue view = cursor.decode(doc, 0);
+      assertEqualViews(impl, view);
+      // Курсор записывается по свойствам, а не копированием исходного текста
+      assertSameJson(doc, write(scenario, view));
+    }
+  }
+  @ParameterizedTest
+  @EnumSource(Scenario.class)
+  public void cursorIsRepositioned(Scenario scenario) {
+    final Decoder<? extends JsonValue> cursor = scenario.cursor();
+    final ByteBuffer first = document(scenario, 1);
+    final ByteBuffer second = document(scenario, 2);
+    final JsonValue view = cursor.decode(first, 0);
+    assertSame(view, cursor.decode(second, 0));
+    assertEqualViews(scenario.decoder().decode(second, 0), view);
+    assertNotEquals(scenario.decoder().decode(first, 0), view);
+  }
+  @ParameterizedTest
+  @EnumSource(Scenario.class)
+  public void binaryKeepsDocument(Scenario scenario) throws IOException {
+    for (int seed = 0; seed < DOCUMENTS; ++seed) {
+      final ByteBuffer doc = document(scenario, seed);
+      final JsonValue value = scenario.decoder().decode(doc, 0);
+      final byte[] message = scenario.encodeBinary(value);
+      // Элементы oneOf не имеют собственных свойств и записываются текстом JSON
+      if (scenario != Scenario.UNION) {
+        assertTrue(message.length < doc.remaining(), () -> message.length + " >= " + doc.remaining());
+      }
+
+      final JsonValue decoded = scenario.decodeBinary(ByteBuffer.wrap(message));
+      // Сообщение читается на месте, без перевода в JSON
+      assertTrue(decoded instanceof BinaryObject, () -> decoded.getClass().getName());
+      assertEqualViews(value, decoded);
+      assertSameJson(doc, write(scenario, decoded));
+      // Курсор записывается так же, как ленивая реализация
+      assertEquals(ByteBuffer.wrap(message), ByteBuffer.wrap(scenario.encodeBinary(scenario.cursor().decode(doc, 0))));
+    }
+  }
+  @ParameterizedTest
+  @EnumSource(Scenario.class)
+  public void validatorAcceptsDocuments(Scenario scenario) throws IOException {
+    for (int seed = 0; seed < DOCUMENTS; ++seed) {
+      final ByteBuffer doc = document(scenario, seed);
+      scenario.validate(doc);
+      scenario.validate(write(scenario, scenario.cursor().decode(doc, 0)));
+    }
+  }
+
+  @Test
+  public void validatorRejectsFlatDocuments() {
+    Flat.Validator.validate(json("{\"id\":1,\"name\":\"x\"}"), 0);
+    for (final String doc : new String[] {
+      "{\"name\":\"x\"}",
+      "{\"id\":0,\"name\":\"x\"}",
+      "{\"id\":1.5,\"name\":\"x\"}",
+      "{\"id\":1,\"name\":\"\"}",
+      "{\"id\":1,\"name\":\"x\",\"price\":-1}",
+      "{\"id\":1,\"name\":\"x\",\"category\":\"food\"}",
+      "{\"id\":1,\"name\":\"x\",\"rating\":5.5}",
+      "{\"id\":1,\"name\":\"x\",\"sku\":\"abc-123456\"}",
+      "[]",
+    }) {
+      assertThrows(ValidationException.class, () -> Flat.Validator.validate(json(doc), 0), doc);
+    }
+  }
+  @Test
+  public void validatorRejectsNestedDocuments() {
+    assertThrows(ValidationException.class, () -> Deep.Validator.validate(json("{}"), 0));
+    assertThrows(ValidationException.class, () -> Deep.Validator.validate(json("{\"value\":1,\"level1\":{\"value\":\"1\"}}"), 0));
+    assertThrows(ValidationException.class, () -> Wide.Validator.validate(json("{\"field00\":1}"), 0));
+    assertThrows(ValidationException.class, () -> Wide.Validator.validate(json("{\"field00\":1,\"field63\":1}"), 0));
+    assertThrows(ValidationException.class, () -> ScalarArrays.Validator.validate(
+      json("{\"ids\":[1,\"2\"],\"values\":[],\"flags\":[],\"labels\":[]}"), 0
+    ));
+    assertThrows(ValidationException.class, () -> ScalarArrays.Validator.validate(
+      json("{\"ids\":[],\"values\":[],\"flags\":[1],\"labels\":[]}"), 0
+    ));
+  }
+  @Test
+  public void validatorRejectsUnknownVariants() {
+    Union.Validator.validate(json("{\"events\":[{\"type\":\"click\",\"timestamp\":1,\"x\":2,\"y\":3}]}"), 0);
+    assertThrows(ValidationException.class, () -> Union.Validator.validate(json("{\"events\":[{\"type\":\"tap\",\"timestamp\":1}]}"), 0));
+    assertThrows(ValidationException.class, () -> Union.Validator.validate(json("{\"events\":[{\"type\":\"click\"}]}"), 0));
+    assertThrows(ValidationException.class, () -> Union.Validator.validate(json("{\"events\":{}}"), 0));
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import net.jimblackler.jsonschemafriend.Schema;
+import net.jimblackler.jsonschemafriend.SchemaStore;
+
+/**
+ * Генерация классов для множества файлов схем в дерево исходного кода. Каждый файл обрабатывается
+ * отдельным {@link Generator генератором} в пуле потоков ограниченного размера. Все схемы
+ * загружаются через общий {@link SchemaStore}, поэтому схемы, на которые ссылаются несколько файлов,
+ * загружаются один раз. Загрузка выполняется под блокировкой хранилища, так как оно не потокобезопасно,
+ * а генерация и вывод кода, занимающие основное время, -- параллельно.
+ * <p>
+ * Каждый класс записывается в отдельный файл; файлы, содержимое которых не изменилось, не
+ * перезаписываются.
+ *
+ * @author Mingun
+ */
+public final class BatchGenerator {
+  /** Генерировать ли классы {@code Validator}. */
+  private final boolean validators;
+  /** Пакет для сгенерированных классов или {@code null} для пакета по умолчанию. */
+  private final String packageName;
+  /** Максимальное количество файлов, обрабатываемых одновременно. */
+  private final int threads;
+
+  /**
+   * Создает генератор.
+   *
+   * @param validators Если {@code true}, то генерируются также классы {@code Validator}
+   * @param packageName Пакет, в котором генерируются классы, или {@code null} для пакета по умолчанию
+   * @param threads Максимальное количество файлов, обрабатываемых одновременно
+   */
+  public BatchGenerator(boolean validators, String packageName, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive: " + threads);
+    }
+    this.validators = validators;
+    this.packageName = packageName;
+    this.threads = threads;
+  }
+
+  /**
+   * Находит файлы схем. Каждый элемент {@code inputs} может быть:
+   * <ul>
+   * <li>файлом -- используется как есть</li>
+   * <li>каталогом -- используются все файлы {@code *.json} в нем и его подкаталогах</li>
+   * <li>шаблоном в синтаксисе {@link FileSystems#getPathMatcher glob}, например,
+   *     {@code schemas/api-*.json} -- шаблон применяется к путям относительно последнего
+   *     каталога до первого спецсимвола шаблона</li>
+   * </ul>
+   *
+   * @param inputs Файлы, каталоги и шаблоны
+   *
+   * @return Найденные файлы без повторов, в лексикографическом порядке
+   *
+   * @throws NoSuchFileException Если файл, каталог или шаблон не соответствует ни одному файлу
+   * @throws IOException Если при просмотре каталогов возникла ошибка
+   */
+  public static List<Path> find(Collection<String> inputs) throws IOException {
+    final Set<Path> result = new TreeSet<>();
+    for (final String input : inputs) {
+      final int size = result.size();
+      int glob = -1;
+      for (int i = 0; i < input.length() && glob < 0; ++i) {
+        if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+          glob = i;
+        }
+      }
+      if (glob < 0) {
+        final Path path = Paths.get(input);
+        if (Files.isDirectory(path)) {
+          try (Stream<Path> files = Files.walk(path)) {
+            files.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".json")).forEach(result::add);
+          }
+        } else
+        if (Files.exists(path)) {
+          result.add(path);
+        }
+      } else {
+        final int slash = Math.max(input.lastIndexOf('/', glob), input.lastIndexOf(File.separatorChar, glob));
+        final Path base = Paths.get(slash < 0 ? "" : input.substring(0, slash + 1));
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input.substring(slash + 1));
+        final Path dir = slash < 0 ? Paths.get(".") : base;
+        if (Files.isDirectory(dir)) {
+          try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(p -> Files.isRegularFile(p) && matcher.matches(dir.relativize(p)))
+              .forEach(p -> result.add(base.resolve(dir.relativize(p))));
+          }
+        }
+      }
+      if (result.size() == size) {
+        throw new NoSuchFileException(input, null, "no schema files found");
+      }
+    }
+    return new ArrayList<>(result);
+  }
+
+  /**
+   * Генерирует классы для схем и записывает их в дерево исходного кода.
+   *
+   * @param files Файлы схем
+   * @param output Корневой каталог исходного кода
+   *
+   * @return Для каждого файла схемы, в порядке {@code files}, -- пути выведенных для нее файлов
+   *         относительно {@code output}, включая файлы, которые не перезаписывались, так как их
+   *         содержимое не изменилось
+   *
+   * @throws Exception Ошибка обработки первого из файлов, для которых она возникла; ошибки остальных
+   *         файлов добавляются к ней как {@link Throwable#getSuppressed() подавленные}
+   */
+  public Map<Path, Set<Path>> generate(Collection<Path> files, Path output) throws Exception {
+    final Map<Path, Set<Path>> produced = new LinkedHashMap<>();
+    final SourceTree tree = new SourceTree(output);
+    if (files.isEmpty()) {
+      // Файлы служб все равно приводятся в соответствие с деревом, из которого могли удалить классы
+      tree.finish();
+      return produced;
+    }
+
+    final SchemaStore store = new SchemaStore();
+    final ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+    try {
+      final List<Future<?>> tasks = new ArrayList<>(files.size());
+      for (final Path file : files) {
+        final Set<Path> outputs = new TreeSet<>();
+        produced.put(file, outputs);
+        tasks.add(pool.submit(() -> {
+          final Schema schema;
+          synchronized (store) {
+            schema = store.loadSchema(file.toFile());
+          }
+          new Generator(validators, packageName).generate(schema, tree.writer(outputs));
+          return null;
+        }));
+      }
+      Exception failure = null;
+      int i = 0;
+      for (final Path file : files) {
+        try {
+          tasks.get(i++).get();
+        } catch (ExecutionException ex) {
+          final Exception e = new IOException("Cannot generate classes for " + file, ex.getCause());
+          if (failure == null) {
+            failure = e;
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      tree.finish();
+      return produced;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
\ No newline at end of file
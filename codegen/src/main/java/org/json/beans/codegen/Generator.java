@@ -27,27 +27,123 @@ import com.helger.jcodemodel.AbstractJClass;
 import com.helger.jcodemodel.AbstractJType;
 import com.helger.jcodemodel.EClassType;
 import com.helger.jcodemodel.IJClassContainer;
+import com.helger.jcodemodel.IJExpression;
+import com.helger.jcodemodel.JBlock;
+import com.helger.jcodemodel.JArray;
+import com.helger.jcodemodel.JCatchBlock;
 import com.helger.jcodemodel.JClassAlreadyExistsException;
 import com.helger.jcodemodel.JCodeModel;
+import com.helger.jcodemodel.JConditional;
 import com.helger.jcodemodel.JDefinedClass;
+import com.helger.jcodemodel.JEnumConstant;
+import com.helger.jcodemodel.JExpr;
+import com.helger.jcodemodel.JForEach;
+import com.helger.jcodemodel.JFieldVar;
+import com.helger.jcodemodel.JForLoop;
+import com.helger.jcodemodel.JInvocation;
+import com.helger.jcodemodel.JJavaName;
+import com.helger.jcodemodel.JLambda;
+import com.helger.jcodemodel.JLambdaMethodRef;
+import com.helger.jcodemodel.JLambdaParam;
+import com.helger.jcodemodel.JMethod;
 import com.helger.jcodemodel.JMod;
+import com.helger.jcodemodel.JOp;
+import com.helger.jcodemodel.JPackage;
+import com.helger.jcodemodel.JSwitch;
+import com.helger.jcodemodel.JTryBlock;
+import com.helger.jcodemodel.JVar;
+import com.helger.jcodemodel.fmt.JTextFile;
+import com.helger.jcodemodel.writer.AbstractCodeWriter;
 import com.helger.jcodemodel.writer.JCMWriter;
 import com.helger.jcodemodel.writer.OutputStreamCodeWriter;
 import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
 import net.jimblackler.jsonschemafriend.Schema;
 import net.jimblackler.jsonschemafriend.SchemaStore;
+import org.json.beans.JsonArray;
 import org.json.beans.JsonBoolean;
+import org.json.beans.JsonBooleanArray;
+import org.json.beans.JsonDoubleArray;
 import org.json.beans.JsonInteger;
+import org.json.beans.JsonLongArray;
 import org.json.beans.JsonNull;
 import org.json.beans.JsonNumber;
+import org.json.beans.JsonParseException;
+import org.json.beans.JsonPatchException;
 import org.json.beans.JsonScalar;
 import org.json.beans.JsonString;
+import org.json.beans.JsonStringArray;
+import org.json.beans.JsonValue;
+import org.json.beans.ValidationException;
+import org.json.beans.impl.BinaryArray;
+import org.json.beans.impl.BinaryBoolean;
+import org.json.beans.impl.BinaryBooleanArray;
+import org.json.beans.impl.BinaryDoubleArray;
+import org.json.beans.impl.BinaryInteger;
+import org.json.beans.impl.BinaryLongArray;
+import org.json.beans.impl.BinaryNumber;
+import org.json.beans.impl.BinaryObject;
+import org.json.beans.impl.BinaryReader;
+import org.json.beans.impl.BinaryString;
+import org.json.beans.impl.BinaryStringArray;
+import org.json.beans.impl.BinaryValue;
+import org.json.beans.impl.BinaryWriter;
+import org.json.beans.impl.BooleanColumn;
+import org.json.beans.impl.CodecProvider;
+import org.json.beans.impl.CodecRegistry;
+import org.json.beans.impl.ColumnTable;
+import org.json.beans.impl.ContentHash;
+import org.json.beans.impl.CursorArray;
+import org.json.beans.impl.CursorObject;
+import org.json.beans.impl.Decoder;
+import org.json.beans.impl.DoubleColumn;
+import org.json.beans.impl.Encoder;
+import org.json.beans.impl.JsonPatch;
+import org.json.beans.impl.JsonReader;
+import org.json.beans.impl.JsonWriter;
+import org.json.beans.impl.KeyMatcher;
+import org.json.beans.impl.LazyArray;
+import org.json.beans.impl.LazyBoolean;
+import org.json.beans.impl.LazyBooleanArray;
+import org.json.beans.impl.LazyDoubleArray;
+import org.json.beans.impl.LazyInteger;
+import org.json.beans.impl.LazyLongArray;
+import org.json.beans.impl.LazyNumber;
+import org.json.beans.impl.LazyObject;
+import org.json.beans.impl.LazyString;
+import org.json.beans.impl.LazyStringArray;
+import org.json.beans.impl.LazyValue;
+import org.json.beans.impl.LongColumn;
+import org.json.beans.impl.MergePatch;
+import org.json.beans.impl.PersistentObject;
+import org.json.beans.impl.Probe;
+import org.json.beans.impl.Projection;
+import org.json.beans.impl.StringColumn;
+import org.json.beans.impl.Validation;
 
 /**
  *
@@ -56,161 +152,3466 @@ import org.json.beans.JsonString;
 public class Generator {
   /** Генератор Java кода. */
   private final JCodeModel model = new JCodeModel();
+  /** Генерировать ли для типов классы {@code Validator}, проверяющие документ на соответствие схеме. */
+  private final boolean validation;
+  /** Пакет, в котором генерируются классы верхнего уровня. */
+  private final JPackage target;
+  /** Интерфейсы объектов и перечисления, сгенерированные для схем. */
+  private final Map<Schema, JDefinedClass> classes = new LinkedHashMap<>();
+  /**
+   * Сгенерированные интерфейсы объектов и сведения о них, необходимые для генерации реализаций.
+   * Перечисления сюда не попадают.
+   */
+  private final Map<JDefinedClass, Bean> beans = new LinkedHashMap<>();
+  /** Сгенерированные классы {@code Writer} интерфейсов объектов и перечислений. */
+  private final Map<JDefinedClass, JDefinedClass> writers = new HashMap<>();
+  /** Сгенерированные классы {@code Binary} интерфейсов объектов. */
+  private final Map<JDefinedClass, JDefinedClass> binaries = new HashMap<>();
+  /** Допустимые значения перечислений в порядке объявления их констант. */
+  private final Map<JDefinedClass, List<Object>> enumValues = new HashMap<>();
+  /** Сопоставители литералов перечислений с номерами различных литералов. */
+  private final Map<JDefinedClass, JFieldVar> enumLiterals = new HashMap<>();
+  /** Сгенерированные классы {@code Validator} интерфейсов объектов и перечислений. */
+  private final Map<JDefinedClass, JDefinedClass> validators = new HashMap<>();
+  /**
+   * Типы, построенные для схем, объявленных в {@code $defs}/{@code definitions}. Каждая такая схема
+   * генерируется один раз, сколько бы раз на нее ни ссылались.
+   */
+  private final Map<Schema, AbstractJClass> definitions = new HashMap<>();
+  /** Имена методов, уже объявленных в каждом интерфейсе объекта. */
+  private final Map<JDefinedClass, Set<String>> methods = new HashMap<>();
+  /**
+   * Интерфейсы объектов, объявленные, но еще не заполненные методами. Интерфейсы заполняются по
+   * очереди, а не рекурсивно, чтобы длинные цепочки ссылок между схемами не переполняли стек.
+   */
+  private final Deque<JDefinedClass> pending = new ArrayDeque<>();
+
+  public Generator() {
+    this(false);
+  }
+  /**
+   * Создает генератор.
+   *
+   * @param validators Если {@code true}, то для каждого интерфейса объекта и перечисления также
+   *        генерируется класс {@code Validator}, проверяющий соответствие документа схеме
+   */
+  public Generator(boolean validators) {
+    this(validators, null);
+  }
+  /**
+   * Создает генератор.
+   *
+   * @param validators Если {@code true}, то для каждого интерфейса объекта и перечисления также
+   *        генерируется класс {@code Validator}, проверяющий соответствие документа схеме
+   * @param packageName Пакет, в котором генерируются классы, или {@code null} для пакета по умолчанию
+   */
+  public Generator(boolean validators, String packageName) {
+    this.validation = validators;
+    this.target = packageName == null ? model.rootPackage() : model._package(packageName);
+  }
 
+  /**
+   * Генерирует классы для схем из файлов. Аргументы командной строки:
+   * <pre>
+   * [--validators] [--package &lt;name&gt;] [--output &lt;directory&gt; [--threads &lt;count&gt;]] &lt;schema&gt;...
+   * </pre>
+   * Схемы задаются файлами, каталогами или шаблонами, см. {@link BatchGenerator#find}. Без
+   * {@code --output} исходный код выводится в стандартный поток вывода, иначе файлы схем
+   * обрабатываются параллельно в {@code --threads} потоков (по умолчанию -- по количеству
+   * процессоров), а классы записываются в указанный каталог по одному в файл.
+   *
+   * @param args Аргументы командной строки
+   *
+   * @throws Exception Если схему не удалось загрузить или записать сгенерированный код
+   */
   public static void main(String[] args) throws Exception {
-    final SchemaStore store = new SchemaStore();
+    boolean validators = false;
+    String packageName = null;
+    Path output = null;
+    int threads = Runtime.getRuntime().availableProcessors();
+    final List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < args.length; ++i) {
+      final String arg = args[i];
+      if ("--validators".equals(arg)) {
+        validators = true;
+      } else
+      if ("--package".equals(arg)) {
+        packageName = args[++i];
+      } else
+      if ("--output".equals(arg)) {
+        output = Paths.get(args[++i]);
+      } else
+      if ("--threads".equals(arg)) {
+        threads = Integer.parseInt(args[++i]);
+      } else {
+        inputs.add(arg);
+      }
+    }
+    final List<Path> files = BatchGenerator.find(inputs);
+    if (output == null) {
+      final SchemaStore store = new SchemaStore();
+      for (final Path file : files) {
+        new Generator(validators, packageName).generate(store.loadSchema(file.toFile()));
+      }
+    } else {
+      new BatchGenerator(validators, packageName, threads).generate(files, output);
+    }
+  }
+  /**
+   * Генерирует классы для схемы и выводит их исходный код в стандартный поток вывода.
+   *
+   * @param schema Схема всего JSON документа
+   *
+   * @throws Exception Если схема не может быть представлена классами или код не удалось записать
+   */
+  public void generate(Schema schema) throws Exception {
+    generate(schema, new OutputStreamCodeWriter(System.out, UTF_8));
+  }
+  /**
+   * Генерирует классы для схемы и записывает их исходный код в каталог, раскладывая файлы по
+   * каталогам пакетов. Файлы, содержимое которых не изменилось, не перезаписываются.
+   *
+   * @param schema Схема всего JSON документа
+   * @param directory Корневой каталог исходного кода
+   *
+   * @throws Exception Если схема не может быть представлена классами или код не удалось записать
+   */
+  public void generate(Schema schema, File directory) throws Exception {
+    final SourceTree tree = new SourceTree(directory.toPath());
+    generate(schema, tree);
+    tree.finish();
+  }
+  /**
+   * Генерирует классы для схемы и передает их исходный код указанному получателю.
+   *
+   * @param schema Схема всего JSON документа
+   * @param output Получатель исходного кода
+   *
+   * @return Тип, представляющий весь документ: сгенерированный класс или класс библиотеки, если
+   *         документ -- скалярное значение или массив
+   *
+   * @throws Exception Если схема не может быть представлена классами или код не удалось записать
+   */
+  public AbstractJClass generate(Schema schema, AbstractCodeWriter output) throws Exception {
+    // Имя класса документа -- имя файла схемы без расширения
+    final String file = Paths.get(schema.getUri().getPath()).getFileName().toString();
+    final int dot = file.lastIndexOf('.');
+    final String name = toTitleCase(dot > 0 ? file.substring(0, dot) : file);
+    final AbstractJClass root = generateTopLevel(name, schema);
+
+    for (final Schema s : schema.getSubSchemas().values()) {
+      if (isTopLevel(s)) {
+        generateTopLevel(className(s), s);
+      }
+    }
+    while (!pending.isEmpty()) {
+      generateBean(pending.poll());
+    }
+    // Реализации при выборе варианта перебором используют валидаторы, поэтому они объявляются заранее
+    if (validation) {
+      declareValidators();
+    }
+    generateImplementations();
+    generateCursors();
+    generateWriters();
+    generateBinaries();
+    generateVersions();
+    generateEquality();
+    generateColumns();
+    if (validation) {
+      generateValidators();
+    }
+    generateRegistry(root, name);
+
+    final JCMWriter writer = new JCMWriter(model);
+    writer.build(output);
+    return root;
+  }
+  /**
+   * Генерирует класс, у которого в схеме явно задано собственное имя, либо класс для схемы всего
+   * JSON документа. Кроме того, добавляет классам аннотации с информацией о схеме, из которой они
+   * были сгенерированы (для внутренних классов эта информация очевидна -- она находится в их корневом
+   * охватывающем классе)
+   *
+   * @param className Имя генерируемого класса
+   * @param schema Схема, для которой генерируется класс
+   *
+   * @return Созданный класс
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
+   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
+   *         генератору
+   */
+  private AbstractJClass generateTopLevel(String className, Schema schema) throws JClassAlreadyExistsException {
+    AbstractJClass clazz = definitions.get(schema);
+    if (clazz == null) {
+      clazz = generate(target, className, false, schema);
+      definitions.put(schema, clazz);
+    }
+    return clazz;
+  }
+  /**
+   * Генерирует класс, представляющий тип, описываемый схемой
+   *
+   * @param container Объект, внутри которого ненерировать новые классы
+   * @param baseClassName Базовое имя для класса. Реальное может быть сформировано путем добавление суффикса
+   * @param inner Если класс внутренний, то кего имени добавится суффикс {@code Type} или {@code Enum}.
+   *        Внутренние классы используются для схем, не объявленных на верхнем уровне
+   * @param schema Схема, для которой генерируется класс
+   *
+   * @return Созданный класс
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
+   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
+   *         генератору
+   */
+  private AbstractJClass generate(IJClassContainer<JDefinedClass> container, String baseClassName, boolean inner, Schema schema) throws JClassAlreadyExistsException {
+    final List<Object> enums = schema.getEnums();
+    final Collection<String> types = schema.getExplicitTypes();
+    // Если тип не является перечислением и содержит только один элемент, описывающий скаляр,
+    // либо два элемента, один из которых скаляр, а другой -- "null", то генерация класса не требуется,
+    // используем встроенный тип
+    if (enums == null && types != null) {
+      final Class<?> scalar = toScalar(types);
+      if (scalar != null) {
+        return model.ref(scalar);
+      }
+      // Массивы также представляются встроенным типом, параметризованным типом элементов.
+      // Для массивов скаляров используются специализированные типы, хранящие примитивы
+      if (isArray(types)) {
+        final Schema items = schema.getItems();
+        final AbstractJClass item = items == null
+          ? model.ref(JsonValue.class)
+          : generate(container, schema, items, baseClassName + "Item");
+        final Class<? extends JsonArray<?>> array = toScalarArray(item);
+        return array != null ? model.ref(array) : model.ref(JsonArray.class).narrow(item);
+      }
+    }
+
+    final JDefinedClass clazz = container._class(
+        JMod.PUBLIC,
+        inner ? baseClassName + (enums != null ? "Enum" : "Type") : baseClassName,
+        enums != null ? EClassType.ENUM : EClassType.INTERFACE
+    );
+    clazz._implements(JsonValue.class);
+    classes.put(schema, clazz);
+    if (enums != null) {
+      generateEnum(clazz, enums);
+      return clazz;
+    }
+    final Bean bean = new Bean();
+    bean.schema = schema;
+    beans.put(clazz, bean);
+    // Методы интерфейса генерируются позже, поэтому ссылки на еще не заполненный интерфейс допустимы
+    pending.add(clazz);
+    return clazz;
+  }
+  /**
+   * Генерирует методы интерфейса объекта: методы получения вариантов, наследование от схем
+   * {@code allOf} и методы доступа к свойствам. Типы, на которые ссылаются методы, объявляются,
+   * но не заполняются -- они ставятся в очередь {@link #pending}.
+   *
+   * @param clazz Объявленный интерфейс объекта
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
+   *         схемы, т.к. все имена будут уникальными
+   */
+  private void generateBean(JDefinedClass clazz) throws JClassAlreadyExistsException {
+    final Bean bean = beans.get(clazz);
+    final Schema schema = bean.schema;
+
+    generateVariant(schema, schema.getOneOf(), clazz);
+    generateVariant(schema, schema.getAnyOf(), clazz);
+    if (choices(schema) != null) {
+      bean.matching = clazz.method(JMod.PUBLIC, JsonValue.class, resolveCollision(clazz, "asVariant"));
+    }
+
+    // Если значение удовлетворяет всем схемам одновременно, то оно может быть представлено как любой
+    // из типов для этой схемы, и следовательно, можно просто сгенерировать класс, наследующий от
+    // всех схем сразу
+    final Collection<Schema> allOf = schema.getAllOf();
+    if (allOf != null) {
+      int i = 0;
+      for (final Schema s : allOf) {
+        clazz._implements(generate(clazz, schema, s, "Variant" + i++));
+      }
+    }
+
+    // Обходим все пары "название свойства" -> "схема валидации" и генерируем методы доступа.
+    for (final Map.Entry<String, Schema> e : schema.getProperties().entrySet()) {
+      final String prop = e.getKey();
+      final Schema s = e.getValue();
+      final AbstractJClass cls = generate(clazz, schema, s, toTitleCase(prop));
+
+      final Property property = new Property(prop, clazz.method(JMod.PUBLIC, cls, resolveCollision(clazz, getterName(prop))));
+      final Primitive primitive = Primitive.of(cls);
+      if (primitive != null) {
+        generatePrimitive(clazz, property, primitive);
+      }
+      bean.properties.add(property);
+    }
+  }
+  /**
+   * Генерирует для свойства скалярного типа методы доступа, не создающие объектов: метод проверки
+   * наличия свойства {@code has<Имя>()} и геттер {@code get<Имя>As<Тип>()}, возвращающий примитив.
+   * В интерфейсе методы реализуются через обычный геттер, а ленивые реализации переопределяют их,
+   * читая значение прямо из буфера.
+   *
+   * @param clazz Интерфейс, в котором генерируются методы
+   * @param property Свойство, для которого генерируются методы
+   * @param primitive Примитивное представление типа свойства
+   */
+  private void generatePrimitive(JDefinedClass clazz, Property property, Primitive primitive) {
+    final JMethod getter = property.getter;
+
+    property.has = clazz.method(JMod.PUBLIC | JMod.DEFAULT, model.BOOLEAN, resolveCollision(clazz, "has" + toTitleCase(property.name)));
+    property.has.body()._return(JExpr.invoke(getter).neNull());
+
+    property.primitive = clazz.method(JMod.PUBLIC | JMod.DEFAULT, model._ref(primitive.type), resolveCollision(clazz, getter.name() + primitive.suffix));
+    final JBlock body = property.primitive.body();
+    final JVar value = body.decl(JMod.FINAL, getter.type(), "value", JExpr.invoke(getter));
+    body._if(value.eqNull())._then()._throw(JExpr._new(model.ref(NoSuchElementException.class))
+      .arg(JExpr.lit("Property '" + property.name + "' is absent or null"))
+    );
+    body._return(value.invoke(primitive.accessor));
+  }
+  /**
+   * Заполняет перечисление константами для каждого из допустимых значений и генерирует статический
+   * метод {@code decode(ByteBuffer, int)}, возвращающий константу для значения, записанного в буфере.
+   *
+   * @param clazz Перечисление, в котором генерируются константы
+   * @param enums Допустимые значения из ключа {@code "enum"} JSON Schema
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. константы
+   *         перечисления именуются в {@code UPPER_SNAKE_CASE}
+   */
+  private void generateEnum(JDefinedClass clazz, List<Object> enums) throws JClassAlreadyExistsException {
+    final JMethod decode = clazz.method(JMod.PUBLIC | JMod.STATIC, clazz, "decode");
+    final JVar buffer = decode.param(JMod.FINAL, ByteBuffer.class, "buffer");
+    final JVar offset = decode.param(JMod.FINAL, model.INT, "offset");
+
+    final Set<String> names = new HashSet<>();
+    final Set<String> literals = new LinkedHashSet<>();
+    final List<JEnumConstant> constants = new ArrayList<>();
+    for (final Object value : enums) {
+      final JEnumConstant constant = clazz.enumConstant(constantName(String.valueOf(value), names));
+      // Значения, неразличимые в текстовом виде (например, "1" и 1), отображаются на первую константу
+      if (literals.add(String.valueOf(value))) {
+        constants.add(constant);
+      }
+    }
+    // Значение сравнивается с литералами по байтам документа, поэтому строка для него не создается
+    final JFieldVar matcher = clazz.field(
+      JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+      KeyMatcher.class,
+      unique("LITERALS", names),
+      literals(literals)
+    );
+    final JSwitch cases = decode.body()._switch(
+      model.ref(JsonReader.class).staticInvoke("matchLiteral").arg(buffer).arg(offset).arg(matcher)
+    );
+    for (int i = 0; i < constants.size(); ++i) {
+      cases._case(JExpr.lit(i)).body()._return(constants.get(i));
+    }
+    decode.body()._throw(JExpr._new(model.ref(JsonParseException.class))
+      .arg(JExpr.lit("Unexpected value of " + clazz.name()))
+      .arg(offset)
+    );
+    enumValues.put(clazz, enums);
+    enumLiterals.put(clazz, matcher);
+    generateEnumWriter(clazz, enums);
+  }
+  /**
+   * Генерирует в перечислении класс {@code Writer}, записывающий константы заранее закодированными
+   * в UTF-8 литералами, выбираемыми по порядковому номеру константы.
+   *
+   * @param clazz Перечисление
+   * @param enums Допустимые значения из ключа {@code "enum"} JSON Schema в порядке объявления констант
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. константы
+   *         перечисления именуются в {@code UPPER_SNAKE_CASE}
+   */
+  private void generateEnumWriter(JDefinedClass clazz, List<Object> enums) throws JClassAlreadyExistsException {
+    final JDefinedClass writer = declareWriter(clazz);
+    final JArray literals = JExpr.newArray(model.BYTE.array());
+    for (final Object value : enums) {
+      final String json = value instanceof String ? JsonWriter.quote((String)value) : String.valueOf(value);
+      literals.add(JExpr.lit(json).invoke("getBytes").arg(model.ref(StandardCharsets.class).staticRef("UTF_8")));
+    }
+    final JFieldVar field = writer.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, model.BYTE.array().array(), "LITERALS", literals);
+
+    final JMethod write = writeMethod(writer, clazz);
+    write.body().add(write.params().get(0).invoke("raw").arg(field.component(write.params().get(1).invoke("ordinal"))));
+  }
+  /**
+   * Генерирует набор методов получение представления объекта в виде одного из типов, соответствующих
+   * схемам в {@code variants}.
+   *
+   * @param parent Схема, в контексте которой осуществляется генерация
+   * @param variants Коллекция схем, для которых необходиом сгенерировать в классе {@code clazz}
+   *        геттеры вида {@code as<имя>}
+   * @param clazz Класс, в котором генерируются методы
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
+   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
+   *         генератору
+   */
+  private void generateVariant(Schema parent, Collection<Schema> variants, JDefinedClass clazz) throws JClassAlreadyExistsException {
+    if (variants != null) {
+      int i = 0;
+      for (final Schema schema : variants) {
+        // Базовое имя для типа, представляющего безымянную схему, объявленную по месту
+        String name = "Variant" + i++;
+        final AbstractJClass type = generate(clazz, parent, schema, name);
+        // Если схема была объявлена по месту и не является примитивной (такой, как { type: "string" }),
+        // то полученный тип будет объявлен внутри класса и мы будет использовать имя VariantN.
+        // В противном случае используем имя класса
+        if (!(type instanceof JDefinedClass) || ((JDefinedClass)type).outer() != clazz) {
+          name = type.name();
+        }
+
+        name = resolveCollision(clazz, "as" + name);
+        beans.get(clazz).variants.add(clazz.method(JMod.PUBLIC, type, name));
+      }
+    }
+  }
+  /**
+   * Генерирует класс для схемы {@code schema} вложенной в схему {@code parent}. Если схема является
+   * безымянной и не тривиальной, то сгенерированный класс также будет внутри класса {@code container}.
+   *
+   * @param container Класс или пакет, в котором генерировать новый класс, если {@code schema} является
+   *        вложенной в {@code parent}
+   * @param parent Схема, в контексте которой осуществляется генерация
+   * @param schema Схема, для которой осуществляется генерация класса
+   * @param baseClassName Базовое имя для вложенного класса. Реальное может быть сформировано путем
+   *        добавление суффикса {@code Type} или {@code Enum}
+   *
+   * @return Созданный класс
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
+   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
+   *         генератору
+   */
+  private AbstractJClass generate(IJClassContainer<JDefinedClass> container, Schema parent, Schema schema, String baseClassName) throws JClassAlreadyExistsException {
+    // Если схема объявлена по-месту, то делаем вложенный класс
+    if (schema.getParent() == parent) {
+      return generate(container, baseClassName, true, schema);
+    }
+    // Иначе схема объявлена в разделе "$defs" или "definitions" (в зависимости от версии стандарта)
+    // поэтому генерируем ее на верхнем уровне
+    return generateTopLevel(className(schema), schema);
+  }
+
+  /**
+   * Генерирует для каждого интерфейса объекта вложенный класс {@code Impl} -- ленивую реализацию
+   * интерфейса поверх буфера с JSON документом. Реализация при создании строит только индекс
+   * позиций значений свойств, а каждое свойство декодирует при первом обращении к его геттеру.
+   * <p>
+   * Так как реализации ссылаются друг на друга, сначала объявляются все классы, и только потом
+   * генерируются их тела.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void generateImplementations() throws JClassAlreadyExistsException {
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      // Типы, наследующие от встроенных типов (например, через "allOf"), не могут быть объектами
+      if (collect(e.getKey(), new LinkedHashMap<>(), new LinkedHashMap<>())) {
+        e.getValue().impl = e.getKey()._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Impl");
+      }
+    }
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl != null) {
+        generateImpl(e.getKey(), e.getValue().impl);
+      }
+    }
+  }
+  /**
+   * Генерирует тело ленивой реализации интерфейса.
+   *
+   * @param clazz Реализуемый интерфейс
+   * @param impl Класс реализации
+   */
+  private void generateImpl(JDefinedClass clazz, JDefinedClass impl) {
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    final Map<String, JMethod> variants = new LinkedHashMap<>();
+    collect(clazz, properties, variants);
+
+    impl._extends(LazyObject.class);
+    impl._implements(clazz);
+
+    final Map<String, Integer> names = names(properties);
+    final JFieldVar keysField = keys(impl, names.keySet());
+    final JFieldVar probe = probe(impl, clazz);
+    impl.field(
+      JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+      model.ref(Decoder.class).narrow(clazz),
+      "DECODER",
+      JLambdaMethodRef.createForNew(impl)
+    );
+
+    final JMethod ctor = impl.constructor(JMod.PUBLIC);
+    final JVar buffer = ctor.param(ByteBuffer.class, "buffer");
+    final JVar offset = ctor.param(model.INT, "offset");
+    ctor.body().add(JExpr.invokeSuper().arg(buffer).arg(offset).arg(keysField).arg(probe));
+    if (!names.isEmpty()) {
+      final JMethod projected = impl.constructor(JMod.PUBLIC);
+      projected.body().add(JExpr.invokeSuper()
+        .arg(projected.param(ByteBuffer.class, "buffer"))
+        .arg(projected.param(model.INT, "offset"))
+        .arg(projected.param(Projection.class, "projection"))
+        .arg(probe)
+      );
+      // Фабрика представлений, индексирующих только указанные свойства
+      final JMethod project = impl.method(JMod.PUBLIC | JMod.STATIC, model.ref(Decoder.class).narrow(clazz), "project");
+      final JVar projection = project.body().decl(JMod.FINAL, model.ref(Projection.class), "projection",
+        model.ref(Projection.class).staticInvoke("of").arg(keysField).arg(project.varParam(String.class, "properties"))
+      );
+      final JLambda lambda = new JLambda();
+      final JLambdaParam b = lambda.addParam("buffer");
+      final JLambdaParam o = lambda.addParam("offset");
+      lambda.body().lambdaExpr(JExpr._new(impl).arg(b).arg(o).arg(projection));
+      project.body()._return(lambda);
+    }
+
+    final Set<String> fields = new HashSet<>(Arrays.asList("buffer", "offset", "at", "KEYS", "PROBE", "DECODER"));
+    for (final Property property : properties.values()) {
+      final JMethod getter = property.getter;
+      final AbstractJClass type = (AbstractJClass)getter.type();
+      final int number = names.get(property.name);
+      final JMethod m = impl.method(JMod.PUBLIC, type, getter.name());
+      m.annotate(Override.class);
+
+      final IJExpression decode = decode(type, JExpr.ref("buffer"), JExpr.ref("at"));
+      if (decode == null) {
+        m.body()._throw(unsupported(clazz, getter.name(), type));
+        continue;
+      }
+      // Значение свойства запоминается при первом обращении. Гонка при этом безопасна, так как
+      // все потоки создадут эквивалентные неизменяемые значения
+      final JFieldVar field = impl.field(JMod.PRIVATE, type, fieldName(getter.name(), fields));
+      final JBlock then = m.body()._if(field.eqNull())._then();
+      final JVar at = then.decl(JMod.FINAL, model.INT, "at", JExpr.invoke("at").arg(JExpr.lit(number)));
+      final JBlock present = then._if(at.gte(JExpr.lit(0)))._then();
+      present.assign(field, decode);
+      present._if(probe.neNull())._then().add(probe.invoke("materialized").arg(JExpr.lit(number)));
+      m.body()._return(field);
+
+      if (property.primitive != null) {
+        generatePrimitiveImpl(impl, property, number);
+      }
+    }
+    for (final JMethod variant : variants.values()) {
+      final AbstractJClass type = (AbstractJClass)variant.type();
+      final JMethod m = impl.method(JMod.PUBLIC, type, variant.name());
+      m.annotate(Override.class);
+
+      // Вариант -- это другое представление того же значения, поэтому оно не запоминается
+      final IJExpression decode = decode(type, JExpr.ref("buffer"), JExpr.ref("offset"));
+      if (decode == null) {
+        m.body()._throw(unsupported(clazz, variant.name(), type));
+      } else {
+        m.body()._return(decode);
+      }
+    }
+    final Bean bean = beans.get(clazz);
+    if (bean.matching != null) {
+      generateDiscriminator(clazz, impl, bean);
+    }
+    // Методы выбора варианта собственные и унаследованные от предков
+    for (final JDefinedClass owner : lineage(clazz, new LinkedHashSet<>())) {
+      final Bean b = beans.get(owner);
+      if (b.matching == null || impl.getMethod(b.matching.name(), new AbstractJType[0]) != null) continue;
+
+      final JMethod m = impl.method(JMod.PUBLIC, JsonValue.class, b.matching.name());
+      m.annotate(Override.class);
+      final JSwitch cases = m.body()._switch(b.impl.staticInvoke("variant").arg(JExpr.ref("buffer")).arg(JExpr.ref("offset")));
+      int i = 0;
+      for (final JMethod variant : b.variants) {
+        final IJExpression decode = decode((AbstractJClass)variant.type(), JExpr.ref("buffer"), JExpr.ref("offset"));
+        if (decode != null) {
+          cases._case(JExpr.lit(i)).body()._return(decode);
+        }
+        ++i;
+      }
+      m.body()._return(JExpr._null());
+    }
+  }
+  /**
+   * Нумерует свойства объекта. Номер свойства в индексе объекта -- позиция его имени в списке
+   * уникальных имен.
+   *
+   * @param properties Свойства объекта, собранные {@link #collect}
+   *
+   * @return Номера свойств по именам в порядке их объявления
+   */
+  private static Map<String, Integer> names(Map<String, Property> properties) {
+    final Map<String, Integer> numbers = new LinkedHashMap<>();
+    for (final Property property : properties.values()) {
+      if (!numbers.containsKey(property.name)) {
+        numbers.put(property.name, numbers.size());
+      }
+    }
+    return numbers;
+  }
+  /**
+   * Объявляет в классе реализации константу {@code KEYS} с сопоставителем имен свойств.
+   *
+   * @param impl Класс реализации
+   * @param names Имена свойств в порядке их номеров
+   *
+   * @return Объявленная константа
+   */
+  private JFieldVar keys(JDefinedClass impl, Collection<String> names) {
+    final JInvocation keys = model.ref(KeyMatcher.class).staticInvoke("of");
+    for (final String name : names) {
+      keys.arg(JExpr.lit(name));
+    }
+    return impl.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, KeyMatcher.class, "KEYS", keys);
+  }
+  /**
+   * Генерирует в ленивой реализации статические методы выбора варианта {@code oneOf}/{@code anyOf},
+   * которому соответствует документ:
+   * <ul>
+   * <li>{@code discriminate(ByteBuffer, int)} -- быстрый выбор за один просмотр документа, если
+   *     варианты различимы по одному из признаков: непересекающимся типам, различным значениям
+   *     {@code const}/{@code enum} общего свойства или обязательному свойству, которое есть только в
+   *     одном варианте. Возвращает {@code -1}, если выбрать вариант таким образом не удалось.
+   *     Если вариант выбран, то остальные варианты документу заведомо не соответствуют</li>
+   * <li>{@code variant(ByteBuffer, int)} -- выбор с перебором вариантов по порядку, если быстрый
+   *     выбор не удался. Если генерируются валидаторы, варианты проверяются полностью, иначе только
+   *     по типу и наличию обязательных свойств</li>
+   * </ul>
+   *
+   * @param clazz Интерфейс объекта
+   * @param impl Класс реализации
+   * @param bean Сведения об интерфейсе
+   */
+  private void generateDiscriminator(JDefinedClass clazz, JDefinedClass impl, Bean bean) {
+    final List<Schema> choices = new ArrayList<>(choices(bean.schema));
+    final Set<String> fields = new HashSet<>(Arrays.asList("KEYS", "DECODER"));
+
+    final JMethod discriminate = impl.method(JMod.PUBLIC | JMod.STATIC, model.INT, "discriminate");
+    discriminate.param(JMod.FINAL, ByteBuffer.class, "buffer");
+    discriminate.param(JMod.FINAL, model.INT, "offset");
+    if (discriminateByType(discriminate, choices)
+     || discriminateByConst(impl, discriminate, choices, fields)
+     || discriminateByRequired(impl, discriminate, choices, fields)
+    ) {
+      bean.discriminate = discriminate;
+    } else {
+      impl.methods().remove(discriminate);
+    }
+
+    final JMethod variant = impl.method(JMod.PUBLIC | JMod.STATIC, model.INT, "variant");
+    final JVar buffer = variant.param(JMod.FINAL, ByteBuffer.class, "buffer");
+    final JVar offset = variant.param(JMod.FINAL, model.INT, "offset");
+    final JBlock body = variant.body();
+    if (bean.discriminate != null) {
+      final JVar found = body.decl(JMod.FINAL, model.INT, "found", JExpr.invoke(discriminate).arg(buffer).arg(offset));
+      body._if(found.gte(JExpr.lit(0)))._then()._return(found);
+    }
+    final Checks checks = new Checks(impl, buffer);
+    checks.fields.addAll(fields);
+    checks.locals.add(offset.name());
+    int i = 0;
+    for (final Schema s : choices) {
+      if (validation) {
+        final JTryBlock trial = body._try();
+        validate(checks, trial.body(), s, offset, clazz.name());
+        trial.body()._return(JExpr.lit(i));
+        trial._catch(model.ref(ValidationException.class)).param(unique("ex", checks.locals));
+      } else {
+        IJExpression matches = null;
+        final Collection<String> types = s.getExplicitTypes();
+        if (types != null) {
+          int allowed = 0;
+          for (final String type : types) {
+            allowed |= typeMask(type);
+          }
+          matches = model.ref(Validation.class).staticInvoke("typeOf").arg(buffer).arg(offset).band(mask(allowed)).ne(JExpr.lit(0));
+        }
+        final Collection<String> required = s.getRequiredProperties();
+        if (required != null && !required.isEmpty()) {
+          final JInvocation keys = model.ref(KeyMatcher.class).staticInvoke("of");
+          final long[] all = new long[(required.size() + 63) >> 6];
+          int n = 0;
+          for (final String name : required) {
+            keys.arg(JExpr.lit(name));
+            all[n >> 6] |= 1L << n;
+            ++n;
+          }
+          final JArray maskArray = JExpr.newArray(model.LONG);
+          for (final long word : all) {
+            maskArray.add(JExpr.lit(word));
+          }
+          final JFieldVar keysField = impl.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, KeyMatcher.class, unique("VARIANT" + i + "_KEYS", checks.fields), keys);
+          final JFieldVar requiredField = impl.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, model.LONG.array(), unique("VARIANT" + i + "_REQUIRED", checks.fields), maskArray);
+          final IJExpression present = model.ref(Validation.class).staticInvoke("present")
+            .arg(model.ref(JsonReader.class).staticInvoke("indexObject").arg(buffer).arg(offset).arg(keysField))
+            .arg(requiredField);
+          matches = matches == null ? present : matches.cand(present);
+        }
+        if (matches == null) {
+          // Вариант без ограничений подходит любому документу, дальнейшие варианты не проверяются
+          body._return(JExpr.lit(i));
+          return;
+        }
+        body._if(matches)._then()._return(JExpr.lit(i));
+      }
+      ++i;
+    }
+    body._return(JExpr.lit(-1));
+  }
+  /**
+   * Генерирует выбор варианта по типу значения, если типы вариантов не пересекаются.
+   *
+   * @return {@code true}, если выбор сгенерирован
+   */
+  private boolean discriminateByType(JMethod discriminate, List<Schema> choices) {
+    final int[] masks = new int[choices.size()];
+    int all = 0;
+    for (int i = 0; i < masks.length; ++i) {
+      final Collection<String> types = choices.get(i).getExplicitTypes();
+      if (types == null) return false;
+      for (final String type : types) {
+        masks[i] |= typeMask(type);
+      }
+      if ((all & masks[i]) != 0) return false;
+      all |= masks[i];
+    }
+    final JBlock body = discriminate.body();
+    final JVar type = body.decl(
+      JMod.FINAL,
+      model.INT,
+      "type",
+      model.ref(Validation.class).staticInvoke("typeOf").arg(discriminate.params().get(0)).arg(discriminate.params().get(1))
+    );
+    for (int i = 0; i < masks.length; ++i) {
+      body._if(type.band(mask(masks[i])).ne(JExpr.lit(0)))._then()._return(JExpr.lit(i));
+    }
+    body._return(JExpr.lit(-1));
+    return true;
+  }
+  /**
+   * Генерирует выбор варианта по значению свойства, имеющегося во всех вариантах, для которого
+   * в каждом варианте заданы непересекающиеся наборы допустимых значений ({@code const} или {@code enum}).
+   *
+   * @return {@code true}, если выбор сгенерирован
+   */
+  private boolean discriminateByConst(JDefinedClass impl, JMethod discriminate, List<Schema> choices, Set<String> fields) {
+    candidates:
+    for (final String name : choices.get(0).getProperties().keySet()) {
+      final List<Set<String>> values = new ArrayList<>();
+      final Set<String> all = new LinkedHashSet<>();
+      for (final Schema choice : choices) {
+        final Schema property = choice.getProperties().get(name);
+        if (property == null) continue candidates;
+
+        final Set<String> literals = new LinkedHashSet<>();
+        if (property.hasConst()) {
+          literals.add(String.valueOf(property.getConst()));
+        } else
+        if (property.getEnums() != null) {
+          for (final Object value : property.getEnums()) {
+            literals.add(String.valueOf(value));
+          }
+        } else {
+          continue candidates;
+        }
+        for (final String literal : literals) {
+          if (!all.add(literal)) continue candidates;
+        }
+        values.add(literals);
+      }
+
+      final JVar buffer = discriminate.params().get(0);
+      final JFieldVar key = impl.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        KeyMatcher.class,
+        unique("DISCRIMINATOR", fields),
+        model.ref(KeyMatcher.class).staticInvoke("of").arg(JExpr.lit(name))
+      );
+      final JBlock body = discriminate.body();
+      final JVar at = body.decl(
+        JMod.FINAL,
+        model.INT,
+        "at",
+        model.ref(JsonReader.class).staticInvoke("findProperty").arg(buffer).arg(discriminate.params().get(1)).arg(key)
+      );
+      final JFieldVar literals = impl.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        KeyMatcher.class,
+        unique("DISCRIMINATOR_VALUES", fields),
+        literals(all)
+      );
+      final JSwitch cases = body._if(at.gte(JExpr.lit(0)))._then()._switch(
+        model.ref(JsonReader.class).staticInvoke("matchLiteral").arg(buffer).arg(at).arg(literals)
+      );
+      // Литералы пронумерованы подряд по вариантам в порядке их перечисления в all
+      int literal = 0;
+      for (int i = 0; i < values.size(); ++i) {
+        for (final int end = literal + values.get(i).size(); literal < end; ++literal) {
+          cases._case(JExpr.lit(literal)).body()._return(JExpr.lit(i));
+        }
+      }
+      body._return(JExpr.lit(-1));
+      return true;
+    }
+    return false;
+  }
+  /**
+   * Генерирует выбор варианта по наличию обязательного свойства, которое не упоминается в других
+   * вариантах. Если в документе есть такие свойства сразу нескольких вариантов, выбор не делается.
+   *
+   * @return {@code true}, если выбор сгенерирован
+   */
+  private boolean discriminateByRequired(JDefinedClass impl, JMethod discriminate, List<Schema> choices, Set<String> fields) {
+    final List<String> keys = new ArrayList<>();
+    for (final Schema choice : choices) {
+      final Collection<String> required = choice.getRequiredProperties();
+      if (required == null) return false;
+
+      String unique = null;
+      for (final String name : required) {
+        boolean shared = false;
+        for (final Schema other : choices) {
+          if (other == choice) continue;
+          final Collection<String> otherRequired = other.getRequiredProperties();
+          if (other.getProperties().containsKey(name) || otherRequired != null && otherRequired.contains(name)) {
+            shared = true;
+            break;
+          }
+        }
+        if (!shared) {
+          unique = name;
+          break;
+        }
+      }
+      if (unique == null) return false;
+      keys.add(unique);
+    }
+
+    final JInvocation matcher = model.ref(KeyMatcher.class).staticInvoke("of");
+    for (final String key : keys) {
+      matcher.arg(JExpr.lit(key));
+    }
+    final JFieldVar field = impl.field(
+      JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+      KeyMatcher.class,
+      unique("DISCRIMINATORS", fields),
+      matcher
+    );
+    final JBlock body = discriminate.body();
+    final JVar at = body.decl(
+      JMod.FINAL,
+      model.INT.array(),
+      "at",
+      model.ref(JsonReader.class).staticInvoke("indexObject").arg(discriminate.params().get(0)).arg(discriminate.params().get(1)).arg(field)
+    );
+    final JVar found = body.decl(model.INT, "found", JExpr.lit(-1));
+    for (int i = 0; i < keys.size(); ++i) {
+      final JBlock then = body._if(at.component(JExpr.lit(i)).gte(JExpr.lit(0)))._then();
+      if (i > 0) {
+        then._if(found.gte(JExpr.lit(0)))._then()._return(JExpr.lit(-1));
+      }
+      then.assign(found, JExpr.lit(i));
+    }
+    body._return(found);
+    return true;
+  }
+  /**
+   * Собирает интерфейс и всех его предков, являющихся сгенерированными интерфейсами объектов.
+   *
+   * @param clazz Интерфейс
+   * @param result Заполняемый набор интерфейсов
+   *
+   * @return {@code result}
+   */
+  private Set<JDefinedClass> lineage(JDefinedClass clazz, Set<JDefinedClass> result) {
+    if (result.add(clazz)) {
+      final Iterator<AbstractJClass> it = clazz._implements();
+      while (it.hasNext()) {
+        final AbstractJClass parent = it.next();
+        if (beans.containsKey(parent)) {
+          lineage((JDefinedClass)parent, result);
+        }
+      }
+    }
+    return result;
+  }
+  /**
+   * Генерирует в ленивой реализации методы доступа к свойству, не создающие объектов. Значение
+   * читается прямо из буфера при каждом обращении.
+   *
+   * @param impl Класс реализации
+   * @param property Свойство, для которого генерируются методы
+   * @param number Номер свойства в индексе объекта
+   */
+  private void generatePrimitiveImpl(JDefinedClass impl, Property property, int number) {
+    final Primitive primitive = Primitive.of((AbstractJClass)property.getter.type());
+
+    final JMethod has = impl.method(JMod.PUBLIC, model.BOOLEAN, property.has.name());
+    has.annotate(Override.class);
+    has.body()._return(JExpr.invoke("at").arg(JExpr.lit(number)).gte(JExpr.lit(0)));
+
+    final JMethod get = impl.method(JMod.PUBLIC, model._ref(primitive.type), property.primitive.name());
+    get.annotate(Override.class);
+    get.body()._return(model.ref(JsonReader.class).staticInvoke(primitive.reader)
+      .arg(JExpr.ref("buffer"))
+      .arg(JExpr.invoke("require").arg(JExpr.lit(number)).arg(JExpr.lit(property.name)))
+    );
+  }
+  /**
+   * Генерирует для каждого интерфейса объекта, имеющего ленивую реализацию, вложенный класс
+   * {@code Cursor} -- изменяемую реализацию, которая переставляется с одного объекта на другой
+   * методом {@code reset(ByteBuffer, int)}. В отличие от {@code Impl}, курсор не запоминает значения
+   * свойств, а вложенные объекты и массивы возвращает собственными переиспользуемыми курсорами,
+   * поэтому последовательный просмотр множества записей одного типа не создает новых объектов для
+   * каждой записи (скалярные значения, кроме читаемых примитивными геттерами, по-прежнему создаются).
+   * <p>
+   * Значения, полученные от курсора, действительны только до его следующей перестановки.
+   * Фабрика {@code Cursor.reusing()} может быть передана везде, где ожидается {@link Decoder}, например,
+   * при последовательном чтении файла с записями.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void generateCursors() throws JClassAlreadyExistsException {
+    // Курсоры ссылаются друг на друга, поэтому сначала объявляются все классы
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl != null) {
+        e.getValue().cursor = e.getKey()._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Cursor");
+      }
+    }
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().cursor != null) {
+        generateCursor(e.getKey(), e.getValue().cursor);
+      }
+    }
+  }
+  /**
+   * Генерирует тело переиспользуемого курсора интерфейса.
+   *
+   * @param clazz Реализуемый интерфейс
+   * @param cursor Класс курсора
+   */
+  private void generateCursor(JDefinedClass clazz, JDefinedClass cursor) {
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    final Map<String, JMethod> variants = new LinkedHashMap<>();
+    collect(clazz, properties, variants);
+
+    cursor._extends(CursorObject.class);
+    cursor._implements(clazz);
+
+    final Map<String, Integer> names = names(properties);
+    final JFieldVar keysField = keys(cursor, names.keySet());
+    final JFieldVar probe = probe(cursor, clazz);
+
+    cursor.constructor(JMod.PUBLIC).body().add(JExpr.invokeSuper().arg(keysField).arg(probe));
+
+    final JMethod reset = cursor.method(JMod.PUBLIC, cursor, "reset");
+    final JVar buffer = reset.param(ByteBuffer.class, "buffer");
+    final JVar offset = reset.param(model.INT, "offset");
+    reset.body().add(JExpr.invoke("position").arg(buffer).arg(offset));
+    reset.body()._return(JExpr._this());
+
+    final JMethod reusing = cursor.method(JMod.PUBLIC | JMod.STATIC, model.ref(Decoder.class).narrow(clazz), "reusing");
+    final JVar instance = reusing.body().decl(JMod.FINAL, cursor, "cursor", JExpr._new(cursor));
+    reusing.body()._return(new JLambdaMethodRef(instance, "reset"));
+
+    if (!names.isEmpty()) {
+      final JMethod projected = cursor.constructor(JMod.PUBLIC);
+      projected.body().add(JExpr.invokeSuper().arg(projected.param(Projection.class, "projection")).arg(probe));
+      // Переиспользуемый курсор, индексирующий только указанные свойства
+      final JMethod project = cursor.method(JMod.PUBLIC | JMod.STATIC, model.ref(Decoder.class).narrow(clazz), "project");
+      final JVar projection = project.body().decl(JMod.FINAL, cursor, "cursor", JExpr._new(cursor)
+        .arg(model.ref(Projection.class).staticInvoke("of").arg(keysField).arg(project.varParam(String.class, "properties")))
+      );
+      project.body()._return(new JLambdaMethodRef(projection, "reset"));
+    }
+
+    final Set<String> fields = new HashSet<>(Arrays.asList("buffer", "offset", "at", "KEYS", "PROBE"));
+    for (final Property property : properties.values()) {
+      final JMethod getter = property.getter;
+      final AbstractJClass type = (AbstractJClass)getter.type();
+      final int number = names.get(property.name);
+      final JMethod m = cursor.method(JMod.PUBLIC, type, getter.name());
+      m.annotate(Override.class);
+
+      if (reusing(type) == null) {
+        m.body()._throw(unsupported(clazz, getter.name(), type));
+        continue;
+      }
+      final JVar at = m.body().decl(JMod.FINAL, model.INT, "at", JExpr.invoke("at").arg(JExpr.lit(number)));
+      m.body()._if(at.lt(JExpr.lit(0)))._then()._return(JExpr._null());
+      m.body()._return(reuse(cursor, m.body(), type, at, fields, getter.name()));
+
+      if (property.primitive != null) {
+        generatePrimitiveImpl(cursor, property, number);
+      }
+    }
+    for (final JMethod variant : variants.values()) {
+      final AbstractJClass type = (AbstractJClass)variant.type();
+      final JMethod m = cursor.method(JMod.PUBLIC, type, variant.name());
+      m.annotate(Override.class);
+
+      if (reusing(type) == null) {
+        m.body()._throw(unsupported(clazz, variant.name(), type));
+      } else {
+        m.body()._return(reuse(cursor, m.body(), type, JExpr.ref("offset"), fields, variant.name()));
+      }
+    }
+    // Методы выбора варианта собственные и унаследованные от предков
+    for (final JDefinedClass owner : lineage(clazz, new LinkedHashSet<>())) {
+      final Bean b = beans.get(owner);
+      if (b.matching == null || cursor.getMethod(b.matching.name(), new AbstractJType[0]) != null) continue;
+
+      final JMethod m = cursor.method(JMod.PUBLIC, JsonValue.class, b.matching.name());
+      m.annotate(Override.class);
+      final JSwitch cases = m.body()._switch(b.impl.staticInvoke("variant").arg(JExpr.ref("buffer")).arg(JExpr.ref("offset")));
+      int i = 0;
+      for (final JMethod variant : b.variants) {
+        final AbstractJClass type = (AbstractJClass)variant.type();
+        if (reusing(type) != null) {
+          final JBlock body = cases._case(JExpr.lit(i)).body();
+          body._return(reuse(cursor, body, type, JExpr.ref("offset"), fields, variant.name()));
+        }
+        ++i;
+      }
+      m.body()._return(JExpr._null());
+    }
+  }
+  /**
+   * Генерирует выражение, возвращающее представление значения в курсоре. Для объектов и массивов
+   * объявляет в курсоре поле с вложенным курсором, создаваемым при первом обращении, и возвращает
+   * его, переставленным на значение. Для остальных типов создает новое ленивое значение.
+   *
+   * @param cursor Класс курсора
+   * @param block Блок, в который добавляется создание вложенного курсора
+   * @param type Тип значения
+   * @param at Выражение, возвращающее позицию значения в буфере
+   * @param fields Имена полей, объявленных в курсоре
+   * @param getter Имя метода доступа к значению, из которого выводится имя поля
+   *
+   * @return Выражение, возвращающее значение. Для типов, для которых {@link #reusing} возвращает
+   *         {@code null}, реализация не может быть построена и результат не определен
+   */
+  private IJExpression reuse(JDefinedClass cursor, JBlock block, AbstractJClass type, IJExpression at, Set<String> fields, String getter) {
+    final AbstractJClass fieldType;
+    final IJExpression init;
+    final Bean bean = type instanceof JDefinedClass ? beans.get(type) : null;
+    if (bean != null && bean.cursor != null) {
+      fieldType = bean.cursor;
+      init = JExpr._new(bean.cursor);
+    } else
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      final IJExpression items = reusing(item);
+      if (items == null) return null;
+      fieldType = model.ref(CursorArray.class).narrow(item);
+      init = JExpr._new(model.ref(CursorArray.class).narrowEmpty()).arg(items);
+    } else {
+      return decode(type, JExpr.ref("buffer"), at);
+    }
+    final JFieldVar field = cursor.field(JMod.PRIVATE, fieldType, fieldName(getter, fields));
+    block._if(field.eqNull())._then().assign(field, init);
+    return field.invoke("reset").arg(JExpr.ref("buffer")).arg(at);
+  }
+  /**
+   * Генерирует выражение, возвращающее {@link Decoder фабрику}, которая для объектов и массивов
+   * переставляет один и тот же курсор, а для остальных типов создает новые ленивые значения.
+   *
+   * @param type Тип значения
+   *
+   * @return Выражение, возвращающее фабрику, или {@code null}, если для такого типа не может быть
+   *         построена реализация
+   *
+   * @see #decoder
+   */
+  private IJExpression reusing(AbstractJClass type) {
+    final Bean bean = type instanceof JDefinedClass ? beans.get(type) : null;
+    if (bean != null && bean.cursor != null) {
+      return bean.cursor.staticInvoke("reusing");
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final IJExpression items = reusing(type.getTypeParameters().get(0));
+      if (items == null) return null;
+      return model.ref(CursorArray.class).staticInvoke("reusing").arg(items);
+    }
+    return decoder(type);
+  }
+  /**
+   * Генерирует для каждого интерфейса объекта, имеющего ленивую реализацию, вложенный класс
+   * {@code Writer}, записывающий объект в {@link JsonWriter} без построения промежуточного дерева.
+   * Имена свойств записываются заранее закодированными массивами байт. Ленивые значения, созданные
+   * поверх исходного документа, копируются из него как есть. Объекты без свойств, но с вариантами
+   * записываются как подходящий вариант или копируются из исходного документа; если ни то, ни
+   * другое невозможно, запись завершается {@link IllegalArgumentException} с именем типа и
+   * адресом его схемы.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void generateWriters() throws JClassAlreadyExistsException {
+    // Писатели ссылаются друг на друга, поэтому сначала объявляются все классы
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl != null) {
+        declareWriter(e.getKey());
+      }
+    }
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl != null) {
+        generateWriter(e.getKey(), writers.get(e.getKey()));
+      }
+    }
+  }
+  /**
+   * Генерирует тело класса записи интерфейса объекта.
+   *
+   * @param clazz Записываемый интерфейс
+   * @param writer Класс записи
+   */
+  private void generateWriter(JDefinedClass clazz, JDefinedClass writer) {
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    final Map<String, JMethod> variants = new LinkedHashMap<>();
+    collect(clazz, properties, variants);
+
+    final JMethod write = measure(writer, clazz, writeMethod(writer, clazz));
+    final JVar out = write.params().get(0);
+    final JVar value = write.params().get(1);
+    final JBlock body = write.body();
+
+    final JBlock lazy = body._if(value._instanceof(model.ref(LazyValue.class)))._then();
+    lazy.add(out.invoke("copy").arg(JExpr.cast(model.ref(LazyValue.class), value)));
+    lazy._return();
+    // Без свойств объект записывается как подходящий ему вариант, если его можно выбрать
+    final Bean bean = beans.get(clazz);
+    if (properties.isEmpty() && !variants.isEmpty() && bean.matching != null) {
+      final JVar variant = body.decl(JMod.FINAL, model.ref(JsonValue.class), "variant", value.invoke(bean.matching));
+      final Set<String> locals = new HashSet<>(Arrays.asList("out", "value", "variant"));
+      for (final JMethod m : bean.variants) {
+        final AbstractJClass type = (AbstractJClass)m.type();
+        final JBlock then = body._if(variant._instanceof(type))._then();
+        write(then, out, type, JExpr.cast(type, variant), locals);
+        then._return();
+      }
+    }
+
+    // Содержимое объекта без свойств известно только исходному документу
+    if (properties.isEmpty()) {
+      final JBlock cursor = body._if(value._instanceof(model.ref(CursorObject.class)))._then();
+      cursor.add(out.invoke("copy").arg(JExpr.cast(model.ref(CursorObject.class), value)));
+      cursor._return();
+    }
+    if (properties.isEmpty() && !variants.isEmpty()) {
+      // Другие реализации не дают ни свойств, ни исходного документа
+      body._throw(JExpr._new(model.ref(IllegalArgumentException.class)).arg(JExpr.lit(
+        clazz.fullName() + " (" + bean.schema.getUri() + ") matches none of its variants"
+          + " and can be written only from the parsed document"
+      )));
+      return;
+    }
+
+    final Set<String> constants = new HashSet<>(Arrays.asList("PROBE"));
+    final Set<String> locals = new HashSet<>(Arrays.asList("out", "value"));
+    body.add(out.invoke("beginObject"));
+    for (final Property property : properties.values()) {
+      final JFieldVar name = writer.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        model.BYTE.array(),
+        constantName(property.name, constants),
+        model.ref(JsonWriter.class).staticInvoke("encodeName").arg(JExpr.lit(property.name))
+      );
+      final AbstractJClass type = (AbstractJClass)property.getter.type();
+      final JVar v = body.decl(JMod.FINAL, type, fieldName(property.getter.name(), locals), value.invoke(property.getter));
+      final JBlock then = body._if(v.neNull())._then();
+      then.add(out.invoke("name").arg(name));
+      write(then, out, type, v, locals);
+    }
+    body.add(out.invoke("endObject"));
+  }
+  /**
+   * Объявляет в интерфейсе или перечислении класс {@code Writer} с закрытым конструктором.
+   *
+   * @param clazz Записываемый тип
+   *
+   * @return Класс записи
+   *
+   * @throws JClassAlreadyExistsException Если в типе уже есть вложенный класс {@code Writer}
+   */
+  private JDefinedClass declareWriter(JDefinedClass clazz) throws JClassAlreadyExistsException {
+    final JDefinedClass writer = clazz._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Writer");
+    writer.constructor(JMod.PRIVATE);
+    writers.put(clazz, writer);
+    return writer;
+  }
+  /**
+   * Генерирует в классе записи поле {@code ENCODER} и объявляет статический метод
+   * {@code write(JsonWriter, T)}, на который оно ссылается.
+   *
+   * @param writer Класс записи
+   * @param clazz Записываемый тип
+   *
+   * @return Метод записи с пустым телом
+   */
+  private JMethod writeMethod(JDefinedClass writer, JDefinedClass clazz) {
+    writer.field(
+      JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+      model.ref(Encoder.class).narrow(clazz),
+      "ENCODER",
+      new JLambdaMethodRef(writer, "write")
+    );
+    final JMethod write = writer.method(JMod.PUBLIC | JMod.STATIC, model.VOID, "write");
+    write._throws(IOException.class);
+    write.param(JMod.FINAL, JsonWriter.class, "out");
+    write.param(JMod.FINAL, clazz, "value");
+    return write;
+  }
+  /**
+   * Генерирует в классе записи закрытый метод {@code encode(JsonWriter, T)}, выполняющий запись,
+   * и тело метода {@code write}, вызывающее его. Если наблюдение включено, {@code write} сообщает
+   * датчику типа размер и время записи.
+   *
+   * @param writer Класс записи
+   * @param clazz Записываемый тип
+   * @param write Метод записи с пустым телом, объявленный {@link #writeMethod}
+   *
+   * @return Метод {@code encode} с пустым телом
+   */
+  private JMethod measure(JDefinedClass writer, JDefinedClass clazz, JMethod write) {
+    final JFieldVar probe = probe(writer, clazz);
+    final JMethod encode = writer.method(JMod.PRIVATE | JMod.STATIC, model.VOID, "encode");
+    encode._throws(IOException.class);
+    encode.param(JMod.FINAL, JsonWriter.class, "out");
+    encode.param(JMod.FINAL, clazz, "value");
+
+    final JVar out = write.params().get(0);
+    final JVar value = write.params().get(1);
+    final JBlock body = write.body();
+    final JBlock disabled = body._if(probe.eqNull())._then();
+    disabled.add(JExpr.invoke(encode).arg(out).arg(value));
+    disabled._return();
+    final JVar start = body.decl(JMod.FINAL, model.LONG, "start", model.ref(System.class).staticInvoke("nanoTime"));
+    final JVar size = body.decl(JMod.FINAL, model.LONG, "size", out.invoke("size"));
+    body.add(JExpr.invoke(encode).arg(out).arg(value));
+    body.add(probe.invoke("encoded")
+      .arg(out.invoke("size").minus(size))
+      .arg(model.ref(System.class).staticInvoke("nanoTime").minus(start))
+    );
+    return encode;
+  }
+  /**
+   * Объявляет в сгенерированном классе датчик типа -- константу {@code PROBE}. Все классы одного
+   * типа получают один и тот же датчик.
+   *
+   * @param owner Класс, в котором объявляется константа
+   * @param clazz Наблюдаемый тип
+   *
+   * @return Поле с датчиком, равное {@code null}, если наблюдение отключено
+   */
+  private JFieldVar probe(JDefinedClass owner, JDefinedClass clazz) {
+    final JInvocation of = model.ref(Probe.class).staticInvoke("of").arg(clazz.dotclass());
+    final Bean bean = beans.get(clazz);
+    if (bean != null && bean.impl != null) {
+      final Map<String, Property> properties = new LinkedHashMap<>();
+      collect(clazz, properties, new LinkedHashMap<>());
+      for (final String name : names(properties).keySet()) {
+        of.arg(JExpr.lit(name));
+      }
+    }
+    return owner.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, Probe.class, "PROBE", of);
+  }
+  /**
+   * Генерирует код записи значения указанного типа, не равного {@code null}.
+   *
+   * @param block Блок, в который добавляется код
+   * @param out Писатель
+   * @param type Тип значения
+   * @param value Выражение, возвращающее записываемое значение
+   * @param locals Уже использованные в методе имена переменных
+   */
+  private void write(JBlock block, JVar out, AbstractJClass type, IJExpression value, Set<String> locals) {
+    final Primitive primitive = Primitive.of(type);
+    if (primitive != null) {
+      // Дробные числа записываются без потери точности, а целые передаются целиком, чтобы писатель
+      // мог скопировать числа вне диапазона long из документа
+      final IJExpression v = primitive == Primitive.LONG ? value
+        : value.invoke(primitive == Primitive.DOUBLE ? "decimalValue" : primitive.accessor);
+      block.add(out.invoke("value").arg(v));
+      return;
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      block.add(out.invoke("beginArray"));
+      final JForEach loop = block.forEach(item, unique("item", locals), value.invoke("value"));
+      final JVar v = loop.var();
+      final JConditional isNull = loop.body()._if(v.eqNull());
+      isNull._then().add(out.invoke("nullValue"));
+      write(isNull._else(), out, item, v, locals);
+      block.add(out.invoke("endArray"));
+      return;
+    }
+    final JDefinedClass writer = type instanceof JDefinedClass ? writers.get((JDefinedClass)type) : null;
+    if (writer != null) {
+      block.add(writer.staticInvoke("write").arg(out).arg(value));
+      return;
+    }
+    // Строки, специализированные массивы, JsonValue и типы без реализации записываются универсальным
+    // методом, который копирует ленивые значения из документа как есть, не декодируя их
+    block.add(out.invoke("value").arg(JExpr.cast(model.ref(JsonValue.class), value)));
+  }
+  /**
+   * Генерирует для каждого интерфейса объекта, имеющего ленивую реализацию, вложенный класс
+   * {@code Binary} с компактным двоичным представлением объекта, см. {@link BinaryWriter}. Свойства
+   * записываются по номерам в порядке их объявления в схеме, поэтому сообщение начинается с
+   * отпечатка схемы, вычисленного по именам и типам всех вложенных свойств, и читатель отвергает
+   * сообщения, записанные для несовместимой схемы.
+   * <p>
+   * Сообщение читается на месте реализацией {@code Binary.Impl}, см. {@link BinaryObject}; объекты
+   * без свойств записываются текстом JSON и читаются обычной ленивой реализацией поверх этого текста.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void generateBinaries() throws JClassAlreadyExistsException {
+    // Классы ссылаются друг на друга, поэтому сначала объявляются все классы
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl != null) {
+        final JDefinedClass binary = e.getKey()._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Binary");
+        binary.constructor(JMod.PRIVATE);
+        binaries.put(e.getKey(), binary);
+
+        final Map<String, Property> properties = new LinkedHashMap<>();
+        collect(e.getKey(), properties, new LinkedHashMap<>());
+        if (!properties.isEmpty()) {
+          e.getValue().binaryImpl = binary._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Impl");
+        }
+      }
+    }
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl != null) {
+        generateBinary(e.getKey(), binaries.get(e.getKey()), e.getValue());
+      }
+    }
+  }
+  /**
+   * Генерирует тело класса двоичного представления интерфейса объекта.
+   *
+   * @param clazz Интерфейс объекта
+   * @param binary Класс двоичного представления
+   * @param bean Сведения об интерфейсе
+   */
+  private void generateBinary(JDefinedClass clazz, JDefinedClass binary, Bean bean) {
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    final Map<String, JMethod> variants = new LinkedHashMap<>();
+    collect(clazz, properties, variants);
+
+    final JFieldVar fingerprint = binary.field(
+      JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+      model.LONG,
+      "FINGERPRINT",
+      JExpr.lit(fingerprint(clazz))
+    );
+    final JMethod encode = binary.method(JMod.PUBLIC | JMod.STATIC, model.BYTE.array(), "encode");
+    encode.body()._return(model.ref(BinaryWriter.class).staticInvoke("encode")
+      .arg(fingerprint)
+      .arg(new JLambdaMethodRef(binary, "write"))
+      .arg(encode.param(JMod.FINAL, clazz, "value"))
+    );
+    final JMethod decode = binary.method(JMod.PUBLIC | JMod.STATIC, clazz, "decode");
+    decode.body()._return(model.ref(BinaryReader.class).staticInvoke("decode")
+      .arg(decode.param(JMod.FINAL, ByteBuffer.class, "buffer"))
+      .arg(fingerprint)
+      .arg(binaryDecoder(clazz))
+    );
+
+    final JMethod write = binary.method(JMod.PUBLIC | JMod.STATIC, model.VOID, "write");
+    write._throws(IOException.class);
+    final JVar out = write.param(JMod.FINAL, BinaryWriter.class, "out");
+    final JVar value = write.param(JMod.FINAL, clazz, "value");
+    final JMethod transcode = binary.method(JMod.PUBLIC | JMod.STATIC, model.VOID, "transcode");
+    transcode._throws(IOException.class);
+    final JVar in = transcode.param(JMod.FINAL, BinaryReader.class, "in");
+    final JVar json = transcode.param(JMod.FINAL, JsonWriter.class, "out");
+    final JMethod skip = binary.method(JMod.PUBLIC | JMod.STATIC, model.VOID, "skip");
+    final JVar skipped = skip.param(JMod.FINAL, BinaryReader.class, "in");
+
+    // Объект без свойств записывается в виде JSON так же, как его записывает Writer
+    if (properties.isEmpty()) {
+      write.body().add(out.invoke("json").arg(writers.get(clazz).staticRef("ENCODER")).arg(value));
+      transcode.body().add(in.invoke("json").arg(json));
+      skip.body().add(skipped.invoke("skipBytes"));
+      return;
+    }
+    final JMethod index = binary.method(JMod.PUBLIC | JMod.STATIC, model.INT.array(), "index");
+    final JVar indexed = index.param(JMod.FINAL, BinaryReader.class, "in");
+
+    final Set<String> constants = new HashSet<>();
+    final Set<String> writeLocals = new HashSet<>(Arrays.asList("out", "value"));
+    final Set<String> readLocals = new HashSet<>(Arrays.asList("in", "out"));
+    final List<JVar> values = new ArrayList<>();
+    for (final Property property : properties.values()) {
+      final AbstractJClass type = (AbstractJClass)property.getter.type();
+      values.add(write.body().decl(JMod.FINAL, type, fieldName(property.getter.name(), writeLocals), value.invoke(property.getter)));
+    }
+    // Битовая карта присутствия свойств, по 8 свойств в байте
+    for (int i = 0; i < values.size(); i += 8) {
+      IJExpression bits = null;
+      for (int j = i; j < Math.min(values.size(), i + 8); ++j) {
+        final IJExpression bit = JOp.cond(values.get(j).neNull(), JExpr.lit(1 << (j - i)), JExpr.lit(0));
+        bits = bits == null ? bit : bits.bor(bit);
+      }
+      write.body().add(out.invoke("bits").arg(bits));
+    }
+    final JVar present = transcode.body().decl(JMod.FINAL, model.INT, unique("present", readLocals),
+      in.invoke("presence").arg(JExpr.lit(values.size()))
+    );
+    final JVar skipPresent = skip.body().decl(JMod.FINAL, model.INT, "present",
+      skipped.invoke("presence").arg(JExpr.lit(values.size()))
+    );
+    final JVar indexPresent = index.body().decl(JMod.FINAL, model.INT, "present",
+      indexed.invoke("presence").arg(JExpr.lit(values.size()))
+    );
+    final JVar positions = index.body().decl(JMod.FINAL, model.INT.array(), "index", JExpr.newArray(model.INT, values.size()));
+    transcode.body().add(json.invoke("beginObject"));
+    int number = 0;
+    for (final Property property : properties.values()) {
+      final AbstractJClass type = (AbstractJClass)property.getter.type();
+      final JVar v = values.get(number);
+      writeBinary(write.body()._if(v.neNull())._then(), out, type, v, writeLocals);
+
+      final JFieldVar name = binary.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        model.BYTE.array(),
+        constantName(property.name, constants),
+        model.ref(JsonWriter.class).staticInvoke("encodeName").arg(JExpr.lit(property.name))
+      );
+      final JBlock then = transcode.body()._if(in.invoke("present").arg(present).arg(JExpr.lit(number)))._then();
+      then.add(json.invoke("name").arg(name));
+      transcode(then, in, json, type, readLocals);
+
+      skip.body()._if(skipped.invoke("present").arg(skipPresent).arg(JExpr.lit(number)))._then().add(skip(type, skipped));
+      final JConditional isPresent = index.body()._if(indexed.invoke("present").arg(indexPresent).arg(JExpr.lit(number)));
+      isPresent._then().assign(positions.component(JExpr.lit(number)), indexed.invoke("position"));
+      isPresent._then().add(skip(type, indexed));
+      isPresent._else().assign(positions.component(JExpr.lit(number)), JExpr.lit(-1));
+      ++number;
+    }
+    transcode.body().add(json.invoke("endObject"));
+    index.body()._return(positions);
+
+    generateBinaryImpl(clazz, binary, bean, properties, variants);
+  }
+  /**
+   * Генерирует реализацию интерфейса объекта, читающую значения свойств прямо из двоичного
+   * сообщения, см. {@link BinaryObject}. Свойства вариантов {@code oneOf}/{@code anyOf} в сообщение
+   * не записываются, поэтому варианты представляются ленивыми реализациями поверх объекта,
+   * переведенного в JSON.
+   *
+   * @param clazz Реализуемый интерфейс
+   * @param binary Класс двоичного представления
+   * @param bean Сведения об интерфейсе
+   * @param properties Свойства объекта, собранные {@link #collect}
+   * @param variants Методы получения вариантов, собранные {@link #collect}
+   */
+  private void generateBinaryImpl(JDefinedClass clazz, JDefinedClass binary, Bean bean, Map<String, Property> properties, Map<String, JMethod> variants) {
+    final JDefinedClass impl = bean.binaryImpl;
+    impl._extends(BinaryObject.class);
+    impl._implements(clazz);
+
+    final JMethod ctor = impl.constructor(JMod.PUBLIC);
+    final JVar buffer = ctor.param(ByteBuffer.class, "buffer");
+    final JVar offset = ctor.param(model.INT, "offset");
+    ctor.body().add(JExpr.invokeSuper().arg(buffer).arg(offset).arg(
+      binary.staticInvoke("index").arg(JExpr._new(model.ref(BinaryReader.class)).arg(buffer).arg(offset))
+    ));
+
+    final Set<String> fields = new HashSet<>(Arrays.asList("buffer", "offset", "at"));
+    int number = 0;
+    for (final Property property : properties.values()) {
+      final JMethod getter = property.getter;
+      final AbstractJClass type = (AbstractJClass)getter.type();
+      final JMethod m = impl.method(JMod.PUBLIC, type, getter.name());
+      m.annotate(Override.class);
+
+      final IJExpression decode = binaryDecode(type, JExpr.ref("buffer"), JExpr.ref("at"));
+      if (decode == null) {
+        m.body()._throw(unsupported(clazz, getter.name(), type));
+        ++number;
+        continue;
+      }
+      // Значение свойства запоминается при первом обращении, как и в ленивой реализации
+      final JFieldVar field = impl.field(JMod.PRIVATE, type, fieldName(getter.name(), fields));
+      final JBlock then = m.body()._if(field.eqNull())._then();
+      final JVar at = then.decl(JMod.FINAL, model.INT, "at", JExpr.invoke("at").arg(JExpr.lit(number)));
+      then._if(at.gte(JExpr.lit(0)))._then().assign(field, decode);
+      m.body()._return(field);
+
+      if (property.primitive != null) {
+        final Primitive primitive = Primitive.of(type);
+        final JMethod has = impl.method(JMod.PUBLIC, model.BOOLEAN, property.has.name());
+        has.annotate(Override.class);
+        has.body()._return(JExpr.invoke("at").arg(JExpr.lit(number)).gte(JExpr.lit(0)));
+
+        final JMethod get = impl.method(JMod.PUBLIC, model._ref(primitive.type), property.primitive.name());
+        get.annotate(Override.class);
+        get.body()._return(JExpr._new(model.ref(BinaryReader.class))
+          .arg(JExpr.ref("buffer"))
+          .arg(JExpr.invoke("require").arg(JExpr.lit(number)).arg(JExpr.lit(property.name)))
+          .invoke(primitive == Primitive.BOOLEAN ? "booleanValue" : primitive.accessor)
+        );
+      }
+      ++number;
+    }
+    final IJExpression transcoder = new JLambdaMethodRef(binary, "transcode");
+    for (final JMethod variant : variants.values()) {
+      final AbstractJClass type = (AbstractJClass)variant.type();
+      final JMethod m = impl.method(JMod.PUBLIC, type, variant.name());
+      m.annotate(Override.class);
+
+      final IJExpression decoder = decoder(type);
+      if (decoder == null) {
+        m.body()._throw(unsupported(clazz, variant.name(), type));
+      } else {
+        m.body()._return(model.ref(BinaryReader.class).staticInvoke("transcode")
+          .arg(JExpr.ref("buffer"))
+          .arg(JExpr.ref("offset"))
+          .arg(transcoder)
+          .arg(decoder)
+        );
+      }
+    }
+    // Методы выбора варианта собственные и унаследованные от предков
+    for (final JDefinedClass owner : lineage(clazz, new LinkedHashSet<>())) {
+      final Bean b = beans.get(owner);
+      if (b.matching == null || impl.getMethod(b.matching.name(), new AbstractJType[0]) != null) continue;
+
+      final JMethod m = impl.method(JMod.PUBLIC, JsonValue.class, b.matching.name());
+      m.annotate(Override.class);
+      m.body()._return(model.ref(BinaryReader.class).staticInvoke("transcode")
+        .arg(JExpr.ref("buffer"))
+        .arg(JExpr.ref("offset"))
+        .arg(transcoder)
+        .arg(bean.impl.staticRef("DECODER"))
+        .invoke(b.matching.name())
+      );
+    }
+  }
+  /**
+   * Генерирует код двоичной записи значения указанного типа, не равного {@code null}.
+   *
+   * @param block Блок, в который добавляется код
+   * @param out Писатель
+   * @param type Тип значения
+   * @param value Выражение, возвращающее записываемое значение
+   * @param locals Уже использованные в методе имена переменных
+   */
+  private void writeBinary(JBlock block, JVar out, AbstractJClass type, IJExpression value, Set<String> locals) {
+    final Primitive primitive = Primitive.of(type);
+    // Числа передаются целиком, чтобы писатель мог сохранить их точное десятичное значение
+    if (primitive != null) {
+      block.add(out.invoke("value").arg(primitive == Primitive.BOOLEAN ? value.invoke(primitive.accessor) : value));
+      return;
+    }
+    if (type.equals(model.ref(JsonString.class))) {
+      block.add(out.invoke("value").arg(value));
+      return;
+    }
+    final AbstractJClass scalar = scalarItem(type);
+    if (scalar != null && Primitive.of(scalar) != Primitive.DOUBLE) {
+      final JVar array = block.decl(JMod.FINAL, type, unique("array", locals), value);
+      final JVar size = block.decl(JMod.FINAL, model.INT, unique("size", locals), array.invoke("size"));
+      block.add(out.invoke("varint").arg(size));
+      block.add(out.invoke("presence").arg(size).arg(new JLambdaMethodRef(array, "isNull")));
+      final JForLoop loop = block._for();
+      final JVar i = loop.init(model.INT, unique("i", locals), JExpr.lit(0));
+      loop.test(i.lt(size));
+      loop.update(i.incr());
+      loop.body()._if(array.invoke("isNull").arg(i).not())._then().add(out.invoke("value").arg(array.invoke("get").arg(i)));
+      return;
+    }
+    // Элементы массива чисел записываются как числа, а не как их примитивные значения
+    if (scalar != null || type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = scalar != null ? scalar : type.getTypeParameters().get(0);
+      final JVar items = block.decl(JMod.FINAL, model.ref(List.class).narrow(item), unique("items", locals), value.invoke("value"));
+      block.add(out.invoke("varint").arg(items.invoke("size")));
+      block.add(out.invoke("presence").arg(items));
+      final JForEach loop = block.forEach(item, unique("item", locals), items);
+      writeBinary(loop.body()._if(loop.var().neNull())._then(), out, item, loop.var(), locals);
+      return;
+    }
+    if (type instanceof JDefinedClass && ((JDefinedClass)type).getClassType() == EClassType.ENUM) {
+      block.add(out.invoke("varint").arg(value.invoke("ordinal")));
+      return;
+    }
+    final JDefinedClass binary = type instanceof JDefinedClass ? binaries.get((JDefinedClass)type) : null;
+    if (binary != null) {
+      block.add(binary.staticInvoke("write").arg(out).arg(value));
+      return;
+    }
+    // Значения, тип которых схемой не ограничен, записываются в виде JSON
+    block.add(out.invoke("json").arg(JExpr.cast(model.ref(JsonValue.class), value)));
+  }
+  /**
+   * Генерирует код перевода в JSON значения указанного типа, записанного в двоичном виде.
+   *
+   * @param block Блок, в который добавляется код
+   * @param in Читатель
+   * @param out Писатель JSON
+   * @param type Тип значения
+   * @param locals Уже использованные в методе имена переменных
+   */
+  private void transcode(JBlock block, JVar in, JVar out, AbstractJClass type, Set<String> locals) {
+    final Primitive primitive = Primitive.of(type);
+    if (primitive == Primitive.DOUBLE) {
+      block.add(in.invoke("number").arg(out));
+      return;
+    }
+    if (primitive == Primitive.LONG) {
+      block.add(in.invoke("integer").arg(out));
+      return;
+    }
+    if (primitive != null) {
+      block.add(out.invoke("value").arg(in.invoke("booleanValue")));
+      return;
+    }
+    if (type.equals(model.ref(JsonString.class))) {
+      block.add(in.invoke("string").arg(out));
+      return;
+    }
+    final AbstractJClass scalar = scalarItem(type);
+    if (scalar != null || type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = scalar != null ? scalar : type.getTypeParameters().get(0);
+      final JVar size = block.decl(JMod.FINAL, model.INT, unique("size", locals), in.invoke("count"));
+      final JVar present = block.decl(JMod.FINAL, model.INT, unique("present", locals), in.invoke("presence").arg(size));
+      block.add(out.invoke("beginArray"));
+      final JForLoop loop = block._for();
+      final JVar i = loop.init(model.INT, unique("i", locals), JExpr.lit(0));
+      loop.test(i.lt(size));
+      loop.update(i.incr());
+      final JConditional isPresent = loop.body()._if(in.invoke("present").arg(present).arg(i));
+      transcode(isPresent._then(), in, out, item, locals);
+      isPresent._else().add(out.invoke("nullValue"));
+      block.add(out.invoke("endArray"));
+      return;
+    }
+    if (type instanceof JDefinedClass && ((JDefinedClass)type).getClassType() == EClassType.ENUM) {
+      final JDefinedClass e = (JDefinedClass)type;
+      block.add(writers.get(e).staticInvoke("write").arg(out).arg(
+        e.staticInvoke("values").component(in.invoke("ordinal").arg(JExpr.lit(enumValues.get(e).size())))
+      ));
+      return;
+    }
+    final JDefinedClass binary = type instanceof JDefinedClass ? binaries.get((JDefinedClass)type) : null;
+    if (binary != null) {
+      block.add(binary.staticInvoke("transcode").arg(in).arg(out));
+      return;
+    }
+    block.add(in.invoke("json").arg(out));
+  }
+  /**
+   * Генерирует выражение, создающее представление значения указанного типа поверх двоичного
+   * сообщения.
+   *
+   * @param type Тип значения
+   * @param buffer Выражение, возвращающее буфер с сообщением
+   * @param offset Выражение, возвращающее позицию значения в буфере
+   *
+   * @return Выражение, создающее значение, или {@code null}, если для такого типа не может быть
+   *         построена реализация
+   *
+   * @see #decode
+   */
+  private IJExpression binaryDecode(AbstractJClass type, IJExpression buffer, IJExpression offset) {
+    final Class<? extends BinaryValue> builtin = binaryBuiltin(type);
+    if (builtin != null) {
+      // Числа, записанные текстом, представляются ленивыми реализациями, поэтому создаются фабрикой
+      return builtin == BinaryInteger.class || builtin == BinaryNumber.class
+        ? model.ref(builtin).staticInvoke("decode").arg(buffer).arg(offset)
+        : JExpr._new(model.ref(builtin)).arg(buffer).arg(offset);
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      final IJExpression items = binaryDecoder(item);
+      if (items == null) return null;
+      return JExpr._new(model.ref(BinaryArray.class).narrowEmpty()).arg(buffer).arg(offset).arg(items).arg(skipper(item));
+    }
+    if (type instanceof JDefinedClass && ((JDefinedClass)type).getClassType() == EClassType.ENUM) {
+      final JDefinedClass e = (JDefinedClass)type;
+      return e.staticInvoke("values").component(JExpr._new(model.ref(BinaryReader.class)).arg(buffer).arg(offset)
+        .invoke("ordinal").arg(JExpr.lit(enumValues.get(e).size()))
+      );
+    }
+    final Bean bean = type instanceof JDefinedClass ? beans.get((JDefinedClass)type) : null;
+    if (bean != null && bean.binaryImpl != null) {
+      return JExpr._new(bean.binaryImpl).arg(buffer).arg(offset);
+    }
+    // Остальные значения записаны текстом JSON и представляются ленивыми реализациями поверх него
+    final IJExpression decoder = decoder(type);
+    if (decoder == null) return null;
+    return JExpr._new(model.ref(BinaryReader.class)).arg(buffer).arg(offset).invoke("json").arg(decoder);
+  }
+  /**
+   * Генерирует выражение, возвращающее {@link Decoder фабрику} значений указанного типа, записанных
+   * в двоичном виде.
+   *
+   * @param type Тип значения
+   *
+   * @return Выражение, возвращающее фабрику, или {@code null}, если для такого типа не может быть
+   *         построена реализация
+   *
+   * @see #binaryDecode
+   */
+  private IJExpression binaryDecoder(AbstractJClass type) {
+    final Class<? extends BinaryValue> builtin = binaryBuiltin(type);
+    if (builtin != null) {
+      return builtin == BinaryInteger.class || builtin == BinaryNumber.class
+        ? new JLambdaMethodRef(model.ref(builtin), "decode")
+        : JLambdaMethodRef.createForNew(model.ref(builtin));
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      final IJExpression items = binaryDecoder(item);
+      if (items == null) return null;
+      return model.ref(BinaryArray.class).staticInvoke("of").arg(items).arg(skipper(item));
+    }
+    if (type instanceof JDefinedClass && ((JDefinedClass)type).getClassType() == EClassType.ENUM) {
+      return model.ref(BinaryReader.class).staticInvoke("constants").arg(((JDefinedClass)type).staticInvoke("values"));
+    }
+    final Bean bean = type instanceof JDefinedClass ? beans.get((JDefinedClass)type) : null;
+    if (bean != null && bean.binaryImpl != null) {
+      return JLambdaMethodRef.createForNew(bean.binaryImpl);
+    }
+    final IJExpression decoder = decoder(type);
+    if (decoder == null) return null;
+    return model.ref(BinaryReader.class).staticInvoke("text").arg(decoder);
+  }
+  /**
+   * Генерирует выражение, пропускающее значение указанного типа, записанное в двоичном виде.
+   *
+   * @param type Тип значения
+   * @param in Читатель
+   *
+   * @return Вызов, пропускающий значение
+   */
+  private JInvocation skip(AbstractJClass type, IJExpression in) {
+    final String method = skipMethod(type);
+    if (method != null) {
+      return JExpr.invoke(in, method);
+    }
+    final AbstractJClass scalar = scalarItem(type);
+    if (scalar != null || type.erasure().equals(model.ref(JsonArray.class))) {
+      return JExpr.invoke(in, "skipArray").arg(skipper(scalar != null ? scalar : type.getTypeParameters().get(0)));
+    }
+    return binaries.get((JDefinedClass)type).staticInvoke("skip").arg(in);
+  }
+  /**
+   * Генерирует выражение, возвращающее {@link BinaryReader.Skipper функцию пропуска} значений
+   * указанного типа, записанных в двоичном виде.
+   *
+   * @param type Тип значения
+   *
+   * @return Выражение, возвращающее функцию пропуска
+   */
+  private IJExpression skipper(AbstractJClass type) {
+    final String method = skipMethod(type);
+    if (method != null) {
+      return new JLambdaMethodRef(model.ref(BinaryReader.class), method);
+    }
+    final AbstractJClass scalar = scalarItem(type);
+    if (scalar != null || type.erasure().equals(model.ref(JsonArray.class))) {
+      return model.ref(BinaryArray.class).staticInvoke("skipper").arg(skipper(scalar != null ? scalar : type.getTypeParameters().get(0)));
+    }
+    return new JLambdaMethodRef(binaries.get((JDefinedClass)type), "skip");
+  }
+  /**
+   * Возвращает метод {@link BinaryReader}, пропускающий значение указанного типа.
+   *
+   * @param type Тип значения
+   *
+   * @return Имя метода или {@code null} для массивов и объектов, записанных в двоичном виде
+   */
+  private String skipMethod(AbstractJClass type) {
+    final Primitive primitive = Primitive.of(type);
+    if (primitive == Primitive.LONG)    return "skipInteger";
+    if (primitive == Primitive.DOUBLE)  return "skipNumber";
+    if (primitive == Primitive.BOOLEAN) return "booleanValue";
+    if (scalarItem(type) != null || type.erasure().equals(model.ref(JsonArray.class))) return null;
+    if (type instanceof JDefinedClass) {
+      final JDefinedClass clazz = (JDefinedClass)type;
+      if (clazz.getClassType() == EClassType.ENUM) return "varint";
+      if (binaries.containsKey(clazz)) return null;
+    }
+    // Строки и значения, записанные текстом JSON
+    return "skipBytes";
+  }
+  /**
+   * Возвращает реализацию встроенного типа поверх двоичного сообщения.
+   *
+   * @param type Тип значения
+   *
+   * @return Класс реализации или {@code null}, если {@code type} не является скалярным типом или
+   *         специализированным массивом скаляров
+   *
+   * @see #lazyBuiltin
+   */
+  private Class<? extends BinaryValue> binaryBuiltin(AbstractJClass type) {
+    if (type.equals(model.ref(JsonString.class)))       return BinaryString.class;
+    if (type.equals(model.ref(JsonInteger.class)))      return BinaryInteger.class;
+    if (type.equals(model.ref(JsonNumber.class)))       return BinaryNumber.class;
+    if (type.equals(model.ref(JsonBoolean.class)))      return BinaryBoolean.class;
+    if (type.equals(model.ref(JsonStringArray.class)))  return BinaryStringArray.class;
+    if (type.equals(model.ref(JsonLongArray.class)))    return BinaryLongArray.class;
+    if (type.equals(model.ref(JsonDoubleArray.class)))  return BinaryDoubleArray.class;
+    if (type.equals(model.ref(JsonBooleanArray.class))) return BinaryBooleanArray.class;
+    return null;
+  }
+  /**
+   * Вычисляет отпечаток схемы типа объекта: первые 8 байт SHA-256 от описания имен и типов всех его
+   * свойств, включая свойства вложенных объектов.
+   *
+   * @param clazz Интерфейс объекта
+   *
+   * @return Отпечаток схемы
+   */
+  private long fingerprint(JDefinedClass clazz) {
+    final StringBuilder signature = new StringBuilder();
+    signature(clazz, signature, new HashSet<>());
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(signature.toString().getBytes(UTF_8));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (NoSuchAlgorithmException ex) {
+      // Поддержка SHA-256 обязательна для всех реализаций Java
+      throw new IllegalStateException(ex);
+    }
+  }
+  /**
+   * Добавляет к описанию схемы описание типа значения в том виде, в котором оно определяет
+   * двоичное представление.
+   *
+   * @param type Тип значения
+   * @param signature Описание схемы
+   * @param visiting Объекты, описание которых уже начато; рекурсивные ссылки на них описываются именем
+   */
+  private void signature(AbstractJClass type, StringBuilder signature, Set<JDefinedClass> visiting) {
+    final Primitive primitive = Primitive.of(type);
+    if (primitive != null) {
+      signature.append(primitive.name().charAt(0));
+      return;
+    }
+    if (type.equals(model.ref(JsonString.class))) {
+      signature.append('S');
+      return;
+    }
+    final AbstractJClass scalar = scalarItem(type);
+    if (scalar != null || type.erasure().equals(model.ref(JsonArray.class))) {
+      signature.append('[');
+      signature(scalar != null ? scalar : type.getTypeParameters().get(0), signature, visiting);
+      signature.append(']');
+      return;
+    }
+    if (type instanceof JDefinedClass && ((JDefinedClass)type).getClassType() == EClassType.ENUM) {
+      signature.append('E').append(enumValues.get((JDefinedClass)type));
+      return;
+    }
+    final JDefinedClass clazz = type instanceof JDefinedClass ? (JDefinedClass)type : null;
+    if (clazz == null || !binaries.containsKey(clazz)) {
+      signature.append('J');
+      return;
+    }
+    if (!visiting.add(clazz)) {
+      signature.append('@').append(clazz.fullName());
+      return;
+    }
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    collect(clazz, properties, new LinkedHashMap<>());
+    if (properties.isEmpty()) {
+      signature.append('J');
+    } else {
+      signature.append('{');
+      for (final Property property : properties.values()) {
+        signature.append(JsonWriter.quote(property.name)).append(':');
+        signature((AbstractJClass)property.getter.type(), signature, visiting);
+        signature.append(',');
+      }
+      signature.append('}');
+    }
+    visiting.remove(clazz);
+  }
+  /**
+   * Возвращает тип элементов специализированного массива.
+   *
+   * @param type Тип значения
+   *
+   * @return Скалярный тип элементов или {@code null}, если тип не является специализированным массивом
+   */
+  private AbstractJClass scalarItem(AbstractJClass type) {
+    if (type.equals(model.ref(JsonStringArray.class)))  return model.ref(JsonString.class);
+    if (type.equals(model.ref(JsonLongArray.class)))    return model.ref(JsonInteger.class);
+    if (type.equals(model.ref(JsonDoubleArray.class)))  return model.ref(JsonNumber.class);
+    if (type.equals(model.ref(JsonBooleanArray.class))) return model.ref(JsonBoolean.class);
+    return null;
+  }
+  /**
+   * Генерирует для каждого интерфейса объекта, имеющего ленивую реализацию, свойства и не имеющего
+   * вариантов, вложенный класс {@code Patched} -- неизменяемую версию объекта, см.
+   * {@link PersistentObject}, -- и методы интерфейса {@code with<Имя>(...)}, создающие версии с
+   * измененным свойством. Так как методы объявлены в интерфейсе, их поддерживают и ленивые
+   * реализации, и курсоры. Класс версии также применяет к объекту JSON Merge Patch и JSON Patch,
+   * изменяя только затронутые патчем свойства.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void generateVersions() throws JClassAlreadyExistsException {
+    // Версии ссылаются друг на друга, а методы with переопределяются в наследниках, поэтому сначала
+    // объявляются все классы и методы собственных свойств
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      final Bean bean = e.getValue();
+      final Map<String, Property> properties = new LinkedHashMap<>();
+      final Map<String, JMethod> variants = new LinkedHashMap<>();
+      if (bean.impl == null || !collect(e.getKey(), properties, variants)) continue;
+      if (properties.isEmpty() || !variants.isEmpty()) continue;
+
+      final JDefinedClass clazz = e.getKey();
+      bean.patched = clazz._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Patched");
+      for (final Property property : bean.properties) {
+        property.with = clazz.method(JMod.PUBLIC | JMod.DEFAULT, clazz, resolveCollision(clazz, "with" + toTitleCase(property.name)));
+      }
+    }
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().patched != null) {
+        generatePatched(e.getKey(), e.getValue());
+      }
+    }
+  }
+  /**
+   * Генерирует тело неизменяемой версии объекта и методы {@code with<Имя>(...)} интерфейса.
+   *
+   * @param clazz Интерфейс объекта
+   * @param bean Сведения об интерфейсе
+   */
+  private void generatePatched(JDefinedClass clazz, Bean bean) {
+    final Map<String, Property> properties = new LinkedHashMap<>();
+    collect(clazz, properties, new LinkedHashMap<>());
+    final Map<String, Integer> names = names(properties);
+    final JDefinedClass patched = bean.patched;
+    patched._extends(PersistentObject.class);
+    patched._implements(clazz);
+
+    final JFieldVar empty = patched.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, patched, "EMPTY",
+      JExpr._new(patched).arg(JExpr._null())
+    );
+    final Set<String> fields = new HashSet<>(Arrays.asList("EMPTY", "base"));
+    final JFieldVar base = patched.field(JMod.PRIVATE | JMod.FINAL, clazz, "base");
+    final List<JFieldVar> values = new ArrayList<>();
+    for (final Property property : properties.values()) {
+      values.add(patched.field(JMod.PRIVATE | JMod.FINAL, property.getter.type(), fieldName(property.getter.name(), fields)));
+    }
+
+    // Версия без изменений: все свойства берутся у исходного объекта, а если его нет -- отсутствуют
+    final JMethod initial = patched.constructor(JMod.PRIVATE);
+    final JVar source = initial.param(JMod.FINAL, clazz, "base");
+    initial.body().add(JExpr.invokeSuper().arg(JExpr.lit(values.size())).arg(source.eqNull()));
+    initial.body().assign(JExpr._this().ref(base), source);
+    for (final JFieldVar field : values) {
+      initial.body().assign(JExpr._this().ref(field), JExpr._null());
+    }
+    // Версия с одним измененным свойством; остальные значения копируются из предыдущей версии
+    final JMethod next = patched.constructor(JMod.PRIVATE);
+    next.annotate(SuppressWarnings.class).param("value", "unchecked");
+    final JVar previous = next.param(JMod.FINAL, patched, "previous");
+    final JVar number = next.param(JMod.FINAL, model.INT, "property");
+    final JVar v = next.param(JMod.FINAL, Object.class, "value");
+    next.body().add(JExpr.invokeSuper().arg(previous).arg(number));
+    next.body().assign(JExpr._this().ref(base), previous.ref(base));
+    for (int i = 0; i < values.size(); ++i) {
+      final JFieldVar field = values.get(i);
+      next.body().assign(JExpr._this().ref(field), JOp.cond(number.eq(JExpr.lit(i)), JExpr.cast(field.type(), v), previous.ref(field)));
+    }
+
+    final JMethod of = patched.method(JMod.PUBLIC | JMod.STATIC, patched, "of");
+    final JVar value = of.param(JMod.FINAL, clazz, "value");
+    of.body()._if(value._instanceof(patched))._then()._return(JExpr.cast(patched, value));
+    of.body()._if(value.eqNull())._then()._return(empty);
+    // Значения курсора действительны только до его перестановки, поэтому версия строится над
+    // независимым представлением того же объекта
+    of.body()._if(value._instanceof(model.ref(CursorObject.class)))._then()._return(JExpr._new(patched).arg(
+      JExpr.cast(model.ref(CursorObject.class), value).invoke("detach").arg(bean.impl.staticRef("DECODER"))
+    ));
+    of.body()._return(JExpr._new(patched).arg(value));
+
+    int i = 0;
+    for (final Property property : properties.values()) {
+      final AbstractJType type = property.getter.type();
+      final JFieldVar field = values.get(i);
+      final JMethod getter = patched.method(JMod.PUBLIC, type, property.getter.name());
+      getter.annotate(Override.class);
+      getter.body()._return(JOp.cond(JExpr.invoke("changed").arg(JExpr.lit(i)), field, base.invoke(property.getter)));
+
+      // Унаследованные методы with переопределяются, чтобы возвращать версию этого интерфейса
+      final JMethod declared = bean.properties.contains(property)
+        ? property.with
+        : clazz.method(JMod.PUBLIC | JMod.DEFAULT, clazz, property.with.name());
+      declared.body()._return(patched.staticInvoke("of").arg(JExpr._this()).invoke(property.with.name()).arg(
+        declared.param(JMod.FINAL, type, field.name())
+      ));
+      final JMethod with = patched.method(JMod.PUBLIC, patched, property.with.name());
+      with.annotate(Override.class);
+      with.body()._return(JExpr._new(patched).arg(JExpr._this()).arg(JExpr.lit(i)).arg(with.param(JMod.FINAL, type, field.name())));
+      ++i;
+    }
+    generateMerge(clazz, bean, properties, names);
+    generateApply(clazz, bean, properties);
+  }
+  /**
+   * Генерирует в версии объекта статический метод {@code merge(T, ByteBuffer, int)}, применяющий
+   * JSON Merge Patch (RFC 7386). Свойства, упомянутые в патче, изменяются по одному; вложенные
+   * объекты с версиями объединяются с патчем рекурсивно, остальные значения -- через
+   * {@link MergePatch#merge(Object, Encoder, Decoder, ByteBuffer, int)}.
+   *
+   * @param clazz Интерфейс объекта
+   * @param bean Сведения об интерфейсе
+   * @param properties Свойства объекта, собранные {@link #collect}
+   * @param names Номера свойств в индексе объекта
+   */
+  private void generateMerge(JDefinedClass clazz, Bean bean, Map<String, Property> properties, Map<String, Integer> names) {
+    final JDefinedClass patched = bean.patched;
+    final JMethod merge = patched.method(JMod.PUBLIC | JMod.STATIC, clazz, "merge");
+    final JVar target = merge.param(JMod.FINAL, clazz, "target");
+    final JVar patch = merge.param(JMod.FINAL, ByteBuffer.class, "patch");
+    final JVar offset = merge.param(JMod.FINAL, model.INT, "offset");
+    final JBlock body = merge.body();
+
+    // Патч, не являющийся объектом, заменяет объект целиком
+    body._if(model.ref(MergePatch.class).staticInvoke("isObject").arg(patch).arg(offset).not())._then()._return(
+      model.ref(MergePatch.class).staticInvoke("merge")
+        .arg(target)
+        .arg(writers.get(clazz).staticRef("ENCODER"))
+        .arg(bean.impl.staticRef("DECODER"))
+        .arg(patch)
+        .arg(offset)
+    );
+    final JVar index = body.decl(JMod.FINAL, model.INT.array(), "index",
+      model.ref(MergePatch.class).staticInvoke("index").arg(patch).arg(offset).arg(bean.impl.staticRef("KEYS"))
+    );
+    final JVar result = body.decl(patched, "result", patched.staticInvoke("of").arg(target));
+    final Set<String> seen = new HashSet<>();
+    for (final Property property : properties.values()) {
+      if (!seen.add(property.name)) continue;
+
+      final AbstractJClass type = (AbstractJClass)property.getter.type();
+      final IJExpression at = index.component(JExpr.lit(names.get(property.name)));
+      final JBlock then = body._if(at.gte(JExpr.lit(0)))._then();
+      final IJExpression current = result.invoke(property.getter);
+      final JDefinedClass nested = type instanceof JDefinedClass && beans.containsKey(type) ? beans.get(type).patched : null;
+      final IJExpression decoder = decoder(type);
+      if (nested != null) {
+        then.assign(result, result.invoke(property.with.name()).arg(nested.staticInvoke("merge").arg(current).arg(patch).arg(at)));
+      } else
+      if (decoder != null) {
+        then.assign(result, result.invoke(property.with.name()).arg(model.ref(MergePatch.class).staticInvoke("merge")
+          .arg(current)
+          .arg(encoder(type))
+          .arg(decoder)
+          .arg(patch)
+          .arg(at)
+        ));
+      } else {
+        // Значения без ленивой реализации не могут быть представлены после слияния
+        then._throw(JExpr._new(model.ref(JsonPatchException.class))
+          .arg(JExpr.lit("Property '" + property.name + "' of " + clazz.name() + " has no lazy implementation and cannot be merged"))
+          .arg(JExpr.lit("/" + property.name.replace("~", "~0").replace("/", "~1")))
+        );
+      }
+    }
+    body._return(result);
+  }
+  /**
+   * Генерирует в версии объекта статические методы применения JSON Patch (RFC 6902):
+   * {@code patch(T, ByteBuffer, int)}, применяющий весь патч, и {@code apply(T, Operation, int)} --
+   * {@link JsonPatch.Patcher функцию применения} одной операции, выбирающую свойство по элементу
+   * пути операции.
+   *
+   * @param clazz Интерфейс объекта
+   * @param bean Сведения об интерфейсе
+   * @param properties Свойства объекта, собранные {@link #collect}
+   */
+  private void generateApply(JDefinedClass clazz, Bean bean, Map<String, Property> properties) {
+    final JDefinedClass patched = bean.patched;
+    final JMethod patch = patched.method(JMod.PUBLIC | JMod.STATIC, clazz, "patch");
+    patch.body()._return(model.ref(JsonPatch.class).staticInvoke("apply")
+      .arg(patch.param(JMod.FINAL, clazz, "target"))
+      .arg(patch.param(JMod.FINAL, ByteBuffer.class, "patch"))
+      .arg(patch.param(JMod.FINAL, model.INT, "offset"))
+      .arg(new JLambdaMethodRef(patched, "apply"))
+    );
+
+    final JMethod apply = patched.method(JMod.PUBLIC | JMod.STATIC, clazz, "apply");
+    final JVar target = apply.param(JMod.FINAL, clazz, "target");
+    final JVar op = apply.param(JMod.FINAL, JsonPatch.Operation.class, "op");
+    final JVar depth = apply.param(JMod.FINAL, model.INT, "depth");
+    final JBlock body = apply.body();
+    body._if(op.invoke("isTarget").arg(depth).cor(target.eqNull()))._then()._return(op.invoke("leaf")
+      .arg(target)
+      .arg(depth)
+      .arg(writers.get(clazz).staticRef("ENCODER"))
+      .arg(bean.impl.staticRef("DECODER"))
+    );
+    final JVar value = body.decl(JMod.FINAL, patched, "value", patched.staticInvoke("of").arg(target));
+    final IJExpression child = depth.plus(JExpr.lit(1));
+    final JSwitch cases = body._switch(op.invoke("token").arg(depth));
+    final Set<String> seen = new HashSet<>();
+    for (final Property property : properties.values()) {
+      if (!seen.add(property.name)) continue;
+
+      final AbstractJClass type = (AbstractJClass)property.getter.type();
+      final JBlock block = cases._case(JExpr.lit(property.name)).body();
+      final IJExpression patchedValue = patch(type, value.invoke(property.getter), op, child);
+      if (patchedValue == null) {
+        block._throw(op.invoke("unsupported").arg(depth));
+      } else {
+        block._return(value.invoke(property.with.name()).arg(patchedValue));
+      }
+    }
+    body._throw(op.invoke("unknown").arg(depth));
+  }
+  /**
+   * Генерирует выражение, применяющее операцию JSON Patch к значению свойства.
+   *
+   * @param type Тип значения
+   * @param current Выражение, возвращающее текущее значение
+   * @param op Применяемая операция
+   * @param depth Выражение, возвращающее количество пройденных элементов пути
+   *
+   * @return Выражение, возвращающее новое значение, или {@code null}, если для такого типа не может
+   *         быть построена реализация
+   */
+  private IJExpression patch(AbstractJClass type, IJExpression current, JVar op, IJExpression depth) {
+    final JDefinedClass nested = type instanceof JDefinedClass && beans.containsKey(type) ? beans.get(type).patched : null;
+    if (nested != null) {
+      return nested.staticInvoke("apply").arg(current).arg(op).arg(depth);
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      final IJExpression patcher = patcher(item);
+      final IJExpression decoder = decoder(item);
+      if (patcher == null || decoder == null) return null;
+      return op.invoke("array").arg(current).arg(depth).arg(patcher).arg(encoder(item)).arg(decoder);
+    }
+    final IJExpression decoder = decoder(type);
+    if (decoder == null) return null;
+    return op.invoke("leaf").arg(current).arg(depth).arg(encoder(type)).arg(decoder);
+  }
+  /**
+   * Генерирует выражение, возвращающее {@link JsonPatch.Patcher функцию применения} операций JSON
+   * Patch к значениям указанного типа.
+   *
+   * @param type Тип значения
+   *
+   * @return Выражение, возвращающее функцию, или {@code null}, если для такого типа не может быть
+   *         построена реализация
+   */
+  private IJExpression patcher(AbstractJClass type) {
+    final JDefinedClass nested = type instanceof JDefinedClass && beans.containsKey(type) ? beans.get(type).patched : null;
+    if (nested != null) {
+      return new JLambdaMethodRef(nested, "apply");
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      final IJExpression patcher = patcher(item);
+      final IJExpression decoder = decoder(item);
+      if (patcher == null || decoder == null) return null;
+      return model.ref(JsonPatch.class).staticInvoke("array").narrow(item).arg(patcher).arg(encoder(item)).arg(decoder);
+    }
+    final IJExpression decoder = decoder(type);
+    if (decoder == null) return null;
+    return model.ref(JsonPatch.class).staticInvoke("leaf").narrow(type).arg(encoder(type)).arg(decoder);
+  }
+  /**
+   * Генерирует выражение, возвращающее {@link Encoder функцию записи} значений указанного типа в JSON.
+   *
+   * @param type Тип значения
+   *
+   * @return Выражение, возвращающее функцию записи
+   */
+  private IJExpression encoder(AbstractJClass type) {
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final AbstractJClass item = type.getTypeParameters().get(0);
+      return model.ref(Encoder.class).staticInvoke("array").narrow(item).arg(encoder(item));
+    }
+    final JDefinedClass writer = type instanceof JDefinedClass ? writers.get((JDefinedClass)type) : null;
+    if (writer != null) {
+      return writer.staticRef("ENCODER");
+    }
+    // Скаляры, специализированные массивы и JsonValue записываются универсальным методом
+    return new JLambdaMethodRef(model.ref(JsonWriter.class), "value");
+  }
+  /**
+   * Генерирует сравнение объектов по интерфейсу: ленивая реализация, курсор, версия и реализация
+   * поверх двоичного сообщения одного интерфейса равны, если равны значения их свойств, независимо
+   * от того, какой класс их представляет. Для этого в ленивой реализации объявляются статические
+   * методы {@code equal(T, Object)} и {@code hash(T)}, через которые остальные классы переопределяют
+   * {@code equals} и {@code hashCode}, а ленивая реализация сравнивает себя с ними; реализации
+   * одного класса по-прежнему сравниваются по индексу, см. {@link LazyObject#equals}. Реализации
+   * разных интерфейсов, в том числе унаследованных, никогда не равны, иначе сравнение было бы
+   * несимметричным.
+   * <p>
+   * Если у объекта есть свойства без ленивой реализации, их значения нельзя прочитать, поэтому
+   * объекты такого интерфейса сравниваются только с представлениями того же класса.
+   */
+  private void generateEquality() {
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      final Bean bean = e.getValue();
+      if (bean.impl == null || bean.cursor == null) continue;
+
+      final Map<String, Property> properties = new LinkedHashMap<>();
+      collect(e.getKey(), properties, new LinkedHashMap<>());
+      generateEquality(e.getKey(), bean, properties);
+    }
+  }
+  /**
+   * Генерирует сравнение объектов интерфейса, см. {@link #generateEquality()}.
+   *
+   * @param clazz Интерфейс объекта
+   * @param bean Сведения об интерфейсе
+   * @param properties Свойства объекта, собранные {@link #collect}
+   */
+  private void generateEquality(JDefinedClass clazz, Bean bean, Map<String, Property> properties) {
+    for (final Property property : properties.values()) {
+      if (decode((AbstractJClass)property.getter.type(), JExpr.ref("buffer"), JExpr.ref("at")) == null) return;
+    }
+    final AbstractJClass hash = model.ref(ContentHash.class);
+
+    final JMethod equal = bean.impl.method(JMod.PUBLIC | JMod.STATIC, model.BOOLEAN, "equal");
+    final JVar value = equal.param(JMod.FINAL, clazz, "value");
+    final JVar obj = equal.param(JMod.FINAL, Object.class, "obj");
+    IJExpression same = obj._instanceof(bean.impl).cor(obj._instanceof(bean.cursor));
+    if (bean.patched != null) {
+      same = same.cor(obj._instanceof(bean.patched));
+    }
+    if (bean.binaryImpl != null) {
+      same = same.cor(obj._instanceof(bean.binaryImpl));
+    }
+    equal.body()._if(same.not())._then()._return(JExpr.FALSE);
+    final JVar other = equal.body().decl(JMod.FINAL, clazz, "other", JExpr.cast(clazz, obj));
+
+    final JMethod hashMethod = bean.impl.method(JMod.PUBLIC | JMod.STATIC, model.INT, "hash");
+    final JVar hashed = hashMethod.param(JMod.FINAL, clazz, "value");
+    // Объект без свойств сравнивается по всему содержимому, как и в LazyObject
+    if (properties.isEmpty()) {
+      final IJExpression encoder = writers.get(clazz).staticRef("ENCODER");
+      equal.body()._return(hash.staticInvoke("equal").arg(value).arg(other).arg(encoder));
+      hashMethod.body()._return(hash.staticInvoke("hashCode").arg(hashed).arg(encoder));
+    } else {
+      // Свойства перебираются в порядке их номеров, чтобы хеш совпадал с хешем LazyObject
+      IJExpression result = null;
+      final JVar h = hashMethod.body().decl(model.INT, "h", JExpr.lit(1));
+      final Set<String> seen = new HashSet<>();
+      for (final Property property : properties.values()) {
+        if (!seen.add(property.name)) continue;
+
+        final IJExpression encoder = encoder((AbstractJClass)property.getter.type());
+        final IJExpression eq = hash.staticInvoke("equal")
+          .arg(value.invoke(property.getter))
+          .arg(other.invoke(property.getter))
+          .arg(encoder);
+        result = result == null ? eq : result.cand(eq);
+        hashMethod.body().assign(h, JExpr.lit(31).mul(h).plus(
+          hash.staticInvoke("hashCode").arg(hashed.invoke(property.getter)).arg(encoder)
+        ));
+      }
+      equal.body()._return(result);
+      hashMethod.body()._return(h);
+    }
+
+    final JMethod implEquals = bean.impl.method(JMod.PUBLIC, model.BOOLEAN, "equals");
+    implEquals.annotate(Override.class);
+    final JVar implObj = implEquals.param(JMod.FINAL, Object.class, "obj");
+    implEquals.body()._return(JOp.cond(
+      implObj._instanceof(bean.impl),
+      JExpr._super().invoke("equals").arg(implObj),
+      JExpr.invoke(equal).arg(JExpr._this()).arg(implObj)
+    ));
+
+    delegateEquality(bean.cursor, bean.impl, equal, hashMethod);
+    if (bean.patched != null) {
+      delegateEquality(bean.patched, bean.impl, equal, hashMethod);
+    }
+    if (bean.binaryImpl != null) {
+      delegateEquality(bean.binaryImpl, bean.impl, equal, hashMethod);
+    }
+  }
+  /**
+   * Переопределяет в классе {@code equals} и {@code hashCode}, вызывающие сгенерированные в
+   * ленивой реализации методы сравнения.
+   *
+   * @param clazz Класс курсора или версии объекта
+   * @param impl Класс ленивой реализации
+   * @param equal Метод сравнения {@code equal(T, Object)}
+   * @param hash Метод хеширования {@code hash(T)}
+   */
+  private void delegateEquality(JDefinedClass clazz, JDefinedClass impl, JMethod equal, JMethod hash) {
+    final JMethod equals = clazz.method(JMod.PUBLIC, model.BOOLEAN, "equals");
+    equals.annotate(Override.class);
+    final JVar obj = equals.param(JMod.FINAL, Object.class, "obj");
+    equals.body()._return(obj.eq(JExpr._this()).cor(impl.staticInvoke(equal).arg(JExpr._this()).arg(obj)));
+    final JMethod hashCode = clazz.method(JMod.PUBLIC, model.INT, "hashCode");
+    hashCode.annotate(Override.class);
+    hashCode.body()._return(impl.staticInvoke(hash).arg(JExpr._this()));
+  }
+  /**
+   * Генерирует для каждого интерфейса объекта, имеющего ленивую реализацию и скалярные свойства,
+   * вложенный класс {@code Columns} -- колоночное представление массива таких объектов для
+   * аналитической обработки, см. {@link ColumnTable}. На каждое свойство с целым, дробным или
+   * логическим типом, строкой или перечислением строится колонка примитивов; остальные свойства
+   * в колонки не попадают.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void generateColumns() throws JClassAlreadyExistsException {
+    for (final Map.Entry<JDefinedClass, Bean> e : beans.entrySet()) {
+      if (e.getValue().impl == null) continue;
+
+      final Map<String, Property> properties = new LinkedHashMap<>();
+      collect(e.getKey(), properties, new LinkedHashMap<>());
+      final Map<String, Property> columns = new LinkedHashMap<>();
+      for (final Property property : properties.values()) {
+        if (!columns.containsKey(property.name) && column((AbstractJClass)property.getter.type()) != null) {
+          columns.put(property.name, property);
+        }
+      }
+      if (!columns.isEmpty()) {
+        generateColumns(e.getKey(), columns);
+      }
+    }
+  }
+  /**
+   * Генерирует тело колоночного представления массива объектов.
+   *
+   * @param clazz Интерфейс объекта
+   * @param properties Свойства, для которых строятся колонки, в порядке номеров колонок
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться
+   */
+  private void generateColumns(JDefinedClass clazz, Map<String, Property> properties) throws JClassAlreadyExistsException {
+    final JDefinedClass columns = clazz._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Columns");
+    final JFieldVar keysField = keys(columns, properties.keySet());
+    final JArray kinds = JExpr.newArray(model.ref(ColumnTable.Kind.class));
+    for (final Property property : properties.values()) {
+      kinds.add(model.ref(ColumnTable.Kind.class).staticRef(column((AbstractJClass)property.getter.type()).name()));
+    }
+    final JFieldVar kindsField = columns.field(
+      JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+      model.ref(ColumnTable.Kind.class).array(),
+      "KINDS",
+      kinds
+    );
+    final JFieldVar table = columns.field(JMod.PRIVATE | JMod.FINAL, ColumnTable.class, "table");
+
+    final JMethod constructor = columns.constructor(JMod.PRIVATE);
+    constructor.body().assign(JExpr._this().ref(table), constructor.param(ColumnTable.class, "table"));
+
+    // Массив в документе
+    final JMethod parallel = columns.method(JMod.PUBLIC | JMod.STATIC, columns, "of");
+    final JVar buffer = parallel.param(ByteBuffer.class, "buffer");
+    final JVar offset = parallel.param(model.INT, "offset");
+    final JVar flag = parallel.param(model.BOOLEAN, "parallel");
+    parallel.body()._return(JExpr._new(columns).arg(
+      model.ref(ColumnTable.class).staticInvoke("of").arg(buffer).arg(offset).arg(keysField).arg(kindsField).arg(flag)
+    ));
+
+    final JMethod sequential = columns.method(JMod.PUBLIC | JMod.STATIC, columns, "of");
+    sequential.body()._return(JExpr.invoke(parallel)
+      .arg(sequential.param(ByteBuffer.class, "buffer"))
+      .arg(sequential.param(model.INT, "offset"))
+      .arg(JExpr.FALSE)
+    );
+
+    // Массив объектов, в том числе построенный вручную
+    final JMethod array = columns.method(JMod.PUBLIC | JMod.STATIC, columns, "of");
+    final JVar items = array.param(model.ref(JsonArray.class).narrow(clazz), "array");
+    final JVar arrayFlag = array.param(model.BOOLEAN, "parallel");
+    array.body()._return(JExpr._new(columns).arg(
+      model.ref(ColumnTable.class).staticInvoke("of")
+        .arg(items).arg(writers.get(clazz).staticRef("ENCODER")).arg(keysField).arg(kindsField).arg(arrayFlag)
+    ));
+
+    final JMethod size = columns.method(JMod.PUBLIC, model.INT, "size");
+    size.body()._return(table.invoke("size"));
+
+    int number = 0;
+    for (final Property property : properties.values()) {
+      final Class<?> type = columnClass(column((AbstractJClass)property.getter.type()));
+      final JMethod m = columns.method(JMod.PUBLIC, type, property.getter.name());
+      m.body()._return(JExpr.cast(model.ref(type), table.invoke("column").arg(JExpr.lit(number++))));
+    }
+  }
+  /**
+   * Определяет вид колонки для значений свойства.
+   *
+   * @param type Тип свойства
+   *
+   * @return Вид колонки или {@code null}, если значения свойства не хранятся в колонках
+   */
+  private ColumnTable.Kind column(AbstractJClass type) {
+    final Primitive primitive = Primitive.of(type);
+    if (primitive != null) {
+      switch (primitive) {
+        case LONG:    return ColumnTable.Kind.LONG;
+        case DOUBLE:  return ColumnTable.Kind.DOUBLE;
+        case BOOLEAN: return ColumnTable.Kind.BOOLEAN;
+      }
+    }
+    // Значения перечислений хранятся в словаре так же, как строки -- текстом литерала
+    if (type.fullName().equals(JsonString.class.getName()) || enumValues.containsKey(type)) {
+      return ColumnTable.Kind.STRING;
+    }
+    return null;
+  }
+  /** Возвращает класс колонки указанного вида. */
+  private static Class<?> columnClass(ColumnTable.Kind kind) {
+    switch (kind) {
+      case LONG:    return LongColumn.class;
+      case DOUBLE:  return DoubleColumn.class;
+      case BOOLEAN: return BooleanColumn.class;
+      default:      return StringColumn.class;
+    }
+  }
+  /**
+   * Генерирует для каждого интерфейса объекта и перечисления вложенный класс {@code Validator},
+   * проверяющий соответствие документа схеме. Проверки генерируются из схемы в виде линейного кода,
+   * работающего прямо над байтами документа: обязательные свойства проверяются по битовой маске,
+   * регулярные выражения компилируются однократно, а допустимые значения перечислений сравниваются
+   * в {@code switch}. Варианты {@code oneOf}/{@code anyOf} проверяются перебором.
+   *
+   * @see #declareValidators
+   */
+  private void generateValidators() {
+    for (final Map.Entry<Schema, JDefinedClass> e : classes.entrySet()) {
+      generateValidator(e.getValue(), validators.get(e.getValue()), e.getKey());
+    }
+  }
+  /**
+   * Генерирует поставщика фабрик всех типов документа и перечисляет его в
+   * {@code META-INF/services}, чтобы реестр находил фабрики без рефлексии. Поставщик -- вложенный
+   * класс {@code Codecs} класса документа, а если документ -- скалярное значение или массив,
+   * то класс верхнего уровня с суффиксом {@code Codecs}.
+   *
+   * @param root Тип, представляющий весь документ
+   * @param name Имя класса документа
+   *
+   * @throws JClassAlreadyExistsException Если класс документа отсутствует, а класс с именем поставщика
+   *         сгенерирован для одного из определений схемы
+   */
+  private void generateRegistry(AbstractJClass root, String name) throws JClassAlreadyExistsException {
+    final JDefinedClass registry = root instanceof JDefinedClass
+      ? ((JDefinedClass)root)._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Codecs")
+      : target._class(JMod.PUBLIC | JMod.FINAL, name + "Codecs");
+    registry._implements(CodecProvider.class);
+
+    final JMethod register = registry.method(JMod.PUBLIC, model.VOID, "register");
+    register.annotate(Override.class);
+    final JVar param = register.param(JMod.FINAL, CodecRegistry.class, "registry");
+    for (final JDefinedClass clazz : classes.values()) {
+      final IJExpression decoder = decoder(clazz);
+      final JDefinedClass writer = writers.get(clazz);
+      if (decoder != null || writer != null) {
+        register.body().add(param.invoke("register")
+          .arg(clazz.dotclass())
+          .arg(decoder == null ? JExpr._null() : decoder)
+          .arg(writer == null ? JExpr._null() : new JLambdaMethodRef(writer, "write"))
+        );
+      }
+    }
+    model.rootPackage().addResourceFile(JTextFile.createFully(
+      "META-INF/services/" + CodecProvider.class.getName(), UTF_8, registry.binaryName() + '\n'
+    ));
+  }
+  /**
+   * Объявляет во всех интерфейсах объектов и перечислениях классы {@code Validator}. Так как
+   * валидаторы вызывают друг друга, все классы объявляются до генерации их тел.
+   *
+   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться, т.к. имена
+   *         вложенных классов, генерируемых для схем, всегда имеют суффикс {@code Type} или {@code Enum}
+   */
+  private void declareValidators() throws JClassAlreadyExistsException {
+    for (final JDefinedClass clazz : classes.values()) {
+      final JDefinedClass validator = clazz._class(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, "Validator");
+      validator.constructor(JMod.PRIVATE);
+      validators.put(clazz, validator);
+    }
+  }
+  /**
+   * Генерирует тело класса проверки. Помимо метода {@code validate(ByteBuffer, int)} для типов,
+   * имеющих реализацию, генерируется проверяющая фабрика {@code DECODER}.
+   *
+   * @param clazz Проверяемый тип
+   * @param validator Класс проверки
+   * @param schema Схема, для которой сгенерирован тип
+   */
+  private void generateValidator(JDefinedClass clazz, JDefinedClass validator, Schema schema) {
+    final JMethod validate = validator.method(JMod.PUBLIC | JMod.STATIC, model.VOID, "validate");
+    final JVar buffer = validate.param(JMod.FINAL, ByteBuffer.class, "buffer");
+    final JVar offset = validate.param(JMod.FINAL, model.INT, "offset");
+    final Checks checks = new Checks(validator, buffer);
+    checks.locals.add(offset.name());
+    checks.fields.add("PROBE");
+    check(checks, validate.body(), schema, offset, clazz.name());
+
+    final List<Object> enums = schema.getEnums();
+    if (enums != null) {
+      validate.body()._if(
+        model.ref(JsonReader.class).staticInvoke("matchLiteral").arg(buffer).arg(offset).arg(enumLiterals.get(clazz)).lt(JExpr.lit(0))
+      )._then()._throw(fail("enum", clazz.name() + " must be one of " + enums, offset));
+    }
+
+    final IJExpression decode = decode(clazz, JExpr.ref("buffer"), JExpr.ref("offset"));
+    if (decode != null) {
+      validator.field(
+        JMod.PUBLIC | JMod.STATIC | JMod.FINAL,
+        model.ref(Decoder.class).narrow(clazz),
+        "DECODER",
+        new JLambdaMethodRef(validator, "decode")
+      );
+      final JMethod m = validator.method(JMod.PUBLIC | JMod.STATIC, clazz, "decode");
+      m.param(JMod.FINAL, ByteBuffer.class, "buffer");
+      m.param(JMod.FINAL, model.INT, "offset");
+      // Ошибки вложенных проверок, перехватываемые при переборе вариантов, не учитываются: датчик
+      // узнает только об отказе в декодировании всего значения
+      final JFieldVar probe = probe(validator, clazz);
+      final JTryBlock trial = m.body()._try();
+      trial.body().add(JExpr.invoke(validate).arg(JExpr.ref("buffer")).arg(JExpr.ref("offset")));
+      final JCatchBlock failed = trial._catch(model.ref(ValidationException.class));
+      final JVar ex = failed.param("ex");
+      failed.body()._if(probe.neNull())._then().add(probe.invoke("invalid").arg(ex));
+      failed.body()._throw(ex);
+      m.body()._return(decode);
+    }
+  }
+  /**
+   * Генерирует проверку значения: вызов валидатора типа, если для схемы сгенерирован тип, или
+   * проверки по месту.
+   *
+   * @param checks Контекст генерируемого метода
+   * @param block Блок, в который добавляется код
+   * @param schema Схема значения
+   * @param pos Выражение, возвращающее позицию значения
+   * @param what Описание значения для сообщений об ошибках
+   */
+  private void validate(Checks checks, JBlock block, Schema schema, IJExpression pos, String what) {
+    final JDefinedClass clazz = classes.get(schema);
+    if (clazz != null) {
+      block.add(validators.get(clazz).staticInvoke("validate").arg(checks.buffer).arg(pos));
+    } else {
+      check(checks, block, schema, pos, what);
+    }
+  }
+  /**
+   * Генерирует проверки ограничений схемы, за исключением {@code enum}, по месту.
+   *
+   * @param checks Контекст генерируемого метода
+   * @param block Блок, в который добавляется код
+   * @param schema Схема значения
+   * @param pos Выражение, возвращающее позицию значения
+   * @param what Описание значения для сообщений об ошибках
+   */
+  private void check(Checks checks, JBlock block, Schema schema, IJExpression pos, String what) {
+    if (Boolean.FALSE.equals(schema.getSchemaObject())) {
+      block.add(model.ref(Validation.class).staticInvoke("forbid").arg(pos).arg(JExpr.lit(what)));
+      return;
+    }
+    final String unsupported = unsupported(schema);
+    if (unsupported != null) {
+      throw new IllegalArgumentException(
+        "Keyword '" + unsupported + "' of schema " + schema.getUri() + " cannot be checked by generated validators"
+      );
+    }
+    final Collection<String> types = schema.getExplicitTypes();
+    int allowed = -1;
+    if (types != null) {
+      allowed = 0;
+      for (final String type : types) {
+        allowed |= typeMask(type);
+      }
+      block.add(model.ref(Validation.class).staticInvoke("checkType")
+        .arg(checks.buffer).arg(pos).arg(mask(allowed)).arg(JExpr.lit(what))
+      );
+    }
+    if (schema.hasConst()) {
+      checkConst(checks, block, schema.getConst(), pos, what);
+    }
+    checkNumber(checks, block, schema, allowed, pos, what);
+    checkString(checks, block, schema, allowed, pos, what);
+    checkArray(checks, block, schema, allowed, pos, what);
+    checkObject(checks, block, schema, pos, what);
+    checkMembers(checks, block, schema, pos, what);
+
+    final Collection<Schema> allOf = schema.getAllOf();
+    if (allOf != null) {
+      for (final Schema s : allOf) {
+        validate(checks, block, s, pos, what);
+      }
+    }
+    checkVariants(checks, block, schema, schema.getOneOf(), true, pos, what);
+    checkVariants(checks, block, schema, schema.getAnyOf(), false, pos, what);
+    checkNot(checks, block, schema.getNot(), pos, what);
+    checkCondition(checks, block, schema, pos, what);
+  }
+  private void checkConst(Checks checks, JBlock block, Object value, IJExpression pos, String what) {
+    final AbstractJClass reader = model.ref(JsonReader.class);
+    final IJExpression type = model.ref(Validation.class).staticInvoke("typeOf").arg(checks.buffer).arg(pos);
+    final IJExpression mismatch;
+    if (value == null) {
+      mismatch = type.ne(mask(Validation.NULL));
+    } else
+    if (value instanceof String) {
+      mismatch = type.ne(mask(Validation.STRING)).cor(
+        reader.staticInvoke("equalsString").arg(checks.buffer).arg(pos).arg(JExpr.lit((String)value)).not()
+      );
+    } else
+    if (value instanceof Boolean) {
+      mismatch = type.ne(mask(Validation.BOOLEAN)).cor(
+        reader.staticInvoke("readBoolean").arg(checks.buffer).arg(pos).ne(JExpr.lit((Boolean)value))
+      );
+    } else
+    if (value instanceof Number) {
+      final JFieldVar constant = checks.validator.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        BigDecimal.class,
+        constantName(what + "_CONST", checks.fields),
+        JExpr._new(model.ref(BigDecimal.class)).arg(JExpr.lit(value.toString()))
+      );
+      mismatch = type.band(mask(Validation.NUMBER | Validation.INTEGER)).eq(JExpr.lit(0)).cor(
+        reader.staticInvoke("readDecimal").arg(checks.buffer).arg(pos).invoke("compareTo").arg(constant).ne(JExpr.lit(0))
+      );
+    } else {
+      // Объекты и массивы в качестве константы не поддерживаются
+      return;
+    }
+    block._if(mismatch)._then()._throw(fail("const", what + " must be equal to " + value, pos));
+  }
+  private void checkNumber(Checks checks, JBlock block, Schema schema, int allowed, IJExpression pos, String what) {
+    final Number minimum = schema.getMinimum();
+    final Number maximum = schema.getMaximum();
+    final Number exclusiveMinimum = schema.getExclusiveMinimum();
+    final Number exclusiveMaximum = schema.getExclusiveMaximum();
+    final Number multipleOf = schema.getMultipleOf();
+    if (minimum == null && maximum == null && exclusiveMinimum == null && exclusiveMaximum == null && multipleOf == null) {
+      return;
+    }
+    final JBlock b = guard(checks, block, allowed, Validation.NUMBER | Validation.INTEGER, pos);
+    // Если значение может быть только целым, то и все границы целые, сравниваем без преобразования в double
+    final boolean integral = (allowed & ~(Validation.INTEGER | Validation.NULL)) == 0
+      && isIntegral(minimum) && isIntegral(maximum)
+      && isIntegral(exclusiveMinimum) && isIntegral(exclusiveMaximum) && isIntegral(multipleOf);
+    final AbstractJClass reader = model.ref(JsonReader.class);
+    if (integral) {
+      // Целые числа вне диапазона long допустимы JSON Schema, их сравниваем как BigDecimal
+      final JConditional fits = b._if(model.ref(Validation.class).staticInvoke("isLong").arg(checks.buffer).arg(pos));
+      final JVar value = fits._then().decl(
+        JMod.FINAL,
+        model.LONG,
+        unique("number", checks.locals),
+        reader.staticInvoke("readLong").arg(checks.buffer).arg(pos)
+      );
+      checkBounds(checks, fits._then(), schema, value, NumberKind.LONG, pos, what);
+      final JVar decimal = fits._else().decl(
+        JMod.FINAL,
+        model.ref(BigDecimal.class),
+        unique("number", checks.locals),
+        reader.staticInvoke("readDecimal").arg(checks.buffer).arg(pos)
+      );
+      checkBounds(checks, fits._else(), schema, decimal, NumberKind.DECIMAL, pos, what);
+    } else {
+      final JVar value = b.decl(
+        JMod.FINAL,
+        model.DOUBLE,
+        unique("number", checks.locals),
+        reader.staticInvoke("readDouble").arg(checks.buffer).arg(pos)
+      );
+      checkBounds(checks, b, schema, value, NumberKind.DOUBLE, pos, what);
+    }
+  }
+  /**
+   * Генерирует проверки {@code minimum}, {@code maximum}, их исключающих вариантов и
+   * {@code multipleOf} для уже прочитанного числа.
+   *
+   * @param checks Контекст генерируемого метода
+   * @param b Блок, в который добавляется код
+   * @param schema Схема значения
+   * @param value Переменная с прочитанным числом
+   * @param kind Тип переменной {@code value}
+   * @param pos Выражение, возвращающее позицию значения
+   * @param what Описание значения для сообщений об ошибках
+   */
+  private void checkBounds(Checks checks, JBlock b, Schema schema, JVar value, NumberKind kind, IJExpression pos, String what) {
+    final Number minimum = schema.getMinimum();
+    final Number maximum = schema.getMaximum();
+    final Number exclusiveMinimum = schema.getExclusiveMinimum();
+    final Number exclusiveMaximum = schema.getExclusiveMaximum();
+    final Number multipleOf = schema.getMultipleOf();
+    if (minimum != null) {
+      b._if(compare(value, minimum, kind).lt(bound(minimum, kind)))._then()._throw(fail("minimum", what + " must be >= " + minimum, pos));
+    }
+    if (exclusiveMinimum != null) {
+      b._if(compare(value, exclusiveMinimum, kind).lte(bound(exclusiveMinimum, kind)))._then()._throw(fail("exclusiveMinimum", what + " must be > " + exclusiveMinimum, pos));
+    }
+    if (maximum != null) {
+      b._if(compare(value, maximum, kind).gt(bound(maximum, kind)))._then()._throw(fail("maximum", what + " must be <= " + maximum, pos));
+    }
+    if (exclusiveMaximum != null) {
+      b._if(compare(value, exclusiveMaximum, kind).gte(bound(exclusiveMaximum, kind)))._then()._throw(fail("exclusiveMaximum", what + " must be < " + exclusiveMaximum, pos));
+    }
+    if (multipleOf != null) {
+      final IJExpression remainder;
+      switch (kind) {
+        case LONG:
+          remainder = value.mod(JExpr.lit(multipleOf.longValue()));
+          break;
+        case DECIMAL:
+          remainder = value.invoke("remainder").arg(model.ref(BigDecimal.class).staticInvoke("valueOf").arg(JExpr.lit(multipleOf.longValue())))
+            .invoke("signum");
+          break;
+        default: {
+          final JFieldVar divisor = checks.validator.field(
+            JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+            BigDecimal.class,
+            constantName(what + "_MULTIPLE_OF", checks.fields),
+            JExpr._new(model.ref(BigDecimal.class)).arg(JExpr.lit(multipleOf.toString()))
+          );
+          remainder = model.ref(JsonReader.class).staticInvoke("readDecimal").arg(checks.buffer).arg(pos)
+            .invoke("remainder").arg(divisor).invoke("signum");
+        }
+      }
+      b._if(remainder.ne(JExpr.lit(0)))._then()._throw(fail("multipleOf", what + " must be a multiple of " + multipleOf, pos));
+    }
+  }
+  /**
+   * Возвращает левую часть сравнения числа с границей: само число или, для {@link BigDecimal},
+   * результат {@code compareTo}.
+   */
+  private IJExpression compare(JVar value, Number bound, NumberKind kind) {
+    if (kind != NumberKind.DECIMAL) return value;
+    return value.invoke("compareTo").arg(model.ref(BigDecimal.class).staticInvoke("valueOf").arg(JExpr.lit(bound.longValue())));
+  }
+  /** Возвращает правую часть сравнения, созданного {@link #compare}. */
+  private IJExpression bound(Number bound, NumberKind kind) {
+    switch (kind) {
+      case LONG:    return JExpr.lit(bound.longValue());
+      case DOUBLE:  return JExpr.lit(bound.doubleValue());
+      default:      return JExpr.lit(0);
+    }
+  }
+  private void checkString(Checks checks, JBlock block, Schema schema, int allowed, IJExpression pos, String what) {
+    final Number minLength = schema.getMinLength();
+    final Number maxLength = schema.getMaxLength();
+    final String pattern = schema.getPattern();
+    final String format = knownFormat(schema);
+    if (minLength == null && maxLength == null && pattern == null && format == null) return;
+
+    final JBlock b = guard(checks, block, allowed, Validation.STRING, pos);
+    if (minLength != null || maxLength != null) {
+      final JVar length = b.decl(
+        JMod.FINAL,
+        model.INT,
+        unique("length", checks.locals),
+        model.ref(Validation.class).staticInvoke("length").arg(checks.buffer).arg(pos)
+      );
+      if (minLength != null) {
+        b._if(length.lt(JExpr.lit(minLength.intValue())))._then()._throw(fail("minLength", what + " must be at least " + minLength + " characters long", pos));
+      }
+      if (maxLength != null) {
+        b._if(length.gt(JExpr.lit(maxLength.intValue())))._then()._throw(fail("maxLength", what + " must be at most " + maxLength + " characters long", pos));
+      }
+    }
+    if (pattern != null) {
+      final JFieldVar regexp = checks.validator.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        Pattern.class,
+        constantName(what + "_PATTERN", checks.fields),
+        model.ref(Pattern.class).staticInvoke("compile").arg(JExpr.lit(pattern))
+      );
+      // Регулярные выражения JSON Schema не привязаны к началу и концу строки
+      final IJExpression string = model.ref(JsonReader.class).staticInvoke("readString").arg(checks.buffer).arg(pos);
+      b._if(regexp.invoke("matcher").arg(string).invoke("find").not())._then()._throw(fail("pattern", what + " must match " + pattern, pos));
+    }
+    if (format != null) {
+      b._if(model.ref(Validation.class).staticInvoke("isFormat").arg(checks.buffer).arg(pos).arg(JExpr.lit(format)).not())
+        ._then()._throw(fail("format", what + " must be a valid " + format, pos));
+    }
+  }
+  private void checkArray(Checks checks, JBlock block, Schema schema, int allowed, IJExpression pos, String what) {
+    final Schema items = schema.getItems();
+    final Number minItems = schema.getMinItems();
+    final Number maxItems = schema.getMaxItems();
+    final Schema contains = schema.getContains();
+    final boolean itemChecks = items != null && hasChecks(items);
+    if (!itemChecks && minItems == null && maxItems == null && !schema.isUniqueItems() && contains == null) return;
+
+    final JBlock b = guard(checks, block, allowed, Validation.ARRAY, pos);
+    final AbstractJClass reader = model.ref(JsonReader.class);
+    if (schema.isUniqueItems()) {
+      b.add(model.ref(Validation.class).staticInvoke("checkUnique").arg(checks.buffer).arg(pos).arg(JExpr.lit(what)));
+    }
+    if (contains != null) {
+      checkContains(checks, b, schema, contains, pos, what);
+    }
+    if (!itemChecks && minItems == null && maxItems == null) return;
+
+    JVar size = null;
+    if (itemChecks) {
+      if (minItems != null || maxItems != null) {
+        size = b.decl(model.INT, unique("size", checks.locals), JExpr.lit(0));
+      }
+      final JForLoop loop = b._for();
+      final JVar item = loop.init(model.INT, unique("item", checks.locals), reader.staticInvoke("firstElement").arg(checks.buffer).arg(pos));
+      loop.test(item.gte(JExpr.lit(0)));
+      loop.update(item.assign(reader.staticInvoke("nextElement").arg(checks.buffer).arg(item)));
+      if (size != null) {
+        loop.body().assignPlus(size, JExpr.lit(1));
+      }
+      validate(checks, loop.body(), items, item, what + "[]");
+    } else {
+      size = b.decl(
+        JMod.FINAL,
+        model.INT,
+        unique("size", checks.locals),
+        model.ref(Validation.class).staticInvoke("size").arg(checks.buffer).arg(pos)
+      );
+    }
+    if (minItems != null) {
+      b._if(size.lt(JExpr.lit(minItems.intValue())))._then()._throw(fail("minItems", what + " must contain at least " + minItems + " items", pos));
+    }
+    if (maxItems != null) {
+      b._if(size.gt(JExpr.lit(maxItems.intValue())))._then()._throw(fail("maxItems", what + " must contain at most " + maxItems + " items", pos));
+    }
+  }
+  private void checkObject(Checks checks, JBlock block, Schema schema, IJExpression pos, String what) {
+    final Map<String, Schema> properties = schema.getProperties();
+    final Collection<String> required = schema.getRequiredProperties();
+    final Map<String, List<String>> dependentRequired = dependentRequired(schema);
+    final Map<String, Schema> dependentSchemas = schema.getDependentSchemas();
+    final Set<String> unique = new LinkedHashSet<>(properties.keySet());
+    if (required != null) {
+      unique.addAll(required);
+    }
+    for (final Map.Entry<String, List<String>> e : dependentRequired.entrySet()) {
+      unique.add(e.getKey());
+      unique.addAll(e.getValue());
+    }
+    if (dependentSchemas != null) {
+      unique.addAll(dependentSchemas.keySet());
+    }
+    if (unique.isEmpty()) return;
+
+    final Map<String, Integer> names = new HashMap<>();
+    final JInvocation keys = model.ref(KeyMatcher.class).staticInvoke("of");
+    final JArray namesArray = JExpr.newArray(model.ref(String.class));
+    for (final String name : unique) {
+      names.put(name, names.size());
+      keys.arg(JExpr.lit(name));
+      namesArray.add(JExpr.lit(name));
+    }
+    final JFieldVar keysField = checks.validator.field(
+      JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+      KeyMatcher.class,
+      unique("KEYS", checks.fields),
+      keys
+    );
+    // Значения null в индексе не считаются отсутствующими, поэтому для не объектов он равен null
+    final JVar at = block.decl(
+      JMod.FINAL,
+      model.INT.array(),
+      unique("at", checks.locals),
+      model.ref(Validation.class).staticInvoke("index").arg(checks.buffer).arg(pos).arg(keysField)
+    );
+    final JBlock b = block._if(at.neNull())._then();
+    if (required != null && !required.isEmpty()) {
+      final JFieldVar requiredField = checks.validator.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        model.LONG.array(),
+        unique("REQUIRED", checks.fields),
+        mask(required, names)
+      );
+      final JFieldVar namesField = checks.validator.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        model.ref(String.class).array(),
+        unique("NAMES", checks.fields),
+        namesArray
+      );
+      b.add(model.ref(Validation.class).staticInvoke("require")
+        .arg(at).arg(requiredField).arg(namesField).arg(pos).arg(JExpr.lit(what))
+      );
+    }
+    for (final Map.Entry<String, Schema> e : properties.entrySet()) {
+      if (!hasChecks(e.getValue())) continue;
+
+      final IJExpression value = at.component(JExpr.lit(names.get(e.getKey())));
+      validate(checks, b._if(value.gte(JExpr.lit(0)))._then(), e.getValue(), value, what + "." + e.getKey());
+    }
+    for (final Map.Entry<String, List<String>> e : dependentRequired.entrySet()) {
+      if (e.getValue().isEmpty()) continue;
+
+      final JFieldVar dependencies = checks.validator.field(
+        JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+        model.LONG.array(),
+        unique("DEPENDENCIES", checks.fields),
+        mask(e.getValue(), names)
+      );
+      b._if(at.component(JExpr.lit(names.get(e.getKey()))).gte(JExpr.lit(0)).cand(
+        model.ref(Validation.class).staticInvoke("present").arg(at).arg(dependencies).not()
+      ))._then()._throw(fail("dependentRequired", what + " with property '" + e.getKey() + "' requires properties " + e.getValue(), pos));
+    }
+    if (dependentSchemas != null) {
+      for (final Map.Entry<String, Schema> e : dependentSchemas.entrySet()) {
+        if (!hasChecks(e.getValue())) continue;
+
+        final IJExpression present = at.component(JExpr.lit(names.get(e.getKey()))).gte(JExpr.lit(0));
+        validate(checks, b._if(present)._then(), e.getValue(), pos, what);
+      }
+    }
+  }
+  /**
+   * Генерирует проверки, перебирающие все свойства объекта: {@code minProperties}/{@code maxProperties},
+   * {@code propertyNames}, {@code patternProperties} и {@code additionalProperties}. Имя свойства
+   * декодируется, только если есть регулярные выражения для имен.
+   */
+  private void checkMembers(Checks checks, JBlock block, Schema schema, IJExpression pos, String what) {
+    final Number minProperties = schema.getMinProperties();
+    final Number maxProperties = schema.getMaxProperties();
+    final Schema names = schema.getPropertyNames();
+    final Map<String, Schema> patterns = patternProperties(schema);
+    final Schema additional = schema.getAdditionalProperties();
+    final boolean nameChecks = names != null && hasChecks(names);
+    final boolean additionalChecks = additional != null && hasChecks(additional);
+    boolean patternChecks = false;
+    for (final Schema s : patterns.values()) {
+      patternChecks |= hasChecks(s);
+    }
+    if (minProperties == null && maxProperties == null && !nameChecks && !patternChecks && !additionalChecks) return;
+
+    final AbstractJClass reader = model.ref(JsonReader.class);
+    final JVar members = block.decl(
+      JMod.FINAL,
+      model.INT.array(),
+      unique("members", checks.locals),
+      model.ref(Validation.class).staticInvoke("members").arg(checks.buffer).arg(pos)
+    );
+    final JBlock b = block._if(members.neNull())._then();
+    // Массив содержит по две позиции на свойство
+    if (minProperties != null) {
+      b._if(members.ref("length").lt(JExpr.lit(minProperties.intValue() * 2)))._then()._throw(
+        fail("minProperties", what + " must have at least " + minProperties + " properties", pos)
+      );
+    }
+    if (maxProperties != null) {
+      b._if(members.ref("length").gt(JExpr.lit(maxProperties.intValue() * 2)))._then()._throw(
+        fail("maxProperties", what + " must have at most " + maxProperties + " properties", pos)
+      );
+    }
+    if (!nameChecks && !patternChecks && !additionalChecks) return;
+
+    final JForLoop loop = b._for();
+    final JVar member = loop.init(model.INT, unique("member", checks.locals), JExpr.lit(0));
+    loop.test(member.lt(members.ref("length")));
+    loop.update(member.assignPlus(JExpr.lit(2)));
+    final JBlock body = loop.body();
+    final JVar key = body.decl(JMod.FINAL, model.INT, unique("key", checks.locals), members.component(member));
+    final JVar value = body.decl(JMod.FINAL, model.INT, unique("value", checks.locals), members.component(member.plus(JExpr.lit(1))));
+    if (nameChecks) {
+      validate(checks, body, names, key, what + " property name");
+    }
+    if (!patternChecks && !additionalChecks) return;
+
+    // Дополнительными считаются свойства, не объявленные в properties и не подходящие ни под одно
+    // регулярное выражение из patternProperties
+    JVar matched = null;
+    if (additionalChecks) {
+      IJExpression declared = JExpr.FALSE;
+      if (!schema.getProperties().isEmpty()) {
+        final JFieldVar declaredField = checks.validator.field(
+          JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+          KeyMatcher.class,
+          unique("DECLARED", checks.fields),
+          literals(schema.getProperties().keySet())
+        );
+        declared = declaredField.invoke("match")
+          .arg(checks.buffer)
+          .arg(key.plus(JExpr.lit(1)))
+          .arg(reader.staticInvoke("skipString").arg(checks.buffer).arg(key).minus(JExpr.lit(1)))
+          .gte(JExpr.lit(0));
+      }
+      matched = body.decl(model.BOOLEAN, unique("matched", checks.locals), declared);
+    }
+    if (!patterns.isEmpty() && (patternChecks || additionalChecks)) {
+      final JVar name = body.decl(JMod.FINAL, model.ref(String.class), unique("name", checks.locals),
+        reader.staticInvoke("readString").arg(checks.buffer).arg(key)
+      );
+      for (final Map.Entry<String, Schema> e : patterns.entrySet()) {
+        final JFieldVar regexp = checks.validator.field(
+          JMod.PRIVATE | JMod.STATIC | JMod.FINAL,
+          Pattern.class,
+          constantName(what + "_PROPERTY_PATTERN", checks.fields),
+          model.ref(Pattern.class).staticInvoke("compile").arg(JExpr.lit(e.getKey()))
+        );
+        final boolean checked = hasChecks(e.getValue());
+        if (!checked && matched == null) continue;
+
+        final JBlock then = body._if(regexp.invoke("matcher").arg(name).invoke("find"))._then();
+        if (matched != null) {
+          then.assign(matched, JExpr.TRUE);
+        }
+        if (checked) {
+          validate(checks, then, e.getValue(), value, what + "." + e.getKey());
+        }
+      }
+    }
+    if (matched != null) {
+      validate(checks, body._if(matched.not())._then(), additional, value, what + ".*");
+    }
+  }
+  /**
+   * Генерирует проверку {@code contains} вместе с {@code minContains}/{@code maxContains}: элементы,
+   * соответствующие схеме, подсчитываются перебором.
+   */
+  private void checkContains(Checks checks, JBlock block, Schema schema, Schema contains, IJExpression pos, String what) {
+    final Object min = keyword(schema, "minContains");
+    final Object max = keyword(schema, "maxContains");
+    final int minContains = min instanceof Number ? ((Number)min).intValue() : 1;
+    if (minContains <= 0 && !(max instanceof Number)) return;
+
+    final AbstractJClass reader = model.ref(JsonReader.class);
+    final JVar count = block.decl(model.INT, unique("contains", checks.locals), JExpr.lit(0));
+    final JForLoop loop = block._for();
+    final JVar item = loop.init(model.INT, unique("item", checks.locals), reader.staticInvoke("firstElement").arg(checks.buffer).arg(pos));
+    loop.test(item.gte(JExpr.lit(0)));
+    loop.update(item.assign(reader.staticInvoke("nextElement").arg(checks.buffer).arg(item)));
+    final JTryBlock trial = loop.body()._try();
+    validate(checks, trial.body(), contains, item, what + "[]");
+    trial.body().assignPlus(count, JExpr.lit(1));
+    trial._catch(model.ref(ValidationException.class)).param(unique("ex", checks.locals));
+    if (minContains > 0) {
+      block._if(count.lt(JExpr.lit(minContains)))._then()._throw(fail(
+        min instanceof Number ? "minContains" : "contains",
+        what + " must contain at least " + minContains + " items matching the schema of contains",
+        pos
+      ));
+    }
+    if (max instanceof Number) {
+      block._if(count.gt(JExpr.lit(((Number)max).intValue())))._then()._throw(fail(
+        "maxContains", what + " must contain at most " + max + " items matching the schema of contains", pos
+      ));
+    }
+  }
+  /** Генерирует проверку {@code not}: значение не должно соответствовать схеме. */
+  private void checkNot(Checks checks, JBlock block, Schema not, IJExpression pos, String what) {
+    if (not == null) return;
+
+    final JVar matched = block.decl(model.BOOLEAN, unique("matched", checks.locals), JExpr.FALSE);
+    final JTryBlock trial = block._try();
+    validate(checks, trial.body(), not, pos, what);
+    trial.body().assign(matched, JExpr.TRUE);
+    trial._catch(model.ref(ValidationException.class)).param(unique("ex", checks.locals));
+    block._if(matched)._then()._throw(fail("not", what + " must not match the schema of not", pos));
+  }
+  /**
+   * Генерирует проверку {@code if}/{@code then}/{@code else}: в зависимости от соответствия схеме
+   * {@code if} значение проверяется схемой {@code then} или {@code else}.
+   */
+  private void checkCondition(Checks checks, JBlock block, Schema schema, IJExpression pos, String what) {
+    final Schema condition = schema.getIf();
+    final Schema then = schema.getThen();
+    final Schema otherwise = schema.getElse();
+    if (condition == null || (then == null || !hasChecks(then)) && (otherwise == null || !hasChecks(otherwise))) return;
 
-    final Schema schema = store.loadSchema(new File(args[0]));
-    new Generator().generate(schema);
+    final JVar matched = block.decl(model.BOOLEAN, unique("matched", checks.locals), JExpr.TRUE);
+    final JTryBlock trial = block._try();
+    validate(checks, trial.body(), condition, pos, what);
+    final JCatchBlock failed = trial._catch(model.ref(ValidationException.class));
+    failed.param(unique("ex", checks.locals));
+    failed.body().assign(matched, JExpr.FALSE);
+    final JConditional branch = block._if(matched);
+    if (then != null && hasChecks(then)) {
+      validate(checks, branch._then(), then, pos, what);
+    }
+    if (otherwise != null && hasChecks(otherwise)) {
+      validate(checks, branch._else(), otherwise, pos, what);
+    }
   }
-  public void generate(Schema schema) throws Exception {
-    final Path name = Paths.get(schema.getUri().getPath()).getFileName();
-    generateTopLevel(toTitleCase(name.toString()), schema);
+  /**
+   * Генерирует проверку вариантов перебором: для {@code oneOf} значение должно соответствовать ровно
+   * одной схеме, для {@code anyOf} -- хотя бы одной, поэтому перебор прекращается на первой подходящей.
+   */
+  private void checkVariants(Checks checks, JBlock block, Schema schema, Collection<Schema> variants, boolean one, IJExpression pos, String what) {
+    if (variants == null || variants.isEmpty()) return;
 
-    for (final Schema s : schema.getSubSchemas().values()) {
-      if (isTopLevel(s)) {
-        generateTopLevel(className(s), s);
+    // Если вариант выбирается быстро, то остальные варианты заведомо не подходят, и достаточно
+    // проверить только его
+    final JDefinedClass clazz = classes.get(schema);
+    final Bean bean = clazz == null ? null : beans.get(clazz);
+    if (bean != null && bean.discriminate != null && choices(schema) == variants) {
+      final JVar variant = block.decl(
+        JMod.FINAL,
+        model.INT,
+        unique("variant", checks.locals),
+        bean.impl.staticInvoke(bean.discriminate).arg(checks.buffer).arg(pos)
+      );
+      final JConditional found = block._if(variant.gte(JExpr.lit(0)));
+      final JSwitch cases = found._then()._switch(variant);
+      int i = 0;
+      for (final Schema s : variants) {
+        final JBlock b = cases._case(JExpr.lit(i++)).body();
+        validate(checks, b, s, pos, what);
+        b._break();
       }
+      block = found._else();
     }
 
-    final JCMWriter writer = new JCMWriter(model);
-    writer.build(new OutputStreamCodeWriter(System.out, UTF_8));
+    final JVar matched = block.decl(model.INT, unique("matched", checks.locals), JExpr.lit(0));
+    for (final Schema s : variants) {
+      final JBlock b = one ? block : block._if(matched.eq(JExpr.lit(0)))._then();
+      final JTryBlock trial = b._try();
+      validate(checks, trial.body(), s, pos, what);
+      trial.body().assignPlus(matched, JExpr.lit(1));
+      trial._catch(model.ref(ValidationException.class)).param(unique("ex", checks.locals));
+    }
+    block._if(one ? matched.ne(JExpr.lit(1)) : matched.eq(JExpr.lit(0)))._then()._throw(fail(
+      one ? "oneOf" : "anyOf",
+      what + (one ? " must match exactly one schema of oneOf" : " must match at least one schema of anyOf"),
+      pos
+    ));
   }
   /**
-   * Генерирует класс, у которого в схеме явно задано собственное имя, либо класс для схемы всего
-   * JSON документа. Кроме того, добавляет классам аннотации с информацией о схеме, из которой они
-   * были сгенерированы (для внутренних классов эта информация очевидна -- она находится в их корневом
-   * охватывающем классе)
+   * Возвращает блок, выполняющийся, только если значение имеет один из указанных типов. Условие
+   * не генерируется, если значение не может иметь других типов.
+   */
+  private JBlock guard(Checks checks, JBlock block, int allowed, int kinds, IJExpression pos) {
+    if ((allowed & ~kinds) == 0) return block;
+    return block._if(model.ref(Validation.class).staticInvoke("typeOf").arg(checks.buffer).arg(pos)
+      .band(mask(kinds)).ne(JExpr.lit(0))
+    )._then();
+  }
+  /**
+   * Проверяет, требует ли значение, описываемое схемой, каких-либо проверок.
    *
-   * @param className Имя генерируемого класса
-   * @param schema Схема, для которой генерируется класс
+   * @param schema Схема значения
    *
-   * @return Созданный класс
+   * @return {@code false}, если любое значение соответствует схеме
+   */
+  private boolean hasChecks(Schema schema) {
+    return classes.containsKey(schema)
+      || schema.getExplicitTypes() != null
+      || schema.hasConst()
+      || schema.getMinimum() != null || schema.getMaximum() != null
+      || schema.getExclusiveMinimum() != null || schema.getExclusiveMaximum() != null
+      || schema.getMultipleOf() != null
+      || schema.getMinLength() != null || schema.getMaxLength() != null || schema.getPattern() != null
+      || schema.getMinItems() != null || schema.getMaxItems() != null
+      || schema.getItems() != null && hasChecks(schema.getItems())
+      || schema.getAllOf() != null || schema.getOneOf() != null || schema.getAnyOf() != null
+      || Boolean.FALSE.equals(schema.getSchemaObject())
+      || knownFormat(schema) != null
+      || schema.isUniqueItems() || schema.getContains() != null
+      || !schema.getProperties().isEmpty()
+      || schema.getRequiredProperties() != null && !schema.getRequiredProperties().isEmpty()
+      || schema.getMinProperties() != null || schema.getMaxProperties() != null
+      || schema.getPropertyNames() != null || schema.getAdditionalProperties() != null
+      || !patternProperties(schema).isEmpty()
+      || !dependentRequired(schema).isEmpty() || schema.getDependentSchemas() != null && !schema.getDependentSchemas().isEmpty()
+      || schema.getNot() != null || schema.getIf() != null
+      || unsupported(schema) != null;
+  }
+  /**
+   * Возвращает ключевое слово схемы, которое не может быть проверено сгенерированным кодом:
+   * проверку кортежей ({@code prefixItems}, {@code items} в виде массива, {@code additionalItems})
+   * и {@code unevaluatedItems}/{@code unevaluatedProperties}, зависящие от результатов других проверок.
    *
-   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
-   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
-   *         генератору
+   * @param schema Схема значения
+   *
+   * @return Имя первого такого ключевого слова или {@code null}, если их нет
    */
-  private AbstractJClass generateTopLevel(String className, Schema schema) throws JClassAlreadyExistsException {
-    final AbstractJClass clazz = generate(model.rootPackage(), className, false, schema);
-    return clazz;
+  private static String unsupported(Schema schema) {
+    if (keyword(schema, "items") instanceof List) return "items";
+    for (final String keyword : Arrays.asList("prefixItems", "additionalItems", "unevaluatedItems", "unevaluatedProperties")) {
+      if (keyword(schema, keyword) != null) return keyword;
+    }
+    return null;
   }
   /**
-   * Генерирует класс, представляющий тип, описываемый схемой
+   * Возвращает значение ключевого слова схемы в исходном JSON.
    *
-   * @param container Объект, внутри которого ненерировать новые классы
-   * @param baseClassName Базовое имя для класса. Реальное может быть сформировано путем добавление суффикса
-   * @param inner Если класс внутренний, то кего имени добавится суффикс {@code Type} или {@code Enum}.
-   *        Внутренние классы используются для схем, не объявленных на верхнем уровне
-   * @param schema Схема, для которой генерируется класс
+   * @param schema Схема
+   * @param name Ключевое слово
    *
-   * @return Созданный класс
+   * @return Значение или {@code null}, если ключевого слова нет или схема логическая
+   */
+  @SuppressWarnings("unchecked")
+  private static Object keyword(Schema schema, String name) {
+    final Object json = schema.getSchemaObject();
+    return json instanceof Map ? ((Map<String, Object>)json).get(name) : null;
+  }
+  /**
+   * Возвращает формат строк, если он может быть проверен. Остальные форматы, как того требует
+   * JSON Schema, являются только аннотациями.
    *
-   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
-   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
-   *         генератору
+   * @param schema Схема значения
+   *
+   * @return Значение {@code format}, известное {@link Validation#knowsFormat}, или {@code null}
    */
-  private AbstractJClass generate(IJClassContainer<JDefinedClass> container, String baseClassName, boolean inner, Schema schema) throws JClassAlreadyExistsException {
-    final List<Object> enums = schema.getEnums();
-    final Collection<String> types = schema.getExplicitTypes();
-    // Если тип не является перечислением и содержит только один элемент, описывающий скаляр,
-    // либо два элемента, один из которых скаляр, а другой -- "null", то генерация класса не требуется,
-    // используем встроенный тип
-    if (enums == null && types != null) {
-      final Class<?> scalar = toScalar(types);
-      if (scalar != null) {
-        return model.ref(scalar);
+  private static String knownFormat(Schema schema) {
+    final String format = schema.getFormat();
+    return format != null && Validation.knowsFormat(format) ? format : null;
+  }
+  /**
+   * Собирает регулярные выражения {@code patternProperties} со схемами значений свойств в порядке
+   * объявления.
+   *
+   * @param schema Схема объекта
+   *
+   * @return Схемы значений по регулярным выражениям имен
+   */
+  private static Map<String, Schema> patternProperties(Schema schema) {
+    final Map<String, Schema> patterns = new LinkedHashMap<>();
+    final Object json = keyword(schema, "patternProperties");
+    final Collection<Schema> schemas = schema.getPatternPropertiesSchema();
+    if (json instanceof Map && schemas != null) {
+      // Схемы перечисляются в порядке регулярных выражений в JSON
+      final Iterator<Schema> it = schemas.iterator();
+      for (final Object pattern : ((Map<?, ?>)json).keySet()) {
+        patterns.put((String)pattern, it.next());
       }
     }
+    return patterns;
+  }
+  /**
+   * Собирает зависимости наличия свойств: {@code dependentRequired} и {@code dependencies} со
+   * списками имен (draft-07 и ранее).
+   *
+   * @param schema Схема объекта
+   *
+   * @return Имена свойств, которые должны присутствовать в объекте, по имени свойства, от
+   *         которого они зависят
+   */
+  private static Map<String, List<String>> dependentRequired(Schema schema) {
+    final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+    for (final String name : Arrays.asList("dependencies", "dependentRequired")) {
+      final Object json = keyword(schema, name);
+      if (!(json instanceof Map)) continue;
 
-    final JDefinedClass clazz = container._class(
-        JMod.PUBLIC,
-        inner ? baseClassName + (enums != null ? "Enum" : "Type") : baseClassName,
-        enums != null ? EClassType.ENUM : EClassType.INTERFACE
-    );
-
-    generateVariant(schema, schema.getOneOf(), clazz);
-    generateVariant(schema, schema.getAnyOf(), clazz);
-
-    // Если значение удовлетворяет всем схемам одновременно, то оно может быть представлено как любой
-    // из типов для этой схемы, и следовательно, можно просто сгенерировать класс, наследующий от
-    // всех схем сразу
-    final Collection<Schema> allOf = schema.getAllOf();
-    if (allOf != null) {
-      int i = 0;
-      for (final Schema s : allOf) {
-        clazz._implements(generate(clazz, schema, s, "Variant" + i++));
+      for (final Map.Entry<?, ?> e : ((Map<?, ?>)json).entrySet()) {
+        if (e.getValue() instanceof List) {
+          final List<String> names = new ArrayList<>();
+          for (final Object n : (List<?>)e.getValue()) {
+            names.add((String)n);
+          }
+          dependencies.put((String)e.getKey(), names);
+        }
       }
     }
-
-    // Обходим все пары "название свойства" -> "схема валидации" и генерируем методы доступа.
-    for (final Map.Entry<String, Schema> e : schema.getProperties().entrySet()) {
-      final String prop = e.getKey();
-      final Schema s = e.getValue();
-      final AbstractJClass cls = generate(clazz, schema, s, toTitleCase(prop));
-
-      clazz.method(JMod.PUBLIC, cls, resolveCollision(clazz, getterName(prop)));
+    return dependencies;
+  }
+  /**
+   * Генерирует битовую маску свойств в формате {@link Validation#require}.
+   *
+   * @param properties Имена свойств, попадающих в маску
+   * @param names Номера всех свойств в индексе объекта
+   *
+   * @return Выражение, создающее массив слов маски
+   */
+  private JArray mask(Collection<String> properties, Map<String, Integer> names) {
+    final long[] mask = new long[(names.size() + 63) >> 6];
+    for (final String name : properties) {
+      final int i = names.get(name);
+      mask[i >> 6] |= 1L << i;
     }
-
-    return clazz;
+    final JArray array = JExpr.newArray(model.LONG);
+    for (final long word : mask) {
+      array.add(JExpr.lit(word));
+    }
+    return array;
   }
   /**
-   * Генерирует набор методов получение представления объекта в виде одного из типов, соответствующих
-   * схемам в {@code variants}.
+   * Генерирует выражение -- объединение констант масок типов из {@link Validation}.
    *
-   * @param parent Схема, в контексте которой осуществляется генерация
-   * @param variants Коллекция схем, для которых необходиом сгенерировать в классе {@code clazz}
-   *        геттеры вида {@code as<имя>}
-   * @param clazz Класс, в котором генерируются методы
+   * @param mask Маска типов
    *
-   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
-   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
-   *         генератору
+   * @return Выражение вида {@code Validation.STRING | Validation.NULL}
    */
-  private void generateVariant(Schema parent, Collection<Schema> variants, JDefinedClass clazz) throws JClassAlreadyExistsException {
-    if (variants != null) {
-      int i = 0;
-      for (final Schema schema : variants) {
-        // Базовое имя для типа, представляющего безымянную схему, объявленную по месту
-        String name = "Variant" + i++;
-        final AbstractJClass type = generate(clazz, parent, schema, name);
-        // Если схема была объявлена по месту и не является примитивной (такой, как { type: "string" }),
-        // то полученный тип будет объявлен внутри класса и мы будет использовать имя VariantN.
-        // В противном случае используем имя класса
-        if (!clazz.classes().contains(type)) {
-          name = type.name();
-        }
-
-        name = resolveCollision(clazz, "as" + name);
-        clazz.method(JMod.PUBLIC, type, name);
+  private IJExpression mask(int mask) {
+    final String[] names = {"NULL", "BOOLEAN", "OBJECT", "ARRAY", "NUMBER", "INTEGER", "STRING"};
+    IJExpression result = null;
+    for (int i = 0; i < names.length; ++i) {
+      if ((mask & 1 << i) != 0) {
+        final IJExpression bit = model.ref(Validation.class).staticRef(names[i]);
+        result = result == null ? bit : result.bor(bit);
       }
     }
+    return result;
+  }
+  private JInvocation fail(String keyword, String message, IJExpression pos) {
+    return JExpr._new(model.ref(ValidationException.class)).arg(JExpr.lit(message)).arg(pos).arg(JExpr.lit(keyword));
   }
   /**
-   * Генерирует класс для схемы {@code schema} вложенной в схему {@code parent}. Если схема является
-   * безымянной и не тривиальной, то сгенерированный класс также будет внутри класса {@code container}.
+   * Генерирует создание сопоставителя литералов для {@link JsonReader#matchLiteral}.
    *
-   * @param container Класс, в котором генерировать новый класс, если {@code schema} является вложенной
-   *        в {@code parent}
-   * @param parent Схема, в контексте которой осуществляется генерация
-   * @param schema Схема, для которой осуществляется генерация класса
-   * @param baseClassName Базовое имя для вложенного класса. Реальное может быть сформировано путем
-   *        добавление суффикса {@code Type} или {@code Enum}
+   * @param literals Различные литералы в порядке их номеров
    *
-   * @return Созданный класс
+   * @return Выражение {@code KeyMatcher.of(...)}
+   */
+  private JInvocation literals(Collection<String> literals) {
+    final JInvocation of = model.ref(KeyMatcher.class).staticInvoke("of");
+    for (final String literal : literals) {
+      of.arg(JExpr.lit(literal));
+    }
+    return of;
+  }
+  /**
+   * Собирает свойства и методы получения вариантов, объявленные в интерфейсе и всех его
+   * сгенерированных предках.
    *
-   * @throws JClassAlreadyExistsException Такое исключение никогда не должно кидаться для корректной
-   *         схемы, т.к. все имена будут уникальными, а схема валидируется, прежде чем быть переданной
-   *         генератору
+   * @param clazz Интерфейс, для которого собираются методы
+   * @param properties Заполняемое отображение имени геттера на свойство
+   * @param variants Заполняемое отображение имени метода варианта на сам метод
+   *
+   * @return {@code true}, если все предки интерфейса -- сгенерированные интерфейсы объектов или
+   *         {@link JsonValue}, и {@code false}, если среди них есть встроенные типы, и, следовательно,
+   *         реализация для интерфейса не может быть построена поверх объекта
    */
-  private AbstractJClass generate(JDefinedClass container, Schema parent, Schema schema, String baseClassName) throws JClassAlreadyExistsException {
-    // Если схема объявлена по-месту, то делаем вложенный класс
-    if (schema.getParent() == parent) {
-      return generate(container, baseClassName, true, schema);
+  private boolean collect(JDefinedClass clazz, Map<String, Property> properties, Map<String, JMethod> variants) {
+    final Bean bean = beans.get(clazz);
+    for (final Property property : bean.properties) {
+      properties.putIfAbsent(property.getter.name(), property);
     }
-    // Иначе схема объявлена в разделе "$defs" или "definitions" (в зависимости от версии стандарта)
-    // поэтому генерируем ее на верхнем уровне
-    return generateTopLevel(className(schema), schema);
+    for (final JMethod variant : bean.variants) {
+      variants.putIfAbsent(variant.name(), variant);
+    }
+    final Iterator<AbstractJClass> it = clazz._implements();
+    while (it.hasNext()) {
+      final AbstractJClass parent = it.next();
+      if (parent.equals(model.ref(JsonValue.class))) continue;
+      if (!beans.containsKey(parent) || !collect((JDefinedClass)parent, properties, variants)) {
+        return false;
+      }
+    }
+    return true;
+  }
+  /**
+   * Генерирует выражение, создающее ленивое представление значения указанного типа.
+   *
+   * @param type Тип значения: встроенный скалярный тип, {@link JsonArray} или его специализация,
+   *        {@link JsonValue}, сгенерированный интерфейс или перечисление
+   * @param buffer Выражение, возвращающее буфер с документом
+   * @param offset Выражение, возвращающее позицию значения в буфере
+   *
+   * @return Выражение, создающее значение, или {@code null}, если для такого типа не может быть
+   *         построена реализация
+   */
+  private IJExpression decode(AbstractJClass type, IJExpression buffer, IJExpression offset) {
+    final Class<? extends LazyValue> lazy = lazyBuiltin(type);
+    if (lazy != null) {
+      return JExpr._new(model.ref(lazy)).arg(buffer).arg(offset);
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final IJExpression items = decoder(type.getTypeParameters().get(0));
+      if (items == null) return null;
+      return JExpr._new(model.ref(LazyArray.class).narrowEmpty()).arg(buffer).arg(offset).arg(items);
+    }
+    if (type instanceof JDefinedClass) {
+      final JDefinedClass clazz = (JDefinedClass)type;
+      if (clazz.getClassType() == EClassType.ENUM) {
+        return clazz.staticInvoke("decode").arg(buffer).arg(offset);
+      }
+      final Bean bean = beans.get(clazz);
+      if (bean != null && bean.impl != null) {
+        return JExpr._new(bean.impl).arg(buffer).arg(offset);
+      }
+    }
+    return null;
+  }
+  /**
+   * Генерирует выражение, возвращающее {@link Decoder фабрику} значений указанного типа.
+   *
+   * @param type Тип значения
+   *
+   * @return Выражение, возвращающее фабрику, или {@code null}, если для такого типа не может быть
+   *         построена реализация
+   *
+   * @see #decode
+   */
+  private IJExpression decoder(AbstractJClass type) {
+    final Class<? extends LazyValue> lazy = lazyBuiltin(type);
+    if (lazy != null) {
+      return JLambdaMethodRef.createForNew(model.ref(lazy));
+    }
+    if (type.erasure().equals(model.ref(JsonArray.class))) {
+      final IJExpression items = decoder(type.getTypeParameters().get(0));
+      if (items == null) return null;
+      return model.ref(LazyArray.class).staticInvoke("of").arg(items);
+    }
+    if (type instanceof JDefinedClass) {
+      final JDefinedClass clazz = (JDefinedClass)type;
+      if (clazz.getClassType() == EClassType.ENUM) {
+        return new JLambdaMethodRef(clazz, "decode");
+      }
+      final Bean bean = beans.get(clazz);
+      if (bean != null && bean.impl != null) {
+        return JLambdaMethodRef.createForNew(bean.impl);
+      }
+    }
+    return null;
+  }
+  /**
+   * Генерирует выражение, создающее исключение, которое кидает метод, возвращающий значение типа
+   * без ленивой реализации (например, {@code allOf} над встроенным типом).
+   *
+   * @param clazz Интерфейс, которому принадлежит метод
+   * @param method Имя метода
+   * @param type Тип значения, возвращаемого методом
+   *
+   * @return Выражение, создающее {@link UnsupportedOperationException} с описанием метода и типа
+   */
+  private IJExpression unsupported(JDefinedClass clazz, String method, AbstractJClass type) {
+    return JExpr._new(model.ref(UnsupportedOperationException.class)).arg(JExpr.lit(
+      clazz.name() + "." + method + "(): values of type " + type.name() + " have no lazy implementation"
+    ));
+  }
+  /**
+   * Возвращает ленивую реализацию встроенного типа.
+   *
+   * @param type Тип значения
+   *
+   * @return Класс реализации или {@code null}, если {@code type} не является скалярным типом,
+   *         специализированным массивом скаляров или {@link JsonValue}
+   */
+  private Class<? extends LazyValue> lazyBuiltin(AbstractJClass type) {
+    if (type.equals(model.ref(JsonString.class)))       return LazyString.class;
+    if (type.equals(model.ref(JsonInteger.class)))      return LazyInteger.class;
+    if (type.equals(model.ref(JsonNumber.class)))       return LazyNumber.class;
+    if (type.equals(model.ref(JsonBoolean.class)))      return LazyBoolean.class;
+    if (type.equals(model.ref(JsonStringArray.class)))  return LazyStringArray.class;
+    if (type.equals(model.ref(JsonLongArray.class)))    return LazyLongArray.class;
+    if (type.equals(model.ref(JsonDoubleArray.class)))  return LazyDoubleArray.class;
+    if (type.equals(model.ref(JsonBooleanArray.class))) return LazyBooleanArray.class;
+    if (type.equals(model.ref(JsonValue.class)))        return LazyValue.class;
+    return null;
+  }
+  /**
+   * Возвращает специализированный тип массива для массивов, элементы которых описываются схемой,
+   * для которой {@link #toScalar} возвращает скалярный тип.
+   *
+   * @param item Тип элементов массива
+   *
+   * @return Специализированный тип массива или {@code null}, если элементы массива не скаляры
+   */
+  private Class<? extends JsonArray<?>> toScalarArray(AbstractJClass item) {
+    if (item.equals(model.ref(JsonString.class)))  return JsonStringArray.class;
+    if (item.equals(model.ref(JsonInteger.class))) return JsonLongArray.class;
+    if (item.equals(model.ref(JsonNumber.class)))  return JsonDoubleArray.class;
+    if (item.equals(model.ref(JsonBoolean.class))) return JsonBooleanArray.class;
+    return null;
   }
 
   /**
@@ -372,6 +3773,130 @@ public class Generator {
     }
     return null;
   }
+  /**
+   * Проверяет, описывает ли значение ключа {@code "type"} массив, возможно, допускающий {@code null}.
+   *
+   * @param types Значение свойсва {@code "type"} JSON Schema
+   *
+   * @return {@code true}, если кроме {@code "null"} в списке есть только {@code "array"}
+   */
+  private static boolean isArray(Collection<String> types) {
+    boolean array = false;
+    for (final String type : types) {
+      if ("null".equals(type)) continue;
+      if (!"array".equals(type)) return false;
+      array = true;
+    }
+    return array;
+  }
+  /**
+   * Возвращает варианты, из которых выбирается представление объекта.
+   *
+   * @param schema Схема объекта
+   *
+   * @return Варианты {@code oneOf} или {@code anyOf}, либо {@code null}, если вариантов нет или они
+   *         заданы обоими ключами одновременно
+   */
+  private static Collection<Schema> choices(Schema schema) {
+    final Collection<Schema> oneOf = schema.getOneOf();
+    final Collection<Schema> anyOf = schema.getAnyOf();
+    final boolean hasOneOf = oneOf != null && !oneOf.isEmpty();
+    final boolean hasAnyOf = anyOf != null && !anyOf.isEmpty();
+    if (hasOneOf == hasAnyOf) return null;
+    return hasOneOf ? oneOf : anyOf;
+  }
+  /**
+   * Возвращает маску {@link Validation} для типа JSON Schema.
+   *
+   * @param type Значение из ключа {@code "type"} JSON Schema
+   *
+   * @return Маска значений, соответствующих типу
+   */
+  private static int typeMask(String type) {
+    switch (type) {
+      case "null":    return Validation.NULL;
+      case "boolean": return Validation.BOOLEAN;
+      case "object":  return Validation.OBJECT;
+      case "array":   return Validation.ARRAY;
+      case "number":  return Validation.NUMBER | Validation.INTEGER;
+      case "integer": return Validation.INTEGER;
+      case "string":  return Validation.STRING;
+    }
+    return 0;
+  }
+  /**
+   * Проверяет, что число из схемы целое и помещается в {@code long}.
+   *
+   * @param value Значение ограничения или {@code null}, если ограничение не задано
+   *
+   * @return {@code true}, если ограничение не задано или является целым числом
+   */
+  private static boolean isIntegral(Number value) {
+    if (value == null) return true;
+    final BigDecimal decimal = new BigDecimal(value.toString());
+    return decimal.signum() == 0
+      || decimal.stripTrailingZeros().scale() <= 0 && decimal.toBigInteger().bitLength() < 64;
+  }
+  /**
+   * Генерирует имя константы перечисления из значения в {@code UPPER_SNAKE_CASE}. Символы, не
+   * допустимые в идентификаторах, заменяются на {@code "_"}, а переход от строчной буквы к заглавной
+   * в {@code camelCase} отделяется {@code "_"}.
+   *
+   * @param value Текстовое представление значения перечисления
+   * @param used Уже использованные в перечислении имена. Созданное имя добавляется в этот набор
+   *
+   * @return Корректное Java имя для константы, уникальное в перечислении
+   */
+  private static String constantName(String value, Set<String> used) {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < value.length(); ++i) {
+      final char c = value.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(value.charAt(i - 1))) {
+          sb.append('_');
+        }
+        sb.append(Character.toUpperCase(c));
+      } else
+      if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '_') {
+        sb.append('_');
+      }
+    }
+    if (sb.length() > 0 && sb.charAt(sb.length() - 1) == '_') {
+      sb.setLength(sb.length() - 1);
+    }
+    if (sb.length() == 0 || !Character.isJavaIdentifierStart(sb.charAt(0))) {
+      sb.insert(0, "VALUE_");
+    }
+    return unique(sb.toString(), used);
+  }
+  /**
+   * Генерирует имя поля, в котором реализация запоминает значение свойства, из имени его геттера.
+   *
+   * @param getter Имя геттера
+   * @param used Уже использованные в классе имена. Созданное имя добавляется в этот набор
+   *
+   * @return Корректное Java имя для поля, уникальное в классе
+   */
+  private static String fieldName(String getter, Set<String> used) {
+    final String name = getter.startsWith("get") && getter.length() > 3 ? getter.substring(3) : getter;
+    return unique(name.substring(0, 1).toLowerCase() + name.substring(1), used);
+  }
+  /**
+   * Делает имя уникальным, добавляя к нему числовой суффикс, если такое имя уже использовано или
+   * является ключевым словом Java.
+   *
+   * @param name Исходное имя
+   * @param used Уже использованные имена. Итоговое имя добавляется в этот набор
+   *
+   * @return Уникальное имя
+   */
+  private static String unique(String name, Set<String> used) {
+    String result = name;
+    for (int suffix = 1; !JJavaName.isJavaIdentifier(result) || !used.add(result); ++suffix) {
+      result = name + "_" + suffix;
+    }
+    return result;
+  }
   /**
    * Возвращает имя для метода без параметров, который еще не объявлен в данном классе. Учитываются
    * только методы, непосредственно объявленные в классе, унаследованные игнорируются, за исключением
@@ -381,19 +3906,128 @@ public class Generator {
    * @param baseName Стартовое имя для метода. Если оно уже и так уникально, оно и вернется в качестве
    *        имени метода
    *
-   * @return Имя для метода, гаратированно являющееся уникальным в указанном классе
+   * @return Имя для метода, гаратированно являющееся уникальным в указанном классе. Имя сразу
+   *         считается занятым, поэтому метод с ним должен быть объявлен
    */
-  private static String resolveCollision(JDefinedClass clazz, String baseName) {
+  private String resolveCollision(JDefinedClass clazz, String baseName) {
+    Set<String> used = methods.get(clazz);
+    if (used == null) {
+      // Метод getClass() есть у любого объекта
+      used = new HashSet<>(Collections.singleton("getClass"));
+      methods.put(clazz, used);
+    }
     int suffix = 1;
     String name = baseName;
-    if ("getClass".equals(baseName)) {
-      name = baseName + suffix;
-      ++suffix;
-    }
-    while (clazz.getMethod(name, new AbstractJType[0]) != null) {
+    while (!used.add(name)) {
       name = baseName + suffix;
       ++suffix;
     }
     return name;
   }
+
+
+  /** Сведения о сгенерированном интерфейсе объекта, необходимые для генерации его реализации. */
+  private static final class Bean {
+    /** Свойства, объявленные в интерфейсе, в порядке их объявления в схеме. */
+    final List<Property> properties = new ArrayList<>();
+    /** Методы получения представления объекта в виде одного из вариантов {@code oneOf}/{@code anyOf}. */
+    final List<JMethod> variants = new ArrayList<>();
+    /** Ленивая реализация интерфейса или {@code null}, если она не может быть построена. */
+    JDefinedClass impl;
+    /** Схема, для которой сгенерирован интерфейс. */
+    Schema schema;
+    /** Метод получения представления объекта в виде подходящего варианта или {@code null}. */
+    JMethod matching;
+    /** Метод быстрого выбора варианта в реализации или {@code null}, если варианты не различимы. */
+    JMethod discriminate;
+    /** Переиспользуемый курсор или {@code null}, если ленивая реализация не может быть построена. */
+    JDefinedClass cursor;
+    /** Неизменяемая версия объекта или {@code null}, если у объекта нет свойств или есть варианты. */
+    JDefinedClass patched;
+    /** Реализация поверх двоичного сообщения или {@code null}, если у объекта нет свойств. */
+    JDefinedClass binaryImpl;
+  }
+  /** Контекст генерации метода проверки: класс для констант и использованные имена. */
+  private static final class Checks {
+    /** Класс проверки, в котором объявляются константы. */
+    final JDefinedClass validator;
+    /** Параметр метода проверки -- буфер с документом. */
+    final JVar buffer;
+    /** Имена констант, объявленных в классе проверки. */
+    final Set<String> fields = new HashSet<>();
+    /** Имена локальных переменных, объявленных в методе проверки. */
+    final Set<String> locals = new HashSet<>();
+
+    Checks(JDefinedClass validator, JVar buffer) {
+      this.validator = validator;
+      this.buffer = buffer;
+      locals.add(buffer.name());
+    }
+  }
+  /** Свойство объекта и сгенерированные для него методы доступа. */
+  private static final class Property {
+    /** Имя свойства в JSON. */
+    final String name;
+    /** Геттер свойства. */
+    final JMethod getter;
+    /** Метод проверки наличия свойства или {@code null}, если тип свойства не скалярный. */
+    JMethod has;
+    /** Геттер, возвращающий примитив, или {@code null}, если тип свойства не скалярный. */
+    JMethod primitive;
+    /** Метод создания версии с измененным свойством или {@code null}, если у объекта нет версий. */
+    JMethod with;
+
+    Property(String name, JMethod getter) {
+      this.name = name;
+      this.getter = getter;
+    }
+  }
+  /** Представление числа в сгенерированных проверках границ. */
+  private enum NumberKind {
+    /** Целое число, все границы также целые. */
+    LONG,
+    /** Число с плавающей точкой. */
+    DOUBLE,
+    /** Целое число вне диапазона {@code long}, все границы целые. */
+    DECIMAL
+  }
+  /** Примитивные представления скалярных типов. */
+  private enum Primitive {
+    LONG(JsonInteger.class, long.class, "AsLong", "longValue", "readLong"),
+    DOUBLE(JsonNumber.class, double.class, "AsDouble", "doubleValue", "readDouble"),
+    BOOLEAN(JsonBoolean.class, boolean.class, "AsBoolean", "value", "readBoolean");
+
+    /** Скалярный тип, имеющий примитивное представление. */
+    final Class<? extends JsonScalar> scalar;
+    /** Примитивный тип. */
+    final Class<?> type;
+    /** Суффикс имени геттера, возвращающего примитив. */
+    final String suffix;
+    /** Метод скалярного типа, возвращающий примитив. */
+    final String accessor;
+    /** Метод {@link JsonReader}, читающий примитив из буфера. */
+    final String reader;
+
+    Primitive(Class<? extends JsonScalar> scalar, Class<?> type, String suffix, String accessor, String reader) {
+      this.scalar = scalar;
+      this.type = type;
+      this.suffix = suffix;
+      this.accessor = accessor;
+      this.reader = reader;
+    }
+
+    /**
+     * Возвращает примитивное представление типа.
+     *
+     * @param type Тип свойства
+     *
+     * @return Представление или {@code null}, если тип не имеет примитивного представления
+     */
+    static Primitive of(AbstractJClass type) {
+      for (final Primitive p : values()) {
+        if (p.scalar.getName().equals(type.fullName())) return p;
+      }
+      return null;
+    }
+  }
 }
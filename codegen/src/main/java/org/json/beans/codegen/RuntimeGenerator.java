@@ -0,0 +1,535 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.codegen;
+
+import com.helger.jcodemodel.JPackage;
+import com.helger.jcodemodel.writer.AbstractCodeWriter;
+import com.helger.jcodemodel.writer.JCMWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import net.jimblackler.jsonschemafriend.Schema;
+import org.json.beans.JsonValue;
+import org.json.beans.impl.CodecProvider;
+import org.json.beans.impl.CodecRegistry;
+import org.json.beans.impl.Decoder;
+import org.json.beans.impl.Encoder;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Генерация классов для схем, известных только во время работы программы. Для схемы генерируются
+ * те же интерфейсы и реализации, что и {@link Generator генератором} при сборке, но исходный код
+ * компилируется в памяти и загружается собственным загрузчиком классов, поэтому скорость работы
+ * с документами такая же, как у классов, сгенерированных заранее.
+ * <p>
+ * Результаты кешируются по URI схемы, хешу канонического JSON представления (с упорядоченными
+ * ключами объектов и нормализованными числами) ее самой и всех схем, достижимых из нее через
+ * {@code $ref}, и настройкам генерации, поэтому для уже привязанной схемы код не генерируется и не
+ * компилируется повторно, а изменение любого документа, на который она ссылается, приводит к новой
+ * генерации. Кеш ограничен по размеру: при переполнении вытесняется давно не использовавшаяся
+ * привязка, после чего ее классы могут быть выгружены сборщиком мусора вместе с загрузчиком, если
+ * на них нет других ссылок.
+ * <p>
+ * Для компиляции требуется JDK, его наличие проверяется при создании генератора. Класс потокобезопасен; одновременная привязка одной и той же схемы
+ * может скомпилировать ее несколько раз, но использоваться будет один результат.
+ *
+ * @author Mingun
+ */
+public final class RuntimeGenerator {
+  /** Генерировать ли классы {@code Validator}. */
+  private final boolean validators;
+  /** Пакет для сгенерированных классов. */
+  private final String packageName;
+  /** Привязки в порядке использования, от давно использованной к недавно использованной. */
+  private final Map<String, Binding> cache;
+  /** Компилятор сгенерированного кода. */
+  private final JavaCompiler compiler;
+
+  /**
+   * Создает генератор.
+   *
+   * @param validators Если {@code true}, то генерируются также классы {@code Validator}, а
+   *        {@link Binding#decoder()} проверяет документ перед созданием представления
+   * @param packageName Пакет, в котором генерируются классы
+   * @param capacity Максимальное количество хранимых привязок
+   *
+   * @throws IllegalArgumentException Если {@code capacity} меньше {@code 1}
+   * @throws IllegalStateException Если программа выполняется не в JDK и компилятор недоступен
+   */
+  public RuntimeGenerator(boolean validators, String packageName, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+    }
+    this.compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("Runtime generation requires a JDK, but running on a JRE");
+    }
+    this.validators = validators;
+    this.packageName = packageName;
+    this.cache = new LinkedHashMap<String, Binding>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Binding> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Генерирует и загружает классы для схемы или возвращает ранее загруженные. Первая привязка схемы
+   * компилирует сгенерированный код компилятором {@code javac} из состава JDK и занимает время,
+   * сравнимое с его запуском; повторные привязки той же схемы только вычисляют ключ кеша.
+   *
+   * @param schema Схема всего JSON документа
+   *
+   * @return Привязка к классам, сгенерированным для схемы
+   *
+   * @throws Exception Если схема не может быть представлена классами
+   * @throws IllegalStateException Если сгенерированный код не компилируется
+   */
+  public Binding bind(Schema schema) throws Exception {
+    final String key = key(schema);
+    synchronized (cache) {
+      final Binding binding = cache.get(key);
+      if (binding != null) return binding;
+    }
+    final Sources sources = new Sources();
+    final String root = new Generator(validators, packageName).generate(schema, sources).erasure().binaryName();
+    final Binding binding = new Binding(root, sources.provider, compile(sources.files));
+    synchronized (cache) {
+      final Binding previous = cache.putIfAbsent(key, binding);
+      return previous != null ? previous : binding;
+    }
+  }
+  /** @return Количество хранимых привязок */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * Вычисляет ключ кеша для схемы, не генерируя для нее код.
+   *
+   * @param schema Схема всего JSON документа
+   *
+   * @return Настройки генерации, URI схемы и шестнадцатеричное представление хеша SHA-256
+   *         канонических JSON представлений ее и всех схем, на которые она ссылается
+   */
+  private String key(Schema schema) {
+    final StringBuilder sb = new StringBuilder();
+    canonical(schema.getSchemaObject(), sb);
+    // Документы упорядочены по URI, чтобы ключ не зависел от порядка обхода
+    final Map<String, Schema> documents = new TreeMap<>();
+    documents(schema, document(schema.getUri()), new HashSet<>(), documents);
+    for (final Map.Entry<String, Schema> e : documents.entrySet()) {
+      sb.append(',');
+      string(e.getKey(), sb);
+      sb.append(':');
+      canonical(e.getValue().getSchemaObject(), sb);
+    }
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      // Поддержка SHA-256 обязательна для всех реализаций Java
+      throw new IllegalStateException(ex);
+    }
+    final byte[] hash = digest.digest(sb.toString().getBytes(UTF_8));
+    sb.setLength(0);
+    sb.append(validators).append(' ').append(packageName).append(' ').append(schema.getUri()).append(' ');
+    for (final byte b : hash) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+      sb.append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+  /**
+   * Собирает документы, в которых находятся схемы, достижимые из данной через {@code $ref}, в том
+   * числе транзитивно. Содержимое таких документов не входит в {@link Schema#getSchemaObject()}
+   * корневой схемы, но влияет на сгенерированный код.
+   *
+   * @param schema Обходимая схема
+   * @param root URI документа корневой схемы
+   * @param visited URI уже обойденных схем
+   * @param documents Корневые схемы найденных документов по URI документов
+   */
+  private static void documents(Schema schema, URI root, Set<URI> visited, Map<String, Schema> documents) {
+    if (!visited.add(schema.getUri())) return;
+
+    final URI document = document(schema.getUri());
+    if (!root.equals(document) && !documents.containsKey(document.toString())) {
+      Schema top = schema;
+      while (top.getParent() != null) {
+        top = top.getParent();
+      }
+      documents.put(document.toString(), top);
+    }
+    final Schema ref = schema.getRef();
+    if (ref != null) {
+      documents(ref, root, visited, documents);
+    }
+    for (final Schema s : schema.getSubSchemas().values()) {
+      documents(s, root, visited, documents);
+    }
+  }
+  /**
+   * Возвращает URI документа, в котором находится схема.
+   *
+   * @param uri URI схемы
+   *
+   * @return URI без фрагмента
+   */
+  private static URI document(URI uri) {
+    try {
+      return new URI(uri.getScheme(), uri.getSchemeSpecificPart(), null);
+    } catch (URISyntaxException ex) {
+      // Удаление фрагмента из корректного URI дает корректный URI
+      throw new IllegalStateException(ex);
+    }
+  }
+  /**
+   * Записывает значение схемы в каноническом виде: ключи объектов упорядочены, числа записаны без
+   * незначащих нулей, пробелы между элементами отсутствуют. Одинаковые по содержанию схемы дают
+   * одинаковую запись независимо от форматирования исходного документа.
+   *
+   * @param value Значение, полученное из {@link Schema#getSchemaObject()}
+   * @param sb Буфер для записи
+   */
+  private static void canonical(Object value, StringBuilder sb) {
+    if (value instanceof Map) {
+      final Map<String, Object> sorted = new TreeMap<>();
+      for (final Map.Entry<?, ?> e : ((Map<?, ?>)value).entrySet()) {
+        sorted.put(String.valueOf(e.getKey()), e.getValue());
+      }
+      char separator = '{';
+      for (final Map.Entry<String, Object> e : sorted.entrySet()) {
+        sb.append(separator);
+        separator = ',';
+        string(e.getKey(), sb);
+        sb.append(':');
+        canonical(e.getValue(), sb);
+      }
+      if (separator == '{') sb.append(separator);
+      sb.append('}');
+    } else
+    if (value instanceof Collection) {
+      char separator = '[';
+      for (final Object item : (Collection<?>)value) {
+        sb.append(separator);
+        separator = ',';
+        canonical(item, sb);
+      }
+      if (separator == '[') sb.append(separator);
+      sb.append(']');
+    } else
+    if (value instanceof Number) {
+      final BigDecimal number = new BigDecimal(value.toString());
+      sb.append(number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros());
+    } else
+    if (value == null || value instanceof Boolean) {
+      sb.append(value);
+    } else {
+      string(value.toString(), sb);
+    }
+  }
+  private static void string(String value, StringBuilder sb) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      final char c = value.charAt(i);
+      if (c == '"' || c == '\\') sb.append('\\');
+      sb.append(c);
+    }
+    sb.append('"');
+  }
+
+  /**
+   * Классы, сгенерированные для одной схемы, и фабрики для работы с документами корневого типа.
+   * Код, которому типы не известны во время компиляции, может обращаться к их методам через
+   * {@link java.lang.invoke.MethodHandles#publicLookup()} без потерь скорости рефлексии.
+   */
+  public static final class Binding {
+    /** Загрузчик сгенерированных классов. */
+    private final ClassLoader loader;
+    /** Интерфейс, сгенерированный для схемы документа. */
+    private final Class<? extends JsonValue> type;
+    /** Фабрика представлений документа или {@code null}, если у типа нет реализации. */
+    private final Decoder<? extends JsonValue> decoder;
+    /** Запись документов или {@code null}, если у типа нет класса записи. */
+    private final Encoder<JsonValue> encoder;
+    /** Двоичное имя поставщика фабрик всех сгенерированных типов. */
+    private final String provider;
+
+    @SuppressWarnings("unchecked")
+    private Binding(String root, String provider, ClassLoader loader) throws ReflectiveOperationException {
+      this.loader = loader;
+      this.provider = provider;
+      this.type = loader.loadClass(root).asSubclass(JsonValue.class);
+      this.decoder = (Decoder<? extends JsonValue>)constant(root + "$Validator", "DECODER",
+        constant(root + "$Impl", "DECODER", null)
+      );
+      this.encoder = (Encoder<JsonValue>)constant(root + "$Writer", "ENCODER", null);
+    }
+
+    /** @return Интерфейс, сгенерированный для схемы документа */
+    public Class<? extends JsonValue> type() {
+      return type;
+    }
+    /**
+     * Загружает класс, сгенерированный для схемы.
+     *
+     * @param name Двоичное имя класса, например, {@code com.example.Document$AddressType}
+     *
+     * @return Класс
+     *
+     * @throws ClassNotFoundException Если для схемы не генерировался такой класс
+     */
+    public Class<?> load(String name) throws ClassNotFoundException {
+      return Class.forName(name, true, loader);
+    }
+    /**
+     * Возвращает фабрику ленивых представлений документа. Если генерировались классы {@code Validator},
+     * то фабрика проверяет документ перед созданием представления.
+     *
+     * @return Потокобезопасная фабрика
+     *
+     * @throws UnsupportedOperationException Если у типа документа нет реализации
+     */
+    public Decoder<? extends JsonValue> decoder() {
+      if (decoder == null) {
+        throw new UnsupportedOperationException(type.getName() + " has no implementation");
+      }
+      return decoder;
+    }
+    /**
+     * Создает фабрику курсора -- представления, которое при каждом вызове фабрики переставляется
+     * на новый документ вместо создания нового объекта.
+     *
+     * @return Новая фабрика, которую может использовать только один поток
+     *
+     * @throws UnsupportedOperationException Если у типа документа нет курсора
+     */
+    @SuppressWarnings("unchecked")
+    public Decoder<? extends JsonValue> cursor() {
+      try {
+        return (Decoder<? extends JsonValue>)loader.loadClass(type.getName() + "$Cursor")
+          .getMethod("reusing")
+          .invoke(null);
+      } catch (ReflectiveOperationException ex) {
+        throw new UnsupportedOperationException(type.getName() + " has no cursor", ex);
+      }
+    }
+    /**
+     * Создает поставщика фабрик всех типов, сгенерированных для схемы, например, для регистрации
+     * их в собственном {@link CodecRegistry реестре}.
+     *
+     * @return Поставщик фабрик
+     */
+    public CodecProvider provider() {
+      try {
+        return (CodecProvider)loader.loadClass(provider).getConstructor().newInstance();
+      } catch (ReflectiveOperationException ex) {
+        throw new IllegalStateException("Cannot create codec provider " + provider, ex);
+      }
+    }
+    /**
+     * Возвращает запись документов. Запись принимает только значения типа {@link #type()} и
+     * выбрасывает {@link ClassCastException} для остальных.
+     *
+     * @return Потокобезопасная запись
+     *
+     * @throws UnsupportedOperationException Если у типа документа нет класса записи
+     */
+    public Encoder<JsonValue> encoder() {
+      if (encoder == null) {
+        throw new UnsupportedOperationException(type.getName() + " has no writer");
+      }
+      return encoder;
+    }
+
+    private Object constant(String className, String name, Object missing) throws ReflectiveOperationException {
+      final Class<?> clazz;
+      try {
+        clazz = loader.loadClass(className);
+      } catch (ClassNotFoundException ex) {
+        return missing;
+      }
+      final Field field;
+      try {
+        field = clazz.getField(name);
+      } catch (NoSuchFieldException ex) {
+        return missing;
+      }
+      return field.get(null);
+    }
+  }
+
+  /**
+   * Компилирует исходный код в памяти.
+   *
+   * @param files Исходный код классов верхнего уровня по их полным именам
+   *
+   * @return Загрузчик скомпилированных классов
+   */
+  private ClassLoader compile(Map<String, String> files) {
+    final List<JavaFileObject> units = new ArrayList<>(files.size());
+    for (final Map.Entry<String, String> e : files.entrySet()) {
+      final String source = e.getValue();
+      units.add(new SimpleJavaFileObject(uri(e.getKey(), JavaFileObject.Kind.SOURCE), JavaFileObject.Kind.SOURCE) {
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+          return source;
+        }
+      });
+    }
+    final Map<String, byte[]> classes = new HashMap<>();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    final StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, UTF_8);
+    final JavaFileManager manager = new ForwardingJavaFileManager<JavaFileManager>(standard) {
+      @Override
+      public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+        return new SimpleJavaFileObject(uri(className, kind), kind) {
+          @Override
+          public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+              @Override
+              public void close() {
+                synchronized (classes) {
+                  classes.put(className, toByteArray());
+                }
+              }
+            };
+          }
+        };
+      }
+    };
+    final List<String> options = Arrays.asList("-classpath", classpath(), "-proc:none", "-nowarn");
+    if (!compiler.getTask(null, manager, diagnostics, options, null, units).call()) {
+      final StringBuilder sb = new StringBuilder("Generated code does not compile:");
+      for (final Diagnostic<?> d : diagnostics.getDiagnostics()) {
+        if (d.getKind() == Diagnostic.Kind.ERROR) {
+          sb.append('\n').append(d);
+        }
+      }
+      throw new IllegalStateException(sb.toString());
+    }
+    return new ClassLoader(JsonValue.class.getClassLoader()) {
+      @Override
+      protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final byte[] code;
+        synchronized (classes) {
+          // Байт-код больше не нужен после определения класса
+          code = classes.remove(name);
+        }
+        if (code == null) {
+          throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, code, 0, code.length);
+      }
+    };
+  }
+  private static URI uri(String className, JavaFileObject.Kind kind) {
+    return URI.create("string:///" + className.replace('.', '/') + kind.extension);
+  }
+  /**
+   * Формирует путь поиска классов для компиляции. Кроме пути приложения в него входит каталог
+   * или jar-файл библиотеки, так как в контейнерах приложений она может загружаться отдельно.
+   */
+  private static String classpath() {
+    final String path = System.getProperty("java.class.path");
+    final CodeSource code = JsonValue.class.getProtectionDomain().getCodeSource();
+    if (code != null && "file".equals(code.getLocation().getProtocol())) {
+      try {
+        return Paths.get(code.getLocation().toURI()) + File.pathSeparator + path;
+      } catch (Exception ex) {
+        // Остается только путь приложения
+      }
+    }
+    return path;
+  }
+
+  /** Получатель исходного кода, накапливающий его в памяти. */
+  private static final class Sources extends AbstractCodeWriter {
+    /** Исходный код классов верхнего уровня по их полным именам, в лексикографическом порядке. */
+    final Map<String, String> files = new TreeMap<>();
+    /** Двоичное имя поставщика фабрик. */
+    String provider;
+    Sources() {
+      super(UTF_8, JCMWriter.getDefaultNewLine());
+    }
+
+    @Override
+    public OutputStream openBinary(JPackage pkg, String fileName) {
+      // Из файла службы нужно только имя поставщика, он доступен через Binding.provider()
+      if (!fileName.endsWith(".java")) {
+        return new ByteArrayOutputStream() {
+          @Override
+          public void close() {
+            provider = new String(toByteArray(), UTF_8).trim();
+          }
+        };
+      }
+      final String simple = fileName.substring(0, fileName.length() - ".java".length());
+      final String name = pkg.isUnnamed() ? simple : pkg.name() + '.' + simple;
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          files.put(name, new String(toByteArray(), UTF_8));
+        }
+      };
+    }
+
+    @Override
+    public void close() {}
+  }
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.codegen;
+
+import com.helger.jcodemodel.JPackage;
+import com.helger.jcodemodel.writer.AbstractCodeWriter;
+import com.helger.jcodemodel.writer.JCMWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Получатель сгенерированного кода, раскладывающий файлы по каталогам пакетов внутри корневого
+ * каталога исходного кода. Файл перезаписывается, только если его содержимое изменилось, чтобы
+ * не менять время модификации и не вызывать лишнюю перекомпиляцию.
+ * <p>
+ * Один экземпляр может использоваться несколькими генераторами одновременно. Если несколько
+ * генераторов выводят один и тот же класс (например, определение из другого файла, на которое
+ * ссылаются несколько схем), он записывается один раз. Если же содержимое класса у генераторов
+ * различается, то это конфликт имен, о котором сообщается ошибкой.
+ * <p>
+ * Файлы служб {@code META-INF/services} у всех генераторов общие, поэтому их строки объединяются и
+ * записываются методом {@link #finish()}. Так как при инкрементальной генерации обрабатываются не
+ * все схемы, строки, уже записанные в файлы, сохраняются, пока существует исходный код их классов,
+ * а файлы без строк удаляются.
+ * <p>
+ * Файлы записываются при закрытии потоков, а {@link JCMWriter} ошибки
+ * закрытия только журналирует, поэтому ошибки накапливаются и выбрасываются методом {@link #finish()}.
+ *
+ * @author Mingun
+ */
+final class SourceTree extends AbstractCodeWriter {
+  /** Корневой каталог исходного кода. */
+  private final Path root;
+  /** Хеши содержимого файлов, уже выведенных каким-либо генератором. */
+  private final ConcurrentMap<Path, Integer> claimed = new ConcurrentHashMap<>();
+  /** Строки файлов служб, выведенные генераторами. */
+  private final ConcurrentMap<Path, Set<String>> services = new ConcurrentHashMap<>();
+  /** Ошибки записи файлов. */
+  private final Queue<IOException> errors = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Создает получатель кода.
+   *
+   * @param root Корневой каталог исходного кода. Создается при необходимости
+   */
+  SourceTree(Path root) {
+    super(UTF_8, JCMWriter.getDefaultNewLine());
+    this.root = root;
+  }
+
+  @Override
+  public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+    return open(file(pkg, fileName));
+  }
+
+  @Override
+  public void close() {}
+
+  /**
+   * Создает получатель кода для одного генератора, запоминающий выведенные им файлы.
+   *
+   * @param produced Множество, в которое добавляются пути выведенных файлов относительно корневого
+   *        каталога, в том числе файлов, которые не перезаписывались, так как не изменились
+   *
+   * @return Получатель, записывающий файлы в это дерево
+   */
+  AbstractCodeWriter writer(Set<Path> produced) {
+    return new AbstractCodeWriter(UTF_8, JCMWriter.getDefaultNewLine()) {
+      @Override
+      public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+        final Path file = file(pkg, fileName);
+        produced.add(root.relativize(file));
+        return open(file);
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  private Path file(JPackage pkg, String fileName) {
+    final Path dir = pkg.isUnnamed() ? root : root.resolve(pkg.name().replace('.', '/'));
+    return dir.resolve(fileName);
+  }
+  private OutputStream open(Path file) {
+    if (file.getParent().equals(root.resolve("META-INF/services"))) {
+      final Set<String> lines = services.computeIfAbsent(file, f -> ConcurrentHashMap.newKeySet());
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          for (final String line : new String(toByteArray(), UTF_8).split("\n")) {
+            if (!line.trim().isEmpty()) {
+              lines.add(line.trim());
+            }
+          }
+        }
+      };
+    }
+    return new ByteArrayOutputStream() {
+      @Override
+      public void close() throws IOException {
+        try {
+          save(file, toByteArray());
+        } catch (IOException ex) {
+          errors.add(ex);
+          throw ex;
+        }
+      }
+    };
+  }
+
+  /**
+   * Записывает файлы служб и выбрасывает ошибки записи файлов, если они были. Вызывается после
+   * завершения работы всех генераторов.
+   *
+   * @throws IOException Первая из ошибок; остальные добавлены к ней как подавленные
+   */
+  void finish() throws IOException {
+    final Path dir = root.resolve("META-INF/services");
+    if (Files.isDirectory(dir)) {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+        for (final Path file : files) {
+          services.computeIfAbsent(file, f -> ConcurrentHashMap.newKeySet());
+        }
+      }
+    }
+    for (final Map.Entry<Path, Set<String>> e : services.entrySet()) {
+      try {
+        saveServices(e.getKey(), e.getValue());
+      } catch (IOException ex) {
+        errors.add(ex);
+      }
+    }
+    final IOException first = errors.poll();
+    if (first != null) {
+      for (IOException ex = errors.poll(); ex != null; ex = errors.poll()) {
+        first.addSuppressed(ex);
+      }
+      throw first;
+    }
+  }
+
+  private void saveServices(Path file, Set<String> lines) throws IOException {
+    final Set<String> providers = new TreeSet<>(lines);
+    if (Files.isRegularFile(file)) {
+      for (final String line : Files.readAllLines(file, UTF_8)) {
+        final String provider = line.trim();
+        if (!provider.isEmpty() && Files.isRegularFile(source(provider))) {
+          providers.add(provider);
+        }
+      }
+    }
+    if (providers.isEmpty()) {
+      Files.deleteIfExists(file);
+      return;
+    }
+    final StringBuilder sb = new StringBuilder();
+    for (final String provider : providers) {
+      sb.append(provider).append('\n');
+    }
+    save(file, sb.toString().getBytes(UTF_8));
+  }
+  /**
+   * Определяет файл с исходным кодом класса.
+   *
+   * @param className Двоичное имя класса
+   *
+   * @return Файл класса верхнего уровня, содержащего указанный класс
+   */
+  private Path source(String className) {
+    final int nested = className.indexOf('$');
+    final String outer = nested < 0 ? className : className.substring(0, nested);
+    return root.resolve(outer.replace('.', '/') + ".java");
+  }
+  private void save(Path file, byte[] content) throws IOException {
+    final int hash = Arrays.hashCode(content);
+    final Integer previous = claimed.putIfAbsent(file, hash);
+    if (previous != null) {
+      if (previous != hash) {
+        throw new IOException("Several schemas generate different classes into " + file);
+      }
+      return;
+    }
+    if (Files.isRegularFile(file) && Files.size(file) == content.length
+     && Arrays.equals(Files.readAllBytes(file), content)
+    ) {
+      return;
+    }
+    Files.createDirectories(file.getParent());
+    Files.write(file, content);
+  }
+}
\ No newline at end of file
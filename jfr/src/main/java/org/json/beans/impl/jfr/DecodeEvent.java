@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие построения индекса объекта сгенерированного типа. Так как индекс строится для каждого
+ * объекта, событие по умолчанию выключено. Время индексирования известно только после его
+ * завершения, поэтому оно записывается в поле события, а не в его длительность, и порог
+ * длительности к событию не применим.
+ *
+ * @author Mingun
+ */
+@Name("org.json.beans.Decode")
+@Label("JSON Decode")
+@Category({"JSON Beans"})
+@Description("Indexing of a JSON object by a generated implementation")
+@Enabled(false)
+final class DecodeEvent extends Event {
+  @Label("Type")
+  Class<?> type;
+
+  @Label("Size")
+  @DataAmount
+  int bytes;
+
+  @Label("Decode Time")
+  @Timespan
+  long decodeTime;
+
+  @Label("Present Properties")
+  int present;
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl.jfr;
+
+import java.util.Map;
+import jdk.jfr.FlightRecorder;
+import org.json.beans.JsonValue;
+import org.json.beans.ValidationException;
+import org.json.beans.impl.Instrumentation;
+import org.json.beans.impl.Metrics;
+import org.json.beans.impl.Probe;
+
+/**
+ * Реализация наблюдения, публикующая события JDK Flight Recorder и накапливающая {@link Metrics
+ * счетчики}. Каждое событие по отдельности включается и выключается настройками записи, поэтому
+ * при выключенной записи остается только обновление счетчиков.
+ * <p>
+ * Требует JVM с JFR (OpenJDK 8u262 и новее), поэтому вынесена в отдельный модуль
+ * {@code json-beans-jfr}: сама библиотека от {@code jdk.jfr} не зависит и собирается с
+ * {@code --release 8}. Модуль регистрирует реализацию в
+ * {@code META-INF/services/org.json.beans.impl.Instrumentation}, так что для включения достаточно
+ * добавить его в classpath. Явно реализацию можно выбрать параметром
+ * {@code -Dorg.json.beans.instrumentation=org.json.beans.impl.jfr.JfrInstrumentation}.
+ *
+ * @author Mingun
+ */
+public class JfrInstrumentation implements Instrumentation {
+  /** Счетчики, публикуемые периодическим событием {@link StatisticsEvent}. */
+  private final Metrics metrics = new Metrics();
+
+  /** Создает реализацию и регистрирует периодическую публикацию счетчиков. */
+  public JfrInstrumentation() {
+    FlightRecorder.addPeriodicEvent(StatisticsEvent.class, this::statistics);
+  }
+
+  @Override
+  public Probe probe(Class<? extends JsonValue> type, String[] properties) {
+    return new JfrProbe(type, metrics.probe(type, properties));
+  }
+  /**
+   * Возвращает счетчики, накопленные с момента создания.
+   *
+   * @return Счетчики по типам
+   */
+  public Metrics metrics() {
+    return metrics;
+  }
+
+  private void statistics() {
+    for (final Map.Entry<Class<?>, Metrics.Counters> e : metrics.counters().entrySet()) {
+      final Metrics.Counters c = e.getValue();
+      final StatisticsEvent event = new StatisticsEvent();
+      event.type = e.getKey();
+      event.decoded = c.decoded();
+      event.decodedBytes = c.decodedBytes();
+      event.decodeTime = c.decodeNanos();
+      event.materialized = c.materialized();
+      event.skipped = c.skipped();
+      event.encoded = c.encoded();
+      event.encodedBytes = c.encodedBytes();
+      event.encodeTime = c.encodeNanos();
+      event.allocated = c.allocated();
+      event.failures = c.failures().values().stream().mapToLong(Long::longValue).sum();
+      event.commit();
+    }
+  }
+
+  /** Датчик, обновляющий счетчики типа и публикующий события. */
+  private static final class JfrProbe extends Probe {
+    /** Наблюдаемый тип. */
+    private final Class<?> type;
+    /** Счетчики типа. */
+    private final Probe counters;
+
+    JfrProbe(Class<?> type, Probe counters) {
+      this.type = type;
+      this.counters = counters;
+    }
+
+    @Override
+    public void decoded(int bytes, long nanos, int present) {
+      counters.decoded(bytes, nanos, present);
+      final DecodeEvent event = new DecodeEvent();
+      if (event.shouldCommit()) {
+        event.type = type;
+        event.bytes = bytes;
+        event.decodeTime = nanos;
+        event.present = present;
+        event.commit();
+      }
+    }
+    @Override
+    public void materialized(int property) {
+      counters.materialized(property);
+    }
+    @Override
+    public void encoded(long bytes, long nanos) {
+      counters.encoded(bytes, nanos);
+      final EncodeEvent event = new EncodeEvent();
+      if (event.shouldCommit()) {
+        event.type = type;
+        event.bytes = bytes;
+        event.encodeTime = nanos;
+        event.commit();
+      }
+    }
+    @Override
+    public void invalid(ValidationException error) {
+      counters.invalid(error);
+      final ValidationFailureEvent event = new ValidationFailureEvent();
+      if (event.shouldCommit()) {
+        event.type = type;
+        event.keyword = error.getKeyword();
+        event.position = error.getPosition();
+        event.message = error.getMessage();
+        event.commit();
+      }
+    }
+  }
+}
\ No newline at end of file
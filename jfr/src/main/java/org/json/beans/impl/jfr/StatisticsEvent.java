@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Периодическое событие с накопленными счетчиками одного сгенерированного типа. По умолчанию
+ * публикуется в начале и конце каждого фрагмента записи, поэтому итоги попадают в любую запись.
+ *
+ * @author Mingun
+ */
+@Name("org.json.beans.TypeStatistics")
+@Label("JSON Type Statistics")
+@Category({"JSON Beans"})
+@Description("Cumulative decode and encode counters of a generated type")
+@Period("everyChunk")
+@StackTrace(false)
+final class StatisticsEvent extends Event {
+  @Label("Type")
+  Class<?> type;
+
+  @Label("Decoded Objects")
+  long decoded;
+
+  @Label("Decoded Size")
+  @DataAmount
+  long decodedBytes;
+
+  @Label("Decode Time")
+  @Timespan
+  long decodeTime;
+
+  @Label("Materialized Properties")
+  long materialized;
+
+  @Label("Skipped Properties")
+  long skipped;
+
+  @Label("Encoded Values")
+  long encoded;
+
+  @Label("Encoded Size")
+  @DataAmount
+  long encodedBytes;
+
+  @Label("Encode Time")
+  @Timespan
+  long encodeTime;
+
+  @Label("Allocated Estimate")
+  @DataAmount
+  long allocated;
+
+  @Label("Validation Failures")
+  long failures;
+}
\ No newline at end of file
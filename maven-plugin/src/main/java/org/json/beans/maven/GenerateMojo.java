@@ -0,0 +1,238 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.maven;
+
+import java.io.File;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.model.Resource;
+import org.apache.maven.project.MavenProject;
+import org.json.beans.codegen.BatchGenerator;
+import org.json.beans.codegen.Generator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Генерирует классы для схем JSON и добавляет каталог с ними к исходному коду проекта.
+ * <p>
+ * Генерация инкрементальная: в манифесте запоминаются хеши каждой схемы вместе со всеми файлами,
+ * на которые она транзитивно ссылается через {@code $ref}, отпечаток генератора и его настроек,
+ * а также файлы, выведенные для каждой схемы. Классы генерируются заново только для схем, хеш
+ * которых изменился или выведенные файлы которых пропали; при изменении генератора или настроек --
+ * для всех схем. Файлы, которые больше не выводятся ни для одной схемы, удаляются, а файлы с
+ * неизменившимся содержимым не перезаписываются и не вызывают перекомпиляцию.
+ *
+ * @author Mingun
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+  /** Каталог с файлами схем. */
+  @Parameter(defaultValue = "${project.basedir}/src/main/schemas", required = true)
+  private File schemaDirectory;
+  /**
+   * Шаблоны файлов схем в синтаксисе {@link FileSystem#getPathMatcher glob} относительно
+   * {@link #schemaDirectory}, например, {@code api/**.json}. По умолчанию используются все файлы
+   * {@code *.json} каталога и его подкаталогов.
+   */
+  @Parameter
+  private List<String> includes;
+  /** Корневой каталог сгенерированного исходного кода. */
+  @Parameter(defaultValue = "${project.build.directory}/generated-sources/json-beans", required = true)
+  private File outputDirectory;
+  /** Пакет для сгенерированных классов. По умолчанию -- пакет по умолчанию. */
+  @Parameter
+  private String packageName;
+  /** Генерировать ли классы {@code Validator}. */
+  @Parameter(defaultValue = "false")
+  private boolean validators;
+  /** Максимальное количество схем, обрабатываемых одновременно, {@code 0} -- по количеству процессоров. */
+  @Parameter(defaultValue = "0")
+  private int threads;
+  /** Файл с результатами предыдущей генерации. */
+  @Parameter(defaultValue = "${project.build.directory}/json-beans/${mojoExecution.executionId}.manifest", required = true)
+  private File manifest;
+
+  @Parameter(defaultValue = "${project}", readonly = true, required = true)
+  private MavenProject project;
+
+  @Override
+  public void execute() throws MojoExecutionException {
+    project.addCompileSourceRoot(outputDirectory.getPath());
+    // Поставщики фабрик перечисляются в META-INF/services рядом с исходным кодом
+    final Resource services = new Resource();
+    services.setDirectory(outputDirectory.getPath());
+    services.addInclude("META-INF/services/**");
+    project.addResource(services);
+    if (!schemaDirectory.isDirectory()) {
+      getLog().info("Schema directory " + schemaDirectory + " does not exist, nothing to generate");
+      return;
+    }
+    try {
+      generate(schemaDirectory.toPath(), outputDirectory.toPath());
+    } catch (Exception ex) {
+      throw new MojoExecutionException("Cannot generate classes for schemas from " + schemaDirectory, ex);
+    }
+  }
+
+  private void generate(Path schemas, Path output) throws Exception {
+    final Manifest previous = Manifest.load(manifest.toPath());
+    final Manifest current = new Manifest(fingerprint());
+    final boolean same = current.generator().equals(previous.generator());
+
+    final RefClosure closure = new RefClosure();
+    final List<Path> files = find(schemas);
+    final Set<Path> names = new HashSet<>();
+    final Map<Path, String> stale = new LinkedHashMap<>();
+    for (final Path file : files) {
+      final Path name = schemas.relativize(file);
+      names.add(name);
+      final String digest = closure.digest(file);
+      final Set<Path> outputs = same ? previous.outputs(name, digest) : null;
+      if (outputs != null && outputs.stream().allMatch(f -> Files.isRegularFile(output.resolve(f)))) {
+        current.put(name, digest, outputs);
+      } else {
+        stale.put(file, digest);
+      }
+    }
+    // Файлы удаленных схем удаляются до генерации, чтобы их поставщики не остались в файлах служб
+    final Set<Path> kept = new HashSet<>();
+    for (final Path schema : previous.schemas()) {
+      if (names.contains(schema)) {
+        kept.addAll(previous.outputs(schema));
+      }
+    }
+    boolean removed = false;
+    for (final Path schema : previous.schemas()) {
+      if (!names.contains(schema)) {
+        delete(output, previous.outputs(schema), kept, schema);
+        removed = true;
+      }
+    }
+
+    if (stale.isEmpty()) {
+      getLog().info("All " + files.size() + " schemas are up to date");
+    } else {
+      getLog().info("Generating classes for " + stale.size() + " of " + files.size() + " schemas");
+    }
+    // Даже если генерировать нечего, файлы служб нужно очистить от поставщиков удаленных схем
+    if (!stale.isEmpty() || removed) {
+      final BatchGenerator generator = new BatchGenerator(
+        validators, packageName, threads > 0 ? threads : Runtime.getRuntime().availableProcessors()
+      );
+      for (final Map.Entry<Path, Set<Path>> e : generator.generate(stale.keySet(), output).entrySet()) {
+        current.put(schemas.relativize(e.getKey()), stale.get(e.getKey()), e.getValue());
+      }
+    }
+
+    // Файлы изменившихся схем, которые больше никем не выводятся
+    final Set<Path> live = new HashSet<>();
+    for (final Path schema : current.schemas()) {
+      live.addAll(current.outputs(schema));
+    }
+    for (final Path schema : previous.schemas()) {
+      delete(output, previous.outputs(schema), live, schema);
+    }
+    current.save(manifest.toPath());
+  }
+  /**
+   * Удаляет выведенные ранее файлы, которые больше не нужны.
+   *
+   * @param output Корневой каталог сгенерированного кода
+   * @param files Файлы, выведенные ранее для схемы
+   * @param live Файлы, которые нужно сохранить. Пополняется удаленными файлами
+   * @param schema Схема, для которой были выведены файлы
+   */
+  private void delete(Path output, Set<Path> files, Set<Path> live, Path schema) throws Exception {
+    for (final Path file : files) {
+      if (live.add(file) && Files.deleteIfExists(output.resolve(file))) {
+        getLog().debug("Deleted " + file + " generated from " + schema);
+      }
+    }
+  }
+
+  /**
+   * Находит файлы схем.
+   *
+   * @param root Каталог схем
+   *
+   * @return Файлы, соответствующие {@link #includes}, в лексикографическом порядке
+   */
+  private List<Path> find(Path root) throws Exception {
+    final List<PathMatcher> matchers = new ArrayList<>();
+    if (includes == null || includes.isEmpty()) {
+      matchers.add(p -> p.getFileName().toString().endsWith(".json"));
+    } else {
+      final FileSystem fs = root.getFileSystem();
+      for (final String include : includes) {
+        matchers.add(fs.getPathMatcher("glob:" + include));
+      }
+    }
+    try (Stream<Path> files = Files.walk(root)) {
+      return files
+        .filter(p -> Files.isRegularFile(p) && matchers.stream().anyMatch(m -> m.matches(root.relativize(p))))
+        .sorted()
+        .collect(Collectors.toList());
+    }
+  }
+  /**
+   * Вычисляет отпечаток генератора: хеш кода генератора (jar-файла или каталога с классами) и
+   * настроек, влияющих на результат генерации.
+   *
+   * @return Шестнадцатеричное представление хеша SHA-256
+   */
+  private String fingerprint() throws Exception {
+    final MessageDigest digest = RefClosure.sha256();
+    final Path code = Paths.get(Generator.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    if (Files.isDirectory(code)) {
+      final List<Path> classes;
+      try (Stream<Path> files = Files.walk(code)) {
+        classes = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+      }
+      for (final Path file : classes) {
+        digest.update(code.relativize(file).toString().getBytes(UTF_8));
+        digest.update(Files.readAllBytes(file));
+      }
+    } else {
+      digest.update(Files.readAllBytes(code));
+    }
+    digest.update(("validators=" + validators + "\npackage=" + packageName).getBytes(UTF_8));
+    return RefClosure.hex(digest.digest());
+  }
+}
\ No newline at end of file
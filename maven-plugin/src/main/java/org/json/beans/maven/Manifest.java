@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.maven;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Сведения о предыдущей генерации: отпечаток генератора, хеши схем и файлы, выведенные для каждой
+ * из них. Хранится в текстовом файле:
+ * <pre>
+ * &lt;отпечаток генератора&gt;
+ * &lt;хеш схемы&gt;\t&lt;путь схемы&gt;
+ * \t&lt;путь выведенного файла&gt;
+ * ...
+ * </pre>
+ * Пути схем задаются относительно каталога схем, пути выведенных файлов -- относительно каталога
+ * сгенерированного кода.
+ *
+ * @author Mingun
+ */
+final class Manifest {
+  /** Отпечаток генератора и его настроек, с которыми выведены файлы. */
+  private final String generator;
+  /** Хеши схем с учетом файлов, на которые они ссылаются. */
+  private final Map<Path, String> digests = new TreeMap<>();
+  /** Файлы, выведенные для каждой схемы. */
+  private final Map<Path, Set<Path>> outputs = new TreeMap<>();
+
+  /**
+   * Создает пустой манифест.
+   *
+   * @param generator Отпечаток генератора и его настроек
+   */
+  Manifest(String generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * Читает манифест из файла.
+   *
+   * @param file Файл манифеста
+   *
+   * @return Прочитанный манифест или пустой манифест без отпечатка, если файла нет
+   *
+   * @throws IOException Если файл не удалось прочитать
+   */
+  static Manifest load(Path file) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+      final Manifest manifest = new Manifest(reader.readLine());
+      Set<Path> files = null;
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        final int tab = line.indexOf('\t');
+        if (tab == 0) {
+          if (files == null) {
+            throw new IOException("Manifest " + file + " is corrupted: output without schema");
+          }
+          files.add(Paths.get(line.substring(1)));
+        } else
+        if (tab > 0) {
+          files = new TreeSet<>();
+          manifest.put(Paths.get(line.substring(tab + 1)), line.substring(0, tab), files);
+        }
+      }
+      return manifest;
+    } catch (NoSuchFileException ex) {
+      return new Manifest(null);
+    }
+  }
+  /**
+   * Записывает манифест в файл.
+   *
+   * @param file Файл манифеста. Каталог создается при необходимости
+   *
+   * @throws IOException Если файл не удалось записать
+   */
+  void save(Path file) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    try (BufferedWriter writer = Files.newBufferedWriter(file, UTF_8)) {
+      writer.write(generator);
+      writer.newLine();
+      for (final Map.Entry<Path, String> e : digests.entrySet()) {
+        writer.write(e.getValue());
+        writer.write('\t');
+        writer.write(e.getKey().toString());
+        writer.newLine();
+        for (final Path output : outputs.get(e.getKey())) {
+          writer.write('\t');
+          writer.write(output.toString());
+          writer.newLine();
+        }
+      }
+    }
+  }
+
+  /** @return Отпечаток генератора и его настроек или {@code null}, если манифеста не было */
+  String generator() {
+    return generator;
+  }
+  /** @return Пути всех схем в манифесте */
+  Set<Path> schemas() {
+    return Collections.unmodifiableSet(digests.keySet());
+  }
+  /**
+   * Возвращает файлы, выведенные для схемы, если с момента генерации она не изменилась.
+   *
+   * @param schema Путь схемы относительно каталога схем
+   * @param digest Текущий хеш схемы
+   *
+   * @return Пути файлов относительно каталога сгенерированного кода или {@code null}, если схемы
+   *         нет в манифесте или ее хеш отличается
+   */
+  Set<Path> outputs(Path schema, String digest) {
+    return digest.equals(digests.get(schema)) ? outputs.get(schema) : null;
+  }
+  /**
+   * Возвращает файлы, выведенные для схемы.
+   *
+   * @param schema Путь схемы относительно каталога схем
+   *
+   * @return Пути файлов относительно каталога сгенерированного кода или {@code null}, если схемы
+   *         нет в манифесте
+   */
+  Set<Path> outputs(Path schema) {
+    return outputs.get(schema);
+  }
+  /**
+   * Запоминает сведения о генерации для схемы.
+   *
+   * @param schema Путь схемы относительно каталога схем
+   * @param digest Хеш схемы
+   * @param files Пути выведенных файлов относительно каталога сгенерированного кода
+   */
+  void put(Path schema, String digest, Set<Path> files) {
+    digests.put(schema, digest);
+    outputs.put(schema, files);
+  }
+}
\ No newline at end of file
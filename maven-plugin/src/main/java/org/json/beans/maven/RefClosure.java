@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.maven;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.json.beans.JsonParseException;
+import org.json.beans.impl.JsonReader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Вычисляет хеш схемы вместе со всеми файлами, на которые она транзитивно ссылается через
+ * {@code $ref}. Хеш меняется при изменении содержимого любого из этих файлов, а также при
+ * появлении новых ссылок, поэтому по нему можно определить, нужно ли заново генерировать классы.
+ * <p>
+ * Ссылки разрешаются относительно файла, в котором они встречаются; {@code $id}, меняющие базовый
+ * адрес, не учитываются. Ссылки не на файлы (например, {@code http}) учитываются только текстом
+ * адреса, так как их содержимое не проверяется. Каждый файл читается один раз, поэтому
+ * экземпляр класса следует использовать для всех схем сборки.
+ *
+ * @author Mingun
+ */
+final class RefClosure {
+  /** Маркер отсутствующего файла, на который есть ссылка. */
+  private static final byte[] MISSING = new byte[0];
+
+  /** Хеши содержимого уже прочитанных файлов. */
+  private final Map<Path, byte[]> hashes = new HashMap<>();
+  /** Файлы, на которые ссылаются уже прочитанные файлы. */
+  private final Map<Path, Set<Path>> files = new HashMap<>();
+  /** Ссылки уже прочитанных файлов на ресурсы вне файловой системы. */
+  private final Map<Path, Set<String>> external = new HashMap<>();
+
+  /**
+   * Вычисляет хеш схемы и всех файлов, на которые она транзитивно ссылается.
+   *
+   * @param schema Файл схемы
+   *
+   * @return Шестнадцатеричное представление хеша SHA-256
+   *
+   * @throws IOException Если файл схемы или один из файлов, на которые она ссылается, не удалось прочитать
+   */
+  String digest(Path schema) throws IOException {
+    final Path root = schema.toAbsolutePath().normalize();
+    final Set<Path> closure = new TreeSet<>();
+    final Deque<Path> queue = new ArrayDeque<>();
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      final Path file = queue.poll();
+      if (closure.add(file)) {
+        read(file);
+        queue.addAll(files.get(file));
+      }
+    }
+    final MessageDigest digest = sha256();
+    final Path base = root.getParent();
+    for (final Path file : closure) {
+      // Относительные пути, чтобы перенос проекта в другой каталог не требовал генерации
+      digest.update(base.relativize(file).toString().getBytes(UTF_8));
+      digest.update((byte)0);
+      digest.update(hashes.get(file));
+      for (final String uri : external.get(file)) {
+        digest.update(uri.getBytes(UTF_8));
+        digest.update((byte)0);
+      }
+    }
+    return hex(digest.digest());
+  }
+
+  /**
+   * Создает алгоритм вычисления хеша SHA-256.
+   *
+   * @return Новый экземпляр алгоритма
+   */
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      // Поддержка SHA-256 обязательна для всех реализаций Java
+      throw new IllegalStateException(ex);
+    }
+  }
+  /**
+   * Преобразует хеш в строку.
+   *
+   * @param hash Хеш
+   *
+   * @return Шестнадцатеричное представление хеша в нижнем регистре
+   */
+  static String hex(byte[] hash) {
+    final StringBuilder sb = new StringBuilder(hash.length * 2);
+    for (final byte b : hash) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+      sb.append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  private void read(Path file) throws IOException {
+    if (hashes.containsKey(file)) return;
+
+    final Set<Path> targets = new TreeSet<>();
+    final Set<String> uris = new TreeSet<>();
+    if (Files.isRegularFile(file)) {
+      final byte[] content = Files.readAllBytes(file);
+      final Set<String> found = new TreeSet<>();
+      try {
+        final ByteBuffer buffer = ByteBuffer.wrap(content);
+        scan(buffer, JsonReader.skipWhitespace(buffer, 0), found);
+      } catch (JsonParseException ex) {
+        // Ошибку сообщит генератор, а изменения учитываются хешем содержимого
+      }
+      for (final String ref : found) {
+        resolve(file, ref, targets, uris);
+      }
+      hashes.put(file, sha256().digest(content));
+    } else {
+      hashes.put(file, MISSING);
+    }
+    files.put(file, targets);
+    external.put(file, uris);
+  }
+
+  private static void resolve(Path file, String ref, Set<Path> targets, Set<String> uris) {
+    final int hash = ref.indexOf('#');
+    final String address = hash < 0 ? ref : ref.substring(0, hash);
+    // Ссылка внутри того же документа
+    if (address.isEmpty()) return;
+
+    final URI uri;
+    try {
+      uri = file.toUri().resolve(address);
+    } catch (IllegalArgumentException ex) {
+      uris.add(address);
+      return;
+    }
+    if ("file".equals(uri.getScheme())) {
+      targets.add(Paths.get(uri).normalize());
+    } else {
+      uris.add(uri.toString());
+    }
+  }
+
+  /**
+   * Собирает значения всех свойств {@code $ref} значения JSON.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param refs Множество, в которое добавляются найденные ссылки
+   *
+   * @return Позиция, следующая за последним символом значения
+   */
+  private static int scan(ByteBuffer buffer, int pos, Set<String> refs) {
+    switch (peek(buffer, pos)) {
+      case '{': {
+        pos = JsonReader.skipWhitespace(buffer, pos + 1);
+        if (peek(buffer, pos) == '}') return pos + 1;
+        while (true) {
+          final boolean ref = "$ref".equals(JsonReader.readString(buffer, pos));
+          pos = JsonReader.skipWhitespace(buffer, JsonReader.skipString(buffer, pos));
+          pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, pos, ':'));
+          if (ref && peek(buffer, pos) == '"') {
+            refs.add(JsonReader.readString(buffer, pos));
+          }
+          pos = JsonReader.skipWhitespace(buffer, scan(buffer, pos, refs));
+          if (peek(buffer, pos) == '}') return pos + 1;
+          pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, pos, ','));
+        }
+      }
+      case '[': {
+        pos = JsonReader.skipWhitespace(buffer, pos + 1);
+        if (peek(buffer, pos) == ']') return pos + 1;
+        while (true) {
+          pos = JsonReader.skipWhitespace(buffer, scan(buffer, pos, refs));
+          if (peek(buffer, pos) == ']') return pos + 1;
+          pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, pos, ','));
+        }
+      }
+      default: return JsonReader.skipValue(buffer, pos);
+    }
+  }
+  private static int peek(ByteBuffer buffer, int pos) {
+    return pos < buffer.limit() ? buffer.get(pos) : -1;
+  }
+}
\ No newline at end of file
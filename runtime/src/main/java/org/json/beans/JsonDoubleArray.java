@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans;
+
+import java.util.stream.DoubleStream;
+
+/**
+ * Массив, ограниченный в схеме с помощью {@code { "type": "array", "items": { "type": "number" } }}.
+ * Помимо представления в виде списка объектов предоставляет доступ к элементам как к примитивам,
+ * не создавая объектов для каждого элемента.
+ *
+ * @author Mingun
+ */
+public interface JsonDoubleArray extends JsonArray<JsonNumber> {
+  /**
+   * Возвращает количество элементов массива.
+   *
+   * @return Количество элементов, включая равные {@code null}
+   */
+  int size();
+  /**
+   * Проверяет, равен ли элемент {@code null}.
+   *
+   * @param index Индекс элемента
+   *
+   * @return {@code true}, если элемент равен {@code null}
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  boolean isNull(int index);
+  /**
+   * Возвращает значение элемента.
+   *
+   * @param index Индекс элемента
+   *
+   * @return Значение элемента или {@code 0}, если элемент равен {@code null}
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  double get(int index);
+  /**
+   * Копирует значения элементов в массив вызывающего. Элементы, равные {@code null}, копируются как
+   * {@code 0}.
+   *
+   * @param from Индекс первого копируемого элемента
+   * @param target Массив, в который копируются значения
+   * @param offset Индекс в {@code target}, начиная с которого записываются значения
+   * @param length Количество копируемых элементов
+   *
+   * @throws IndexOutOfBoundsException Если диапазоны выходят за пределы массивов
+   */
+  void copyTo(int from, double[] target, int offset, int length);
+  /**
+   * Возвращает значения всех элементов в виде нового массива.
+   *
+   * @return Массив размером {@link #size()}
+   */
+  default double[] toArray() {
+    final double[] result = new double[size()];
+    copyTo(0, result, 0, result.length);
+    return result;
+  }
+  /**
+   * Возвращает поток значений элементов, позволяющий выполнять агрегацию без создания объектов.
+   *
+   * @return Поток значений всех элементов, кроме равных {@code null}
+   */
+  DoubleStream stream();
+}
\ No newline at end of file
@@ -31,4 +31,13 @@ package org.json.beans;
 public interface JsonInteger extends JsonNumber {
   @Override
   Long value();
+  /**
+   * Возвращает значение в виде примитива, не создавая объектов. Реализациям рекомендуется
+   * переопределять этот метод, т.к. реализация по умолчанию получает значение через {@link #value()}.
+   *
+   * @return Значение числа
+   */
+  default long longValue() {
+    return value();
+  }
 }
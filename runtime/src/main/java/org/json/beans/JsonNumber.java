@@ -23,6 +23,8 @@
  */
 package org.json.beans;
 
+import java.math.BigDecimal;
+
 /**
  * Тип, ограниченный в схеме с помощью {@code { "type": "number" }}.
  *
@@ -30,4 +32,32 @@ package org.json.beans;
  */
 public interface JsonNumber extends JsonScalar {
   Number value();
+  /**
+   * Возвращает значение в виде примитива, не создавая объектов. Реализациям рекомендуется
+   * переопределять этот метод, т.к. реализация по умолчанию получает значение через {@link #value()}.
+   *
+   * @return Ближайшее к значению число {@code double}
+   */
+  default double doubleValue() {
+    return value().doubleValue();
+  }
+  /**
+   * Возвращает значение без потери точности. Так как создание {@link BigDecimal} относительно дорого,
+   * его следует использовать, только если точность {@link #doubleValue()} недостаточна.
+   *
+   * @return Точное значение числа
+   *
+   * @throws NumberFormatException Если {@link #value()} -- {@code NaN} или бесконечность. В JSON
+   *         такие значения не записываются, но могут быть возвращены реализациями, созданными вручную
+   */
+  default BigDecimal decimalValue() {
+    final Number value = value();
+    if (value instanceof BigDecimal) return (BigDecimal)value;
+
+    final double d = value.doubleValue();
+    if ((value instanceof Double || value instanceof Float) && (Double.isNaN(d) || Double.isInfinite(d))) {
+      throw new NumberFormatException(value + " has no decimal representation");
+    }
+    return new BigDecimal(value.toString());
+  }
 }
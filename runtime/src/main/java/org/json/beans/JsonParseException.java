@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans;
+
+/**
+ * Исключение, выбрасываемое при обнаружении в разбираемом документе синтаксической ошибки JSON.
+ * Так как документы разбираются лениво, ошибка может быть обнаружена не сразу, а только при обращении
+ * к некорректной части документа.
+ *
+ * @author Mingun
+ */
+public class JsonParseException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /** Позиция в буфере, в которой обнаружена ошибка. */
+  private final long position;
+
+  /**
+   * Создает исключение с указанием места ошибки.
+   *
+   * @param message Описание ошибки
+   * @param position Позиция байта в буфере, в которой обнаружена ошибка
+   */
+  public JsonParseException(String message, long position) {
+    super(message + " at position " + position);
+    this.position = position;
+  }
+
+  /**
+   * Возвращает позицию байта в буфере, в которой обнаружена ошибка.
+   *
+   * @return Абсолютная позиция в буфере с документом
+   */
+  public long getPosition() {
+    return position;
+  }
+}
\ No newline at end of file
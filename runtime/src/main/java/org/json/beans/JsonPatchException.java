@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans;
+
+/**
+ * Исключение, выбрасываемое, если операция JSON Patch (RFC 6902) не может быть применена к
+ * документу: путь операции не существует, операция {@code test} не прошла или сама операция
+ * записана некорректно. Документ, к которому применялся патч, при этом не изменяется.
+ *
+ * @author Mingun
+ */
+public class JsonPatchException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /** Путь операции, которая не может быть применена, в виде JSON Pointer. */
+  private final String path;
+
+  /**
+   * Создает исключение с указанием пути операции.
+   *
+   * @param message Описание ошибки
+   * @param path Путь операции в виде JSON Pointer
+   */
+  public JsonPatchException(String message, String path) {
+    super(message + " at '" + path + "'");
+    this.path = path;
+  }
+
+  /**
+   * Возвращает путь операции, которая не может быть применена.
+   *
+   * @return Путь в виде JSON Pointer
+   */
+  public String getPath() {
+    return path;
+  }
+}
\ No newline at end of file
@@ -23,11 +23,47 @@
  */
 package org.json.beans;
 
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Тип, ограниченный в схеме с помощью {@code { "type": "string" }}.
+ * <p>
+ * Кроме {@link #value()}, строку можно сравнить с текстом и получить ее байты в UTF-8. Реализации
+ * по умолчанию создают {@link String}, а ленивая реализация обходится байтами исходного документа,
+ * поэтому строки, которые только сравниваются или копируются, никогда не декодируются.
  *
  * @author Mingun
  */
 public interface JsonString extends JsonScalar {
   String value();
+
+  /**
+   * Сравнивает строку с текстом.
+   *
+   * @param text Сравниваемый текст
+   *
+   * @return {@code true}, если строка совпадает с {@code text}
+   */
+  default boolean contentEquals(CharSequence text) {
+    return value().contentEquals(text);
+  }
+  /**
+   * Проверяет, начинается ли строка с указанного текста.
+   *
+   * @param prefix Искомый префикс
+   *
+   * @return {@code true}, если строка начинается с {@code prefix}
+   */
+  default boolean startsWith(CharSequence prefix) {
+    return value().startsWith(prefix.toString());
+  }
+  /**
+   * Возвращает байты строки в кодировке UTF-8.
+   *
+   * @return Буфер только для чтения, содержащий байты от позиции до предела
+   */
+  default ByteBuffer utf8() {
+    return ByteBuffer.wrap(value().getBytes(UTF_8)).asReadOnlyBuffer();
+  }
 }
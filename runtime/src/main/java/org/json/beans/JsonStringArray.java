@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans;
+
+import java.util.stream.Stream;
+
+/**
+ * Массив, ограниченный в схеме с помощью {@code { "type": "array", "items": { "type": "string" } }}.
+ * Помимо представления в виде списка объектов предоставляет доступ к значениям элементов, не
+ * создавая для каждого из них обертку {@link JsonString}.
+ *
+ * @author Mingun
+ */
+public interface JsonStringArray extends JsonArray<JsonString> {
+  /**
+   * Возвращает количество элементов массива.
+   *
+   * @return Количество элементов, включая равные {@code null}
+   */
+  int size();
+  /**
+   * Проверяет, равен ли элемент {@code null}.
+   *
+   * @param index Индекс элемента
+   *
+   * @return {@code true}, если элемент равен {@code null}
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  boolean isNull(int index);
+  /**
+   * Возвращает значение элемента. Строка декодируется при первом обращении и запоминается.
+   *
+   * @param index Индекс элемента
+   *
+   * @return Значение элемента или {@code null}, если элемент равен {@code null}
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  String get(int index);
+  /**
+   * Копирует значения элементов в массив вызывающего.
+   *
+   * @param from Индекс первого копируемого элемента
+   * @param target Массив, в который копируются значения
+   * @param offset Индекс в {@code target}, начиная с которого записываются значения
+   * @param length Количество копируемых элементов
+   *
+   * @throws IndexOutOfBoundsException Если диапазоны выходят за пределы массивов
+   */
+  void copyTo(int from, String[] target, int offset, int length);
+  /**
+   * Возвращает значения всех элементов в виде нового массива.
+   *
+   * @return Массив размером {@link #size()}
+   */
+  default String[] toArray() {
+    final String[] result = new String[size()];
+    copyTo(0, result, 0, result.length);
+    return result;
+  }
+  /**
+   * Возвращает поток значений элементов.
+   *
+   * @return Поток значений всех элементов, кроме равных {@code null}
+   */
+  Stream<String> stream();
+}
\ No newline at end of file
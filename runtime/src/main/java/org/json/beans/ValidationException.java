@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans;
+
+/**
+ * Исключение, выбрасываемое сгенерированными валидаторами, если документ не соответствует схеме.
+ * Так как валидаторы проверяют варианты {@code oneOf}/{@code anyOf} перебором, перехватывая это
+ * исключение, стек вызовов для него не заполняется.
+ *
+ * @author Mingun
+ */
+public class ValidationException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /** Позиция в буфере значения, не соответствующего схеме. */
+  private final long position;
+  /** Ключевое слово JSON Schema нарушенного ограничения или {@code null}, если оно не известно. */
+  private final String keyword;
+
+  /**
+   * Создает исключение с указанием места ошибки.
+   *
+   * @param message Описание нарушенного ограничения
+   * @param position Позиция первого байта значения, не соответствующего схеме
+   */
+  public ValidationException(String message, long position) {
+    this(message, position, null);
+  }
+  /**
+   * Создает исключение с указанием места ошибки и нарушенного ограничения.
+   *
+   * @param message Описание нарушенного ограничения
+   * @param position Позиция первого байта значения, не соответствующего схеме
+   * @param keyword Ключевое слово JSON Schema нарушенного ограничения, например, {@code "minimum"}
+   */
+  public ValidationException(String message, long position, String keyword) {
+    super(message + " at position " + position, null, false, false);
+    this.position = position;
+    this.keyword = keyword;
+  }
+
+  /**
+   * Возвращает позицию в буфере значения, не соответствующего схеме.
+   *
+   * @return Абсолютная позиция в буфере с документом
+   */
+  public long getPosition() {
+    return position;
+  }
+  /**
+   * Возвращает ключевое слово JSON Schema нарушенного ограничения.
+   *
+   * @return Ключевое слово, например, {@code "required"}, или {@code null}, если оно не известно
+   */
+  public String getKeyword() {
+    return keyword;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+
+/**
+ * Реализация {@link JsonArray} поверх двоичного сообщения. При первом обращении к элементам
+ * строится индекс с позициями всех элементов массива, а сами элементы создаются только при
+ * обращении к ним и запоминаются. Служит также базовым классом для специализированных массивов
+ * скаляров, которые читают значения элементов прямо из сообщения по их позициям.
+ *
+ * @param <T> Тип элементов массива
+ *
+ * @author Mingun
+ */
+public class BinaryArray<T extends JsonValue> extends BinaryValue implements JsonArray<T> {
+  /** Фабрика, создающая представления элементов массива. */
+  private final Decoder<? extends T> decoder;
+  /** Функция пропуска элементов массива при построении индекса. */
+  private final BinaryReader.Skipper skipper;
+  /** Позиции элементов или {@code null}, если к элементам еще не обращались. */
+  private int[] offsets;
+  /** Список элементов или {@code null}, если к нему еще не обращались. */
+  private List<T> value;
+
+  public BinaryArray(ByteBuffer buffer, int offset, Decoder<? extends T> decoder, BinaryReader.Skipper skipper) {
+    super(buffer, offset);
+    this.decoder = decoder;
+    this.skipper = skipper;
+  }
+
+  /**
+   * Создает фабрику массивов с элементами, создаваемыми указанной фабрикой.
+   *
+   * @param <T> Тип элементов массива
+   * @param decoder Фабрика элементов массива
+   * @param skipper Функция пропуска элементов массива
+   *
+   * @return Фабрика массивов
+   */
+  public static <T extends JsonValue> Decoder<JsonArray<T>> of(Decoder<? extends T> decoder, BinaryReader.Skipper skipper) {
+    return (buffer, offset) -> new BinaryArray<>(buffer, offset, decoder, skipper);
+  }
+
+  /**
+   * Создает функцию пропуска массивов с элементами, пропускаемыми указанной функцией.
+   *
+   * @param items Функция пропуска элементов массива
+   *
+   * @return Функция пропуска массивов
+   */
+  public static BinaryReader.Skipper skipper(BinaryReader.Skipper items) {
+    return in -> in.skipArray(items);
+  }
+
+  @Override
+  public List<T> value() {
+    // Гонка при инициализации безопасна: в худшем случае список будет построен несколько раз
+    if (value == null) {
+      value = new Elements(offsets());
+    }
+    return value;
+  }
+
+  /**
+   * Сравнивает массивы поэлементно. Элементы массивов объектов записываются сгенерированными
+   * классами, поэтому сравнение через запись в JSON, как в {@link BinaryValue}, к ним неприменимо.
+   *
+   * @param obj Сравниваемый объект
+   *
+   * @return {@code true}, если {@code obj} -- представление того же класса с равными элементами
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || obj.getClass() != getClass()) return false;
+    return value().equals(((BinaryArray<?>)obj).value());
+  }
+  @Override
+  public int hashCode() {
+    return value().hashCode();
+  }
+  @Override
+  public String toString() {
+    return value().toString();
+  }
+
+  /**
+   * Возвращает позиции элементов, при первом обращении строя индекс.
+   *
+   * @return Позиции элементов в буфере, {@code -1} для элементов, равных {@code null}
+   */
+  protected final int[] offsets() {
+    // Гонка при инициализации безопасна: в худшем случае индекс будет построен несколько раз
+    int[] o = offsets;
+    if (o == null) {
+      o = new BinaryReader(buffer, offset).indexArray(skipper);
+      offsets = o;
+    }
+    return o;
+  }
+
+  /** Неизменяемый список элементов массива, создающий их при первом обращении. */
+  private final class Elements extends AbstractList<T> implements RandomAccess {
+    /** Позиции элементов в буфере, {@code -1} для элементов со значением {@code null}. */
+    private final int[] offsets;
+    /** Уже созданные элементы. */
+    private final Object[] elements;
+
+    Elements(int[] offsets) {
+      this.offsets = offsets;
+      this.elements = new Object[offsets.length];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      Object element = elements[index];
+      if (element == null && offsets[index] >= 0) {
+        element = decoder.decode(buffer, offsets[index]);
+        elements[index] = element;
+      }
+      return (T)element;
+    }
+
+    @Override
+    public int size() {
+      return offsets.length;
+    }
+  }
+}
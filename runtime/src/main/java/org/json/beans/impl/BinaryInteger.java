@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.json.beans.JsonInteger;
+
+/**
+ * Реализация {@link JsonInteger} поверх двоичного сообщения. Число декодируется при каждом обращении.
+ *
+ * @author Mingun
+ */
+public final class BinaryInteger extends BinaryValue implements JsonInteger {
+  private BinaryInteger(ByteBuffer buffer, int offset) {
+    super(buffer, offset);
+  }
+
+  /**
+   * Создает представление целого числа, записанного {@link BinaryWriter#value(JsonInteger)}.
+   *
+   * @param buffer Буфер с сообщением
+   * @param offset Позиция первого байта числа
+   *
+   * @return Представление числа; для числа, записанного текстом, -- {@link LazyInteger} поверх
+   *         участка сообщения с текстом
+   */
+  public static JsonInteger decode(ByteBuffer buffer, int offset) {
+    final BinaryReader in = new BinaryReader(buffer, offset);
+    return in.bigInteger() ? in.json(LazyInteger::new) : new BinaryInteger(buffer, offset);
+  }
+
+  @Override
+  public Long value() {
+    return longValue();
+  }
+
+  @Override
+  public long longValue() {
+    return new BinaryReader(buffer, offset).longValue();
+  }
+
+  @Override
+  public double doubleValue() {
+    return longValue();
+  }
+
+  @Override
+  public BigDecimal decimalValue() {
+    return BigDecimal.valueOf(longValue());
+  }
+}
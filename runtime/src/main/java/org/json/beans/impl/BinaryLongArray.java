@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.json.beans.JsonInteger;
+import org.json.beans.JsonLongArray;
+
+import static org.json.beans.impl.LazyScalarArray.checkIndex;
+import static org.json.beans.impl.LazyScalarArray.checkRange;
+
+/**
+ * Реализация {@link JsonLongArray} поверх двоичного сообщения. Значения элементов читаются прямо из
+ * сообщения по их позициям.
+ *
+ * @author Mingun
+ */
+public final class BinaryLongArray extends BinaryArray<JsonInteger> implements JsonLongArray {
+  public BinaryLongArray(ByteBuffer buffer, int offset) {
+    super(buffer, offset, BinaryInteger::decode, BinaryReader::skipInteger);
+  }
+
+  @Override
+  public int size() {
+    return offsets().length;
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    final int[] o = offsets();
+    checkIndex(index, o.length);
+    return o[index] < 0;
+  }
+
+  @Override
+  public long get(int index) {
+    final int at = offsets()[index];
+    return at < 0 ? 0 : new BinaryReader(buffer, at).longValue();
+  }
+
+  @Override
+  public void copyTo(int from, long[] target, int offset, int length) {
+    checkRange(from, length, size());
+    checkRange(offset, length, target.length);
+    for (int i = 0; i < length; ++i) {
+      target[offset + i] = get(from + i);
+    }
+  }
+
+  @Override
+  public LongStream stream() {
+    final int[] o = offsets();
+    return IntStream.range(0, o.length).filter(i -> o[i] >= 0).mapToLong(this::get);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonNumber;
+
+/**
+ * Реализация {@link JsonNumber} поверх двоичного сообщения для чисел, записанных 8 байтами
+ * IEEE 754. Число декодируется при каждом обращении.
+ *
+ * @author Mingun
+ */
+public final class BinaryNumber extends BinaryValue implements JsonNumber {
+  private BinaryNumber(ByteBuffer buffer, int offset) {
+    super(buffer, offset);
+  }
+
+  /**
+   * Создает представление числа, записанного {@link BinaryWriter#value(JsonNumber)}.
+   *
+   * @param buffer Буфер с сообщением
+   * @param offset Позиция первого байта числа
+   *
+   * @return Представление числа; для числа, записанного текстом, -- {@link LazyNumber} поверх
+   *         участка сообщения с текстом
+   */
+  public static JsonNumber decode(ByteBuffer buffer, int offset) {
+    final BinaryReader in = new BinaryReader(buffer, offset);
+    return in.decimal() ? in.json(LazyNumber::new) : new BinaryNumber(buffer, offset);
+  }
+
+  @Override
+  public Double value() {
+    return doubleValue();
+  }
+
+  @Override
+  public double doubleValue() {
+    return new BinaryReader(buffer, offset).doubleValue();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import org.json.beans.JsonValue;
+
+/**
+ * Базовый класс для сгенерированных реализаций объектов поверх двоичного сообщения, см.
+ * {@link BinaryReader}. Сгенерированный метод {@code Binary.index} при создании представления
+ * читает битовую карту присутствия и пропускает значения свойств, запоминая только их позиции, а
+ * наследники читают значение свойства прямо из сообщения при первом обращении к его геттеру.
+ * <p>
+ * Наследники сравниваются с ленивыми реализациями, курсорами и версиями объектов того же
+ * интерфейса по значениям свойств, как и {@link LazyObject}.
+ *
+ * @author Mingun
+ */
+public abstract class BinaryObject implements JsonValue {
+  /** Буфер с сообщением. Разделяется всеми значениями одного сообщения. */
+  protected final ByteBuffer buffer;
+  /** Абсолютная позиция битовой карты присутствия объекта в {@link #buffer буфере}. */
+  protected final int offset;
+  /** Позиции значений свойств в порядке их номеров; {@code -1} для отсутствующих свойств. */
+  private final int[] index;
+
+  /**
+   * Создает представление объекта.
+   *
+   * @param buffer Буфер с сообщением
+   * @param offset Позиция битовой карты присутствия объекта
+   * @param index Позиции значений свойств, построенные сгенерированным методом {@code Binary.index}
+   */
+  protected BinaryObject(ByteBuffer buffer, int offset, int[] index) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.index = index;
+  }
+
+  /**
+   * Возвращает позицию значения свойства.
+   *
+   * @param property Номер свойства
+   *
+   * @return Позиция первого байта значения или {@code -1}, если свойство отсутствует
+   */
+  protected final int at(int property) {
+    return index[property];
+  }
+  /**
+   * Возвращает позицию значения обязательного в данном контексте свойства. Используется
+   * примитивными геттерами, которые не могут вернуть {@code null}.
+   *
+   * @param property Номер свойства
+   * @param name Имя свойства для сообщения об ошибке
+   *
+   * @return Позиция первого байта значения
+   *
+   * @throws NoSuchElementException Если свойство отсутствует
+   */
+  protected final int require(int property, String name) {
+    final int at = index[property];
+    if (at < 0) {
+      throw new NoSuchElementException("Property '" + name + "' is absent or null");
+    }
+    return at;
+  }
+}
@@ -0,0 +1,515 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.json.beans.JsonInteger;
+import org.json.beans.JsonParseException;
+
+/**
+ * Чтение значений, записанных {@link BinaryWriter}. Сгенерированные классы {@code Binary} читают
+ * сообщение на месте: их реализации {@code Binary.Impl} при создании пропускают значения свойств,
+ * запоминая только их позиции, а геттеры возвращают представления значений прямо поверх сообщения,
+ * см. {@link BinaryObject}. Ни имена свойств, ни текст чисел при этом не разбираются, поэтому чтение
+ * сообщения быстрее разбора того же документа в JSON. Соотношение измеряется тестами
+ * производительности {@code BindingBenchmark.decodeBinary} и {@code decode}.
+ * <p>
+ * Числа восстанавливаются с тем же десятичным значением, которое было в записанном документе, см.
+ * {@link BinaryWriter#value(org.json.beans.JsonNumber)} и {@link BinaryWriter#value(JsonInteger)}.
+ * Значения, записанные текстом, представляются ленивыми реализациями поверх участка сообщения с этим
+ * текстом.
+ *
+ * @author Mingun
+ * @see BinaryWriter
+ */
+public final class BinaryReader {
+  /** Буфер с сообщением. */
+  private final ByteBuffer buffer;
+  /** Позиция следующего читаемого байта. */
+  private int pos;
+
+  /**
+   * Функция перевода содержимого значения в JSON. Для каждого сгенерированного типа объекта
+   * генератор создает собственную реализацию -- метод {@code Binary.transcode}.
+   */
+  @FunctionalInterface
+  public interface Transcoder {
+    /**
+     * Читает значение и записывает его в JSON.
+     *
+     * @param in Читатель, установленный на начало значения
+     * @param out Писатель, в который записывается значение
+     *
+     * @throws IOException Если запись невозможна
+     */
+    void transcode(BinaryReader in, JsonWriter out) throws IOException;
+  }
+  /**
+   * Функция пропуска значения. Для каждого сгенерированного типа объекта генератор создает
+   * собственную реализацию -- метод {@code Binary.skip}.
+   */
+  @FunctionalInterface
+  public interface Skipper {
+    /**
+     * Пропускает значение.
+     *
+     * @param in Читатель, установленный на начало значения
+     *
+     * @throws JsonParseException Если сообщение повреждено
+     */
+    void skip(BinaryReader in);
+  }
+
+  /**
+   * Создает читателя сообщения, начинающегося в текущей позиции буфера. Позиция буфера не изменяется.
+   *
+   * @param buffer Буфер с сообщением
+   */
+  public BinaryReader(ByteBuffer buffer) {
+    this(buffer, buffer.position());
+  }
+  /**
+   * Создает читателя значения, начинающегося в указанной позиции буфера. Позиция буфера не изменяется.
+   *
+   * @param buffer Буфер с сообщением
+   * @param pos Позиция первого байта значения
+   */
+  public BinaryReader(ByteBuffer buffer, int pos) {
+    this.buffer = buffer;
+    this.pos = pos;
+  }
+
+  /**
+   * Проверяет отпечаток схемы в начале сообщения и создает представление его значения поверх
+   * сообщения, не копируя его.
+   *
+   * @param <T> Тип значения
+   * @param buffer Буфер с сообщением, начинающимся в текущей позиции. Позиция буфера не изменяется
+   * @param fingerprint Отпечаток схемы, для которой сгенерирован {@code decoder}
+   * @param decoder Фабрика представлений значения, записанного в двоичном виде
+   *
+   * @return Представление значения
+   *
+   * @throws JsonParseException Если сообщение записано для другой схемы или повреждено
+   */
+  public static <T> T decode(ByteBuffer buffer, long fingerprint, Decoder<? extends T> decoder) {
+    final BinaryReader in = new BinaryReader(buffer);
+    in.fingerprint(fingerprint);
+    return decoder.decode(buffer, in.pos);
+  }
+  /**
+   * Переводит значение в JSON и создает его ленивое представление. Используется для вариантов
+   * {@code oneOf}/{@code anyOf}, свойства которых не записываются в двоичном виде.
+   *
+   * @param <T> Тип значения
+   * @param buffer Буфер с сообщением
+   * @param offset Позиция первого байта значения
+   * @param transcoder Функция перевода содержимого значения в JSON
+   * @param decoder Фабрика ленивых представлений значения
+   *
+   * @return Представление значения поверх полученного документа JSON
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public static <T> T transcode(ByteBuffer buffer, int offset, Transcoder transcoder, Decoder<? extends T> decoder) {
+    final Bytes bytes = new Bytes(32);
+    try (JsonWriter out = new JsonWriter(bytes)) {
+      transcoder.transcode(new BinaryReader(buffer, offset), out);
+    } catch (IOException ex) {
+      // Запись в память не может завершиться ошибкой ввода-вывода
+      throw new UncheckedIOException(ex);
+    }
+    return decoder.decode(bytes.buffer(), 0);
+  }
+  /**
+   * Создает фабрику представлений значений, записанных в виде текста JSON, см. {@link #json(Decoder)}.
+   *
+   * @param <T> Тип значений
+   * @param decoder Фабрика ленивых представлений значения
+   *
+   * @return Фабрика, принимающая позицию значения в сообщении
+   */
+  public static <T> Decoder<T> text(Decoder<? extends T> decoder) {
+    return (buffer, offset) -> new BinaryReader(buffer, offset).json(decoder);
+  }
+
+  /**
+   * Создает фабрику констант перечисления, записанных порядковым номером.
+   *
+   * @param <E> Тип перечисления
+   * @param constants Константы перечисления в порядке их номеров
+   *
+   * @return Фабрика, принимающая позицию номера в сообщении
+   */
+  public static <E> Decoder<E> constants(E[] constants) {
+    return (buffer, offset) -> constants[new BinaryReader(buffer, offset).ordinal(constants.length)];
+  }
+
+  /** @return Позиция следующего читаемого байта */
+  public int position() {
+    return pos;
+  }
+  /**
+   * Читает отпечаток схемы и проверяет, что он совпадает с ожидаемым.
+   *
+   * @param expected Отпечаток схемы, которую знает читатель
+   *
+   * @throws JsonParseException Если сообщение записано для другой схемы
+   */
+  public void fingerprint(long expected) {
+    require(8);
+    final long actual = buffer.getLong(pos);
+    final long fingerprint = buffer.order() == ByteOrder.BIG_ENDIAN ? actual : Long.reverseBytes(actual);
+    if (fingerprint != expected) {
+      throw new JsonParseException(String.format(
+        "Message written for incompatible schema: fingerprint %016x, expected %016x", fingerprint, expected
+      ), pos);
+    }
+    pos += 8;
+  }
+  /**
+   * Пропускает битовую карту присутствия.
+   *
+   * @param size Количество битов карты
+   *
+   * @return Позиция карты для {@link #present}
+   *
+   * @throws JsonParseException Если сообщение закончилось
+   */
+  public int presence(int size) {
+    final int bitmap = pos;
+    final int length = (size + 7) >>> 3;
+    require(length);
+    pos += length;
+    return bitmap;
+  }
+  /**
+   * Проверяет бит битовой карты присутствия.
+   *
+   * @param bitmap Позиция карты, полученная от {@link #presence}
+   * @param index Номер бита
+   *
+   * @return {@code true}, если бит установлен
+   */
+  public boolean present(int bitmap, int index) {
+    return (buffer.get(bitmap + (index >>> 3)) & 1 << (index & 7)) != 0;
+  }
+  /**
+   * Читает беззнаковое число в формате varint.
+   *
+   * @return Прочитанное число
+   *
+   * @throws JsonParseException Если сообщение закончилось или число записано более чем 10 байтами
+   */
+  public long varint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      require(1);
+      final byte b = buffer.get(pos++);
+      value |= (long)(b & 0x7F) << shift;
+      if (b >= 0) return value;
+    }
+    throw new JsonParseException("Malformed varint", pos);
+  }
+  /**
+   * Читает количество элементов массива или длину строки.
+   *
+   * @return Неотрицательное число, не больше количества оставшихся байт сообщения
+   *
+   * @throws JsonParseException Если длина некорректна
+   */
+  public int length() {
+    final int start = pos;
+    final long length = varint();
+    if (length < 0 || length > buffer.limit() - pos) {
+      throw new JsonParseException("Invalid length " + length, start);
+    }
+    return (int)length;
+  }
+  /**
+   * Читает количество элементов массива.
+   *
+   * @return Неотрицательное число, для которого в оставшихся байтах сообщения может поместиться
+   *         хотя бы битовая карта элементов
+   *
+   * @throws JsonParseException Если количество некорректно
+   */
+  public int count() {
+    final int start = pos;
+    final long count = varint();
+    if (count < 0 || count > (long)(buffer.limit() - pos) << 3) {
+      throw new JsonParseException("Invalid element count " + count, start);
+    }
+    return (int)count;
+  }
+  /**
+   * Читает порядковый номер константы перечисления.
+   *
+   * @param size Количество констант в перечислении
+   *
+   * @return Номер от {@code 0} до {@code size - 1}
+   *
+   * @throws JsonParseException Если номер за пределами перечисления
+   */
+  public int ordinal(int size) {
+    final int start = pos;
+    final long ordinal = varint();
+    if (ordinal < 0 || ordinal >= size) {
+      throw new JsonParseException("Invalid enum ordinal " + ordinal, start);
+    }
+    return (int)ordinal;
+  }
+  /**
+   * Читает целое число, записанное {@link BinaryWriter#value(long)}.
+   *
+   * @return Прочитанное число
+   *
+   * @throws JsonParseException Если сообщение повреждено или число записано текстом, т.е. не
+   *         помещается в {@code long}
+   */
+  public long longValue() {
+    if (bigInteger()) {
+      throw new JsonParseException("Integer value out of range", pos - 2);
+    }
+    final long value = varint();
+    return value >>> 1 ^ -(value & 1);
+  }
+  /**
+   * Читает число, записанное {@link BinaryWriter#value(org.json.beans.JsonNumber)}.
+   *
+   * @return Ближайшее к числу значение {@code double}
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public double doubleValue() {
+    final long bits = fixed();
+    return bits == BinaryWriter.DECIMAL ? json(LazyNumber::new).doubleValue() : Double.longBitsToDouble(bits);
+  }
+  /**
+   * Читает целое число, записанное {@link BinaryWriter#value(JsonInteger)}, и записывает его в JSON.
+   *
+   * @param out Писатель, в который записывается число
+   *
+   * @throws IOException Если запись невозможна
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void integer(JsonWriter out) throws IOException {
+    if (bigInteger()) {
+      json(out);
+    } else {
+      final long value = varint();
+      out.value(value >>> 1 ^ -(value & 1));
+    }
+  }
+  /**
+   * Читает число, записанное {@link BinaryWriter#value(org.json.beans.JsonNumber)}, и записывает его
+   * в JSON с тем же десятичным значением.
+   *
+   * @param out Писатель, в который записывается число
+   *
+   * @throws IOException Если запись невозможна
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void number(JsonWriter out) throws IOException {
+    final long bits = fixed();
+    if (bits == BinaryWriter.DECIMAL) {
+      json(out);
+    } else {
+      out.value(Double.longBitsToDouble(bits));
+    }
+  }
+  public boolean booleanValue() {
+    require(1);
+    return buffer.get(pos++) != 0;
+  }
+  /**
+   * Читает строку и записывает ее в JSON, не декодируя в промежуточную строку.
+   *
+   * @param out Писатель, в который записывается строка
+   *
+   * @throws IOException Если запись невозможна
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void string(JsonWriter out) throws IOException {
+    final int length = length();
+    out.string(buffer, pos, length);
+    pos += length;
+  }
+  /**
+   * Читает значение, записанное в виде текста JSON, и записывает его как есть.
+   *
+   * @param out Писатель, в который записывается значение
+   *
+   * @throws IOException Если запись невозможна
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void json(JsonWriter out) throws IOException {
+    final int length = length();
+    out.raw(buffer, pos, length);
+    pos += length;
+  }
+
+  /**
+   * Читает значение, записанное в виде текста JSON, и создает его ленивое представление поверх
+   * участка сообщения с текстом, не копируя его.
+   *
+   * @param <T> Тип значения
+   * @param decoder Фабрика ленивых представлений значения
+   *
+   * @return Представление значения
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public <T> T json(Decoder<? extends T> decoder) {
+    final int length = length();
+    final int start = pos;
+    pos += length;
+    // Текст ограничивается пределом буфера, иначе число читалось бы вместе со следующими байтами
+    final ByteBuffer text = buffer.duplicate();
+    text.limit(pos);
+    return decoder.decode(text, start);
+  }
+  /**
+   * Пропускает целое число, записанное {@link BinaryWriter#value(JsonInteger)}.
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void skipInteger() {
+    if (bigInteger()) {
+      skipBytes();
+    } else {
+      varint();
+    }
+  }
+  /**
+   * Пропускает число, записанное {@link BinaryWriter#value(org.json.beans.JsonNumber)}.
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void skipNumber() {
+    if (fixed() == BinaryWriter.DECIMAL) {
+      skipBytes();
+    }
+  }
+  /**
+   * Пропускает строку или значение, записанное в виде текста JSON.
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void skipBytes() {
+    final int length = length();
+    pos += length;
+  }
+  /**
+   * Пропускает массив.
+   *
+   * @param items Функция пропуска элементов массива
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public void skipArray(Skipper items) {
+    final int size = count();
+    final int present = presence(size);
+    for (int i = 0; i < size; ++i) {
+      if (present(present, i)) {
+        items.skip(this);
+      }
+    }
+  }
+  /**
+   * Читает массив, запоминая позиции его элементов.
+   *
+   * @param items Функция пропуска элементов массива
+   *
+   * @return Позиции элементов, {@code -1} для элементов, равных {@code null}
+   *
+   * @throws JsonParseException Если сообщение повреждено
+   */
+  public int[] indexArray(Skipper items) {
+    final int size = count();
+    final int present = presence(size);
+    final int[] offsets = new int[size];
+    for (int i = 0; i < size; ++i) {
+      if (present(present, i)) {
+        offsets[i] = pos;
+        items.skip(this);
+      } else {
+        offsets[i] = -1;
+      }
+    }
+    return offsets;
+  }
+
+  /**
+   * Пропускает отметку {@link BinaryWriter#BIG_INTEGER} целого числа, записанного текстом, если
+   * читатель установлен на нее.
+   *
+   * @return {@code true}, если отметка пропущена и за ней следует текст числа
+   */
+  boolean bigInteger() {
+    if (buffer.limit() - pos >= 2 && buffer.get(pos) == BinaryWriter.BIG_INTEGER && buffer.get(pos + 1) == 0) {
+      pos += 2;
+      return true;
+    }
+    return false;
+  }
+  /**
+   * Читает 8 байт числа и проверяет, не является ли оно отметкой {@link BinaryWriter#DECIMAL}.
+   *
+   * @return {@code true}, если за отметкой следует текст числа
+   */
+  boolean decimal() {
+    return fixed() == BinaryWriter.DECIMAL;
+  }
+  /** Читает 8 байт, начиная со старшего. */
+  private long fixed() {
+    require(8);
+    long bits = 0;
+    for (int i = 0; i < 8; ++i) {
+      bits = bits << 8 | buffer.get(pos++) & 0xFF;
+    }
+    return bits;
+  }
+  private void require(int length) {
+    if (buffer.limit() - pos < length) {
+      throw new JsonParseException("Unexpected end of message", buffer.limit());
+    }
+  }
+
+  /** Поток в памяти, содержимое которого можно прочитать без копирования. */
+  private static final class Bytes extends ByteArrayOutputStream {
+    Bytes(int size) {
+      super(size);
+    }
+
+    /** @return Буфер, разделяющий с потоком записанные байты */
+    ByteBuffer buffer() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
+}
\ No newline at end of file
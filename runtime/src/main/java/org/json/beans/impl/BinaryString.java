@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonString;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Реализация {@link JsonString} поверх двоичного сообщения. Строка декодируется при первом обращении
+ * к {@link #value()} и запоминается, а ее байты в UTF-8 доступны без копирования.
+ *
+ * @author Mingun
+ */
+public final class BinaryString extends BinaryValue implements JsonString {
+  /** Декодированное значение или {@code null}, если к значению еще не обращались. */
+  private String value;
+
+  public BinaryString(ByteBuffer buffer, int offset) {
+    super(buffer, offset);
+  }
+
+  @Override
+  public String value() {
+    // Гонка при инициализации безопасна: все потоки получат одинаковые неизменяемые строки
+    if (value == null) {
+      value = UTF_8.decode(utf8()).toString();
+    }
+    return value;
+  }
+  /**
+   * Возвращает байты строки в кодировке UTF-8 -- представление участка сообщения без копирования.
+   *
+   * @return Буфер только для чтения, содержащий байты от позиции до предела
+   */
+  @Override
+  public ByteBuffer utf8() {
+    final BinaryReader in = new BinaryReader(buffer, offset);
+    final int length = in.length();
+    final ByteBuffer slice = buffer.duplicate();
+    slice.limit(in.position() + length).position(in.position());
+    return slice.slice().asReadOnlyBuffer();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonValue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Представление значения, записанного {@link BinaryWriter}, хранящее только ссылку на буфер с
+ * сообщением и позицию значения в нем. Служит базовым классом для реализаций встроенных типов,
+ * которые читают значение прямо из сообщения при обращении к нему, см. {@link BinaryReader}.
+ *
+ * @author Mingun
+ */
+public abstract class BinaryValue implements JsonValue {
+  /** Буфер с сообщением. Разделяется всеми значениями одного сообщения. */
+  protected final ByteBuffer buffer;
+  /** Абсолютная позиция первого байта значения в {@link #buffer буфере}. */
+  protected final int offset;
+
+  protected BinaryValue(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+  }
+
+  /**
+   * Сравнивает значения по содержимому, см. {@link ContentHash#equal(Object, Object, Encoder)}.
+   * Значения равны, только если являются представлениями одного и того же класса.
+   *
+   * @param obj Сравниваемый объект
+   *
+   * @return {@code true}, если {@code obj} -- представление того же класса с равным значением
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || obj.getClass() != getClass()) return false;
+    return ContentHash.equal(this, (JsonValue)obj, JsonWriter::value);
+  }
+  @Override
+  public int hashCode() {
+    return ContentHash.hashCode(this, JsonWriter::value);
+  }
+  /**
+   * Возвращает значение в виде текста JSON.
+   *
+   * @return JSON представление значения
+   */
+  @Override
+  public String toString() {
+    return new String(JsonWriter.encode(JsonWriter::value, this), UTF_8);
+  }
+}
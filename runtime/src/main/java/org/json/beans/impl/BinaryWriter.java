@@ -0,0 +1,413 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntPredicate;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import org.json.beans.JsonInteger;
+import org.json.beans.JsonNumber;
+import org.json.beans.JsonString;
+import org.json.beans.JsonValue;
+
+/**
+ * Потоковая запись значений в компактном двоичном формате, определяемом схемой. Используется
+ * сгенерированными классами {@code Binary}, которые записывают свойства объекта в порядке их
+ * объявления в схеме без имен:
+ * <ul>
+ * <li>сообщение начинается с 8-байтного отпечатка схемы корневого типа, см. {@link #fingerprint};</li>
+ * <li>объект -- битовая карта присутствия свойств (по биту на свойство, младший бит первого байта
+ *     соответствует первому свойству), за которой следуют значения присутствующих свойств;</li>
+ * <li>целые числа -- varint в кодировке zigzag, а не помещающиеся в {@code long} -- отметка
+ *     {@link #BIG_INTEGER} и текст числа (длина и ASCII), см. {@link #value(JsonInteger)};
+ *     логические -- 1 байт;</li>
+ * <li>прочие числа -- 8 байт IEEE 754, если при обратном переводе в JSON получается то же десятичное
+ *     значение, иначе отметка {@link #DECIMAL} и текст числа (длина и ASCII), см. {@link #value(JsonNumber)};</li>
+ * <li>строки -- длина в байтах (varint) и UTF-8;</li>
+ * <li>константы перечислений -- порядковый номер (varint);</li>
+ * <li>массивы -- количество элементов (varint), битовая карта элементов, не равных {@code null}, и
+ *     значения этих элементов;</li>
+ * <li>значения, тип которых схемой не ограничен, -- длина (varint) и текст JSON.</li>
+ * </ul>
+ * Многобайтные значения записываются в порядке от старшего байта к младшему.
+ *
+ * @author Mingun
+ * @see BinaryReader
+ */
+public final class BinaryWriter implements Flushable, Closeable {
+  /** Максимальная длина записи varint для {@code long}. */
+  private static final int MAX_VARINT_BYTES = 10;
+  /**
+   * Биты {@code NaN}, которыми вместо значения {@code double} отмечается число, записанное текстом.
+   * Число JSON не может быть {@code NaN}, поэтому отметка не совпадает ни с одним значением.
+   */
+  static final long DECIMAL = 0x7FF8_0000_0000_0DECL;
+  /**
+   * Первый байт отметки {@code 0x80 0x00}, которой вместо varint отмечается целое число, записанное
+   * текстом. Это ноль, записанный двумя байтами вместо одного; {@link #varint} так не записывает ни
+   * одно число, поэтому отметка не совпадает ни с одним значением.
+   */
+  static final byte BIG_INTEGER = (byte)0x80;
+
+  /** Поток, в который сбрасывается буфер. */
+  private final OutputStream out;
+  /** Буфер для накопления записываемых данных. */
+  private final byte[] buf;
+  /** Количество байт, накопленных в {@link #buf}. */
+  private int count;
+
+  /**
+   * Функция записи содержимого значения без отпечатка схемы. Для каждого сгенерированного типа
+   * объекта генератор создает собственную реализацию -- метод {@code Binary.write}.
+   *
+   * @param <T> Тип записываемых значений
+   */
+  @FunctionalInterface
+  public interface Payload<T> {
+    /**
+     * Записывает значение.
+     *
+     * @param out Писатель, в который записывается значение
+     * @param value Записываемое значение, не {@code null}
+     *
+     * @throws IOException Если запись невозможна
+     */
+    void write(BinaryWriter out, T value) throws IOException;
+  }
+
+  /**
+   * Создает писателя, записывающего данные в поток.
+   *
+   * @param out Поток, в который записываются данные
+   */
+  public BinaryWriter(OutputStream out) {
+    this.out = out;
+    this.buf = new byte[8192];
+  }
+
+  /**
+   * Записывает сообщение целиком: отпечаток схемы и содержимое значения.
+   *
+   * @param <T> Тип записываемого значения
+   * @param fingerprint Отпечаток схемы типа значения
+   * @param payload Функция записи содержимого значения
+   * @param value Записываемое значение, не {@code null}
+   *
+   * @return Сообщение
+   */
+  public static <T> byte[] encode(long fingerprint, Payload<? super T> payload, T value) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (BinaryWriter out = new BinaryWriter(bytes)) {
+      out.fingerprint(fingerprint);
+      payload.write(out, value);
+    } catch (IOException ex) {
+      // Запись в память не может завершиться ошибкой ввода-вывода
+      throw new UncheckedIOException(ex);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Записывает отпечаток схемы, по которому читатель проверяет, что сообщение записано для той же
+   * схемы, которую знает он.
+   *
+   * @param fingerprint Отпечаток схемы
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void fingerprint(long fingerprint) throws IOException {
+    ensure(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buf[count++] = (byte)(fingerprint >>> shift);
+    }
+  }
+  /**
+   * Записывает один байт битовой карты присутствия.
+   *
+   * @param bits Младшие 8 бит -- биты карты
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void bits(int bits) throws IOException {
+    ensure(1);
+    buf[count++] = (byte)bits;
+  }
+  /**
+   * Записывает битовую карту элементов списка, не равных {@code null}.
+   *
+   * @param items Элементы
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void presence(List<?> items) throws IOException {
+    final int size = items.size();
+    for (int i = 0; i < size; i += 8) {
+      int bits = 0;
+      for (int j = i, end = Math.min(size, i + 8); j < end; ++j) {
+        if (items.get(j) != null) bits |= 1 << (j - i);
+      }
+      bits(bits);
+    }
+  }
+  /**
+   * Записывает битовую карту элементов массива, не равных {@code null}.
+   *
+   * @param size Количество элементов
+   * @param isNull Проверка, равен ли элемент с указанным индексом {@code null}
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void presence(int size, IntPredicate isNull) throws IOException {
+    for (int i = 0; i < size; i += 8) {
+      int bits = 0;
+      for (int j = i, end = Math.min(size, i + 8); j < end; ++j) {
+        if (!isNull.test(j)) bits |= 1 << (j - i);
+      }
+      bits(bits);
+    }
+  }
+  /**
+   * Записывает беззнаковое число в формате varint: по 7 бит в байте, начиная с младших; старший
+   * бит байта установлен, если за ним следуют еще байты.
+   *
+   * @param value Беззнаковое число
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void varint(long value) throws IOException {
+    ensure(MAX_VARINT_BYTES);
+    while ((value & ~0x7FL) != 0) {
+      buf[count++] = (byte)(value | 0x80);
+      value >>>= 7;
+    }
+    buf[count++] = (byte)value;
+  }
+  /**
+   * Записывает целое число в кодировке zigzag, в которой числа с небольшим модулем занимают мало
+   * байт независимо от знака.
+   *
+   * @param value Записываемое значение
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void value(long value) throws IOException {
+    varint(value << 1 ^ value >> 63);
+  }
+  /**
+   * Записывает целое число. Число, помещающееся в {@code long}, записывается {@link #value(long)},
+   * а большее по модулю число, которое может быть только у ленивой реализации, -- отметкой
+   * {@link #BIG_INTEGER} и текстом, так же как и число, записанное {@link #value(JsonNumber)} текстом.
+   *
+   * @param value Записываемое число
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void value(JsonInteger value) throws IOException {
+    if (value instanceof LazyValue) {
+      final LazyValue lazy = (LazyValue)value;
+      if (!Validation.isLong(lazy.buffer, lazy.offset)) {
+        ensure(2);
+        buf[count++] = BIG_INTEGER;
+        buf[count++] = 0;
+        bytes(value.decimalValue().toString().getBytes(US_ASCII));
+        return;
+      }
+    }
+    value(value.longValue());
+  }
+  public void value(double value) throws IOException {
+    fixed(Double.doubleToLongBits(value));
+  }
+  /**
+   * Записывает число так, чтобы читатель восстановил его десятичное значение без потерь. Обычно
+   * число записывается 8 байтами IEEE 754, но если при переводе этого {@code double} обратно в JSON
+   * получилось бы другое десятичное значение (например, для {@code 12345678901234567890.5} или
+   * {@code 1e400}), то записывается отметка {@link #DECIMAL} и текст числа.
+   * <p>
+   * Целые числа с модулем меньше {@code 10^15}, записанные в документе не более чем 15 значимыми
+   * цифрами, проверяются без создания объектов; для остальных чисел создается {@link BigDecimal}.
+   *
+   * @param value Записываемое число
+   *
+   * @throws IOException Если запись в поток невозможна
+   * @throws NumberFormatException Если {@link JsonNumber#doubleValue()} реализации, созданной вручную,
+   *         возвращает {@code NaN} или бесконечность, у которых нет десятичного значения
+   */
+  public void value(JsonNumber value) throws IOException {
+    final double d = value.doubleValue();
+    if (exact(value, d)) {
+      fixed(Double.doubleToLongBits(d));
+    } else {
+      fixed(DECIMAL);
+      bytes(value.decimalValue().toString().getBytes(US_ASCII));
+    }
+  }
+  public void value(boolean value) throws IOException {
+    bits(value ? 1 : 0);
+  }
+  public void value(String value) throws IOException {
+    bytes(value.getBytes(UTF_8));
+  }
+  /**
+   * Записывает строку ее байтами в UTF-8, см. {@link JsonString#utf8()}. Байты ленивых строк без
+   * escape-последовательностей копируются прямо из документа, без создания {@link String}.
+   *
+   * @param value Записываемая строка
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void value(JsonString value) throws IOException {
+    final ByteBuffer utf8 = value.utf8();
+    varint(utf8.remaining());
+    while (utf8.hasRemaining()) {
+      if (count == buf.length) {
+        flushBuffer();
+      }
+      final int length = Math.min(utf8.remaining(), buf.length - count);
+      utf8.get(buf, count, length);
+      count += length;
+    }
+  }
+  /**
+   * Записывает значение, тип которого схемой не ограничен, в виде текста JSON.
+   *
+   * @param value Записываемое значение, может быть {@code null}
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void json(JsonValue value) throws IOException {
+    json(JsonWriter::value, value);
+  }
+  /**
+   * Записывает значение в виде текста JSON.
+   *
+   * @param <T> Тип записываемого значения
+   * @param encoder Функция записи значения в JSON
+   * @param value Записываемое значение
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public <T> void json(Encoder<? super T> encoder, T value) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (JsonWriter json = new JsonWriter(bytes)) {
+      encoder.encode(json, value);
+    }
+    bytes(bytes.toByteArray());
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    out.flush();
+  }
+  @Override
+  public void close() throws IOException {
+    flush();
+    out.close();
+  }
+
+  private void bytes(byte[] bytes) throws IOException {
+    varint(bytes.length);
+    if (bytes.length > buf.length - count) {
+      flushBuffer();
+      if (bytes.length > buf.length) {
+        out.write(bytes);
+        return;
+      }
+    }
+    System.arraycopy(bytes, 0, buf, count, bytes.length);
+    count += bytes.length;
+  }
+  /** Записывает 8 байт, начиная со старшего. */
+  private void fixed(long bits) throws IOException {
+    ensure(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buf[count++] = (byte)(bits >>> shift);
+    }
+  }
+  /**
+   * Проверяет, что {@link JsonWriter#value(double)} запишет {@code d} с тем же десятичным значением,
+   * что и у числа.
+   *
+   * @param value Число
+   * @param d Его значение {@code double}
+   *
+   * @return {@code true}, если число можно записать 8 байтами без потери точности
+   */
+  private static boolean exact(JsonNumber value, double d) {
+    if (Double.isNaN(d) || Double.isInfinite(d)) return false;
+    // Такие значения пишутся как long. Текст из не более чем 15 значимых цифр не может отличаться от
+    // ближайшего к нему double меньше, чем на расстояние до ближайшего целого
+    if (d == (long)d && Math.abs(d) < 1e15 && value instanceof LazyValue) {
+      final LazyValue lazy = (LazyValue)value;
+      final int digits = digits(lazy.buffer, lazy.offset);
+      if (digits <= 15 && (digits == 0) == (d == 0)) return true;
+    }
+    return new BigDecimal(Double.toString(d)).compareTo(value.decimalValue()) == 0;
+  }
+  /**
+   * Считает значимые цифры мантиссы числа, записанного в документе, начиная с первой ненулевой.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return Количество значимых цифр, {@code 0} для нуля
+   */
+  private static int digits(ByteBuffer buffer, int pos) {
+    final int limit = buffer.limit();
+    if (pos < limit && buffer.get(pos) == '-') ++pos;
+    int digits = 0;
+    for (; pos < limit; ++pos) {
+      final byte b = buffer.get(pos);
+      if (b >= '1' && b <= '9' || b == '0' && digits > 0) {
+        ++digits;
+      } else
+      if (b != '0' && b != '.') {
+        break;
+      }
+    }
+    return digits;
+  }
+  /** Гарантирует, что в буфере есть место для {@code length} байт. */
+  private void ensure(int length) throws IOException {
+    if (buf.length - count < length) {
+      flushBuffer();
+    }
+  }
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      out.write(buf, 0, count);
+      count = 0;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+/**
+ * Колонка логического свойства. Значения хранятся битовой маской так же, как {@link #nulls()}.
+ *
+ * @author Mingun
+ */
+public final class BooleanColumn extends Column {
+  /** Битовая маска строк со значением {@code true}. */
+  private final long[] bits;
+
+  BooleanColumn(int size, long[] nulls, long[] bits) {
+    super(size, nulls);
+    this.bits = bits;
+  }
+
+  /**
+   * Возвращает значение в строке.
+   *
+   * @param row Номер строки
+   *
+   * @return Значение или {@code false}, если значения нет (см. {@link #isNull})
+   */
+  public boolean get(int row) {
+    return (bits[row >> 6] & 1L << row) != 0;
+  }
+  /**
+   * Подсчитывает строки со значением {@code true}.
+   *
+   * @return Количество строк со значением {@code true}
+   */
+  public int trueCount() {
+    int count = 0;
+    for (final long word : bits) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+  /**
+   * Возвращает битовую маску строк со значением {@code true}. Массив не копируется и не должен
+   * изменяться.
+   *
+   * @return Маска из {@code (size() + 63) / 64} слов
+   */
+  public long[] bits() {
+    return bits;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+/**
+ * Поставщик фабрик для сгенерированных типов. Генератор создает по одному поставщику на документ
+ * (класс {@code Codecs}) и перечисляет его в {@code META-INF/services}, поэтому поставщики всех
+ * библиотек находятся {@link java.util.ServiceLoader} без сканирования пути поиска классов, а
+ * фабрики регистрируются прямыми ссылками на конструкторы и методы, без рефлексии.
+ *
+ * @author Mingun
+ */
+@FunctionalInterface
+public interface CodecProvider {
+  /**
+   * Регистрирует фабрики всех типов, сгенерированных для документа.
+   *
+   * @param registry Реестр, в котором регистрируются фабрики
+   */
+  void register(CodecRegistry registry);
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.json.beans.JsonValue;
+
+/**
+ * Реестр фабрик представлений и записи сгенерированных типов. Позволяет получить фабрику по классу
+ * интерфейса одним поиском в таблице.
+ * <p>
+ * {@link #global() Общий реестр} заполняется всеми {@link CodecProvider поставщиками}, доступными
+ * через {@link ServiceLoader}. Для изолированных наборов типов (например, загруженных отдельным
+ * загрузчиком классов) можно создать собственный реестр.
+ *
+ * @author Mingun
+ */
+public final class CodecRegistry {
+  /** Фабрики представлений по типам значений. */
+  private final ConcurrentMap<Class<?>, Decoder<?>> decoders = new ConcurrentHashMap<>();
+  /** Фабрики записи по типам значений. */
+  private final ConcurrentMap<Class<?>, Encoder<?>> encoders = new ConcurrentHashMap<>();
+
+  /** Создает пустой реестр. */
+  public CodecRegistry() {}
+  /**
+   * Создает реестр, заполненный указанными поставщиками.
+   *
+   * @param providers Поставщики фабрик
+   */
+  public CodecRegistry(Iterable<? extends CodecProvider> providers) {
+    for (final CodecProvider provider : providers) {
+      provider.register(this);
+    }
+  }
+
+  /**
+   * Возвращает реестр, заполненный всеми поставщиками, перечисленными в
+   * {@code META-INF/services/org.json.beans.impl.CodecProvider}. Поставщики загружаются при первом
+   * обращении загрузчиком классов контекста потока.
+   *
+   * @return Общий реестр
+   */
+  public static CodecRegistry global() {
+    return Global.REGISTRY;
+  }
+
+  /**
+   * Регистрирует фабрики для типа, заменяя ранее зарегистрированные.
+   *
+   * @param <T> Тип значений
+   * @param type Класс интерфейса или перечисления
+   * @param decoder Фабрика представлений или {@code null}, если тип нельзя декодировать
+   * @param encoder Фабрика записи или {@code null}, если тип нельзя записать
+   */
+  public <T extends JsonValue> void register(Class<T> type, Decoder<? extends T> decoder, Encoder<? super T> encoder) {
+    if (decoder != null) {
+      decoders.put(type, decoder);
+    }
+    if (encoder != null) {
+      encoders.put(type, encoder);
+    }
+  }
+  /**
+   * Возвращает фабрику представлений значений указанного типа.
+   *
+   * @param <T> Тип значений
+   * @param type Класс интерфейса или перечисления
+   *
+   * @return Фабрика или {@code null}, если для типа она не зарегистрирована
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends JsonValue> Decoder<T> decoder(Class<T> type) {
+    // Фабрика создает значения подтипа T, поэтому ее можно использовать как фабрику T
+    return (Decoder<T>)decoders.get(type);
+  }
+  /**
+   * Возвращает фабрику записи значений указанного типа.
+   *
+   * @param <T> Тип значений
+   * @param type Класс интерфейса или перечисления
+   *
+   * @return Фабрика или {@code null}, если для типа она не зарегистрирована
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends JsonValue> Encoder<T> encoder(Class<T> type) {
+    return (Encoder<T>)encoders.get(type);
+  }
+
+  /** Ленивая инициализация общего реестра при первом обращении. */
+  private static final class Global {
+    static final CodecRegistry REGISTRY = new CodecRegistry(ServiceLoader.load(CodecProvider.class));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+/**
+ * Колонка значений одного скалярного свойства во всех элементах массива объектов, см.
+ * {@link ColumnTable}. Значения хранятся в примитивных массивах, которые наследники отдают без
+ * копирования, чтобы по ним можно было пройти простым циклом. Отсутствующие и равные {@code null}
+ * значения отмечены в битовой маске: бит {@code row & 63} слова {@code row >> 6}.
+ *
+ * @author Mingun
+ */
+public abstract class Column {
+  /** Количество строк. */
+  protected final int size;
+  /** Битовая маска строк, в которых значение отсутствует или равно {@code null}. */
+  protected final long[] nulls;
+
+  Column(int size, long[] nulls) {
+    this.size = size;
+    this.nulls = nulls;
+  }
+
+  /**
+   * Возвращает количество строк колонки -- элементов исходного массива.
+   *
+   * @return Количество строк
+   */
+  public final int size() {
+    return size;
+  }
+  /**
+   * Проверяет, отсутствует ли значение в строке.
+   *
+   * @param row Номер строки
+   *
+   * @return {@code true}, если свойство в элементе отсутствует, равно {@code null} или сам элемент
+   *         равен {@code null}
+   */
+  public final boolean isNull(int row) {
+    return (nulls[row >> 6] & 1L << row) != 0;
+  }
+  /**
+   * Подсчитывает строки без значений.
+   *
+   * @return Количество строк, для которых {@link #isNull} возвращает {@code true}
+   */
+  public final int nullCount() {
+    int count = 0;
+    for (final long word : nulls) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+  /**
+   * Возвращает битовую маску строк без значений. Массив не копируется и не должен изменяться.
+   *
+   * @return Маска из {@code (size() + 63) / 64} слов
+   */
+  public final long[] nulls() {
+    return nulls;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,392 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Колоночное представление массива однотипных объектов: по одной {@link Column колонке} примитивных
+ * значений на каждое скалярное свойство. Колонки строятся за один проход по массиву: для каждого
+ * элемента строится индекс только нужных свойств, значения которых сразу читаются в примитивные
+ * массивы, без создания представлений элементов и значений.
+ * <p>
+ * Для очень больших массивов возможно параллельное построение: сначала одним проходом находятся
+ * позиции элементов, затем участки массива разбираются независимо в общем пуле
+ * {@link java.util.concurrent.ForkJoinPool}, а словари строковых колонок участков объединяются
+ * в порядке участков, поэтому результат не зависит от способа построения.
+ * <p>
+ * Сгенерированные классы {@code Columns} дают к колонкам типизированный доступ по именам свойств.
+ *
+ * @author Mingun
+ */
+public final class ColumnTable {
+  /** Вид колонки. */
+  public enum Kind {
+    /** Целые числа, {@link LongColumn}. */
+    LONG,
+    /** Дробные числа, {@link DoubleColumn}. */
+    DOUBLE,
+    /** Логические значения, {@link BooleanColumn}. */
+    BOOLEAN,
+    /** Строки и значения перечислений, {@link StringColumn}. */
+    STRING,
+  }
+
+  /**
+   * Количество строк, разбираемых одной задачей при параллельном построении. Кратно 64, чтобы
+   * задачи не изменяли одни и те же слова битовых масок.
+   */
+  private static final int CHUNK = 64 * 256;
+
+  /** Количество строк. */
+  private final int size;
+  /** Колонки в порядке номеров свойств. */
+  private final Column[] columns;
+
+  private ColumnTable(int size, Column[] columns) {
+    this.size = size;
+    this.columns = columns;
+  }
+
+  /**
+   * Строит колонки для массива в документе.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция открывающей скобки массива
+   * @param keys Сопоставитель имен свойств, для которых строятся колонки, с номерами колонок
+   * @param kinds Виды колонок в порядке номеров
+   * @param parallel Строить ли колонки параллельно
+   *
+   * @return Колоночное представление массива
+   *
+   * @throws org.json.beans.JsonParseException Если в позиции находится не массив, он записан
+   *         некорректно или значение свойства не соответствует виду колонки
+   */
+  public static ColumnTable of(ByteBuffer buffer, int offset, KeyMatcher keys, Kind[] kinds, boolean parallel) {
+    if (keys.size() != kinds.length) {
+      throw new IllegalArgumentException("Expected " + keys.size() + " column kinds, but got " + kinds.length);
+    }
+    return parallel ? parallel(buffer, offset, keys, kinds) : sequential(buffer, offset, keys, kinds);
+  }
+  /**
+   * Строит колонки для массива объектов. Массивы, не связанные с исходным документом (например,
+   * собранные вручную), предварительно записываются в JSON.
+   *
+   * @param <T> Тип элементов массива
+   * @param array Массив объектов
+   * @param items Функция записи элементов
+   * @param keys Сопоставитель имен свойств, для которых строятся колонки, с номерами колонок
+   * @param kinds Виды колонок в порядке номеров
+   * @param parallel Строить ли колонки параллельно
+   *
+   * @return Колоночное представление массива
+   */
+  public static <T extends JsonValue> ColumnTable of(JsonArray<T> array, Encoder<? super T> items, KeyMatcher keys, Kind[] kinds, boolean parallel) {
+    if (array instanceof LazyValue) {
+      final LazyValue lazy = (LazyValue)array;
+      return of(lazy.buffer, lazy.offset, keys, kinds, parallel);
+    }
+    return of(ByteBuffer.wrap(JsonWriter.encode(Encoder.array(items), array)), 0, keys, kinds, parallel);
+  }
+
+  /**
+   * Возвращает количество строк -- элементов исходного массива.
+   *
+   * @return Количество строк
+   */
+  public int size() {
+    return size;
+  }
+  /**
+   * Возвращает колонку свойства.
+   *
+   * @param number Номер свойства в сопоставителе, по которому строились колонки
+   *
+   * @return Колонка, класс которой соответствует ее {@link Kind виду}
+   */
+  public Column column(int number) {
+    return columns[number];
+  }
+
+  private static ColumnTable sequential(ByteBuffer buffer, int offset, KeyMatcher keys, Kind[] kinds) {
+    final Builder builder = new Builder(kinds, 64);
+    final Dictionary[] dictionaries = dictionaries(kinds);
+    final int[] index = new int[kinds.length];
+    int row = 0;
+    for (int pos = JsonReader.firstElement(buffer, offset); pos >= 0; pos = JsonReader.nextElement(buffer, pos)) {
+      if (row == builder.capacity) {
+        builder.resize(row << 1);
+      }
+      builder.set(row++, buffer, JsonReader.indexObject(buffer, pos, keys, index), dictionaries);
+    }
+    return builder.build(row, dictionaries);
+  }
+  private static ColumnTable parallel(ByteBuffer buffer, int offset, KeyMatcher keys, Kind[] kinds) {
+    final int[] elements = JsonReader.indexArray(buffer, offset);
+    final int size = elements.length;
+    final int chunks = (size + CHUNK - 1) / CHUNK;
+    final Builder builder = new Builder(kinds, size);
+    final Dictionary[][] local = new Dictionary[chunks][];
+    IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      final Dictionary[] dictionaries = dictionaries(kinds);
+      final int[] index = new int[kinds.length];
+      for (int row = chunk * CHUNK, end = Math.min(size, row + CHUNK); row < end; ++row) {
+        final int pos = elements[row];
+        if (pos < 0) {
+          Arrays.fill(index, -1);
+        } else {
+          JsonReader.indexObject(buffer, pos, keys, index);
+        }
+        builder.set(row, buffer, index, dictionaries);
+      }
+      local[chunk] = dictionaries;
+    });
+
+    // Словари участков объединяются по порядку, после чего номера значений участков пересчитываются
+    final Dictionary[] dictionaries = dictionaries(kinds);
+    for (int c = 0; c < kinds.length; ++c) {
+      if (kinds[c] != Kind.STRING) continue;
+
+      final int[] codes = builder.codes[c];
+      final int[][] remaps = new int[chunks][];
+      for (int chunk = 0; chunk < chunks; ++chunk) {
+        remaps[chunk] = dictionaries[c].merge(local[chunk][c]);
+      }
+      IntStream.range(0, chunks).parallel().forEach(chunk -> {
+        final int[] remap = remaps[chunk];
+        for (int row = chunk * CHUNK, end = Math.min(size, row + CHUNK); row < end; ++row) {
+          if (codes[row] >= 0) {
+            codes[row] = remap[codes[row]];
+          }
+        }
+      });
+    }
+    return builder.build(size, dictionaries);
+  }
+  private static Dictionary[] dictionaries(Kind[] kinds) {
+    final Dictionary[] dictionaries = new Dictionary[kinds.length];
+    for (int c = 0; c < kinds.length; ++c) {
+      if (kinds[c] == Kind.STRING) {
+        dictionaries[c] = new Dictionary();
+      }
+    }
+    return dictionaries;
+  }
+
+  /** Накапливает значения колонок в массивах, растущих при последовательном построении. */
+  private static final class Builder {
+    /** Виды колонок. */
+    final Kind[] kinds;
+    /** Маски строк без значений по колонкам. */
+    final long[][] nulls;
+    /** Значения колонок {@link Kind#LONG} и маски значений колонок {@link Kind#BOOLEAN}. */
+    final long[][] longs;
+    /** Значения колонок {@link Kind#DOUBLE}. */
+    final double[][] doubles;
+    /** Номера значений в словарях колонок {@link Kind#STRING}. */
+    final int[][] codes;
+    /** Количество строк, для которых выделены массивы. */
+    int capacity;
+
+    Builder(Kind[] kinds, int capacity) {
+      this.kinds = kinds;
+      this.nulls = new long[kinds.length][];
+      this.longs = new long[kinds.length][];
+      this.doubles = new double[kinds.length][];
+      this.codes = new int[kinds.length][];
+      resize(capacity);
+    }
+
+    void set(int row, ByteBuffer buffer, int[] index, Dictionary[] dictionaries) {
+      for (int c = 0; c < kinds.length; ++c) {
+        final int at = index[c];
+        if (at < 0) {
+          nulls[c][row >> 6] |= 1L << row;
+          if (kinds[c] == Kind.STRING) {
+            codes[c][row] = -1;
+          }
+          continue;
+        }
+        switch (kinds[c]) {
+          case LONG:    longs[c][row] = JsonReader.readLong(buffer, at); break;
+          case DOUBLE:  doubles[c][row] = JsonReader.readDouble(buffer, at); break;
+          case BOOLEAN:
+            if (JsonReader.readBoolean(buffer, at)) {
+              longs[c][row >> 6] |= 1L << row;
+            }
+            break;
+          case STRING:  codes[c][row] = dictionaries[c].code(buffer, at); break;
+        }
+      }
+    }
+    ColumnTable build(int size, Dictionary[] dictionaries) {
+      if (size != capacity) {
+        resize(size);
+      }
+      final Column[] columns = new Column[kinds.length];
+      for (int c = 0; c < kinds.length; ++c) {
+        switch (kinds[c]) {
+          case LONG:    columns[c] = new LongColumn(size, nulls[c], longs[c]); break;
+          case DOUBLE:  columns[c] = new DoubleColumn(size, nulls[c], doubles[c]); break;
+          case BOOLEAN: columns[c] = new BooleanColumn(size, nulls[c], longs[c]); break;
+          case STRING:  columns[c] = new StringColumn(size, nulls[c], codes[c], dictionaries[c].strings()); break;
+        }
+      }
+      return new ColumnTable(size, columns);
+    }
+
+    void resize(int capacity) {
+      final int words = capacity + 63 >> 6;
+      for (int c = 0; c < kinds.length; ++c) {
+        nulls[c] = resize(nulls[c], words);
+        switch (kinds[c]) {
+          case LONG:    longs[c] = resize(longs[c], capacity); break;
+          case DOUBLE:  doubles[c] = doubles[c] == null ? new double[capacity] : Arrays.copyOf(doubles[c], capacity); break;
+          case BOOLEAN: longs[c] = resize(longs[c], words); break;
+          case STRING:  codes[c] = codes[c] == null ? new int[capacity] : Arrays.copyOf(codes[c], capacity); break;
+        }
+      }
+      this.capacity = capacity;
+    }
+    private static long[] resize(long[] array, int length) {
+      return array == null ? new long[length] : Arrays.copyOf(array, length);
+    }
+  }
+  /**
+   * Словарь различных значений строковой колонки. Значения хранятся в UTF-8 и ищутся по хешу
+   * прямо по байтам документа, поэтому строки создаются только для различных значений при
+   * построении колонки.
+   */
+  private static final class Dictionary {
+    private static final int FNV_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    /** Значения в UTF-8 в порядке номеров. */
+    private byte[][] values = new byte[16][];
+    /** Хеши значений в порядке номеров. */
+    private int[] hashes = new int[16];
+    /** Количество значений. */
+    private int size;
+    /** Таблица с открытой адресацией: номера значений, увеличенные на единицу; {@code 0} -- пустая ячейка. */
+    private int[] table = new int[32];
+
+    /**
+     * Возвращает номер значения, добавляя его в словарь, если оно встретилось впервые. Для строк
+     * значение -- декодированный текст, для остальных скаляров -- их текст в документе.
+     */
+    int code(ByteBuffer buffer, int at) {
+      if (JsonReader.peek(buffer, at) != '"') {
+        return find(buffer, at, JsonReader.skipValue(buffer, at));
+      }
+      final int start = at + 1;
+      final int end = JsonReader.skipString(buffer, at) - 1;
+      for (int i = start; i < end; ++i) {
+        if (buffer.get(i) == '\\') {
+          final byte[] bytes = JsonReader.readString(buffer, at).getBytes(UTF_8);
+          return find(ByteBuffer.wrap(bytes), 0, bytes.length);
+        }
+      }
+      return find(buffer, start, end);
+    }
+    /**
+     * Добавляет в словарь значения другого словаря.
+     *
+     * @return Номера значений {@code other} в этом словаре
+     */
+    int[] merge(Dictionary other) {
+      final int[] remap = new int[other.size];
+      for (int i = 0; i < other.size; ++i) {
+        final byte[] value = other.values[i];
+        remap[i] = find(ByteBuffer.wrap(value), 0, value.length);
+      }
+      return remap;
+    }
+    String[] strings() {
+      final String[] strings = new String[size];
+      for (int i = 0; i < size; ++i) {
+        strings[i] = new String(values[i], UTF_8);
+      }
+      return strings;
+    }
+
+    private int find(ByteBuffer buffer, int start, int end) {
+      int h = FNV_BASIS;
+      for (int i = start; i < end; ++i) {
+        h = (h ^ buffer.get(i)) * FNV_PRIME;
+      }
+      final int mask = table.length - 1;
+      for (int slot = (h ^ h >>> 16) & mask;; slot = slot + 1 & mask) {
+        final int code = table[slot] - 1;
+        if (code < 0) {
+          return add(buffer, start, end, h, slot);
+        }
+        if (hashes[code] == h && equal(values[code], buffer, start, end)) {
+          return code;
+        }
+      }
+    }
+    private int add(ByteBuffer buffer, int start, int end, int hash, int slot) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+        hashes = Arrays.copyOf(hashes, size << 1);
+      }
+      final byte[] value = new byte[end - start];
+      for (int i = 0; i < value.length; ++i) {
+        value[i] = buffer.get(start + i);
+      }
+      values[size] = value;
+      hashes[size] = hash;
+      table[slot] = ++size;
+      // Таблица заполняется не более чем наполовину
+      if (size << 1 > table.length) {
+        rehash(table.length << 1);
+      }
+      return size - 1;
+    }
+    private void rehash(int length) {
+      table = new int[length];
+      final int mask = length - 1;
+      for (int code = 0; code < size; ++code) {
+        final int h = hashes[code];
+        int slot = (h ^ h >>> 16) & mask;
+        while (table[slot] != 0) {
+          slot = slot + 1 & mask;
+        }
+        table[slot] = code + 1;
+      }
+    }
+    private static boolean equal(byte[] value, ByteBuffer buffer, int start, int end) {
+      if (value.length != end - start) return false;
+      for (int i = 0; i < value.length; ++i) {
+        if (value[i] != buffer.get(start + i)) return false;
+      }
+      return true;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,306 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import org.json.beans.JsonParseException;
+import org.json.beans.JsonValue;
+
+/**
+ * Структурное сравнение и канонический 64-битный хеш значений JSON, вычисляемые прямо по байтам
+ * документа. Результат зависит только от самого значения, но не от того, как оно записано: порядок
+ * свойств объектов, пробельные символы, escape-последовательности в строках и форма записи чисел
+ * ({@code 1}, {@code 1.0} и {@code 1e0}) на него не влияют. Хеш не зависит от запуска и платформы,
+ * поэтому его можно сохранять и использовать как ключ дедупликации или кеширования.
+ * <p>
+ * Числа сравниваются точно, а хешируются по ближайшему значению {@code double}, поэтому равные
+ * числа всегда имеют равные хеши. Из свойств объектов, повторяющихся в записи, и при сравнении,
+ * и при хешировании учитывается только последнее значение.
+ *
+ * @author Mingun
+ */
+public final class ContentHash {
+  private static final long P1 = 0x9E3779B97F4A7C15L;
+  private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+  /** Начальные значения хешей значений разных типов, чтобы, например, {@code []} и {@code {}} различались. */
+  private static final long NULL   = 0x6E756C6C00000001L;
+  private static final long TRUE   = 0x7472756500000002L;
+  private static final long FALSE  = 0x66616C7300000003L;
+  private static final long NUMBER = 0x6E756D6200000004L;
+  private static final long STRING = 0x7374726900000005L;
+  private static final long ARRAY  = 0x6172726100000006L;
+  private static final long OBJECT = 0x6F626A6500000007L;
+
+  private ContentHash() {}
+
+  /**
+   * Вычисляет канонический хеш значения, полученного из ленивой реализации или курсора объекта.
+   *
+   * @param value Значение или {@code null}, которое хешируется как литерал {@code null}
+   *
+   * @return Канонический хеш значения
+   *
+   * @throws IllegalArgumentException Если значение не связано с документом
+   */
+  public static long of(JsonValue value) {
+    if (value == null) return mix(NULL);
+    if (value instanceof LazyValue) {
+      final LazyValue lazy = (LazyValue)value;
+      return hash(lazy.buffer, lazy.offset);
+    }
+    if (value instanceof CursorObject) {
+      final CursorObject cursor = (CursorObject)value;
+      if (cursor.buffer != null) {
+        return hash(cursor.buffer, cursor.offset);
+      }
+    }
+    throw new IllegalArgumentException("Value is not backed by a document: " + value.getClass().getName());
+  }
+  /**
+   * Сравнивает по содержимому два значения одного типа, возможно, полученные из разных реализаций:
+   * ленивой, курсора или версии объекта. Значения, связанные с документом, сравниваются прямо по
+   * его байтам, а остальные предварительно записываются в JSON.
+   *
+   * @param <T> Тип значений
+   * @param a Первое значение или {@code null}
+   * @param b Второе значение или {@code null}
+   * @param encoder Функция записи значений в JSON
+   *
+   * @return {@code true}, если значения равны как значения JSON или оба равны {@code null}
+   */
+  public static <T> boolean equal(T a, T b, Encoder<? super T> encoder) {
+    if (a == b) return true;
+    if (a == null || b == null) return false;
+    final LazyValue left = document(a, encoder);
+    final LazyValue right = document(b, encoder);
+    return equal(left.buffer, left.offset, right.buffer, right.offset);
+  }
+  /**
+   * Вычисляет хеш значения для {@link Object#hashCode()}, согласованный с
+   * {@link #equal(Object, Object, Encoder)}.
+   *
+   * @param <T> Тип значения
+   * @param value Значение или {@code null}
+   * @param encoder Функция записи значений в JSON
+   *
+   * @return Хеш значения или {@code 0} для {@code null}
+   */
+  public static <T> int hashCode(T value, Encoder<? super T> encoder) {
+    if (value == null) return 0;
+    final LazyValue document = document(value, encoder);
+    return fold(hash(document.buffer, document.offset));
+  }
+  /**
+   * Вычисляет канонический хеш значения.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return Канонический хеш значения
+   *
+   * @throws JsonParseException Если значение записано некорректно
+   */
+  public static long hash(ByteBuffer buffer, int pos) {
+    switch (JsonReader.peek(buffer, pos)) {
+      case '{': return hashObject(buffer, pos);
+      case '[': return hashArray(buffer, pos);
+      case '"': return hashString(buffer, pos);
+      case 'n': return mix(NULL);
+      case 't':
+      case 'f': return mix(JsonReader.readBoolean(buffer, pos) ? TRUE : FALSE);
+      default: {
+        final double value = JsonReader.readDouble(buffer, pos);
+        // -0.0 равен 0.0, но имеет другое битовое представление
+        return mix(NUMBER ^ Double.doubleToLongBits(value == 0 ? 0.0 : value));
+      }
+    }
+  }
+  /**
+   * Сравнивает два значения по содержимому.
+   *
+   * @param a Буфер с документом первого значения
+   * @param pa Позиция первого символа первого значения
+   * @param b Буфер с документом второго значения
+   * @param pb Позиция первого символа второго значения
+   *
+   * @return {@code true}, если значения равны как значения JSON
+   *
+   * @throws JsonParseException Если значения записаны некорректно
+   */
+  public static boolean equal(ByteBuffer a, int pa, ByteBuffer b, int pb) {
+    final int type = JsonReader.peek(a, pa);
+    final int other = JsonReader.peek(b, pb);
+    switch (type) {
+      case '{': return other == '{' && equalObjects(a, pa, b, pb);
+      case '[': return other == '[' && equalArrays(a, pa, b, pb);
+      case '"': {
+        if (other != '"') return false;
+        final int ea = JsonReader.skipString(a, pa);
+        final int eb = JsonReader.skipString(b, pb);
+        return equalBytes(a, pa, ea, b, pb, eb)
+          || JsonReader.readString(a, pa).equals(JsonReader.readString(b, pb));
+      }
+      case 'n':
+      case 't':
+      case 'f': return type == other;
+      default: {
+        if (other == '{' || other == '[' || other == '"' || other == 'n' || other == 't' || other == 'f') {
+          return false;
+        }
+        final int ea = JsonReader.skipNumber(a, pa);
+        final int eb = JsonReader.skipNumber(b, pb);
+        return equalBytes(a, pa, ea, b, pb, eb)
+          || JsonReader.readDecimal(a, pa).compareTo(JsonReader.readDecimal(b, pb)) == 0;
+      }
+    }
+  }
+  /**
+   * Сворачивает 64-битный хеш в 32-битный для {@link Object#hashCode()}.
+   *
+   * @param hash Хеш
+   *
+   * @return Хеш для {@link Object#hashCode()}
+   */
+  static int fold(long hash) {
+    return (int)(hash ^ (hash >>> 32));
+  }
+
+  /** Возвращает документ со значением: исходный, если значение с ним связано, иначе записанный заново. */
+  private static <T> LazyValue document(T value, Encoder<? super T> encoder) {
+    if (value instanceof LazyValue) return (LazyValue)value;
+    if (value instanceof CursorObject) {
+      final CursorObject cursor = (CursorObject)value;
+      if (cursor.buffer != null) {
+        return new LazyValue(cursor.buffer, cursor.offset);
+      }
+    }
+    return new LazyValue(ByteBuffer.wrap(JsonWriter.encode(encoder, value)), 0);
+  }
+  private static long hashObject(ByteBuffer buffer, int pos) {
+    // Сумма хешей свойств не зависит от их порядка. Повторяющиеся свойства хешируются так же, как
+    // сравниваются -- по последнему значению
+    final Map<String, Integer> members = members(buffer, pos);
+    long sum = 0;
+    for (final Map.Entry<String, Integer> e : members.entrySet()) {
+      final byte[] key = e.getKey().getBytes(UTF_8);
+      sum += mix(hashBytes(ByteBuffer.wrap(key), 0, key.length) + hash(buffer, e.getValue()) * P1);
+    }
+    return mix(OBJECT ^ sum ^ members.size() * P2);
+  }
+  private static long hashArray(ByteBuffer buffer, int pos) {
+    long hash = ARRAY;
+    int count = 0;
+    for (int i = JsonReader.firstElement(buffer, pos); i >= 0; i = JsonReader.nextElement(buffer, i)) {
+      hash = Long.rotateLeft(hash ^ hash(buffer, i), 31) * P1;
+      ++count;
+    }
+    return mix(hash ^ count * P2);
+  }
+  private static long hashString(ByteBuffer buffer, int pos) {
+    final int start = JsonReader.expect(buffer, pos, '"');
+    final int end = JsonReader.skipString(buffer, pos) - 1;
+    for (int i = start; i < end; ++i) {
+      if (buffer.get(i) == '\\') {
+        // Хешируется декодированное значение, чтобы escape-последовательности не влияли на хеш
+        final byte[] bytes = JsonReader.readString(buffer, pos).getBytes(UTF_8);
+        return hashBytes(ByteBuffer.wrap(bytes), 0, bytes.length);
+      }
+    }
+    return hashBytes(buffer, start, end);
+  }
+  /** Хеширует байты {@code [start; end)} словами по 8 байт, независимо от порядка байтов буфера. */
+  private static long hashBytes(ByteBuffer buffer, int start, int end) {
+    final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    long hash = STRING ^ (end - start) * P1;
+    int i = start;
+    for (; i + 8 <= end; i += 8) {
+      final long word = buffer.getLong(i);
+      hash = Long.rotateLeft(hash ^ mix(bigEndian ? Long.reverseBytes(word) : word), 27) * P1 + P2;
+    }
+    long tail = 0;
+    for (int shift = 0; i < end; ++i, shift += 8) {
+      tail |= (buffer.get(i) & 0xFFL) << shift;
+    }
+    return mix(hash ^ mix(tail));
+  }
+  private static boolean equalArrays(ByteBuffer a, int pa, ByteBuffer b, int pb) {
+    int i = JsonReader.firstElement(a, pa);
+    int j = JsonReader.firstElement(b, pb);
+    while (i >= 0 && j >= 0) {
+      if (!equal(a, i, b, j)) return false;
+      i = JsonReader.nextElement(a, i);
+      j = JsonReader.nextElement(b, j);
+    }
+    return i < 0 && j < 0;
+  }
+  private static boolean equalObjects(ByteBuffer a, int pa, ByteBuffer b, int pb) {
+    final Map<String, Integer> left = members(a, pa);
+    final Map<String, Integer> right = members(b, pb);
+    if (left.size() != right.size()) return false;
+    for (final Map.Entry<String, Integer> e : left.entrySet()) {
+      final Integer value = right.get(e.getKey());
+      if (value == null || !equal(a, e.getValue(), b, value)) return false;
+    }
+    return true;
+  }
+  /**
+   * Собирает позиции значений свойств объекта по их именам в порядке записи; для повторяющихся
+   * свойств -- позицию последнего значения.
+   */
+  static Map<String, Integer> members(ByteBuffer buffer, int pos) {
+    final Map<String, Integer> members = new LinkedHashMap<>();
+    pos = JsonReader.skipWhitespace(buffer, pos + 1);
+    if (JsonReader.peek(buffer, pos) == '}') return members;
+    while (true) {
+      final String key = JsonReader.readString(buffer, pos);
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, JsonReader.skipWhitespace(buffer, JsonReader.skipString(buffer, pos)), ':'));
+      members.put(key, pos);
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.skipValue(buffer, pos));
+      if (JsonReader.peek(buffer, pos) != ',') break;
+      pos = JsonReader.skipWhitespace(buffer, pos + 1);
+    }
+    JsonReader.expect(buffer, pos, '}');
+    return members;
+  }
+  private static boolean equalBytes(ByteBuffer a, int pa, int ea, ByteBuffer b, int pb, int eb) {
+    if (ea - pa != eb - pb) return false;
+    for (int i = pa, j = pb; i < ea; ++i, ++j) {
+      if (a.get(i) != b.get(j)) return false;
+    }
+    return true;
+  }
+  /** Перемешивает биты значения, финализатор MurmurHash3. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= P2;
+    h ^= h >>> 33;
+    return h;
+  }
+}
\ No newline at end of file
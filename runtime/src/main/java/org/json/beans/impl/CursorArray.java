@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+
+/**
+ * Переиспользуемый курсор массива. При перестановке на другой массив переиспользует массив позиций
+ * элементов, а элементы возвращает через фабрику, которая для объектов переставляет один и тот же
+ * курсор элемента. Поэтому элемент, полученный из списка {@link #value()}, действителен только до
+ * получения следующего элемента или перестановки курсора.
+ *
+ * @param <T> Тип элементов массива
+ *
+ * @author Mingun
+ * @see CursorObject
+ */
+public final class CursorArray<T extends JsonValue> implements JsonArray<T> {
+  /** Фабрика элементов; для объектов -- переставляющая курсор элемента. */
+  private final Decoder<? extends T> element;
+  /** Представление элементов текущего массива. */
+  private final List<T> elements = new Elements();
+  /** Буфер с документом, в котором находится текущий массив. */
+  private ByteBuffer buffer;
+  /** Позиция открывающей скобки текущего массива. */
+  private int offset;
+  /** Позиции элементов текущего массива; {@code -1} для элементов со значением {@code null}. */
+  private int[] offsets = new int[8];
+  /** Количество элементов текущего массива. */
+  private int size;
+
+  /**
+   * Создает курсор, не установленный ни на какой массив.
+   *
+   * @param element Фабрика элементов
+   */
+  public CursorArray(Decoder<? extends T> element) {
+    this.element = element;
+  }
+
+  /**
+   * Создает фабрику, которая при каждом вызове переставляет один и тот же курсор массива.
+   *
+   * @param <T> Тип элементов массива
+   * @param element Фабрика элементов
+   *
+   * @return Фабрика массивов
+   */
+  public static <T extends JsonValue> Decoder<JsonArray<T>> reusing(Decoder<? extends T> element) {
+    final CursorArray<T> cursor = new CursorArray<>(element);
+    return cursor::reset;
+  }
+
+  /**
+   * Устанавливает курсор на массив и находит позиции его элементов.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция открывающей скобки массива
+   *
+   * @return Этот курсор
+   *
+   * @throws org.json.beans.JsonParseException Если в позиции находится не массив или он записан
+   *         некорректно
+   */
+  public CursorArray<T> reset(ByteBuffer buffer, int offset) {
+    int count = 0;
+    for (int pos = JsonReader.firstElement(buffer, offset); pos >= 0; pos = JsonReader.nextElement(buffer, pos)) {
+      if (count == offsets.length) {
+        offsets = Arrays.copyOf(offsets, count << 1);
+      }
+      offsets[count++] = JsonReader.isNull(buffer, pos) ? -1 : pos;
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+    this.size = count;
+    return this;
+  }
+
+  @Override
+  public List<T> value() {
+    return elements;
+  }
+
+  @Override
+  public String toString() {
+    if (buffer == null) return "<unpositioned>";
+    return JsonReader.utf8(buffer, offset, JsonReader.skipValue(buffer, offset));
+  }
+
+  private final class Elements extends AbstractList<T> implements RandomAccess {
+    @Override
+    public T get(int i) {
+      if (i < 0 || i >= size) {
+        throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+      }
+      final int at = offsets[i];
+      return at < 0 ? null : element.decode(buffer, at);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import org.json.beans.JsonValue;
+
+/**
+ * Базовый класс для сгенерированных курсоров -- изменяемых реализаций объектов, которые
+ * переставляются с одного объекта на другой вместо создания нового представления для каждого.
+ * Массив индекса свойств при перестановке переиспользуется, а вложенные объекты и массивы
+ * возвращаются такими же переиспользуемыми курсорами.
+ * <p>
+ * Значения, полученные от курсора, действительны только до его следующей перестановки. Курсоры
+ * не потокобезопасны.
+ *
+ * @author Mingun
+ */
+public abstract class CursorObject implements JsonValue {
+  /** Сопоставитель имен свойств с их номерами. */
+  private final KeyMatcher keys;
+  /** Проекция, по которой строится индекс, или {@code null}, если индексируются все свойства. */
+  private final Projection projection;
+  /**
+   * Позиции значений свойств текущего объекта в порядке их номеров; {@code -1} для отсутствующих
+   * свойств и свойств со значением {@code null}.
+   */
+  private final int[] index;
+  /** Датчик типа или {@code null}, если наблюдение отключено. */
+  private final Probe probe;
+  /** Буфер с документом, в котором находится текущий объект. */
+  protected ByteBuffer buffer;
+  /** Позиция первого символа текущего объекта. */
+  protected int offset;
+
+  /**
+   * Создает курсор, не установленный ни на какой объект.
+   *
+   * @param keys Сопоставитель имен свойств с их номерами
+   */
+  protected CursorObject(KeyMatcher keys) {
+    this(keys, null);
+  }
+  /**
+   * Создает курсор, не установленный ни на какой объект, сообщающий датчику о каждой перестановке.
+   *
+   * @param keys Сопоставитель имен свойств с их номерами
+   * @param probe Датчик типа или {@code null}, если наблюдение отключено
+   */
+  protected CursorObject(KeyMatcher keys, Probe probe) {
+    this.keys = keys;
+    this.projection = null;
+    this.index = new int[keys.size()];
+    this.probe = probe;
+  }
+  /**
+   * Создает курсор, не установленный ни на какой объект, индексирующий только свойства проекции.
+   * Остальные свойства выглядят отсутствующими.
+   *
+   * @param projection Проекция объекта
+   */
+  protected CursorObject(Projection projection) {
+    this(projection, null);
+  }
+  /**
+   * Создает курсор, не установленный ни на какой объект, индексирующий только свойства проекции
+   * и сообщающий датчику о каждой перестановке.
+   *
+   * @param projection Проекция объекта
+   * @param probe Датчик типа или {@code null}, если наблюдение отключено
+   */
+  protected CursorObject(Projection projection, Probe probe) {
+    this.keys = projection.keys;
+    this.projection = projection;
+    this.index = new int[keys.size()];
+    this.probe = probe;
+  }
+
+  /**
+   * Устанавливает курсор на объект и строит его индекс.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа значения. Если значение не является объектом, все его
+   *        свойства считаются отсутствующими
+   */
+  protected final void position(ByteBuffer buffer, int offset) {
+    final long start = probe == null ? 0 : System.nanoTime();
+    if (projection == null) {
+      JsonReader.indexObject(buffer, offset, keys, index);
+    } else {
+      JsonReader.indexObject(buffer, offset, projection, index);
+    }
+    // Курсор не запоминает значения свойств, поэтому их декодирование не отслеживается
+    if (probe != null) {
+      probe.indexed(buffer, offset, null, System.nanoTime() - start);
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+  }
+  /**
+   * Возвращает позицию значения свойства текущего объекта.
+   *
+   * @param property Номер свойства
+   *
+   * @return Позиция первого символа значения или {@code -1}, если свойство отсутствует или равно
+   *         {@code null}
+   */
+  protected final int at(int property) {
+    return index[property];
+  }
+  /**
+   * Возвращает позицию значения обязательного в данном контексте свойства текущего объекта.
+   *
+   * @param property Номер свойства
+   * @param name Имя свойства для сообщения об ошибке
+   *
+   * @return Позиция первого символа значения
+   *
+   * @throws NoSuchElementException Если свойство отсутствует или равно {@code null}
+   */
+  protected final int require(int property, String name) {
+    final int at = index[property];
+    if (at < 0) {
+      throw new NoSuchElementException("Property '" + name + "' is absent or null");
+    }
+    return at;
+  }
+
+  /**
+   * Создает ленивое представление текущего объекта, не зависящее от курсора и остающееся
+   * действительным после его перестановки.
+   *
+   * @param <T> Тип представления
+   * @param decoder Фабрика представлений, обычно {@code Impl.DECODER} того же типа
+   *
+   * @return Представление текущего объекта
+   *
+   * @throws IllegalStateException Если курсор еще не установлен ни на какой объект
+   */
+  public final <T> T detach(Decoder<? extends T> decoder) {
+    if (buffer == null) {
+      throw new IllegalStateException("Cursor is not positioned");
+    }
+    return decoder.decode(buffer, offset);
+  }
+
+  @Override
+  public String toString() {
+    if (buffer == null) return "<unpositioned>";
+    return JsonReader.utf8(buffer, offset, JsonReader.skipValue(buffer, offset));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Фабрика ленивых значений, создающая представление значения JSON, начинающегося в указанной
+ * позиции буфера. Для каждого сгенерированного типа генератор создает собственную реализацию.
+ *
+ * @param <T> Тип создаваемых значений
+ *
+ * @author Mingun
+ */
+@FunctionalInterface
+public interface Decoder<T> {
+  /**
+   * Создает представление значения, начинающегося в указанной позиции.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа значения
+   *
+   * @return Представление значения. Декодирование его частей может быть отложено до момента
+   *         обращения к ним
+   */
+  T decode(ByteBuffer buffer, int offset);
+  /**
+   * Создает представление документа, начинающегося в текущей позиции буфера. Пробельные символы
+   * перед документом пропускаются.
+   *
+   * @param buffer Буфер с документом. Его позиция не изменяется
+   *
+   * @return Представление документа
+   */
+  default T decode(ByteBuffer buffer) {
+    return decode(buffer, JsonReader.skipWhitespace(buffer, buffer.position()));
+  }
+}
\ No newline at end of file
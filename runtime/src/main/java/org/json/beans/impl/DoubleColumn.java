@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+/**
+ * Колонка дробного свойства.
+ *
+ * @author Mingun
+ */
+public final class DoubleColumn extends Column {
+  /** Значения по строкам; {@code 0} в строках без значений. */
+  private final double[] values;
+
+  DoubleColumn(int size, long[] nulls, double[] values) {
+    super(size, nulls);
+    this.values = values;
+  }
+
+  /**
+   * Возвращает значение в строке.
+   *
+   * @param row Номер строки
+   *
+   * @return Значение или {@code 0}, если значения нет (см. {@link #isNull})
+   */
+  public double get(int row) {
+    return values[row];
+  }
+  /**
+   * Возвращает значения всех строк. Массив не копируется и не должен изменяться.
+   *
+   * @return Массив из {@link #size()} значений; {@code 0} в строках без значений
+   */
+  public double[] values() {
+    return values;
+  }
+}
\ No newline at end of file
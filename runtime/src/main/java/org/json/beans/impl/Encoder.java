@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.IOException;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+
+/**
+ * Функция записи значений в JSON. Для каждого сгенерированного типа генератор создает собственную
+ * реализацию, доступную через поле {@code Writer.ENCODER}.
+ *
+ * @param <T> Тип записываемых значений
+ *
+ * @author Mingun
+ * @see Decoder
+ */
+@FunctionalInterface
+public interface Encoder<T> {
+  /**
+   * Записывает значение.
+   *
+   * @param out Писатель, в который записывается значение
+   * @param value Записываемое значение, не {@code null}
+   *
+   * @throws IOException Если запись невозможна
+   * @throws IllegalArgumentException Если значение не может быть представлено в JSON: например,
+   *         число является бесконечностью, или объект без свойств, не созданный из документа, не
+   *         соответствует ни одному из своих вариантов
+   */
+  void encode(JsonWriter out, T value) throws IOException;
+
+  /**
+   * Создает функцию записи массивов с элементами, записываемыми указанной функцией. Ленивые массивы
+   * копируются из исходного документа как есть.
+   *
+   * @param <T> Тип элементов массива
+   * @param items Функция записи элементов массива
+   *
+   * @return Функция записи массивов
+   */
+  static <T extends JsonValue> Encoder<JsonArray<T>> array(Encoder<? super T> items) {
+    return (out, value) -> {
+      if (value instanceof LazyValue) {
+        out.copy((LazyValue)value);
+        return;
+      }
+      out.beginArray();
+      for (final T item : value.value()) {
+        if (item == null) {
+          out.nullValue();
+        } else {
+          items.encode(out, item);
+        }
+      }
+      out.endArray();
+    };
+  }
+}
\ No newline at end of file
@@ -0,0 +1,255 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * Быстрое декодирование чисел с плавающей точкой прямо из байтов документа, без создания строк.
+ * Значимые цифры накапливаются в {@code long}, после чего результат вычисляется точным методом
+ * Клингера, если мантисса и степень десяти представимы в {@code double} без округления, и алгоритмом
+ * Эйзеля-Лемира в остальных случаях. Оба метода дают правильно округленный результат, а в редких
+ * случаях, когда алгоритм Эйзеля-Лемира не может гарантировать правильного округления, а также для
+ * чисел больше чем из 19 значимых цифр, декодирование передается {@link Double#parseDouble}.
+ *
+ * @author Mingun
+ * @see <a href="https://arxiv.org/abs/2101.11408">Number Parsing at a Gigabyte per Second</a>
+ */
+final class FastDouble {
+  /** Минимальная степень десяти, для которой есть приближение в {@link #POWERS}. */
+  private static final int MIN_EXPONENT = -342;
+  /** Максимальная степень десяти, для которой есть приближение в {@link #POWERS}. */
+  private static final int MAX_EXPONENT = 308;
+  /** Степени десяти, которые представляются в {@code double} точно. */
+  private static final double[] EXACT = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+    1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+  };
+  /**
+   * Нормализованные 128-битные приближения степеней пяти от {@link #MIN_EXPONENT} до
+   * {@link #MAX_EXPONENT}: по два элемента на степень, сначала старшие 64 бита, затем младшие.
+   * Мантиссы степеней десяти совпадают с мантиссами степеней пяти.
+   */
+  private static final long[] POWERS = powers();
+
+  private FastDouble() {}
+
+  /**
+   * Декодирует число, записанное по правилам JSON.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return Ближайшее к записанному значение {@code double} или {@link Double#NaN}, если число
+   *         записано не по правилам JSON или быстрые методы не могут его правильно округлить. В этом
+   *         случае число следует декодировать медленным способом
+   */
+  static double read(ByteBuffer buffer, int pos) {
+    final int limit = buffer.limit();
+    final boolean negative = pos < limit && buffer.get(pos) == '-';
+    int i = negative ? pos + 1 : pos;
+
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    // Целая часть: ноль или цифры без ведущих нулей
+    if (i < limit && buffer.get(i) == '0') {
+      ++i;
+    } else {
+      final int start = i;
+      for (; i < limit; ++i) {
+        final int digit = buffer.get(i) - '0';
+        if (digit < 0 || digit > 9) break;
+        mantissa = mantissa * 10 + digit;
+      }
+      digits = i - start;
+      if (digits == 0) return Double.NaN;
+    }
+    if (i < limit && buffer.get(i) == '.') {
+      final int start = ++i;
+      for (; i < limit; ++i) {
+        final int digit = buffer.get(i) - '0';
+        if (digit < 0 || digit > 9) break;
+        // Ведущие нули дробной части не являются значимыми цифрами
+        if (mantissa != 0 || digit != 0) {
+          mantissa = mantissa * 10 + digit;
+          ++digits;
+        }
+      }
+      if (i == start) return Double.NaN;
+      exponent = start - i;
+    }
+    if (i < limit && (buffer.get(i) | 0x20) == 'e') {
+      ++i;
+      final boolean negativeExponent = i < limit && buffer.get(i) == '-';
+      if (i < limit && (negativeExponent || buffer.get(i) == '+')) ++i;
+      final int start = i;
+      int value = 0;
+      for (; i < limit; ++i) {
+        final int digit = buffer.get(i) - '0';
+        if (digit < 0 || digit > 9) break;
+        // Такой показатель заведомо выходит за пределы double, дальше можно не накапливать
+        if (value < 100_000) {
+          value = value * 10 + digit;
+        }
+      }
+      if (i == start) return Double.NaN;
+      exponent += negativeExponent ? -value : value;
+    }
+    // Число должно быть записано целиком, иначе это не JSON, и решение о нем принимает медленный путь
+    if (i < limit && isNumberTail(buffer.get(i))) return Double.NaN;
+    // В long без переполнения гарантированно помещаются только 19 цифр
+    if (digits > 19) return Double.NaN;
+
+    if (mantissa == 0) return negative ? -0.0 : 0.0;
+    final double value = compute(mantissa, exponent);
+    return negative ? -value : value;
+  }
+
+  /**
+   * Вычисляет {@code mantissa * 10^exponent}, правильно округляя результат.
+   *
+   * @param mantissa Значимые цифры числа, беззнаковое число, не равное нулю
+   * @param exponent Десятичный показатель
+   *
+   * @return Положительное значение или {@link Double#NaN}, если его не удалось вычислить
+   */
+  private static double compute(long mantissa, int exponent) {
+    // Метод Клингера: и мантисса, и степень десяти точно представимы, поэтому одна операция с
+    // плавающей точкой дает правильно округленный результат
+    if (mantissa >= 0 && mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22) {
+      return exponent < 0 ? mantissa / EXACT[-exponent] : mantissa * EXACT[exponent];
+    }
+    if (exponent < MIN_EXPONENT) return 0.0;
+    if (exponent > MAX_EXPONENT) return Double.POSITIVE_INFINITY;
+    return eiselLemire(mantissa, exponent);
+  }
+  /**
+   * Алгоритм Эйзеля-Лемира.
+   *
+   * @param mantissa Значимые цифры числа, беззнаковое число, не равное нулю
+   * @param exponent Десятичный показатель от {@link #MIN_EXPONENT} до {@link #MAX_EXPONENT}
+   *
+   * @return Положительное значение или {@link Double#NaN}, если правильное округление не может
+   *         быть гарантировано
+   */
+  static double eiselLemire(long mantissa, int exponent) {
+    final int index = (exponent - MIN_EXPONENT) * 2;
+    final int shift = Long.numberOfLeadingZeros(mantissa);
+    final long w = mantissa << shift;
+    // Двоичный показатель результата с точностью до единицы: floor(exponent * log2(10)) + 64 + 1023
+    long binary = ((217706L * exponent) >> 16) + 64 + 1023 - shift;
+
+    long hi = multiplyHigh(w, POWERS[index]);
+    long lo = w * POWERS[index];
+    // Если младших 64 бит приближения недостаточно, уточняем произведение второй половиной
+    if ((hi & 0x1FF) == 0x1FF && Long.compareUnsigned(lo + w, w) < 0) {
+      final long yHi = multiplyHigh(w, POWERS[index + 1]);
+      final long yLo = w * POWERS[index + 1];
+      long mergedHi = hi;
+      final long mergedLo = lo + yHi;
+      if (Long.compareUnsigned(mergedLo, lo) < 0) {
+        ++mergedHi;
+      }
+      if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + w, w) < 0) {
+        return Double.NaN;
+      }
+      hi = mergedHi;
+      lo = mergedLo;
+    }
+    // Оставляем 54 бита: на один больше, чем в мантиссе double, для округления
+    final int msb = (int)(hi >>> 63);
+    long bits = hi >>> (msb + 9);
+    binary -= 1 ^ msb;
+    // Точная середина между двумя соседними double, направление округления не определить
+    if (lo == 0 && (hi & 0x1FF) == 0 && (bits & 3) == 1) {
+      return Double.NaN;
+    }
+    bits += bits & 1;
+    bits >>>= 1;
+    if ((bits >>> 53) != 0) {
+      bits >>>= 1;
+      ++binary;
+    }
+    // Денормализованные числа и переполнение оставляем медленному пути
+    if (binary <= 0 || binary >= 0x7FF) {
+      return Double.NaN;
+    }
+    return Double.longBitsToDouble(binary << 52 | bits & 0x000F_FFFF_FFFF_FFFFL);
+  }
+  /**
+   * Вычисляет старшие 64 бита беззнакового 128-битного произведения.
+   *
+   * @param x Беззнаковый множитель
+   * @param y Беззнаковый множитель
+   *
+   * @return Старшие 64 бита произведения
+   */
+  private static long multiplyHigh(long x, long y) {
+    final long x0 = x & 0xFFFF_FFFFL;
+    final long x1 = x >>> 32;
+    final long y0 = y & 0xFFFF_FFFFL;
+    final long y1 = y >>> 32;
+    final long p01 = x0 * y1;
+    final long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFF_FFFFL);
+    return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+  }
+  private static boolean isNumberTail(byte b) {
+    switch (b) {
+      case '0': case '1': case '2': case '3': case '4':
+      case '5': case '6': case '7': case '8': case '9':
+      case '.': case 'e': case 'E': case '+': case '-':
+        return true;
+    }
+    return false;
+  }
+  /**
+   * Вычисляет таблицу {@link #POWERS} тем же способом, что и авторы алгоритма: степени с
+   * отрицательным показателем округляются вверх, а с положительным -- отбрасыванием лишних битов.
+   */
+  static long[] powers() {
+    final long[] powers = new long[(MAX_EXPONENT - MIN_EXPONENT + 1) * 2];
+    final BigInteger five = BigInteger.valueOf(5);
+    final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; ++q) {
+      BigInteger power;
+      if (q < 0) {
+        final BigInteger divisor = five.pow(-q);
+        final int z = divisor.bitLength();
+        final int b = q >= -27 ? z + 127 : 2 * z + 128;
+        power = BigInteger.ONE.shiftLeft(b).divide(divisor).add(BigInteger.ONE);
+      } else {
+        power = five.pow(q);
+      }
+      // Нормализуем до ровно 128 бит
+      final int excess = power.bitLength() - 128;
+      power = excess > 0 ? power.shiftRight(excess) : power.shiftLeft(-excess);
+      final int index = (q - MIN_EXPONENT) * 2;
+      powers[index] = power.shiftRight(64).longValue();
+      powers[index + 1] = power.and(mask).longValue();
+    }
+    return powers;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Универсальная реализация {@link KeyMatcher}, декодирующая имя свойства в строку. Используется
+ * для имен, записанных в документе с escape-последовательностями.
+ *
+ * @author Mingun
+ */
+final class HashKeyMatcher implements KeyMatcher {
+  /** Отображение имени свойства на его номер. */
+  private final Map<String, Integer> numbers;
+
+  /**
+   * Создает сопоставитель для указанных имен.
+   *
+   * @param names Имена свойств в порядке их номеров
+   *
+   * @throws IllegalArgumentException Если имена повторяются
+   */
+  HashKeyMatcher(String[] names) {
+    numbers = new HashMap<>(names.length * 2);
+    for (int i = 0; i < names.length; ++i) {
+      if (numbers.put(names[i], i) != null) {
+        throw new IllegalArgumentException("Duplicate property name '" + names[i] + "'");
+      }
+    }
+  }
+
+  @Override
+  public int match(ByteBuffer buffer, int start, int end) {
+    return number(JsonReader.readString(buffer, start - 1));
+  }
+
+  @Override
+  public int number(String name) {
+    final Integer number = numbers.get(name);
+    return number == null ? -1 : number;
+  }
+
+  @Override
+  public int size() {
+    return numbers.size();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import org.json.beans.JsonValue;
+
+/**
+ * Поставщик {@link Probe датчиков}, через которые сгенерированные классы сообщают о декодировании,
+ * записи и проверке значений. Реализация выбирается один раз при инициализации первого
+ * сгенерированного класса, использующего датчики (см. {@link Probe#of}):
+ * <ol>
+ * <li>установленная {@link Probe#install} до этого момента;</li>
+ * <li>класс, указанный в системном свойстве {@value Probe#PROPERTY}, с открытым конструктором без
+ *     параметров;</li>
+ * <li>первая из перечисленных в {@code META-INF/services/org.json.beans.impl.Instrumentation}.</li>
+ * </ol>
+ * Если ни одна реализация не найдена, датчики не создаются, и сгенерированный код сводится к
+ * сравнению статической константы с {@code null}.
+ *
+ * @author Mingun
+ */
+@FunctionalInterface
+public interface Instrumentation {
+  /**
+   * Создает датчик для сгенерированного типа. Вызывается не более одного раза для каждого типа.
+   *
+   * @param type Сгенерированный интерфейс или перечисление
+   * @param properties Имена свойств в порядке их номеров, передаваемых в {@link Probe#materialized}
+   *
+   * @return Датчик или {@code null}, если тип не нужно наблюдать
+   */
+  Probe probe(Class<? extends JsonValue> type, String[] properties);
+}
\ No newline at end of file
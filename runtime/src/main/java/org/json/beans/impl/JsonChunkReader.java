@@ -0,0 +1,320 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.json.beans.JsonParseException;
+
+/**
+ * Инкрементальное чтение документов, поступающих произвольными частями, например, из неблокирующего
+ * канала. Части передаются методу {@link #feed}, и каждое значение передается получателю сразу же,
+ * как только получен его последний байт, не дожидаясь конца входных данных. Читатель может выдавать
+ * либо последовательность документов верхнего уровня, разделенных пробельными символами (в том числе
+ * NDJSON), либо элементы массива верхнего уровня.
+ * <p>
+ * Читатель только находит границы значений: он учитывает вложенность скобок и строки, но не
+ * проверяет синтаксис. Ошибки внутри значений, как и при обычном ленивом разборе, обнаруживаются
+ * при обращении к некорректной части. Байты каждого значения копируются в собственный буфер,
+ * поэтому части можно переиспользовать сразу после возврата из {@link #feed}, а память читателя
+ * ограничена размером самого длинного значения.
+ * <p>
+ * Экземпляры не потокобезопасны: части одного потока данных должны передаваться по очереди.
+ *
+ * @param <T> Тип выдаваемых значений
+ *
+ * @author Mingun
+ */
+public final class JsonChunkReader<T> {
+  /** Ожидается {@code '['} массива верхнего уровня. */
+  private static final int BEFORE_ARRAY = 0;
+  /** Ожидается первый элемент массива или {@code ']'}. */
+  private static final int FIRST_ELEMENT = 1;
+  /** Ожидается очередной элемент массива после {@code ','}. */
+  private static final int NEXT_ELEMENT = 2;
+  /** Ожидается {@code ','} или {@code ']'} после элемента массива. */
+  private static final int AFTER_ELEMENT = 3;
+  /** Массив верхнего уровня закончился, допустимы только пробельные символы. */
+  private static final int AFTER_ARRAY = 4;
+  /** Ожидается очередной документ последовательности. */
+  private static final int NEXT_VALUE = 5;
+
+  private final Decoder<? extends T> decoder;
+  private final Consumer<? super T> sink;
+  /** Выдаются ли элементы массива верхнего уровня, а не документы верхнего уровня. */
+  private final boolean elements;
+
+  /** Состояние между значениями, одна из констант класса. */
+  private int state;
+  /** Читается ли сейчас значение. */
+  private boolean inValue;
+  /** Глубина вложенности скобок в текущем значении. */
+  private int depth;
+  /** Находится ли текущая позиция внутри строки. */
+  private boolean inString;
+  /** Был ли предыдущий байт строки обратной косой чертой, экранирующей текущий. */
+  private boolean escape;
+  /** Байты текущего значения, полученные в предыдущих частях. */
+  private byte[] pending = new byte[0];
+  /** Количество байт в {@link #pending}. */
+  private int length;
+  /** Количество байт, полученных до начала текущей части. Используется в сообщениях об ошибках. */
+  private long consumed;
+
+  private JsonChunkReader(Decoder<? extends T> decoder, Consumer<? super T> sink, boolean elements) {
+    this.decoder = decoder;
+    this.sink = sink;
+    this.elements = elements;
+    this.state = elements ? BEFORE_ARRAY : NEXT_VALUE;
+  }
+
+  /**
+   * Создает читатель последовательности документов верхнего уровня, разделенных пробельными
+   * символами.
+   *
+   * @param <T> Тип документов
+   * @param decoder Фабрика представлений документов, например, {@code Root.Impl.DECODER}
+   * @param sink Получатель документов. Вызывается из {@link #feed} и {@link #finish}
+   *
+   * @return Новый читатель
+   */
+  public static <T> JsonChunkReader<T> values(Decoder<? extends T> decoder, Consumer<? super T> sink) {
+    return new JsonChunkReader<>(decoder, sink, false);
+  }
+  /**
+   * Создает читатель элементов массива, являющегося документом верхнего уровня.
+   *
+   * @param <T> Тип элементов
+   * @param decoder Фабрика представлений элементов массива
+   * @param sink Получатель элементов. Вызывается из {@link #feed}
+   *
+   * @return Новый читатель
+   */
+  public static <T> JsonChunkReader<T> elements(Decoder<? extends T> decoder, Consumer<? super T> sink) {
+    return new JsonChunkReader<>(decoder, sink, true);
+  }
+
+  /**
+   * Обрабатывает очередную часть данных и передает получателю все значения, которые в ней
+   * закончились. Часть прочитывается полностью, ее позиция устанавливается в предел.
+   *
+   * @param chunk Очередная часть данных между ее позицией и пределом
+   *
+   * @throws JsonParseException Если между значениями встретились недопустимые символы
+   */
+  public void feed(ByteBuffer chunk) {
+    final int limit = chunk.limit();
+    int pos = chunk.position();
+    // Начало текущего значения в этой части, если оно началось в ней
+    int start = -1;
+    while (pos < limit) {
+      final byte b = chunk.get(pos);
+      if (inValue) {
+        if (scan(b)) {
+          // Скаляр без кавычек заканчивается на разделителе, который ему уже не принадлежит
+          final int end = depth < 0 ? pos : pos + 1;
+          emit(chunk, start, end);
+          inValue = false;
+          start = -1;
+          if (depth < 0) {
+            depth = 0;
+            continue;
+          }
+        }
+        ++pos;
+        continue;
+      }
+      if (isWhitespace(b)) {
+        ++pos;
+        continue;
+      }
+      switch (state) {
+        case BEFORE_ARRAY: {
+          if (b != '[') throw unexpected(chunk, pos, "'['");
+          state = FIRST_ELEMENT;
+          ++pos;
+          continue;
+        }
+        case FIRST_ELEMENT: {
+          if (b == ']') {
+            state = AFTER_ARRAY;
+            ++pos;
+            continue;
+          }
+          break;
+        }
+        case AFTER_ELEMENT: {
+          if (b == ',') {
+            state = NEXT_ELEMENT;
+          } else
+          if (b == ']') {
+            state = AFTER_ARRAY;
+          } else {
+            throw unexpected(chunk, pos, "',' or ']'");
+          }
+          ++pos;
+          continue;
+        }
+        case AFTER_ARRAY: throw unexpected(chunk, pos, "end of input");
+        default: break;
+      }
+      if (b == ',' || b == ']' || b == '}') {
+        throw unexpected(chunk, pos, "value");
+      }
+      // Начало очередного значения
+      inValue = true;
+      start = pos;
+      depth = 0;
+      if (elements) {
+        state = AFTER_ELEMENT;
+      }
+      if (b == '"') {
+        inString = true;
+      } else
+      if (b == '{' || b == '[') {
+        depth = 1;
+      }
+      ++pos;
+    }
+    if (inValue) {
+      append(chunk, start, limit);
+    }
+    consumed += limit - chunk.position();
+    chunk.position(limit);
+  }
+  /**
+   * Сообщает о конце входных данных. Последний документ последовательности, если он является
+   * числом или литералом, заканчивается только здесь.
+   *
+   * @throws JsonParseException Если данные закончились посреди значения или незакрытого массива
+   */
+  public void finish() {
+    if (inValue) {
+      if (depth != 0 || inString) {
+        throw new JsonParseException("Unexpected end of input inside value", consumed);
+      }
+      inValue = false;
+      if (!elements) {
+        final byte[] value = Arrays.copyOf(pending, length);
+        length = 0;
+        sink.accept(decoder.decode(ByteBuffer.wrap(value), 0));
+        return;
+      }
+    }
+    if (elements && state != AFTER_ARRAY) {
+      throw new JsonParseException("Unexpected end of input, expected ']'", consumed);
+    }
+  }
+
+  /**
+   * Учитывает очередной байт текущего значения.
+   *
+   * @param b Байт значения
+   *
+   * @return {@code true}, если значение закончилось этим байтом. Если значение -- скаляр без
+   *         кавычек, и байт ему уже не принадлежит, {@link #depth} устанавливается в {@code -1}
+   */
+  private boolean scan(byte b) {
+    if (inString) {
+      if (escape) {
+        escape = false;
+      } else
+      if (b == '\\') {
+        escape = true;
+      } else
+      if (b == '"') {
+        inString = false;
+        return depth == 0;
+      }
+      return false;
+    }
+    if (depth == 0) {
+      // Число или литерал верхнего уровня заканчивается любым структурным символом
+      if (isWhitespace(b) || b == ',' || b == ']' || b == '}' || b == '[' || b == '{' || b == '"') {
+        depth = -1;
+        return true;
+      }
+      return false;
+    }
+    switch (b) {
+      case '"': inString = true; return false;
+      case '{':
+      case '[': ++depth; return false;
+      case '}':
+      case ']': return --depth == 0;
+      default:  return false;
+    }
+  }
+  /**
+   * Передает получателю значение, закончившееся в текущей части.
+   *
+   * @param chunk Текущая часть
+   * @param start Начало значения в части или {@code -1}, если значение началось в предыдущих частях
+   * @param end Позиция за последним байтом значения в части
+   */
+  private void emit(ByteBuffer chunk, int start, int end) {
+    final byte[] value;
+    if (start >= 0) {
+      value = new byte[end - start];
+      copy(chunk, start, value, 0, value.length);
+    } else {
+      value = Arrays.copyOf(pending, length + end - chunk.position());
+      copy(chunk, chunk.position(), value, length, end - chunk.position());
+      length = 0;
+    }
+    sink.accept(decoder.decode(ByteBuffer.wrap(value), 0));
+  }
+  /**
+   * Запоминает начало значения, не закончившегося в текущей части.
+   *
+   * @param chunk Текущая часть
+   * @param start Начало значения в части или {@code -1}, если значение началось в предыдущих частях
+   * @param end Предел части
+   */
+  private void append(ByteBuffer chunk, int start, int end) {
+    final int from = start >= 0 ? start : chunk.position();
+    final int count = end - from;
+    if (length + count > pending.length) {
+      pending = Arrays.copyOf(pending, Math.max(length + count, pending.length * 2));
+    }
+    copy(chunk, from, pending, length, count);
+    length += count;
+  }
+  private JsonParseException unexpected(ByteBuffer chunk, int pos, String expected) {
+    return new JsonParseException(
+      "Unexpected character '" + (char)(chunk.get(pos) & 0xFF) + "', expected " + expected,
+      consumed + pos - chunk.position()
+    );
+  }
+
+  private static void copy(ByteBuffer from, int pos, byte[] to, int offset, int count) {
+    final ByteBuffer src = from.duplicate();
+    src.limit(pos + count).position(pos);
+    src.get(to, offset, count);
+  }
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+  }
+}
\ No newline at end of file
@@ -0,0 +1,339 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.json.beans.JsonParseException;
+
+/**
+ * Чтение последовательностей JSON документов: файлов в формате NDJSON (JSON Lines), где каждый
+ * документ записан в отдельной строке, и последовательностей JSON текстов RFC 7464, где каждому
+ * документу предшествует символ {@code RS} ({@code 0x1E}). Файлы отображаются в память, документы
+ * не копируются, а представляются ленивыми значениями поверх отображения.
+ * <p>
+ * Вид последовательности определяется по первому значащему символу: если им является {@code RS},
+ * записи разделяются только символами {@code RS}, а переводы строк внутри записи считаются
+ * пробельными символами документа. Иначе записи разделяются переводами строк, которые в NDJSON не
+ * могут встречаться внутри документа. Так как символ разделителя не может встретиться внутри
+ * документа без экранирования, границы записей находятся простым поиском этого символа. Благодаря
+ * этому возвращаемые {@link Spliterator}-ы делятся на части по границам документов и параллельные
+ * потоки декодируют документы на всех ядрах. Конец каждого документа находится пропуском его
+ * значения, поэтому после документа допускаются только пробельные символы и разделители.
+ *
+ * @author Mingun
+ */
+public final class JsonLinesReader {
+  /** Разделитель записей в последовательностях JSON текстов RFC 7464. */
+  private static final byte RS = 0x1E;
+  /** Разделитель записей в файлах NDJSON. */
+  private static final byte NL = '\n';
+
+  private JsonLinesReader() {}
+
+  /**
+   * Открывает файл и возвращает последовательный поток его документов. Для параллельной обработки
+   * достаточно вызвать {@link Stream#parallel()}.
+   *
+   * @param <T> Тип документов
+   * @param file Файл с документами
+   * @param decoder Фабрика представлений документов, например, {@code Root.Impl.DECODER}
+   *
+   * @return Поток документов файла
+   *
+   * @throws IOException Если файл не удалось открыть или отобразить в память
+   */
+  public static <T> Stream<T> stream(Path file, Decoder<? extends T> decoder) throws IOException {
+    // Отображение остается действительным после закрытия канала
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return StreamSupport.stream(spliterator(channel, decoder), false);
+    }
+  }
+  /**
+   * Отображает в память содержимое канала и возвращает {@link Spliterator} его документов.
+   * Файлы больше 2 ГиБ отображаются несколькими частями, границы которых совпадают с границами
+   * документов.
+   *
+   * @param <T> Тип документов
+   * @param channel Канал файла с документами
+   * @param decoder Фабрика представлений документов
+   *
+   * @return {@link Spliterator} документов
+   *
+   * @throws IOException Если файл не удалось отобразить в память
+   */
+  public static <T> Spliterator<T> spliterator(FileChannel channel, Decoder<? extends T> decoder) throws IOException {
+    return spliterator(channel, decoder, Integer.MAX_VALUE);
+  }
+  /**
+   * Отображает в память содержимое канала частями не больше указанного размера и возвращает
+   * {@link Spliterator} его документов.
+   *
+   * @param <T> Тип документов
+   * @param channel Канал файла с документами
+   * @param decoder Фабрика представлений документов
+   * @param chunkSize Максимальный размер одного отображения в байтах. Каждый документ должен
+   *        помещаться в одно отображение целиком
+   *
+   * @return {@link Spliterator} документов
+   *
+   * @throws IOException Если файл не удалось отобразить в память
+   * @throws JsonParseException Если какой-либо документ длиннее {@code chunkSize}
+   */
+  public static <T> Spliterator<T> spliterator(FileChannel channel, Decoder<? extends T> decoder, int chunkSize) throws IOException {
+    final List<ByteBuffer> mapped = map(channel, chunkSize);
+    final byte separator = mapped.isEmpty() ? NL : separator(mapped.get(0), 0, mapped.get(0).limit());
+    final List<Records<T>> chunks = new ArrayList<>();
+    for (final ByteBuffer chunk : mapped) {
+      chunks.add(new Records<>(chunk, 0, chunk.limit(), separator, decoder));
+    }
+    return new Chunks<>(chunks, 0, chunks.size());
+  }
+  /**
+   * Возвращает {@link Spliterator} документов, записанных в буфере между его текущей позицией и
+   * пределом. Позиция буфера не изменяется.
+   *
+   * @param <T> Тип документов
+   * @param buffer Буфер с документами
+   * @param decoder Фабрика представлений документов
+   *
+   * @return {@link Spliterator} документов
+   */
+  public static <T> Spliterator<T> spliterator(ByteBuffer buffer, Decoder<? extends T> decoder) {
+    final byte separator = separator(buffer, buffer.position(), buffer.limit());
+    return new Records<>(buffer, buffer.position(), buffer.limit(), separator, decoder);
+  }
+
+  /**
+   * Отображает в память содержимое канала частями не больше указанного размера так, что каждая
+   * часть заканчивается на границе документа.
+   *
+   * @param channel Канал файла с документами
+   * @param chunkSize Максимальный размер одного отображения в байтах
+   *
+   * @return Отображения, предел каждого из которых установлен на конец последнего целого документа
+   *
+   * @throws IOException Если файл не удалось отобразить в память
+   * @throws JsonParseException Если какой-либо документ длиннее {@code chunkSize}
+   */
+  static List<ByteBuffer> map(FileChannel channel, int chunkSize) throws IOException {
+    final long size = channel.size();
+    final List<ByteBuffer> chunks = new ArrayList<>();
+    long start = 0;
+    byte separator = NL;
+    while (start < size) {
+      final int length = (int)Math.min(chunkSize, size - start);
+      final MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+      if (start == 0) {
+        separator = separator(chunk, 0, length);
+      }
+      int end = length;
+      if (start + length < size) {
+        // Часть заканчивается последним разделителем, остаток войдет в следующую часть
+        while (end > 0 && chunk.get(end - 1) != separator) --end;
+        if (end == 0) {
+          throw new JsonParseException("Record is longer than " + chunkSize + " bytes", start);
+        }
+      }
+      chunk.limit(end);
+      chunks.add(chunk);
+      start += end;
+    }
+    return chunks;
+  }
+  /**
+   * Определяет вид последовательности документов по ее первому значащему символу.
+   *
+   * @param buffer Буфер с документами
+   * @param pos Позиция начала последовательности
+   * @param end Позиция конца последовательности
+   *
+   * @return {@code RS}, если последовательность является последовательностью JSON текстов
+   *         RFC 7464, иначе символ перевода строки
+   */
+  static byte separator(ByteBuffer buffer, int pos, int end) {
+    for (; pos < end; ++pos) {
+      final byte b = buffer.get(pos);
+      if (b != ' ' && b != '\t' && b != '\r' && b != NL) break;
+    }
+    return pos < end && buffer.get(pos) == RS ? RS : NL;
+  }
+  /**
+   * Находит начало очередного документа, пропуская пустые строки, пробельные символы и разделители.
+   *
+   * @param buffer Буфер с документами
+   * @param pos Позиция, с которой начинается поиск
+   * @param end Позиция конца диапазона поиска
+   *
+   * @return Позиция первого символа документа или {@code end}, если документов больше нет
+   */
+  static int skipSeparators(ByteBuffer buffer, int pos, int end) {
+    while (pos < end) {
+      final byte b = buffer.get(pos);
+      if (b != ' ' && b != '\t' && b != '\r' && b != NL && b != RS) break;
+      ++pos;
+    }
+    return pos;
+  }
+  /**
+   * Находит начало документа, следующего за документом в позиции {@code pos}. Документ
+   * пропускается целиком, поэтому переводы строк внутри него не считаются границами записей.
+   *
+   * @param buffer Буфер с документами
+   * @param pos Позиция первого символа документа
+   * @param end Позиция конца диапазона поиска
+   *
+   * @return Позиция первого символа следующего документа или {@code end}, если документов больше нет
+   *
+   * @throws JsonParseException Если документ записан некорректно
+   */
+  static int nextDocument(ByteBuffer buffer, int pos, int end) {
+    return skipSeparators(buffer, JsonReader.skipValue(buffer, pos), end);
+  }
+  /**
+   * Находит начало записи, следующей за той, которой принадлежит позиция {@code pos}.
+   *
+   * @param buffer Буфер с документами
+   * @param pos Позиция внутри записи
+   * @param end Позиция конца диапазона поиска
+   * @param separator Разделитель записей, {@code RS} или символ перевода строки
+   *
+   * @return Позиция, следующая за разделителем записей, или {@code end}, если разделителя нет
+   */
+  private static int nextRecord(ByteBuffer buffer, int pos, int end, byte separator) {
+    for (int i = pos; i < end; ++i) {
+      if (buffer.get(i) == separator) return i + 1;
+    }
+    return end;
+  }
+
+  /** Документы одного буфера, расположенные в диапазоне {@code [pos; end)}. */
+  private static final class Records<T> implements Spliterator<T> {
+    private final ByteBuffer buffer;
+    private final Decoder<? extends T> decoder;
+    /** Позиция начала следующего документа или разделителей перед ним. */
+    private int pos;
+    /** Позиция конца диапазона. Всегда находится сразу после разделителя или в конце буфера. */
+    private final int end;
+    /** Разделитель записей: {@code RS} или символ перевода строки. */
+    private final byte separator;
+
+    Records(ByteBuffer buffer, int pos, int end, byte separator, Decoder<? extends T> decoder) {
+      this.buffer = buffer;
+      this.pos = pos;
+      this.end = end;
+      this.separator = separator;
+      this.decoder = decoder;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      pos = skipSeparators(buffer, pos, end);
+      if (pos >= end) return false;
+
+      final T value = decoder.decode(buffer, pos);
+      pos = nextDocument(buffer, pos, end);
+      action.accept(value);
+      return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      final int middle = nextRecord(buffer, pos + (end - pos) / 2, end, separator);
+      if (middle >= end || middle <= pos) return null;
+
+      final Records<T> prefix = new Records<>(buffer, pos, middle, separator, decoder);
+      pos = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      // Количество документов неизвестно, оцениваем его сверху количеством байт
+      return end - pos;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL | IMMUTABLE;
+    }
+  }
+  /** Документы нескольких отображений файла, {@code chunks[from; to)}. */
+  private static final class Chunks<T> implements Spliterator<T> {
+    private final List<Records<T>> chunks;
+    private int from;
+    private final int to;
+
+    Chunks(List<Records<T>> chunks, int from, int to) {
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      while (from < to) {
+        if (chunks.get(from).tryAdvance(action)) return true;
+        ++from;
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      final int count = to - from;
+      if (count > 1) {
+        final int middle = from + count / 2;
+        final Chunks<T> prefix = new Chunks<>(chunks, from, middle);
+        from = middle;
+        return prefix;
+      }
+      return count == 1 ? chunks.get(from).trySplit() : null;
+    }
+
+    @Override
+    public long estimateSize() {
+      long size = 0;
+      for (int i = from; i < to; ++i) {
+        size += chunks.get(i).estimateSize();
+      }
+      return size;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL | IMMUTABLE;
+    }
+  }
+}
\ No newline at end of file
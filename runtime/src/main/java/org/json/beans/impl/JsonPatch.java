@@ -0,0 +1,505 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonParseException;
+import org.json.beans.JsonPatchException;
+import org.json.beans.JsonValue;
+
+/**
+ * Применение JSON Patch (RFC 6902). Операции применяются по очереди; каждая проходит по пути
+ * JSON Pointer сверху вниз, и на каждом уровне {@link Patcher функция применения} типа заменяет
+ * только одно свойство или один элемент, разделяя с исходным значением все остальное:
+ * <ul>
+ * <li>сгенерированные объекты с версиями (классы {@code Patched}) выбирают свойство по имени;</li>
+ * <li>массивы объектов заменяют элемент в {@link PersistentArray версии массива};</li>
+ * <li>значения остальных типов (массивы скаляров, варианты {@code oneOf}/{@code anyOf}, значения
+ *     без ограничения типа) записываются в JSON, операция выполняется над текстом и результат
+ *     представляется заново, так что стоимость пропорциональна размеру этого значения.</li>
+ * </ul>
+ * Свойства, не объявленные в схеме, сгенерированными объектами не хранятся, поэтому операции с
+ * ними завершаются ошибкой. Свойство со значением {@code null} неотличимо от отсутствующего.
+ * Значения из патча не копируются, а представляются лениво поверх буфера с патчем, поэтому он не
+ * должен изменяться, пока используется результат.
+ *
+ * @author Mingun
+ */
+public final class JsonPatch {
+  /** Сопоставитель имен свойств операции. */
+  private static final KeyMatcher KEYS = KeyMatcher.of("op", "path", "from", "value");
+
+  private JsonPatch() {}
+
+  /**
+   * Функция применения операции к значению определенного типа. Для каждого сгенерированного типа
+   * объекта генератор создает собственную реализацию -- метод {@code Patched.apply}.
+   *
+   * @param <T> Тип значений
+   */
+  @FunctionalInterface
+  public interface Patcher<T> {
+    /**
+     * Применяет операцию к значению, находящемуся на пути операции на указанной глубине.
+     *
+     * @param target Значение или {@code null}, если оно отсутствует
+     * @param op Применяемая операция
+     * @param depth Количество уже пройденных элементов пути операции
+     *
+     * @return Новое значение или {@code target}, если операция его не изменяет
+     *
+     * @throws JsonPatchException Если операция не может быть применена
+     */
+    T apply(T target, Operation op, int depth);
+  }
+
+  /**
+   * Применяет патч к документу.
+   *
+   * @param <T> Тип документа
+   * @param target Документ
+   * @param patch Буфер с патчем -- массивом операций
+   * @param offset Позиция открывающей скобки массива операций
+   * @param patcher Функция применения операций к документу
+   *
+   * @return Новая версия документа
+   *
+   * @throws JsonParseException Если патч записан некорректно
+   * @throws JsonPatchException Если одна из операций не может быть применена
+   */
+  public static <T> T apply(T target, ByteBuffer patch, int offset, Patcher<T> patcher) {
+    for (int pos = JsonReader.firstElement(patch, offset); pos >= 0; pos = JsonReader.nextElement(patch, pos)) {
+      final Operation op = Operation.parse(patch, pos);
+      switch (op.kind) {
+        case MOVE: {
+          if (op.path.length > op.from.length && op.pointer.startsWith(op.source + '/')) {
+            throw new JsonPatchException("Value cannot be moved into its own child", op.pointer);
+          }
+          final Operation read = op.at(Kind.READ, op.source, null, 0);
+          patcher.apply(target, read, 0);
+          target = patcher.apply(target, op.at(Kind.REMOVE, op.source, null, 0), 0);
+          target = patcher.apply(target, op.at(Kind.ADD, op.pointer, read.buffer, read.value), 0);
+          break;
+        }
+        case COPY: {
+          final Operation read = op.at(Kind.READ, op.source, null, 0);
+          patcher.apply(target, read, 0);
+          target = patcher.apply(target, op.at(Kind.ADD, op.pointer, read.buffer, read.value), 0);
+          break;
+        }
+        default: target = patcher.apply(target, op, 0);
+      }
+    }
+    return target;
+  }
+  /**
+   * Создает функцию применения операций к значениям, не имеющим собственной функции.
+   *
+   * @param <T> Тип значений
+   * @param encoder Функция записи значений в JSON
+   * @param decoder Фабрика представлений значений
+   *
+   * @return Функция применения операций, см. {@link Operation#leaf}
+   */
+  public static <T> Patcher<T> leaf(Encoder<? super T> encoder, Decoder<? extends T> decoder) {
+    return (target, op, depth) -> op.leaf(target, depth, encoder, decoder);
+  }
+  /**
+   * Создает функцию применения операций к массивам.
+   *
+   * @param <T> Тип элементов массива
+   * @param items Функция применения операций к элементам
+   * @param encoder Функция записи элементов в JSON
+   * @param decoder Фабрика представлений элементов
+   *
+   * @return Функция применения операций, см. {@link Operation#array}
+   */
+  public static <T extends JsonValue> Patcher<JsonArray<T>> array(Patcher<T> items, Encoder<? super T> encoder, Decoder<? extends T> decoder) {
+    return (target, op, depth) -> op.array(target, depth, items, encoder, decoder);
+  }
+
+  /** Вид операции. */
+  private enum Kind {
+    ADD, REMOVE, REPLACE, MOVE, COPY, TEST,
+    /** Внутренняя операция получения значения по пути для {@code move} и {@code copy}. */
+    READ;
+  }
+
+  /** Операция патча, применяемая к документу сверху вниз по элементам пути. */
+  public static final class Operation {
+    /** Вид операции. */
+    private final Kind kind;
+    /** Путь операции в виде JSON Pointer. */
+    private final String pointer;
+    /** Элементы пути операции с раскрытыми escape-последовательностями. */
+    private final String[] path;
+    /** Путь исходного значения операций {@code move} и {@code copy} или {@code null}. */
+    private final String source;
+    /** Элементы пути исходного значения или {@code null}. */
+    private final String[] from;
+    /** Буфер со значением операции, либо прочитанным значением для операции {@link Kind#READ}. */
+    private ByteBuffer buffer;
+    /** Позиция значения операции в {@link #buffer}. */
+    private int value;
+
+    private Operation(Kind kind, String pointer, String source, ByteBuffer buffer, int value) {
+      this.kind = kind;
+      this.pointer = pointer;
+      this.path = tokens(pointer);
+      this.source = source;
+      this.from = source == null ? null : tokens(source);
+      this.buffer = buffer;
+      this.value = value;
+    }
+
+    /**
+     * Проверяет, что путь операции пройден полностью, т.е. операция применяется к самому значению.
+     *
+     * @param depth Количество пройденных элементов пути
+     *
+     * @return {@code true}, если значение -- цель операции
+     */
+    public boolean isTarget(int depth) {
+      return depth >= path.length;
+    }
+    /**
+     * Возвращает элемент пути операции.
+     *
+     * @param depth Количество пройденных элементов пути
+     *
+     * @return Имя свойства или индекс элемента массива
+     */
+    public String token(int depth) {
+      return path[depth];
+    }
+    /**
+     * Создает исключение о том, что свойство, выбранное элементом пути, не объявлено в схеме.
+     *
+     * @param depth Количество пройденных элементов пути
+     *
+     * @return Исключение
+     */
+    public JsonPatchException unknown(int depth) {
+      return new JsonPatchException("Property '" + path[depth] + "' is not declared in the schema", pointer);
+    }
+    /**
+     * Создает исключение о том, что свойство, выбранное элементом пути, не может быть изменено, т.к.
+     * для типа его значений не генерируется ленивая реализация.
+     *
+     * @param depth Количество пройденных элементов пути
+     *
+     * @return Исключение
+     */
+    public JsonPatchException unsupported(int depth) {
+      return new JsonPatchException("Property '" + path[depth] + "' has no lazy implementation and cannot be patched", pointer);
+    }
+    /**
+     * Применяет операцию к значению, не имеющему собственной функции применения. Если путь не
+     * пройден до конца, значение записывается в JSON и операция выполняется над текстом.
+     *
+     * @param <T> Тип значения
+     * @param current Значение или {@code null}, если оно отсутствует
+     * @param depth Количество пройденных элементов пути
+     * @param encoder Функция записи значений в JSON
+     * @param decoder Фабрика представлений значений
+     *
+     * @return Новое значение или {@code current}, если операция его не изменяет
+     *
+     * @throws JsonPatchException Если операция не может быть применена
+     */
+    public <T> T leaf(T current, int depth, Encoder<? super T> encoder, Decoder<? extends T> decoder) {
+      if (depth < path.length) {
+        if (current == null) throw missing();
+        final ByteBuffer doc = ByteBuffer.wrap(JsonWriter.encode(encoder, current));
+        if (kind == Kind.READ || kind == Kind.TEST) {
+          check(doc, locate(doc, 0, depth));
+          return current;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter out = new JsonWriter(bytes)) {
+          rewrite(doc, 0, depth, out);
+        } catch (IOException ex) {
+          // Запись в память не может завершиться ошибкой ввода-вывода
+          throw new UncheckedIOException(ex);
+        }
+        return decoder.decode(ByteBuffer.wrap(bytes.toByteArray()), 0);
+      }
+      switch (kind) {
+        case ADD: return decode(decoder);
+        case REPLACE: {
+          if (current == null) throw missing();
+          return decode(decoder);
+        }
+        case REMOVE: {
+          if (current == null) throw missing();
+          return null;
+        }
+        default: {
+          // Значение null неотличимо от отсутствующего и равно литералу null
+          if (current == null) {
+            if (kind == Kind.READ) throw missing();
+            if (!JsonReader.isNull(buffer, value)) throw new JsonPatchException("Test failed", pointer);
+            return null;
+          }
+          check(ByteBuffer.wrap(JsonWriter.encode(encoder, current)), 0);
+          return current;
+        }
+      }
+    }
+    /**
+     * Применяет операцию к массиву. Если путь выбирает элемент массива, создается
+     * {@link PersistentArray версия массива}, разделяющая с ним остальные элементы.
+     *
+     * @param <T> Тип элементов массива
+     * @param current Массив или {@code null}, если он отсутствует
+     * @param depth Количество пройденных элементов пути
+     * @param items Функция применения операций к элементам
+     * @param encoder Функция записи элементов в JSON
+     * @param decoder Фабрика представлений элементов
+     *
+     * @return Новый массив или {@code current}, если операция его не изменяет
+     *
+     * @throws JsonPatchException Если операция не может быть применена
+     */
+    public <T extends JsonValue> JsonArray<T> array(JsonArray<T> current, int depth, Patcher<T> items, Encoder<? super T> encoder, Decoder<? extends T> decoder) {
+      if (depth >= path.length || current == null) {
+        return leaf(current, depth, Encoder.array(encoder), LazyArray.of(decoder));
+      }
+      final PersistentArray<T> array = PersistentArray.of(current);
+      if (depth + 1 == path.length) {
+        switch (kind) {
+          case ADD:     return array.plus(index(depth, array.size(), true), decode(decoder));
+          case REMOVE:  return array.minus(index(depth, array.size(), false));
+          case REPLACE: return array.with(index(depth, array.size(), false), decode(decoder));
+          default: {
+            leaf(array.value().get(index(depth, array.size(), false)), depth + 1, encoder, decoder);
+            return current;
+          }
+        }
+      }
+      final int i = index(depth, array.size(), false);
+      final T item = array.value().get(i);
+      final T patched = items.apply(item, this, depth + 1);
+      return patched == item ? current : array.with(i, patched);
+    }
+
+    /**
+     * Разбирает операцию.
+     *
+     * @param patch Буфер с патчем
+     * @param pos Позиция открывающей скобки операции
+     */
+    static Operation parse(ByteBuffer patch, int pos) {
+      // Неизвестные члены операций игнорируются (RFC 6902, раздел 4)
+      final int[] index = MergePatch.index(patch, pos, KEYS, false);
+      if (index[0] < 0 || index[1] < 0) {
+        throw new JsonParseException("Operation must have 'op' and 'path' members", pos);
+      }
+      final String name = JsonReader.readString(patch, index[0]);
+      final String pointer = JsonReader.readString(patch, index[1]);
+      final Kind kind;
+      switch (name) {
+        case "add":     kind = Kind.ADD;     break;
+        case "remove":  kind = Kind.REMOVE;  break;
+        case "replace": kind = Kind.REPLACE; break;
+        case "move":    kind = Kind.MOVE;    break;
+        case "copy":    kind = Kind.COPY;    break;
+        case "test":    kind = Kind.TEST;    break;
+        default: throw new JsonPatchException("Unknown operation '" + name + "'", pointer);
+      }
+      if ((kind == Kind.MOVE || kind == Kind.COPY) && index[2] < 0) {
+        throw new JsonPatchException("Operation '" + name + "' must have 'from' member", pointer);
+      }
+      if ((kind == Kind.ADD || kind == Kind.REPLACE || kind == Kind.TEST) && index[3] < 0) {
+        throw new JsonPatchException("Operation '" + name + "' must have 'value' member", pointer);
+      }
+      return new Operation(
+        kind,
+        pointer,
+        index[2] < 0 ? null : JsonReader.readString(patch, index[2]),
+        patch,
+        index[3]
+      );
+    }
+    /** Создает операцию, являющуюся шагом операции {@code move} или {@code copy}. */
+    Operation at(Kind kind, String pointer, ByteBuffer buffer, int value) {
+      return new Operation(kind, pointer, null, buffer, value);
+    }
+
+    /** Разбирает JSON Pointer на элементы пути. */
+    private static String[] tokens(String pointer) {
+      if (pointer.isEmpty()) return new String[0];
+      if (pointer.charAt(0) != '/') {
+        throw new JsonPatchException("JSON Pointer must start with '/'", pointer);
+      }
+      final List<String> tokens = new ArrayList<>();
+      int start = 1;
+      while (true) {
+        final int end = pointer.indexOf('/', start);
+        final String token = pointer.substring(start, end < 0 ? pointer.length() : end);
+        tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        if (end < 0) break;
+        start = end + 1;
+      }
+      return tokens.toArray(new String[tokens.size()]);
+    }
+    /** Создает представление значения операции или {@code null}, если значение операции -- {@code null}. */
+    private <T> T decode(Decoder<? extends T> decoder) {
+      return JsonReader.isNull(buffer, value) ? null : decoder.decode(buffer, value);
+    }
+    /** Выполняет операцию {@code test} или запоминает значение для операции {@link Kind#READ}. */
+    private void check(ByteBuffer doc, int pos) {
+      if (kind == Kind.READ) {
+        buffer = doc;
+        value = pos;
+      } else
+      if (!ContentHash.equal(doc, pos, buffer, value)) {
+        throw new JsonPatchException("Test failed", pointer);
+      }
+    }
+    /**
+     * Определяет индекс элемента массива, выбранного элементом пути.
+     *
+     * @param depth Количество пройденных элементов пути
+     * @param size Размер массива
+     * @param append Допустим ли индекс, равный размеру массива, и элемент {@code "-"}
+     */
+    private int index(int depth, int size, boolean append) {
+      final String token = path[depth];
+      if (token.equals("-") && append) return size;
+      // Индекс -- десятичное число без ведущих нулей
+      if (token.isEmpty() || token.length() > 9 || (token.charAt(0) == '0' && token.length() > 1)) {
+        throw missing();
+      }
+      int index = 0;
+      for (int i = 0; i < token.length(); ++i) {
+        final char c = token.charAt(i);
+        if (c < '0' || c > '9') throw missing();
+        index = index * 10 + (c - '0');
+      }
+      if (index > (append ? size : size - 1)) throw missing();
+      return index;
+    }
+    /**
+     * Находит значение по оставшейся части пути операции.
+     *
+     * @return Позиция первого символа значения
+     */
+    private int locate(ByteBuffer doc, int pos, int depth) {
+      for (; depth < path.length; ++depth) {
+        if (MergePatch.isObject(doc, pos)) {
+          final Integer at = ContentHash.members(doc, pos).get(path[depth]);
+          if (at == null) throw missing();
+          pos = at;
+        } else
+        if (JsonReader.peek(doc, pos) == '[') {
+          final List<Integer> elements = elements(doc, pos);
+          pos = elements.get(index(depth, elements.size(), false));
+        } else {
+          throw missing();
+        }
+      }
+      return pos;
+    }
+    /** Записывает значение с выполненной операцией изменения по оставшейся части пути. */
+    private void rewrite(ByteBuffer doc, int pos, int depth, JsonWriter out) throws IOException {
+      final String token = path[depth];
+      final boolean last = depth + 1 == path.length;
+      if (MergePatch.isObject(doc, pos)) {
+        final Map<String, Integer> members = ContentHash.members(doc, pos);
+        final boolean found = members.containsKey(token);
+        if (!found && !(last && kind == Kind.ADD)) throw missing();
+
+        out.beginObject();
+        for (final Map.Entry<String, Integer> e : members.entrySet()) {
+          final int at = e.getValue();
+          if (!e.getKey().equals(token)) {
+            out.name(JsonWriter.encodeName(e.getKey()));
+            copy(doc, at, out);
+          } else
+          if (!last) {
+            out.name(JsonWriter.encodeName(token));
+            rewrite(doc, at, depth + 1, out);
+          } else
+          if (kind != Kind.REMOVE) {
+            out.name(JsonWriter.encodeName(token));
+            copy(buffer, value, out);
+          }
+        }
+        if (!found) {
+          out.name(JsonWriter.encodeName(token));
+          copy(buffer, value, out);
+        }
+        out.endObject();
+        return;
+      }
+      if (JsonReader.peek(doc, pos) != '[') throw missing();
+
+      final List<Integer> elements = elements(doc, pos);
+      final int index = index(depth, elements.size(), last && kind == Kind.ADD);
+      out.beginArray();
+      for (int i = 0; i < elements.size(); ++i) {
+        final int at = elements.get(i);
+        if (i != index) {
+          copy(doc, at, out);
+        } else
+        if (!last) {
+          rewrite(doc, at, depth + 1, out);
+        } else
+        if (kind == Kind.ADD) {
+          copy(buffer, value, out);
+          copy(doc, at, out);
+        } else
+        if (kind == Kind.REPLACE) {
+          copy(buffer, value, out);
+        }
+      }
+      if (index == elements.size()) {
+        copy(buffer, value, out);
+      }
+      out.endArray();
+    }
+    private JsonPatchException missing() {
+      return new JsonPatchException("Path not found", pointer);
+    }
+    /** Собирает позиции всех элементов массива, включая равные {@code null}. */
+    private static List<Integer> elements(ByteBuffer doc, int pos) {
+      final List<Integer> elements = new ArrayList<>();
+      for (int at = JsonReader.firstElement(doc, pos); at >= 0; at = JsonReader.nextElement(doc, at)) {
+        elements.add(at);
+      }
+      return elements;
+    }
+    private static void copy(ByteBuffer source, int pos, JsonWriter out) throws IOException {
+      out.raw(source, pos, JsonReader.skipValue(source, pos) - pos);
+    }
+  }
+}
\ No newline at end of file
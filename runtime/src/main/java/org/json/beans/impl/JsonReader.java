@@ -0,0 +1,782 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.Arrays;
+import org.json.beans.JsonParseException;
+
+/**
+ * Набор методов для разбора JSON документа, находящегося в буфере. Все методы работают с абсолютными
+ * позициями и не изменяют состояние буфера (позицию, лимит и т.п.), поэтому один буфер может
+ * разделяться всеми ленивыми значениями документа, в том числе из разных потоков.
+ * <p>
+ * Методы не выполняют полной проверки синтаксиса: пропуск значения сводится к подсчету скобок и
+ * кавычек, а ошибки обнаруживаются только в тех частях документа, которые реально декодируются.
+ *
+ * @author Mingun
+ */
+public final class JsonReader {
+  /** Индекс пустого массива. */
+  private static final int[] EMPTY = new int[0];
+  private static final byte[] TRUE  = {'t', 'r', 'u', 'e'};
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+  private static final byte[] NULL  = {'n', 'u', 'l', 'l'};
+  /**
+   * Граница, после которой умножение накопленного (отрицательного) значения на 10 приведет к
+   * переполнению {@code long}.
+   */
+  private static final long MIN_DIV_10 = Long.MIN_VALUE / 10;
+  /** Младшие 7 бит каждого байта слова. */
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+  /** Слово из кавычек. */
+  private static final long QUOTES = 0x2222222222222222L;
+  /** Слово из обратных косых черт. */
+  private static final long BACKSLASHES = 0x5C5C5C5C5C5C5C5CL;
+  /** Бит, отличающий фигурные скобки от квадратных, в каждом байте слова. */
+  private static final long CASE = 0x2020202020202020L;
+  /** Слово из открывающих фигурных скобок. */
+  private static final long OPEN = 0x7B7B7B7B7B7B7B7BL;
+  /** Слово из закрывающих фигурных скобок. */
+  private static final long CLOSE = 0x7D7D7D7D7D7D7D7DL;
+
+  private JsonReader() {}
+
+  /**
+   * Пропускает пробельные символы, разрешенные JSON.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция, с которой начинать пропуск
+   *
+   * @return Позиция первого не пробельного символа или лимит буфера
+   */
+  public static int skipWhitespace(ByteBuffer buffer, int pos) {
+    final int limit = buffer.limit();
+    while (pos < limit) {
+      switch (buffer.get(pos)) {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r': ++pos; break;
+        default: return pos;
+      }
+    }
+    return pos;
+  }
+  /**
+   * Проверяет, что в указанной позиции находится ожидаемый символ.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция проверяемого символа
+   * @param expected Ожидаемый ASCII символ
+   *
+   * @return Позиция, следующая за символом
+   *
+   * @throws JsonParseException Если в позиции находится другой символ или достигнут конец буфера
+   */
+  public static int expect(ByteBuffer buffer, int pos, char expected) {
+    if (peek(buffer, pos) != expected) {
+      throw unexpected(buffer, pos, "'" + expected + "'");
+    }
+    return pos + 1;
+  }
+  /**
+   * Пропускает значение любого типа, не декодируя его.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return Позиция, следующая за последним символом значения
+   *
+   * @throws JsonParseException Если значение записано некорректно или не завершено
+   */
+  public static int skipValue(ByteBuffer buffer, int pos) {
+    switch (peek(buffer, pos)) {
+      case '"': return skipString(buffer, pos);
+      case '{':
+      case '[': return skipContainer(buffer, pos);
+      case 't': return skipLiteral(buffer, pos, TRUE);
+      case 'f': return skipLiteral(buffer, pos, FALSE);
+      case 'n': return skipLiteral(buffer, pos, NULL);
+      default:  return skipNumber(buffer, pos);
+    }
+  }
+  /**
+   * Пропускает строку вместе с обрамляющими кавычками.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей кавычки
+   *
+   * @return Позиция, следующая за закрывающей кавычкой
+   *
+   * @throws JsonParseException Если в позиции нет кавычки или строка не завершена
+   */
+  public static int skipString(ByteBuffer buffer, int pos) {
+    pos = expect(buffer, pos, '"');
+    final int limit = buffer.limit();
+    final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    while (pos < limit) {
+      // Участки без кавычек и обратных косых черт проходим по 8 байт за раз
+      if (pos + 8 <= limit) {
+        final long word = buffer.getLong(pos);
+        final long found = zeros(word ^ QUOTES) | zeros(word ^ BACKSLASHES);
+        if (found == 0) {
+          pos += 8;
+          continue;
+        }
+        pos += first(found, bigEndian);
+      }
+      final byte b = buffer.get(pos++);
+      if (b == '"') return pos;
+      // Экранированный символ не может закрыть строку, поэтому просто перешагиваем через него
+      if (b == '\\') ++pos;
+    }
+    throw new JsonParseException("Unterminated string", pos);
+  }
+  /**
+   * Пропускает число.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return Позиция, следующая за последним символом числа
+   *
+   * @throws JsonParseException Если в позиции нет числа
+   */
+  public static int skipNumber(ByteBuffer buffer, int pos) {
+    final int start = pos;
+    final int limit = buffer.limit();
+    while (pos < limit && isNumberChar(buffer.get(pos))) ++pos;
+    if (pos == start) {
+      throw unexpected(buffer, pos, "value");
+    }
+    return pos;
+  }
+  /**
+   * Проверяет, является ли значение в указанной позиции литералом {@code null}. Так как никакое
+   * другое значение JSON не может начинаться с {@code 'n'}, проверяется только первый символ.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return {@code true}, если значение является {@code null}
+   */
+  public static boolean isNull(ByteBuffer buffer, int pos) {
+    return peek(buffer, pos) == 'n';
+  }
+  /**
+   * Декодирует литерал {@code true} или {@code false}.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return Значение литерала
+   *
+   * @throws JsonParseException Если в позиции находится не логическое значение
+   */
+  public static boolean readBoolean(ByteBuffer buffer, int pos) {
+    switch (peek(buffer, pos)) {
+      case 't': skipLiteral(buffer, pos, TRUE);  return true;
+      case 'f': skipLiteral(buffer, pos, FALSE); return false;
+    }
+    throw unexpected(buffer, pos, "boolean");
+  }
+  /**
+   * Декодирует целое число. Числа, записанные с дробной частью или экспонентой (например, {@code 1.0}
+   * или {@code 1e3}), допускаются, если их значение является целым.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return Значение числа
+   *
+   * @throws JsonParseException Если в позиции находится не число, число не является целым или
+   *         не помещается в {@code long}
+   */
+  public static long readLong(ByteBuffer buffer, int pos) {
+    final int limit = buffer.limit();
+    final boolean negative = peek(buffer, pos) == '-';
+    final int start = negative ? pos + 1 : pos;
+    // Накапливаем значение в отрицательной области, так как она на единицу больше положительной
+    long value = 0;
+    int i = start;
+    for (; i < limit; ++i) {
+      final int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) break;
+      if (value < MIN_DIV_10 || value == MIN_DIV_10 && digit > 8) {
+        throw new JsonParseException("Integer value out of range", pos);
+      }
+      value = value * 10 - digit;
+    }
+    if (i == start) {
+      throw unexpected(buffer, i, "integer");
+    }
+    if (i < limit && isNumberChar(buffer.get(i))) {
+      try {
+        return readDecimal(buffer, pos).longValueExact();
+      } catch (ArithmeticException ex) {
+        throw new JsonParseException("Value is not an integer or out of range", pos);
+      }
+    }
+    if (negative) return value;
+    if (value == Long.MIN_VALUE) {
+      throw new JsonParseException("Integer value out of range", pos);
+    }
+    return -value;
+  }
+  /**
+   * Декодирует число с плавающей точкой. Числа, записанные не более чем 19 значимыми цифрами,
+   * декодируются прямо из байтов документа без создания промежуточных строк.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return Ближайшее к записанному в документе значение {@code double}
+   *
+   * @throws JsonParseException Если в позиции находится не число
+   */
+  public static double readDouble(ByteBuffer buffer, int pos) {
+    final double value = FastDouble.read(buffer, pos);
+    if (!Double.isNaN(value)) return value;
+    try {
+      return Double.parseDouble(utf8(buffer, pos, skipNumber(buffer, pos)));
+    } catch (NumberFormatException ex) {
+      throw new JsonParseException("Invalid number", pos);
+    }
+  }
+  /**
+   * Декодирует число без потери точности.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return Точное значение записанного в документе числа
+   *
+   * @throws JsonParseException Если в позиции находится не число
+   */
+  public static BigDecimal readDecimal(ByteBuffer buffer, int pos) {
+    try {
+      return new BigDecimal(utf8(buffer, pos, skipNumber(buffer, pos)));
+    } catch (NumberFormatException ex) {
+      throw new JsonParseException("Invalid number", pos);
+    }
+  }
+  /**
+   * Декодирует строку, заменяя escape-последовательности соответствующими символами.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей кавычки
+   *
+   * @return Значение строки
+   *
+   * @throws JsonParseException Если в позиции находится не строка или строка содержит некорректные
+   *         escape-последовательности
+   */
+  public static String readString(ByteBuffer buffer, int pos) {
+    final int start = expect(buffer, pos, '"');
+    final int limit = buffer.limit();
+    for (int i = start; i < limit; ++i) {
+      final byte b = buffer.get(i);
+      if (b == '"') return utf8(buffer, start, i);
+      if (b == '\\') return unescape(buffer, start, i);
+    }
+    throw new JsonParseException("Unterminated string", limit);
+  }
+  /**
+   * Сравнивает строку в документе с текстом, не создавая для нее {@link String}. Строка без
+   * escape-последовательностей сравнивается посимвольно прямо по байтам UTF-8, а строка с ними
+   * декодируется.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей кавычки
+   * @param text Сравниваемый текст
+   *
+   * @return {@code true}, если значение строки совпадает с {@code text}
+   *
+   * @throws JsonParseException Если в позиции находится не строка или она не завершена
+   */
+  public static boolean equalsString(ByteBuffer buffer, int pos, CharSequence text) {
+    return compareString(buffer, pos, text, true);
+  }
+  /**
+   * Проверяет, начинается ли строка в документе с указанного текста, не создавая для нее
+   * {@link String}. Байты после префикса не просматриваются.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей кавычки
+   * @param prefix Искомый префикс
+   *
+   * @return {@code true}, если значение строки начинается с {@code prefix}
+   *
+   * @throws JsonParseException Если в позиции находится не строка или она не завершена раньше
+   *         префикса
+   */
+  public static boolean startsWithString(ByteBuffer buffer, int pos, CharSequence prefix) {
+    return compareString(buffer, pos, prefix, false);
+  }
+  /**
+   * Определяет номер скалярного значения среди известных литералов, сравнивая его байты с ними так
+   * же, как имена свойств при {@link #indexObject индексировании}. Литерал строки -- ее значение,
+   * остальных скаляров -- их текст в документе, как в {@link #readLiteral}, но без создания строк.
+   * Используется для сопоставления значений с константами перечислений.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param literals Сопоставитель известных литералов с их номерами
+   *
+   * @return Номер литерала или {@code -1}, если значение не известно {@code literals} или является
+   *         объектом или массивом
+   *
+   * @throws JsonParseException Если значение записано некорректно
+   */
+  public static int matchLiteral(ByteBuffer buffer, int pos, KeyMatcher literals) {
+    switch (peek(buffer, pos)) {
+      case '"': return literals.match(buffer, pos + 1, skipString(buffer, pos) - 1);
+      case '{':
+      case '[': return -1;
+      default:  return literals.match(buffer, pos, skipValue(buffer, pos));
+    }
+  }
+  /**
+   * Декодирует скалярное значение в текстовое представление: для строк возвращается их значение,
+   * для остальных скаляров -- текст литерала в том виде, в котором он записан в документе.
+   * Используется для сопоставления значений с константами перечислений.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return Текстовое представление значения
+   */
+  public static String readLiteral(ByteBuffer buffer, int pos) {
+    if (peek(buffer, pos) == '"') {
+      return readString(buffer, pos);
+    }
+    return utf8(buffer, pos, skipValue(buffer, pos));
+  }
+  /**
+   * Строит индекс объекта: для каждого свойства, известного {@code keys}, запоминает позицию его
+   * значения. Значения при этом не декодируются, а только пропускаются.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param keys Сопоставитель имен свойств с их номерами
+   *
+   * @return Массив из {@link KeyMatcher#size()} элементов с позициями значений свойств. Для
+   *         отсутствующих свойств и свойств со значением {@code null} содержит {@code -1}. Если
+   *         значение не является объектом, все элементы равны {@code -1}
+   *
+   * @throws JsonParseException Если объект записан некорректно
+   */
+  public static int[] indexObject(ByteBuffer buffer, int pos, KeyMatcher keys) {
+    return indexObject(buffer, pos, keys, new int[keys.size()]);
+  }
+  /**
+   * Строит индекс объекта в переданном массиве. Позволяет переиспользовать массив при
+   * последовательном разборе многих объектов одного типа.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param keys Сопоставитель имен свойств с их номерами
+   * @param index Массив из {@link KeyMatcher#size()} элементов, заполняемый позициями значений
+   *        свойств так же, как в {@link #indexObject(ByteBuffer, int, KeyMatcher)}
+   *
+   * @return {@code index}
+   *
+   * @throws JsonParseException Если объект записан некорректно
+   */
+  public static int[] indexObject(ByteBuffer buffer, int pos, KeyMatcher keys, int[] index) {
+    Arrays.fill(index, -1);
+    if (peek(buffer, pos) != '{') return index;
+
+    pos = skipWhitespace(buffer, pos + 1);
+    if (peek(buffer, pos) == '}') return index;
+    while (true) {
+      final int keyEnd = skipString(buffer, pos);
+      final int property = keys.match(buffer, pos + 1, keyEnd - 1);
+      pos = skipWhitespace(buffer, expect(buffer, skipWhitespace(buffer, keyEnd), ':'));
+      if (property >= 0) {
+        index[property] = isNull(buffer, pos) ? -1 : pos;
+      }
+      pos = skipWhitespace(buffer, skipValue(buffer, pos));
+      switch (peek(buffer, pos)) {
+        case ',': pos = skipWhitespace(buffer, pos + 1); break;
+        case '}': return index;
+        default: throw unexpected(buffer, pos, "',' or '}'");
+      }
+    }
+  }
+  /**
+   * Строит индекс объекта по проекции: запоминает позиции значений только свойств проекции и
+   * прекращает просмотр объекта, как только все они найдены.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param projection Проекция объекта
+   * @param index Массив из {@link KeyMatcher#size()} элементов сопоставителя проекции, заполняемый
+   *        позициями значений свойств так же, как в {@link #indexObject(ByteBuffer, int, KeyMatcher)}.
+   *        Для свойств вне проекции содержит {@code -1}
+   *
+   * @return {@code index}
+   *
+   * @throws JsonParseException Если просмотренная часть объекта записана некорректно
+   */
+  public static int[] indexObject(ByteBuffer buffer, int pos, Projection projection, int[] index) {
+    if (peek(buffer, pos) != '{' || projection.count == 0) {
+      Arrays.fill(index, -1);
+      return index;
+    }
+    projection.reset(index);
+    int remaining = projection.count;
+
+    pos = skipWhitespace(buffer, pos + 1);
+    if (peek(buffer, pos) == '}') return missing(index);
+    while (true) {
+      final int keyEnd = skipString(buffer, pos);
+      final int property = projection.keys.match(buffer, pos + 1, keyEnd - 1);
+      pos = skipWhitespace(buffer, expect(buffer, skipWhitespace(buffer, keyEnd), ':'));
+      if (property >= 0 && index[property] == Projection.PENDING) {
+        index[property] = isNull(buffer, pos) ? -1 : pos;
+        if (--remaining == 0) return index;
+      }
+      pos = skipWhitespace(buffer, skipValue(buffer, pos));
+      switch (peek(buffer, pos)) {
+        case ',': pos = skipWhitespace(buffer, pos + 1); break;
+        case '}': return missing(index);
+        default: throw unexpected(buffer, pos, "',' or '}'");
+      }
+    }
+  }
+  /**
+   * Находит значение первого свойства объекта, известного {@code keys}. В отличие от
+   * {@link #indexObject} просмотр объекта прекращается, как только свойство найдено.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param keys Сопоставитель искомых имен свойств
+   *
+   * @return Позиция значения найденного свойства или {@code -1}, если ни одно свойство не найдено,
+   *         его значение {@code null} или значение не является объектом
+   *
+   * @throws JsonParseException Если объект записан некорректно
+   */
+  public static int findProperty(ByteBuffer buffer, int pos, KeyMatcher keys) {
+    if (peek(buffer, pos) != '{') return -1;
+
+    pos = skipWhitespace(buffer, pos + 1);
+    if (peek(buffer, pos) == '}') return -1;
+    while (true) {
+      final int keyEnd = skipString(buffer, pos);
+      final int property = keys.match(buffer, pos + 1, keyEnd - 1);
+      pos = skipWhitespace(buffer, expect(buffer, skipWhitespace(buffer, keyEnd), ':'));
+      if (property >= 0) {
+        return isNull(buffer, pos) ? -1 : pos;
+      }
+      pos = skipWhitespace(buffer, skipValue(buffer, pos));
+      switch (peek(buffer, pos)) {
+        case ',': pos = skipWhitespace(buffer, pos + 1); break;
+        case '}': return -1;
+        default: throw unexpected(buffer, pos, "',' or '}'");
+      }
+    }
+  }
+  /**
+   * Строит индекс массива: запоминает позиции всех его элементов. Элементы при этом не декодируются,
+   * а только пропускаются.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей скобки массива
+   *
+   * @return Массив с позициями элементов. Для элементов со значением {@code null} содержит {@code -1}
+   *
+   * @throws JsonParseException Если в позиции находится не массив или он записан некорректно
+   */
+  public static int[] indexArray(ByteBuffer buffer, int pos) {
+    pos = firstElement(buffer, pos);
+    if (pos < 0) return EMPTY;
+
+    int[] index = new int[8];
+    int size = 0;
+    for (; pos >= 0; pos = nextElement(buffer, pos)) {
+      if (size == index.length) {
+        index = Arrays.copyOf(index, size << 1);
+      }
+      index[size++] = isNull(buffer, pos) ? -1 : pos;
+    }
+    return Arrays.copyOf(index, size);
+  }
+  /**
+   * Находит первый элемент массива. Вместе с {@link #nextElement} позволяет перебрать элементы
+   * массива за один проход, не строя его индекс:
+   * <pre>{@code
+   * for (int pos = firstElement(buffer, offset); pos >= 0; pos = nextElement(buffer, pos)) {
+   *   ...
+   * }
+   * }</pre>
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей скобки массива
+   *
+   * @return Позиция первого символа первого элемента или {@code -1}, если массив пуст
+   *
+   * @throws JsonParseException Если в позиции находится не массив
+   */
+  public static int firstElement(ByteBuffer buffer, int pos) {
+    pos = skipWhitespace(buffer, expect(buffer, pos, '['));
+    return peek(buffer, pos) == ']' ? -1 : pos;
+  }
+  /**
+   * Находит следующий элемент массива, пропуская текущий.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа текущего элемента
+   *
+   * @return Позиция первого символа следующего элемента или {@code -1}, если текущий элемент последний
+   *
+   * @throws JsonParseException Если массив записан некорректно
+   */
+  public static int nextElement(ByteBuffer buffer, int pos) {
+    pos = skipWhitespace(buffer, skipValue(buffer, pos));
+    switch (peek(buffer, pos)) {
+      case ',': return skipWhitespace(buffer, pos + 1);
+      case ']': return -1;
+      default: throw unexpected(buffer, pos, "',' or ']'");
+    }
+  }
+  /**
+   * Декодирует участок буфера, содержащий текст в кодировке UTF-8.
+   *
+   * @param buffer Буфер с документом
+   * @param start Позиция первого байта текста
+   * @param end Позиция, следующая за последним байтом текста
+   *
+   * @return Декодированный текст
+   */
+  public static String utf8(ByteBuffer buffer, int start, int end) {
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + start, end - start, UTF_8);
+    }
+    final byte[] bytes = new byte[end - start];
+    final ByteBuffer view = buffer.duplicate();
+    view.position(start);
+    view.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * Возвращает байт в указанной позиции или {@code -1}, если позиция за пределами буфера.
+   */
+  static int peek(ByteBuffer buffer, int pos) {
+    return pos < buffer.limit() ? buffer.get(pos) : -1;
+  }
+  /** Отмечает не найденные свойства проекции как отсутствующие. */
+  private static int[] missing(int[] index) {
+    for (int i = 0; i < index.length; ++i) {
+      if (index[i] == Projection.PENDING) {
+        index[i] = -1;
+      }
+    }
+    return index;
+  }
+  private static boolean isNumberChar(byte b) {
+    switch (b) {
+      case '0': case '1': case '2': case '3': case '4':
+      case '5': case '6': case '7': case '8': case '9':
+      case '-': case '+': case '.': case 'e': case 'E': return true;
+      default: return false;
+    }
+  }
+  private static int skipLiteral(ByteBuffer buffer, int pos, byte[] literal) {
+    if (pos + literal.length > buffer.limit()) {
+      throw new JsonParseException("Unexpected end of input", buffer.limit());
+    }
+    for (int i = 0; i < literal.length; ++i) {
+      if (buffer.get(pos + i) != literal[i]) {
+        throw unexpected(buffer, pos + i, new String(literal, UTF_8));
+      }
+    }
+    return pos + literal.length;
+  }
+  private static int skipContainer(ByteBuffer buffer, int pos) {
+    final int limit = buffer.limit();
+    final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    int depth = 0;
+    while (pos < limit) {
+      // Участки без скобок и кавычек проходим по 8 байт за раз. Установка бита 0x20 превращает
+      // '[' и ']' в '{' и '}' и не дает такого результата ни для каких других байтов
+      if (pos + 8 <= limit) {
+        final long word = buffer.getLong(pos);
+        final long braces = word | CASE;
+        final long found = zeros(word ^ QUOTES) | zeros(braces ^ OPEN) | zeros(braces ^ CLOSE);
+        if (found == 0) {
+          pos += 8;
+          continue;
+        }
+        pos += first(found, bigEndian);
+      }
+      switch (buffer.get(pos)) {
+        case '"': pos = skipString(buffer, pos); continue;
+        case '{':
+        case '[': ++depth; break;
+        case '}':
+        case ']': if (--depth == 0) return pos + 1; break;
+      }
+      ++pos;
+    }
+    throw new JsonParseException("Unterminated object or array", pos);
+  }
+  /**
+   * Находит нулевые байты в слове. В отличие от распространенного приема с вычитанием, не дает
+   * ложных срабатываний из-за заемов между байтами, поэтому позицию первого найденного байта можно
+   * определять при любом порядке байтов.
+   *
+   * @param word Слово из 8 байт
+   *
+   * @return Слово, в котором установлен старший бит каждого нулевого байта {@code word}, а
+   *         остальные биты сброшены
+   */
+  private static long zeros(long word) {
+    final long low = (word & LOW_BITS) + LOW_BITS;
+    return ~(low | word | LOW_BITS);
+  }
+  /**
+   * Определяет смещение первого в памяти байта, отмеченного {@link #zeros}.
+   *
+   * @param found Результат {@link #zeros}, не равный {@code 0}
+   * @param bigEndian Было ли слово прочитано в порядке байтов от старшего к младшему
+   *
+   * @return Смещение байта от начала слова, от {@code 0} до {@code 7}
+   */
+  private static int first(long found, boolean bigEndian) {
+    return (bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found)) >>> 3;
+  }
+  /**
+   * Сравнивает строку с текстом, декодируя UTF-8 по одному символу.
+   *
+   * @param whole {@code true} для сравнения всей строки, {@code false} для проверки префикса
+   */
+  private static boolean compareString(ByteBuffer buffer, int pos, CharSequence text, boolean whole) {
+    final int start = expect(buffer, pos, '"');
+    final int limit = buffer.limit();
+    final int length = text.length();
+    int j = 0;
+    for (int i = start; i < limit;) {
+      if (!whole && j == length) return true;
+
+      final byte b = buffer.get(i);
+      if (b == '"') return j == length;
+      if (b == '\\') {
+        final String value = unescape(buffer, start, i);
+        return whole ? value.contentEquals(text) : value.startsWith(text.toString());
+      }
+      final int c;
+      if (b >= 0) {
+        c = b;
+        i += 1;
+      } else
+      if ((b & 0xE0) == 0xC0) {
+        c = (b & 0x1F) << 6 | buffer.get(i + 1) & 0x3F;
+        i += 2;
+      } else
+      if ((b & 0xF0) == 0xE0) {
+        c = (b & 0x0F) << 12 | (buffer.get(i + 1) & 0x3F) << 6 | buffer.get(i + 2) & 0x3F;
+        i += 3;
+      } else {
+        // Символы вне базовой плоскости соответствуют суррогатной паре в тексте. Префикс может
+        // заканчиваться первой половиной пары
+        final int cp = (b & 0x07) << 18 | (buffer.get(i + 1) & 0x3F) << 12 | (buffer.get(i + 2) & 0x3F) << 6 | buffer.get(i + 3) & 0x3F;
+        if (j + 1 >= length) {
+          return !whole && j + 1 == length && text.charAt(j) == Character.highSurrogate(cp);
+        }
+        if (text.charAt(j) != Character.highSurrogate(cp) || text.charAt(j + 1) != Character.lowSurrogate(cp)) {
+          return false;
+        }
+        i += 4;
+        j += 2;
+        continue;
+      }
+      if (j == length || text.charAt(j) != c) return false;
+      ++j;
+    }
+    throw new JsonParseException("Unterminated string", limit);
+  }
+  /**
+   * Декодирует строку, содержащую escape-последовательности.
+   *
+   * @param start Позиция первого символа строки (после кавычки)
+   * @param i Позиция первой escape-последовательности
+   */
+  private static String unescape(ByteBuffer buffer, int start, int i) {
+    final StringBuilder sb = new StringBuilder(i - start + 16);
+    final int limit = buffer.limit();
+    // Начало очередного участка без escape-последовательностей
+    int run = start;
+    while (i < limit) {
+      final byte b = buffer.get(i);
+      if (b == '"') {
+        return sb.append(utf8(buffer, run, i)).toString();
+      }
+      if (b != '\\') {
+        ++i;
+        continue;
+      }
+      sb.append(utf8(buffer, run, i));
+      switch (peek(buffer, i + 1)) {
+        case '"':  sb.append('"');  break;
+        case '\\': sb.append('\\'); break;
+        case '/':  sb.append('/');  break;
+        case 'b':  sb.append('\b'); break;
+        case 'f':  sb.append('\f'); break;
+        case 'n':  sb.append('\n'); break;
+        case 'r':  sb.append('\r'); break;
+        case 't':  sb.append('\t'); break;
+        case 'u':
+          // Суррогатные пары кодируются двумя последовательностями подряд и собираются
+          // естественным образом при добавлении символов по одному
+          sb.append((char)(hex(buffer, i + 2) << 12 | hex(buffer, i + 3) << 8 | hex(buffer, i + 4) << 4 | hex(buffer, i + 5)));
+          i += 4;
+          break;
+        default: throw new JsonParseException("Invalid escape sequence", i);
+      }
+      i += 2;
+      run = i;
+    }
+    throw new JsonParseException("Unterminated string", limit);
+  }
+  private static int hex(ByteBuffer buffer, int pos) {
+    final int b = peek(buffer, pos);
+    if (b >= '0' && b <= '9') return b - '0';
+    if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+    if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+    throw unexpected(buffer, pos, "hex digit");
+  }
+  private static JsonParseException unexpected(ByteBuffer buffer, int pos, String expected) {
+    if (pos >= buffer.limit()) {
+      return new JsonParseException("Unexpected end of input, expected " + expected, pos);
+    }
+    return new JsonParseException("Unexpected character '" + (char)(buffer.get(pos) & 0xFF) + "', expected " + expected, pos);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,522 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonBoolean;
+import org.json.beans.JsonInteger;
+import org.json.beans.JsonNumber;
+import org.json.beans.JsonString;
+import org.json.beans.JsonValue;
+
+/**
+ * Потоковая запись JSON в кодировке UTF-8 прямо в {@link OutputStream} или {@link ByteBuffer}, без
+ * построения промежуточного дерева и строк. Используется сгенерированными классами {@code Writer},
+ * которые записывают имена свойств заранее подготовленными массивами байт (см. {@link #encodeName}).
+ * <p>
+ * Запятые между элементами массивов и свойствами объектов расставляются автоматически. Проверка
+ * корректности последовательности вызовов (например, парности скобок) не выполняется.
+ *
+ * @author Mingun
+ */
+public final class JsonWriter implements Flushable, Closeable {
+  private static final byte[] TRUE  = {'t', 'r', 'u', 'e'};
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+  private static final byte[] NULL  = {'n', 'u', 'l', 'l'};
+  private static final byte[] HEX   = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+  /** Максимальная длина записи одного символа: escape-последовательность {@code \\uXXXX}. */
+  private static final int MAX_CHAR_BYTES = 6;
+  /** Максимальная длина записи {@code long}: знак и 19 цифр. */
+  private static final int MAX_LONG_BYTES = 20;
+
+  /** Поток, в который сбрасывается буфер, или {@code null}, если запись ведется в {@link #target}. */
+  private final OutputStream out;
+  /** Буфер, в который сбрасываются данные, если запись ведется не в поток. */
+  private final ByteBuffer target;
+  /** Буфер для накопления записываемых данных. */
+  private final byte[] buf;
+  /** Количество байт, накопленных в {@link #buf}. */
+  private int count;
+  /** Количество байт, уже сброшенных из {@link #buf}. */
+  private long flushed;
+  /**
+   * Нужно ли перед следующим значением или именем свойства записать запятую. Так как после
+   * закрывающей скобки всегда может следовать только следующий элемент, стек не требуется.
+   */
+  private boolean comma;
+
+  /**
+   * Создает писателя, записывающего данные в поток.
+   *
+   * @param out Поток, в который записывается JSON
+   */
+  public JsonWriter(OutputStream out) {
+    this(out, 8192);
+  }
+  /**
+   * Создает писателя, записывающего данные в поток.
+   *
+   * @param out Поток, в который записывается JSON
+   * @param bufferSize Размер внутреннего буфера
+   */
+  public JsonWriter(OutputStream out, int bufferSize) {
+    this.out = out;
+    this.target = null;
+    this.buf = new byte[Math.max(bufferSize, 64)];
+  }
+  /**
+   * Создает писателя, записывающего данные в буфер, начиная с его текущей позиции.
+   *
+   * @param target Буфер, в который записывается JSON. При переполнении при сбросе данных
+   *        выбрасывается {@link java.nio.BufferOverflowException}
+   */
+  public JsonWriter(ByteBuffer target) {
+    this.out = null;
+    this.target = target;
+    this.buf = new byte[8192];
+  }
+
+  /**
+   * Записывает значение в новый массив байт.
+   *
+   * @param <T> Тип записываемого значения
+   * @param encoder Функция записи значения
+   * @param value Записываемое значение, не {@code null}
+   *
+   * @return Текст JSON в UTF-8
+   */
+  public static <T> byte[] encode(Encoder<? super T> encoder, T value) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (JsonWriter out = new JsonWriter(bytes)) {
+      encoder.encode(out, value);
+    } catch (IOException ex) {
+      // Запись в память не может завершиться ошибкой ввода-вывода
+      throw new UncheckedIOException(ex);
+    }
+    return bytes.toByteArray();
+  }
+  /**
+   * Кодирует имя свойства вместе с обрамляющими кавычками и последующим двоеточием. Предназначен
+   * для однократной подготовки имен, которые затем многократно записываются {@link #name(byte[])}.
+   *
+   * @param name Имя свойства
+   *
+   * @return Представление {@code "name":} в UTF-8
+   */
+  public static byte[] encodeName(String name) {
+    return (quote(name) + ':').getBytes(UTF_8);
+  }
+  /**
+   * Кодирует строку в JSON, заключая ее в кавычки и экранируя специальные символы.
+   *
+   * @param value Кодируемая строка
+   *
+   * @return JSON представление строки
+   */
+  public static String quote(String value) {
+    final StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      final char c = value.charAt(i);
+      switch (c) {
+        case '"':  sb.append("\\\""); break;
+        case '\\': sb.append("\\\\"); break;
+        case '\n': sb.append("\\n");  break;
+        case '\r': sb.append("\\r");  break;
+        case '\t': sb.append("\\t");  break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", (int)c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  public void beginObject() throws IOException {
+    separator();
+    write('{');
+    comma = false;
+  }
+  public void endObject() throws IOException {
+    write('}');
+    comma = true;
+  }
+  public void beginArray() throws IOException {
+    separator();
+    write('[');
+    comma = false;
+  }
+  public void endArray() throws IOException {
+    write(']');
+    comma = true;
+  }
+  /**
+   * Записывает имя свойства, подготовленное {@link #encodeName}.
+   *
+   * @param name Представление {@code "name":} в UTF-8
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void name(byte[] name) throws IOException {
+    separator();
+    write(name, 0, name.length);
+    comma = false;
+  }
+  /**
+   * Записывает заранее закодированное значение, например, литерал константы перечисления.
+   *
+   * @param json Корректное JSON значение в UTF-8
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void raw(byte[] json) throws IOException {
+    separator();
+    write(json, 0, json.length);
+    comma = true;
+  }
+  public void nullValue() throws IOException {
+    raw(NULL);
+  }
+  public void value(boolean value) throws IOException {
+    raw(value ? TRUE : FALSE);
+  }
+  public void value(long value) throws IOException {
+    separator();
+    ensure(MAX_LONG_BYTES);
+    if (value == Long.MIN_VALUE) {
+      final byte[] min = Long.toString(value).getBytes(UTF_8);
+      System.arraycopy(min, 0, buf, count, min.length);
+      count += min.length;
+    } else {
+      if (value < 0) {
+        buf[count++] = '-';
+        value = -value;
+      }
+      // Цифры записываются с конца, поэтому сначала считаем их количество
+      int digits = 1;
+      for (long v = value; v >= 10; v /= 10) ++digits;
+      count += digits;
+      int pos = count;
+      do {
+        buf[--pos] = (byte)('0' + value % 10);
+        value /= 10;
+      } while (value != 0);
+    }
+    comma = true;
+  }
+  /**
+   * Записывает целое число. Большее по модулю, чем {@code long}, число, которое может быть только у
+   * ленивой реализации, копируется из исходного документа как есть.
+   *
+   * @param value Записываемое число
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void value(JsonInteger value) throws IOException {
+    if (value instanceof LazyValue) {
+      final LazyValue lazy = (LazyValue)value;
+      if (!Validation.isLong(lazy.buffer, lazy.offset)) {
+        copy(lazy);
+        return;
+      }
+    }
+    value(value.longValue());
+  }
+  /**
+   * Записывает число с плавающей точкой.
+   *
+   * @param value Записываемое значение
+   *
+   * @throws IOException Если запись в поток невозможна
+   * @throws IllegalArgumentException Если число -- бесконечность или {@code NaN}, которые не
+   *         представимы в JSON
+   */
+  public void value(double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("JSON does not allow non-finite numbers: " + value);
+    }
+    if (value == (long)value && Math.abs(value) < 1e15) {
+      value((long)value);
+      return;
+    }
+    ascii(Double.toString(value));
+  }
+  public void value(BigDecimal value) throws IOException {
+    ascii(value.toString());
+  }
+  public void value(String value) throws IOException {
+    separator();
+    ensure(1);
+    buf[count++] = '"';
+    final int length = value.length();
+    for (int i = 0; i < length; ++i) {
+      if (buf.length - count < MAX_CHAR_BYTES) {
+        flushBuffer();
+      }
+      final char c = value.charAt(i);
+      if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+        buf[count++] = (byte)c;
+      } else
+      if (c < 0x80) {
+        escape(c);
+      } else
+      if (c < 0x800) {
+        buf[count++] = (byte)(0xC0 | c >> 6);
+        buf[count++] = (byte)(0x80 | c & 0x3F);
+      } else
+      if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        final int cp = Character.toCodePoint(c, value.charAt(++i));
+        buf[count++] = (byte)(0xF0 | cp >> 18);
+        buf[count++] = (byte)(0x80 | cp >> 12 & 0x3F);
+        buf[count++] = (byte)(0x80 | cp >> 6 & 0x3F);
+        buf[count++] = (byte)(0x80 | cp & 0x3F);
+      } else
+      if (Character.isSurrogate(c)) {
+        // Непарный суррогат не представим в UTF-8, но представим в виде escape-последовательности
+        escape(c);
+      } else {
+        buf[count++] = (byte)(0xE0 | c >> 12);
+        buf[count++] = (byte)(0x80 | c >> 6 & 0x3F);
+        buf[count++] = (byte)(0x80 | c & 0x3F);
+      }
+    }
+    ensure(1);
+    buf[count++] = '"';
+    comma = true;
+  }
+  /**
+   * Записывает значение любого встроенного типа. Ленивые значения, созданные поверх буфера с
+   * исходным документом, копируются из него как есть, без декодирования.
+   *
+   * @param value Записываемое значение, может быть {@code null}
+   *
+   * @throws IOException Если запись в поток невозможна
+   * @throws UnsupportedOperationException Если значение имеет сгенерированный тип, не являющийся
+   *         ленивым. Такие значения записываются сгенерированными классами {@code Writer}
+   */
+  public void value(JsonValue value) throws IOException {
+    if (value == null) {
+      nullValue();
+    } else
+    if (value instanceof LazyValue) {
+      copy((LazyValue)value);
+    } else
+    if (value instanceof JsonString) {
+      value(((JsonString)value).value());
+    } else
+    if (value instanceof JsonInteger) {
+      value(((JsonInteger)value).longValue());
+    } else
+    if (value instanceof JsonNumber) {
+      value(((JsonNumber)value).decimalValue());
+    } else
+    if (value instanceof JsonBoolean) {
+      value(((JsonBoolean)value).value());
+    } else
+    if (value instanceof JsonArray) {
+      beginArray();
+      for (final JsonValue item : ((JsonArray<?>)value).value()) {
+        value(item);
+      }
+      endArray();
+    } else {
+      throw new UnsupportedOperationException("No generic way to write " + value.getClass().getName());
+    }
+  }
+  /**
+   * Копирует ленивое значение из исходного документа как есть.
+   *
+   * @param value Копируемое значение
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void copy(LazyValue value) throws IOException {
+    copy(value.buffer, value.offset);
+  }
+  /**
+   * Копирует значение, на которое установлен курсор, из исходного документа как есть.
+   *
+   * @param value Копируемое значение
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void copy(CursorObject value) throws IOException {
+    copy(value.buffer, value.offset);
+  }
+  /**
+   * Записывает строку, заданную байтами в кодировке UTF-8, экранируя символы, которые не могут
+   * находиться в строке JSON как есть. Байты не декодируются в промежуточную строку.
+   *
+   * @param source Буфер с текстом строки
+   * @param offset Позиция первого байта текста
+   * @param length Длина текста в байтах
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void string(ByteBuffer source, int offset, int length) throws IOException {
+    separator();
+    ensure(1);
+    buf[count++] = '"';
+    for (int i = offset, end = offset + length; i < end; ++i) {
+      if (buf.length - count < MAX_CHAR_BYTES) {
+        flushBuffer();
+      }
+      final byte b = source.get(i);
+      // Байты многобайтных последовательностей UTF-8 всегда больше 0x7F и копируются как есть
+      if ((b >= 0x20 || b < 0) && b != '"' && b != '\\') {
+        buf[count++] = b;
+      } else {
+        escape((char)b);
+      }
+    }
+    ensure(1);
+    buf[count++] = '"';
+    comma = true;
+  }
+  /**
+   * Записывает как есть участок буфера, содержащий корректное значение JSON.
+   *
+   * @param source Буфер с текстом значения
+   * @param offset Позиция первого байта значения
+   * @param length Длина значения в байтах
+   *
+   * @throws IOException Если запись в поток невозможна
+   */
+  public void raw(ByteBuffer source, int offset, int length) throws IOException {
+    separator();
+    if (source.hasArray()) {
+      write(source.array(), source.arrayOffset() + offset, length);
+    } else {
+      for (int i = offset, end = offset + length; i < end; ++i) {
+        ensure(1);
+        buf[count++] = source.get(i);
+      }
+    }
+    comma = true;
+  }
+  private void copy(ByteBuffer source, int offset) throws IOException {
+    raw(source, offset, JsonReader.skipValue(source, offset) - offset);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    if (out != null) {
+      out.flush();
+    }
+  }
+  @Override
+  public void close() throws IOException {
+    flush();
+    if (out != null) {
+      out.close();
+    }
+  }
+
+  /**
+   * Возвращает количество байт, записанных с момента создания писателя, включая еще не сброшенные.
+   *
+   * @return Размер записанного текста JSON
+   */
+  public long size() {
+    return flushed + count;
+  }
+
+  private void separator() throws IOException {
+    if (comma) {
+      write(',');
+    }
+  }
+  private void ascii(String value) throws IOException {
+    separator();
+    final int length = value.length();
+    ensure(length);
+    for (int i = 0; i < length; ++i) {
+      buf[count++] = (byte)value.charAt(i);
+    }
+    comma = true;
+  }
+  private void escape(char c) {
+    buf[count++] = '\\';
+    switch (c) {
+      case '"':  buf[count++] = '"';  break;
+      case '\\': buf[count++] = '\\'; break;
+      case '\n': buf[count++] = 'n';  break;
+      case '\r': buf[count++] = 'r';  break;
+      case '\t': buf[count++] = 't';  break;
+      default:
+        buf[count++] = 'u';
+        buf[count++] = HEX[c >> 12 & 0xF];
+        buf[count++] = HEX[c >> 8 & 0xF];
+        buf[count++] = HEX[c >> 4 & 0xF];
+        buf[count++] = HEX[c & 0xF];
+    }
+  }
+  private void write(char c) throws IOException {
+    ensure(1);
+    buf[count++] = (byte)c;
+  }
+  private void write(byte[] bytes, int offset, int length) throws IOException {
+    if (length > buf.length - count) {
+      flushBuffer();
+      if (length > buf.length) {
+        writeThrough(bytes, offset, length);
+        return;
+      }
+    }
+    System.arraycopy(bytes, offset, buf, count, length);
+    count += length;
+  }
+  /** Гарантирует, что в буфере есть место для {@code length} байт. */
+  private void ensure(int length) throws IOException {
+    if (buf.length - count < length) {
+      flushBuffer();
+    }
+  }
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      writeThrough(buf, 0, count);
+      count = 0;
+    }
+  }
+  private void writeThrough(byte[] bytes, int offset, int length) throws IOException {
+    flushed += length;
+    if (out != null) {
+      out.write(bytes, offset, length);
+    } else {
+      target.put(bytes, offset, length);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Сопоставляет имена свойств объекта с их порядковыми номерами в схеме. Используется при построении
+ * {@link JsonReader#indexObject индекса} объекта.
+ *
+ * @author Mingun
+ */
+public interface KeyMatcher {
+  /**
+   * Определяет номер свойства по его имени, записанному в буфере.
+   *
+   * @param buffer Буфер с документом
+   * @param start Позиция первого байта имени (сразу после открывающей кавычки)
+   * @param end Позиция закрывающей кавычки имени
+   *
+   * @return Номер свойства от {@code 0} до {@link #size()} (не включительно), либо {@code -1}, если
+   *         такое свойство не объявлено в схеме
+   */
+  int match(ByteBuffer buffer, int start, int end);
+  /**
+   * Определяет номер свойства по его имени в том виде, как оно записано в схеме.
+   *
+   * @param name Имя свойства
+   *
+   * @return Номер свойства от {@code 0} до {@link #size()} (не включительно), либо {@code -1}, если
+   *         такое свойство не объявлено в схеме
+   */
+  int number(String name);
+  /**
+   * Возвращает количество известных свойств.
+   *
+   * @return Количество свойств, номера которых может вернуть {@link #match}
+   */
+  int size();
+
+  /**
+   * Создает сопоставитель, сравнивающий имена свойств прямо с байтами в буфере по совершенной
+   * хеш-функции, построенной для указанного набора имен. Строки для имен создаются, только если
+   * имя записано в документе с escape-последовательностями. Если совершенную хеш-функцию подобрать
+   * не удалось, возвращается сопоставитель, декодирующий каждое имя в строку.
+   *
+   * @param names Имена свойств в порядке их номеров
+   *
+   * @return Сопоставитель для указанных имен
+   *
+   * @throws IllegalArgumentException Если имена повторяются
+   */
+  static KeyMatcher of(String... names) {
+    final KeyMatcher matcher = PerfectKeyMatcher.of(names);
+    return matcher != null ? matcher : new HashKeyMatcher(names);
+  }
+}
\ No newline at end of file
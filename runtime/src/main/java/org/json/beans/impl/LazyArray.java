@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+
+/**
+ * Ленивая реализация {@link JsonArray}. При первом обращении к элементам строится индекс с позициями
+ * всех элементов массива, а сами элементы создаются только при обращении к ним и запоминаются.
+ *
+ * @param <T> Тип элементов массива
+ *
+ * @author Mingun
+ */
+public final class LazyArray<T extends JsonValue> extends LazyValue implements JsonArray<T> {
+  /** Фабрика, создающая представления элементов массива. */
+  private final Decoder<? extends T> decoder;
+  /** Список элементов или {@code null}, если к элементам еще не обращались. */
+  private List<T> value;
+
+  public LazyArray(ByteBuffer buffer, int offset, Decoder<? extends T> decoder) {
+    super(buffer, offset);
+    this.decoder = decoder;
+  }
+
+  /**
+   * Создает фабрику массивов с элементами, создаваемыми указанной фабрикой.
+   *
+   * @param <T> Тип элементов массива
+   * @param decoder Фабрика элементов массива
+   *
+   * @return Фабрика массивов
+   */
+  public static <T extends JsonValue> Decoder<JsonArray<T>> of(Decoder<? extends T> decoder) {
+    return (buffer, offset) -> new LazyArray<>(buffer, offset, decoder);
+  }
+
+  @Override
+  public List<T> value() {
+    // Гонка при инициализации безопасна: в худшем случае индекс будет построен несколько раз
+    if (value == null) {
+      value = new Elements(JsonReader.indexArray(buffer, offset));
+    }
+    return value;
+  }
+
+  /** Неизменяемый список элементов массива, создающий их при первом обращении. */
+  private final class Elements extends AbstractList<T> implements RandomAccess {
+    /** Позиции элементов в буфере, {@code -1} для элементов со значением {@code null}. */
+    private final int[] offsets;
+    /** Уже созданные элементы. */
+    private final Object[] elements;
+
+    Elements(int[] offsets) {
+      this.offsets = offsets;
+      this.elements = new Object[offsets.length];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      Object element = elements[index];
+      if (element == null && offsets[index] >= 0) {
+        element = decoder.decode(buffer, offsets[index]);
+        elements[index] = element;
+      }
+      return (T)element;
+    }
+
+    @Override
+    public int size() {
+      return offsets.length;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import org.json.beans.JsonBoolean;
+import org.json.beans.JsonBooleanArray;
+
+/**
+ * Ленивая реализация {@link JsonBooleanArray}. При первом обращении все элементы за один проход
+ * декодируются в упакованный набор битов.
+ *
+ * @author Mingun
+ */
+public final class LazyBooleanArray extends LazyScalarArray<JsonBoolean> implements JsonBooleanArray {
+  /** Декодированные элементы или {@code null}, если к ним еще не обращались. */
+  private Values values;
+
+  public LazyBooleanArray(ByteBuffer buffer, int offset) {
+    super(buffer, offset, LazyBoolean::new);
+  }
+
+  @Override
+  public int size() {
+    return values().size;
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    final Values v = values();
+    checkIndex(index, v.size);
+    return v.nulls != null && v.nulls.get(index);
+  }
+
+  @Override
+  public boolean get(int index) {
+    final Values v = values();
+    checkIndex(index, v.size);
+    return v.bits.get(index);
+  }
+
+  @Override
+  public void copyTo(int from, boolean[] target, int offset, int length) {
+    final Values v = values();
+    checkRange(from, length, v.size);
+    checkRange(offset, length, target.length);
+    for (int i = 0; i < length; ++i) {
+      target[offset + i] = v.bits.get(from + i);
+    }
+  }
+
+  @Override
+  public int countTrue() {
+    return values().bits.cardinality();
+  }
+
+  private Values values() {
+    // Гонка при инициализации безопасна: значения неизменяемы и публикуются через final поля
+    Values v = values;
+    if (v == null) {
+      v = new Values(buffer, offset);
+      values = v;
+    }
+    return v;
+  }
+
+  /** Декодированные значения элементов. */
+  private static final class Values {
+    /** Количество элементов. */
+    final int size;
+    /** Индексы элементов, равных {@code true}. */
+    final BitSet bits = new BitSet();
+    /** Индексы элементов, равных {@code null}, или {@code null}, если таких элементов нет. */
+    final BitSet nulls;
+
+    Values(ByteBuffer buffer, int offset) {
+      BitSet nulls = null;
+      int size = 0;
+      for (int pos = JsonReader.firstElement(buffer, offset); pos >= 0; pos = JsonReader.nextElement(buffer, pos)) {
+        if (JsonReader.isNull(buffer, pos)) {
+          if (nulls == null) nulls = new BitSet();
+          nulls.set(size);
+        } else
+        if (JsonReader.readBoolean(buffer, pos)) {
+          bits.set(size);
+        }
+        ++size;
+      }
+      this.size = size;
+      this.nulls = nulls;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+import java.util.stream.DoubleStream;
+import org.json.beans.JsonNumber;
+import org.json.beans.JsonDoubleArray;
+
+/**
+ * Ленивая реализация {@link JsonDoubleArray}. При первом обращении все элементы за один проход
+ * декодируются в массив {@code double[]}.
+ *
+ * @author Mingun
+ */
+public final class LazyDoubleArray extends LazyScalarArray<JsonNumber> implements JsonDoubleArray {
+  /** Декодированные элементы или {@code null}, если к ним еще не обращались. */
+  private Values values;
+
+  public LazyDoubleArray(ByteBuffer buffer, int offset) {
+    super(buffer, offset, LazyNumber::new);
+  }
+
+  @Override
+  public int size() {
+    return values().array.length;
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    final Values v = values();
+    checkIndex(index, v.array.length);
+    return v.nulls != null && v.nulls.get(index);
+  }
+
+  @Override
+  public double get(int index) {
+    return values().array[index];
+  }
+
+  @Override
+  public void copyTo(int from, double[] target, int offset, int length) {
+    System.arraycopy(values().array, from, target, offset, length);
+  }
+
+  @Override
+  public DoubleStream stream() {
+    final Values v = values();
+    if (v.nulls == null) {
+      return Arrays.stream(v.array);
+    }
+    return IntStream.range(0, v.array.length).filter(i -> !v.nulls.get(i)).mapToDouble(i -> v.array[i]);
+  }
+
+  private Values values() {
+    // Гонка при инициализации безопасна: значения неизменяемы и публикуются через final поля
+    Values v = values;
+    if (v == null) {
+      v = new Values(buffer, offset);
+      values = v;
+    }
+    return v;
+  }
+
+  /** Декодированные значения элементов. */
+  private static final class Values {
+    /** Значения элементов, {@code 0} для элементов, равных {@code null}. */
+    final double[] array;
+    /** Индексы элементов, равных {@code null}, или {@code null}, если таких элементов нет. */
+    final BitSet nulls;
+
+    Values(ByteBuffer buffer, int offset) {
+      double[] array = new double[16];
+      BitSet nulls = null;
+      int size = 0;
+      for (int pos = JsonReader.firstElement(buffer, offset); pos >= 0; pos = JsonReader.nextElement(buffer, pos)) {
+        if (size == array.length) {
+          array = Arrays.copyOf(array, size << 1);
+        }
+        if (JsonReader.isNull(buffer, pos)) {
+          if (nulls == null) nulls = new BitSet();
+          nulls.set(size);
+        } else {
+          array[size] = JsonReader.readDouble(buffer, pos);
+        }
+        ++size;
+      }
+      this.array = Arrays.copyOf(array, size);
+      this.nulls = nulls;
+    }
+  }
+}
\ No newline at end of file
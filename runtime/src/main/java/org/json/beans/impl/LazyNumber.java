@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.json.beans.JsonNumber;
+
+/**
+ * Ленивая реализация {@link JsonNumber}. Число декодируется при каждом обращении, причем
+ * {@link BigDecimal} создается, только если запрошено точное значение.
+ *
+ * @author Mingun
+ */
+public final class LazyNumber extends LazyValue implements JsonNumber {
+  public LazyNumber(ByteBuffer buffer, int offset) {
+    super(buffer, offset);
+  }
+
+  @Override
+  public BigDecimal value() {
+    return JsonReader.readDecimal(buffer, offset);
+  }
+
+  @Override
+  public double doubleValue() {
+    return JsonReader.readDouble(buffer, offset);
+  }
+
+  @Override
+  public BigDecimal decimalValue() {
+    return JsonReader.readDecimal(buffer, offset);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Базовый класс для сгенерированных реализаций объектов. При создании строит компактный индекс,
+ * содержащий позиции значений всех свойств, объявленных в схеме, пропуская сами значения без их
+ * декодирования. Наследники декодируют значение свойства при первом обращении к его геттеру.
+ *
+ * @author Mingun
+ */
+public abstract class LazyObject extends LazyValue {
+  /**
+   * Позиции значений свойств в порядке их номеров; {@code -1} для отсутствующих свойств и свойств
+   * со значением {@code null}.
+   */
+  private final int[] index;
+  /** Вычисленный {@link #hashCode()} или {@code 0}, если он еще не вычислялся. */
+  private int hash;
+
+  /**
+   * Создает представление объекта и строит его индекс.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа значения. Если значение не является объектом, все его
+   *        свойства считаются отсутствующими
+   * @param keys Сопоставитель имен свойств с их номерами
+   */
+  protected LazyObject(ByteBuffer buffer, int offset, KeyMatcher keys) {
+    this(buffer, offset, keys, null);
+  }
+  /**
+   * Создает представление объекта, строит его индекс и сообщает о нем датчику.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа значения. Если значение не является объектом, все его
+   *        свойства считаются отсутствующими
+   * @param keys Сопоставитель имен свойств с их номерами
+   * @param probe Датчик типа или {@code null}, если наблюдение отключено
+   */
+  protected LazyObject(ByteBuffer buffer, int offset, KeyMatcher keys, Probe probe) {
+    super(buffer, offset);
+    if (probe == null) {
+      this.index = JsonReader.indexObject(buffer, offset, keys);
+    } else {
+      final long start = System.nanoTime();
+      this.index = JsonReader.indexObject(buffer, offset, keys);
+      probe.indexed(buffer, offset, index, System.nanoTime() - start);
+    }
+  }
+  /**
+   * Создает представление объекта и строит его индекс только для свойств проекции. Остальные
+   * свойства выглядят отсутствующими.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа значения. Если значение не является объектом, все его
+   *        свойства считаются отсутствующими
+   * @param projection Проекция объекта
+   */
+  protected LazyObject(ByteBuffer buffer, int offset, Projection projection) {
+    this(buffer, offset, projection, null);
+  }
+  /**
+   * Создает представление объекта, строит его индекс только для свойств проекции и сообщает о нем
+   * датчику. Остальные свойства выглядят отсутствующими.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа значения. Если значение не является объектом, все его
+   *        свойства считаются отсутствующими
+   * @param projection Проекция объекта
+   * @param probe Датчик типа или {@code null}, если наблюдение отключено
+   */
+  protected LazyObject(ByteBuffer buffer, int offset, Projection projection, Probe probe) {
+    super(buffer, offset);
+    if (probe == null) {
+      this.index = JsonReader.indexObject(buffer, offset, projection, new int[projection.keys.size()]);
+    } else {
+      final long start = System.nanoTime();
+      this.index = JsonReader.indexObject(buffer, offset, projection, new int[projection.keys.size()]);
+      probe.indexed(buffer, offset, index, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Возвращает позицию значения свойства.
+   *
+   * @param property Номер свойства
+   *
+   * @return Позиция первого символа значения или {@code -1}, если свойство отсутствует или равно
+   *         {@code null}
+   */
+  protected final int at(int property) {
+    return index[property];
+  }
+  /**
+   * Возвращает позицию значения обязательного в данном контексте свойства. Используется
+   * примитивными геттерами, которые не могут вернуть {@code null}.
+   *
+   * @param property Номер свойства
+   * @param name Имя свойства для сообщения об ошибке
+   *
+   * @return Позиция первого символа значения
+   *
+   * @throws NoSuchElementException Если свойство отсутствует или равно {@code null}
+   */
+  protected final int require(int property, String name) {
+    final int at = index[property];
+    if (at < 0) {
+      throw new NoSuchElementException("Property '" + name + "' is absent or null");
+    }
+    return at;
+  }
+
+  /**
+   * Сравнивает объекты по значениям свойств, объявленных в схеме, в порядке их номеров. Свойства,
+   * не объявленные в схеме, не учитываются; отсутствующее свойство равно свойству со значением
+   * {@code null}. Объекты без объявленных свойств (например, выбирающие вариант {@code oneOf})
+   * сравниваются по всему содержимому.
+   * <p>
+   * Проекция сравнивается как объект, в котором свойства вне проекции отсутствуют, поэтому она
+   * равна полному представлению того же объекта, только если в нем эти свойства тоже отсутствуют.
+   * <p>
+   * Этот метод сравнивает только представления одного класса; сгенерированные реализации
+   * дополняют его сравнением с курсорами и версиями объектов того же интерфейса.
+   *
+   * @param obj Сравниваемый объект
+   *
+   * @return {@code true}, если {@code obj} -- представление того же класса с равными свойствами
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || obj.getClass() != getClass()) return false;
+    final LazyObject other = (LazyObject)obj;
+    if (index.length == 0) {
+      return ContentHash.equal(buffer, offset, other.buffer, other.offset);
+    }
+    for (int i = 0; i < index.length; ++i) {
+      final int a = index[i];
+      final int b = other.index[i];
+      if (a < 0 || b < 0) {
+        if (a != b) return false;
+      } else
+      if (!ContentHash.equal(buffer, a, other.buffer, b)) {
+        return false;
+      }
+    }
+    return true;
+  }
+  /**
+   * Вычисляет хеш по значениям свойств, объявленных в схеме, в порядке их номеров: {@code 31 * h}
+   * плюс свернутый канонический хеш значения или {@code 0} для отсутствующего свойства, начиная с
+   * {@code h = 1}. Для объектов без объявленных свойств это свернутый канонический хеш всего
+   * объекта. Так как представление неизменяемо, хеш вычисляется только при первом вызове.
+   *
+   * @return Хеш объекта, согласованный с {@link #equals}
+   */
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      if (index.length == 0) {
+        h = ContentHash.fold(ContentHash.hash(buffer, offset));
+      } else {
+        h = 1;
+        for (final int at : index) {
+          h = 31 * h + (at < 0 ? 0 : ContentHash.fold(ContentHash.hash(buffer, at)));
+        }
+      }
+      hash = h;
+    }
+    return h;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+
+/**
+ * Базовый класс для ленивых реализаций массивов скаляров, хранящих значения элементов в массивах
+ * примитивов. Представление в виде списка объектов строится только по требованию.
+ *
+ * @param <T> Тип элементов массива в представлении в виде списка
+ *
+ * @author Mingun
+ */
+abstract class LazyScalarArray<T extends JsonValue> extends LazyValue implements JsonArray<T> {
+  /** Фабрика элементов для представления в виде списка. */
+  private final Decoder<T> decoder;
+  /** Представление в виде списка или {@code null}, если к нему еще не обращались. */
+  private List<T> value;
+
+  protected LazyScalarArray(ByteBuffer buffer, int offset, Decoder<T> decoder) {
+    super(buffer, offset);
+    this.decoder = decoder;
+  }
+
+  @Override
+  public List<T> value() {
+    // Гонка при инициализации безопасна: в худшем случае список будет построен несколько раз
+    if (value == null) {
+      value = new LazyArray<>(buffer, offset, decoder).value();
+    }
+    return value;
+  }
+
+  /**
+   * Проверяет, что индекс находится в пределах массива.
+   *
+   * @param index Проверяемый индекс
+   * @param size Размер массива
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  static void checkIndex(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+  /**
+   * Проверяет, что диапазон находится в пределах массива.
+   *
+   * @param from Индекс первого элемента диапазона
+   * @param length Длина диапазона
+   * @param size Размер массива
+   *
+   * @throws IndexOutOfBoundsException Если диапазон выходит за пределы массива
+   */
+  static void checkRange(int from, int length, int size) {
+    if (from < 0 || length < 0 || from > size - length) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + from + " + " + length + ") out of bounds for size " + size);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonString;
+
+/**
+ * Ленивая реализация {@link JsonString}. Строка декодируется при первом обращении к {@link #value()}
+ * и запоминается. Сравнение с текстом и получение байт UTF-8 до этого работают прямо с исходным
+ * документом и строку не создают.
+ *
+ * @author Mingun
+ */
+public final class LazyString extends LazyValue implements JsonString {
+  /** Декодированное значение или {@code null}, если к значению еще не обращались. */
+  private String value;
+
+  public LazyString(ByteBuffer buffer, int offset) {
+    super(buffer, offset);
+  }
+
+  @Override
+  public String value() {
+    // Гонка при инициализации безопасна: все потоки получат одинаковые неизменяемые строки
+    if (value == null) {
+      value = JsonReader.readString(buffer, offset);
+    }
+    return value;
+  }
+  @Override
+  public boolean contentEquals(CharSequence text) {
+    final String v = value;
+    return v != null ? v.contentEquals(text) : JsonReader.equalsString(buffer, offset, text);
+  }
+  @Override
+  public boolean startsWith(CharSequence prefix) {
+    final String v = value;
+    return v != null ? v.startsWith(prefix.toString()) : JsonReader.startsWithString(buffer, offset, prefix);
+  }
+  /**
+   * Возвращает байты строки в кодировке UTF-8. Если в строке нет escape-последовательностей,
+   * буфер -- представление участка исходного документа без копирования.
+   *
+   * @return Буфер только для чтения, содержащий байты от позиции до предела
+   */
+  @Override
+  public ByteBuffer utf8() {
+    final int start = JsonReader.expect(buffer, offset, '"');
+    final int end = JsonReader.skipString(buffer, offset) - 1;
+    for (int i = start; i < end; ++i) {
+      if (buffer.get(i) == '\\') {
+        return JsonString.super.utf8();
+      }
+    }
+    final ByteBuffer slice = buffer.duplicate();
+    slice.limit(end).position(start);
+    return slice.slice().asReadOnlyBuffer();
+  }
+}
\ No newline at end of file
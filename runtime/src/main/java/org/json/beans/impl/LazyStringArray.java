@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.json.beans.JsonString;
+import org.json.beans.JsonStringArray;
+
+/**
+ * Ленивая реализация {@link JsonStringArray}. При первом обращении строится таблица позиций всех
+ * элементов, а сами строки декодируются только при обращении к ним и запоминаются.
+ *
+ * @author Mingun
+ */
+public final class LazyStringArray extends LazyScalarArray<JsonString> implements JsonStringArray {
+  /** Декодированные элементы или {@code null}, если к ним еще не обращались. */
+  private Values values;
+
+  public LazyStringArray(ByteBuffer buffer, int offset) {
+    super(buffer, offset, LazyString::new);
+  }
+
+  @Override
+  public int size() {
+    return values().offsets.length;
+  }
+
+  @Override
+  public boolean isNull(int index) {
+    return values().offsets[index] < 0;
+  }
+
+  @Override
+  public String get(int index) {
+    final Values v = values();
+    String value = v.strings[index];
+    if (value == null && v.offsets[index] >= 0) {
+      value = JsonReader.readString(buffer, v.offsets[index]);
+      v.strings[index] = value;
+    }
+    return value;
+  }
+
+  @Override
+  public void copyTo(int from, String[] target, int offset, int length) {
+    checkRange(from, length, size());
+    checkRange(offset, length, target.length);
+    for (int i = 0; i < length; ++i) {
+      target[offset + i] = get(from + i);
+    }
+  }
+
+  @Override
+  public Stream<String> stream() {
+    return IntStream.range(0, size()).mapToObj(this::get).filter(Objects::nonNull);
+  }
+
+  private Values values() {
+    // Гонка при инициализации безопасна: в худшем случае таблица будет построена несколько раз
+    Values v = values;
+    if (v == null) {
+      v = new Values(JsonReader.indexArray(buffer, offset));
+      values = v;
+    }
+    return v;
+  }
+
+  /** Таблица позиций элементов и уже декодированные строки. */
+  private static final class Values {
+    /** Позиции элементов в буфере, {@code -1} для элементов, равных {@code null}. */
+    final int[] offsets;
+    /** Уже декодированные строки. */
+    final String[] strings;
+
+    Values(int[] offsets) {
+      this.offsets = offsets;
+      this.strings = new String[offsets.length];
+    }
+  }
+}
\ No newline at end of file
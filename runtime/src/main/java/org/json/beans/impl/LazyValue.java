@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonValue;
+
+/**
+ * Ленивое представление значения JSON, хранящее только ссылку на буфер с документом и позицию
+ * значения в нем. Служит базовым классом для остальных ленивых реализаций, которые декодируют
+ * данные только при обращении к ним, и используется само по себе для значений, тип которых схемой
+ * не ограничен.
+ *
+ * @author Mingun
+ */
+public class LazyValue implements JsonValue {
+  /** Буфер с исходным документом. Разделяется всеми значениями одного документа. */
+  protected final ByteBuffer buffer;
+  /** Абсолютная позиция первого символа значения в {@link #buffer буфере}. */
+  protected final int offset;
+
+  public LazyValue(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+  }
+
+  /**
+   * Сравнивает значения по содержимому, см. {@link ContentHash#equal}. Значения равны, только если
+   * являются представлениями одного и того же класса.
+   *
+   * @param obj Сравниваемый объект
+   *
+   * @return {@code true}, если {@code obj} -- представление того же класса с равным значением
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (obj == null || obj.getClass() != getClass()) return false;
+    final LazyValue other = (LazyValue)obj;
+    return ContentHash.equal(buffer, offset, other.buffer, other.offset);
+  }
+  @Override
+  public int hashCode() {
+    return ContentHash.fold(ContentHash.hash(buffer, offset));
+  }
+  /**
+   * Возвращает текст значения в том виде, в котором он записан в исходном документе.
+   *
+   * @return JSON представление значения
+   */
+  @Override
+  public String toString() {
+    return JsonReader.utf8(buffer, offset, JsonReader.skipValue(buffer, offset));
+  }
+}
\ No newline at end of file
@@ -0,0 +1,253 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Хранилище документов вне кучи: файл с последовательностью JSON документов (в формате
+ * {@link JsonLinesReader NDJSON} или RFC 7464) отображается в память, а позиции документов хранятся
+ * в индексе, также отображенном в память. Документы представляются ленивыми реализациями
+ * сгенерированных интерфейсов поверх отображения, поэтому в куче находятся только те представления,
+ * которые используются в данный момент, а объем хранимых данных ограничен адресным пространством,
+ * а не размером кучи.
+ * <p>
+ * Файлы больше 2 ГиБ отображаются несколькими частями. Индекс может сохраняться в отдельный файл и
+ * переиспользоваться, если файл с документами не изменился.
+ * <p>
+ * Хранилище неизменяемо и может использоваться из нескольких потоков.
+ *
+ * @param <T> Тип документов
+ *
+ * @author Mingun
+ */
+public final class MappedStore<T> {
+  /** Количество элементов в одной части индекса. */
+  private static final int INDEX_SEGMENT = 1 << 27;
+  /** Размер заголовка файла индекса: размер и время изменения файла с документами. */
+  private static final int HEADER = 2 * Long.BYTES;
+
+  /** Отображения файла с документами. */
+  private final ByteBuffer[] segments;
+  /**
+   * Части индекса. Элемент индекса -- номер отображения в старших 32 битах и позиция документа в
+   * отображении в младших.
+   */
+  private final LongBuffer[] index;
+  /** Количество документов. */
+  private final long size;
+  /** Фабрика представлений документов. */
+  private final Decoder<? extends T> decoder;
+
+  private MappedStore(List<ByteBuffer> segments, LongBuffer[] index, long size, Decoder<? extends T> decoder) {
+    this.segments = segments.toArray(new ByteBuffer[0]);
+    this.index = index;
+    this.size = size;
+    this.decoder = decoder;
+  }
+
+  /**
+   * Открывает хранилище. Индекс строится во временном файле, который удаляется сразу после
+   * отображения в память.
+   *
+   * @param <T> Тип документов
+   * @param data Файл с документами
+   * @param decoder Фабрика представлений документов, например, {@code Root.Impl.DECODER}
+   *
+   * @return Хранилище документов
+   *
+   * @throws IOException Если файлы не удалось прочитать, записать или отобразить в память
+   */
+  public static <T> MappedStore<T> open(Path data, Decoder<? extends T> decoder) throws IOException {
+    final Path index = Files.createTempFile("json-beans", ".idx");
+    try {
+      return open(data, index, decoder);
+    } finally {
+      // Отображение остается действительным после удаления файла
+      try {
+        Files.delete(index);
+      } catch (IOException ex) {
+        index.toFile().deleteOnExit();
+      }
+    }
+  }
+  /**
+   * Открывает хранилище с сохраненным индексом. Если индекс отсутствует или построен для другой
+   * версии файла с документами, он строится заново.
+   *
+   * @param <T> Тип документов
+   * @param data Файл с документами
+   * @param index Файл индекса
+   * @param decoder Фабрика представлений документов
+   *
+   * @return Хранилище документов
+   *
+   * @throws IOException Если файлы не удалось прочитать, записать или отобразить в память
+   */
+  public static <T> MappedStore<T> open(Path data, Path index, Decoder<? extends T> decoder) throws IOException {
+    final List<ByteBuffer> segments;
+    try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+      segments = JsonLinesReader.map(channel, Integer.MAX_VALUE);
+    }
+    final long modified = Files.getLastModifiedTime(data).toMillis();
+    final long length = Files.size(data);
+    try (FileChannel channel = FileChannel.open(index, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (!isValid(channel, length, modified)) {
+        build(channel, segments, length, modified);
+      }
+      final long size = (channel.size() - HEADER) / Long.BYTES;
+      final LongBuffer[] parts = new LongBuffer[(int)((size + INDEX_SEGMENT - 1) / INDEX_SEGMENT)];
+      for (int i = 0; i < parts.length; ++i) {
+        final long count = Math.min(INDEX_SEGMENT, size - (long)i * INDEX_SEGMENT);
+        parts[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + (long)i * INDEX_SEGMENT * Long.BYTES, count * Long.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asLongBuffer();
+      }
+      return new MappedStore<>(segments, parts, size, decoder);
+    }
+  }
+
+  /**
+   * Возвращает количество документов в хранилище.
+   *
+   * @return Количество документов
+   */
+  public long size() {
+    return size;
+  }
+  /**
+   * Возвращает представление документа с указанным номером. Каждый вызов создает новое
+   * представление, документ при этом не копируется.
+   *
+   * @param number Номер документа, от {@code 0} до {@link #size()} (не включительно)
+   *
+   * @return Представление документа
+   *
+   * @throws IndexOutOfBoundsException Если документа с таким номером нет
+   */
+  public T get(long number) {
+    if (number < 0 || number >= size) {
+      throw new IndexOutOfBoundsException("Document " + number + " out of range [0; " + size + ")");
+    }
+    final long entry = index[(int)(number / INDEX_SEGMENT)].get((int)(number % INDEX_SEGMENT));
+    return decoder.decode(segments[(int)(entry >>> 32)], (int)entry);
+  }
+  /**
+   * Возвращает поток всех документов хранилища. Поток точно знает свой размер и равномерно делится
+   * на части при параллельной обработке.
+   *
+   * @return Последовательный поток документов
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(new Documents(0, size), false);
+  }
+
+  private static boolean isValid(FileChannel channel, long length, long modified) throws IOException {
+    if (channel.size() < HEADER || (channel.size() - HEADER) % Long.BYTES != 0) return false;
+
+    final ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.nativeOrder());
+    while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {}
+    header.flip();
+    return header.getLong() == length && header.getLong() == modified;
+  }
+  private static void build(FileChannel channel, List<ByteBuffer> segments, long length, long modified) throws IOException {
+    channel.truncate(0);
+    final ByteBuffer out = ByteBuffer.allocate(64 * 1024).order(ByteOrder.nativeOrder());
+    out.putLong(length).putLong(modified);
+    long position = 0;
+    for (int s = 0; s < segments.size(); ++s) {
+      final ByteBuffer segment = segments.get(s);
+      final int end = segment.limit();
+      for (int pos = JsonLinesReader.skipSeparators(segment, 0, end);
+           pos < end;
+           pos = JsonLinesReader.nextDocument(segment, pos, end)
+      ) {
+        if (!out.hasRemaining()) {
+          position = flush(channel, out, position);
+        }
+        out.putLong((long)s << 32 | pos);
+      }
+    }
+    flush(channel, out, position);
+    channel.force(false);
+  }
+  private static long flush(FileChannel channel, ByteBuffer out, long position) throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      position += channel.write(out, position);
+    }
+    out.clear();
+    return position;
+  }
+
+  /** Документы с номерами из диапазона {@code [from; to)}. */
+  private final class Documents implements Spliterator<T> {
+    private long from;
+    private final long to;
+
+    Documents(long from, long to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (from >= to) return false;
+      action.accept(get(from++));
+      return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      final long middle = from + (to - from) / 2;
+      if (middle == from) return null;
+
+      final Documents prefix = new Documents(from, middle);
+      from = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import org.json.beans.JsonParseException;
+import org.json.beans.JsonPatchException;
+
+/**
+ * Применение JSON Merge Patch (RFC 7386). Сгенерированные версии объектов (классы {@code Patched})
+ * применяют патч к свойствам, объявленным в схеме, по их номерам, разделяя с исходным объектом все
+ * незатронутые патчем поддеревья. Значения, тип которых не является объектом с собственной версией
+ * (массивы, варианты {@code oneOf}/{@code anyOf}, значения без ограничения типа), объединяются с
+ * патчем {@link #merge(Object, Encoder, Decoder, ByteBuffer, int) универсально}: значение
+ * записывается в JSON и объединяется с патчем на уровне текста, так что стоимость пропорциональна
+ * размеру этого значения, а не всего документа.
+ * <p>
+ * Значения из патча не копируются, а представляются лениво поверх буфера с патчем, поэтому он не
+ * должен изменяться, пока используется результат.
+ *
+ * @author Mingun
+ */
+public final class MergePatch {
+  private MergePatch() {}
+
+  /**
+   * Проверяет, является ли значение объектом. Патч, не являющийся объектом, заменяет значение
+   * целиком.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return {@code true}, если значение -- объект
+   */
+  public static boolean isObject(ByteBuffer buffer, int pos) {
+    return JsonReader.peek(buffer, pos) == '{';
+  }
+  /**
+   * Строит индекс патча объекта. В отличие от {@link JsonReader#indexObject(ByteBuffer, int, KeyMatcher)}
+   * запоминает и позиции значений {@code null}, которые в патче означают удаление свойства.
+   * Как и операции JSON Patch, патч не может изменять свойства, не объявленные в схеме.
+   *
+   * @param patch Буфер с патчем
+   * @param pos Позиция открывающей скобки патча
+   * @param keys Сопоставитель имен свойств с их номерами
+   *
+   * @return Массив из {@link KeyMatcher#size()} элементов с позициями значений свойств. Для
+   *         отсутствующих в патче свойств содержит {@code -1}
+   *
+   * @throws JsonParseException Если патч не является объектом или записан некорректно
+   * @throws JsonPatchException Если патч содержит свойство, не объявленное в схеме. Путь в
+   *         исключении указывает на это свойство относительно объекта, к которому применяется патч
+   */
+  public static int[] index(ByteBuffer patch, int pos, KeyMatcher keys) {
+    return index(patch, pos, keys, true);
+  }
+  /**
+   * Строит индекс патча объекта.
+   *
+   * @param patch Буфер с патчем
+   * @param pos Позиция открывающей скобки патча
+   * @param keys Сопоставитель имен свойств с их номерами
+   * @param strict Если {@code true}, свойства, отсутствующие в {@code keys}, запрещены, иначе
+   *        они пропускаются
+   *
+   * @return Массив из {@link KeyMatcher#size()} элементов с позициями значений свойств
+   */
+  static int[] index(ByteBuffer patch, int pos, KeyMatcher keys, boolean strict) {
+    final int[] index = new int[keys.size()];
+    Arrays.fill(index, -1);
+    pos = JsonReader.skipWhitespace(patch, JsonReader.expect(patch, pos, '{'));
+    if (JsonReader.peek(patch, pos) == '}') return index;
+    while (true) {
+      final int keyEnd = JsonReader.skipString(patch, pos);
+      final int property = keys.match(patch, pos + 1, keyEnd - 1);
+      if (property < 0 && strict) {
+        final String name = JsonReader.readString(patch, pos);
+        throw new JsonPatchException(
+          "Property '" + name + "' is not declared in the schema",
+          "/" + name.replace("~", "~0").replace("/", "~1")
+        );
+      }
+      pos = JsonReader.skipWhitespace(patch, JsonReader.expect(patch, JsonReader.skipWhitespace(patch, keyEnd), ':'));
+      if (property >= 0) {
+        index[property] = pos;
+      }
+      pos = JsonReader.skipWhitespace(patch, JsonReader.skipValue(patch, pos));
+      switch (JsonReader.peek(patch, pos)) {
+        case ',': pos = JsonReader.skipWhitespace(patch, pos + 1); break;
+        case '}': return index;
+        default: throw new JsonParseException("Expected ',' or '}'", pos);
+      }
+    }
+  }
+  /**
+   * Применяет патч к значению любого типа. Если патч -- объект, значение записывается в JSON,
+   * объединяется с патчем и результат представляется заново, иначе патч заменяет значение.
+   *
+   * @param <T> Тип значения
+   * @param target Значение, к которому применяется патч, или {@code null}, если оно отсутствует
+   * @param encoder Функция записи значений в JSON
+   * @param decoder Фабрика представлений значений
+   * @param patch Буфер с патчем
+   * @param pos Позиция первого символа патча
+   *
+   * @return Новое значение или {@code null}, если патч удаляет значение
+   *
+   * @throws JsonParseException Если патч записан некорректно
+   */
+  public static <T> T merge(T target, Encoder<? super T> encoder, Decoder<? extends T> decoder, ByteBuffer patch, int pos) {
+    if (JsonReader.isNull(patch, pos)) return null;
+    if (!isObject(patch, pos)) {
+      return decoder.decode(patch, pos);
+    }
+    final ByteBuffer source = target == null ? null : ByteBuffer.wrap(JsonWriter.encode(encoder, target));
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (JsonWriter out = new JsonWriter(bytes)) {
+      merge(source, 0, patch, pos, out);
+    } catch (IOException ex) {
+      // Запись в память не может завершиться ошибкой ввода-вывода
+      throw new UncheckedIOException(ex);
+    }
+    return decoder.decode(ByteBuffer.wrap(bytes.toByteArray()), 0);
+  }
+
+  /**
+   * Записывает результат применения патча к значению JSON.
+   *
+   * @param target Буфер с исходным значением или {@code null}, если значение отсутствует
+   * @param tpos Позиция первого символа исходного значения
+   * @param patch Буфер с патчем
+   * @param ppos Позиция первого символа патча
+   * @param out Писатель результата
+   */
+  private static void merge(ByteBuffer target, int tpos, ByteBuffer patch, int ppos, JsonWriter out) throws IOException {
+    if (!isObject(patch, ppos)) {
+      out.raw(patch, ppos, JsonReader.skipValue(patch, ppos) - ppos);
+      return;
+    }
+    final Map<String, Integer> changes = ContentHash.members(patch, ppos);
+    out.beginObject();
+    // Свойства исходного объекта в исходном порядке, затем новые свойства в порядке патча
+    if (target != null && isObject(target, tpos)) {
+      for (final Map.Entry<String, Integer> e : ContentHash.members(target, tpos).entrySet()) {
+        final int pos = e.getValue();
+        final Integer change = changes.remove(e.getKey());
+        if (change == null) {
+          out.name(JsonWriter.encodeName(e.getKey()));
+          out.raw(target, pos, JsonReader.skipValue(target, pos) - pos);
+        } else
+        if (!JsonReader.isNull(patch, change)) {
+          out.name(JsonWriter.encodeName(e.getKey()));
+          merge(target, pos, patch, change, out);
+        }
+      }
+    }
+    for (final Map.Entry<String, Integer> e : changes.entrySet()) {
+      if (!JsonReader.isNull(patch, e.getValue())) {
+        out.name(JsonWriter.encodeName(e.getKey()));
+        merge(null, 0, patch, e.getValue(), out);
+      }
+    }
+    out.endObject();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.beans.JsonValue;
+import org.json.beans.ValidationException;
+
+/**
+ * Реализация наблюдения, накапливающая счетчики по каждому сгенерированному типу. Счетчики
+ * основаны на {@link LongAdder}, поэтому их обновление из многих потоков не создает конкуренции
+ * за одну ячейку памяти, а чтение дает согласованное лишь приблизительно состояние.
+ * <p>
+ * Для включения укажите класс в системном свойстве {@value Probe#PROPERTY} или установите
+ * экземпляр через {@link Probe#install}, чтобы затем читать его счетчики.
+ *
+ * @author Mingun
+ */
+public class Metrics implements Instrumentation {
+  /** Счетчики по типам. */
+  private final ConcurrentMap<Class<?>, Counters> counters = new ConcurrentHashMap<>();
+
+  @Override
+  public Probe probe(Class<? extends JsonValue> type, String[] properties) {
+    return counters.computeIfAbsent(type, t -> new Counters(properties));
+  }
+  /**
+   * Возвращает счетчики типа.
+   *
+   * @param type Сгенерированный интерфейс
+   *
+   * @return Счетчики или {@code null}, если классы типа еще не инициализировались
+   */
+  public Counters counters(Class<? extends JsonValue> type) {
+    return counters.get(type);
+  }
+  /**
+   * Возвращает счетчики всех наблюдаемых типов.
+   *
+   * @return Неизменяемое отображение, отражающее появление новых типов
+   */
+  public Map<Class<?>, Counters> counters() {
+    return Collections.unmodifiableMap(counters);
+  }
+
+  /**
+   * Оценивает размер в байтах представления объекта и его индекса для 64-битной JVM со сжатыми
+   * указателями: заголовки, поля {@link LazyObject}, по полю на запоминаемое свойство и массив индекса.
+   *
+   * @param properties Количество свойств типа
+   *
+   * @return Оценка размера, выделяемого при создании одного представления
+   */
+  public static long footprint(int properties) {
+    final long instance = 12 + 4 * 4 + 4L * properties;
+    final long index = 16 + 4L * properties;
+    return (instance + 7 & ~7) + (index + 7 & ~7);
+  }
+
+  /** Счетчики одного типа. */
+  public static final class Counters extends Probe {
+    /** Имена свойств в порядке их номеров. */
+    private final String[] names;
+    /** Оценка размера одного представления. */
+    private final long footprint;
+
+    private final LongAdder decoded = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder present = new LongAdder();
+    private final LongAdder materialized = new LongAdder();
+    private final LongAdder encoded = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    /** Количество декодирований по номерам свойств. */
+    private final LongAdder[] properties;
+    /** Количество ошибок проверки по ключевым словам. */
+    private final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    Counters(String[] names) {
+      this.names = names.clone();
+      this.footprint = footprint(names.length);
+      this.properties = new LongAdder[names.length];
+      for (int i = 0; i < names.length; ++i) {
+        properties[i] = new LongAdder();
+      }
+    }
+
+    @Override
+    public void decoded(int bytes, long nanos, int present) {
+      decoded.increment();
+      decodedBytes.add(bytes);
+      decodeNanos.add(nanos);
+      this.present.add(present);
+    }
+    @Override
+    public void materialized(int property) {
+      materialized.increment();
+      properties[property].increment();
+    }
+    @Override
+    public void encoded(long bytes, long nanos) {
+      encoded.increment();
+      encodedBytes.add(bytes);
+      encodeNanos.add(nanos);
+    }
+    @Override
+    public void invalid(ValidationException error) {
+      final String keyword = error.getKeyword();
+      failures.computeIfAbsent(keyword == null ? "unknown" : keyword, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Возвращает количество проиндексированных объектов, включая перестановки курсоров.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long decoded() {
+      return decoded.sum();
+    }
+    /**
+     * Возвращает суммарный размер проиндексированных объектов в байтах.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long decodedBytes() {
+      return decodedBytes.sum();
+    }
+    /**
+     * Возвращает суммарное время индексирования в наносекундах.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long decodeNanos() {
+      return decodeNanos.sum();
+    }
+    /**
+     * Возвращает количество декодированных при обращении свойств.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long materialized() {
+      return materialized.sum();
+    }
+    /**
+     * Возвращает количество присутствовавших, но не декодированных свойств. Свойства, читаемые
+     * только примитивными геттерами, не запоминаются и поэтому тоже считаются пропущенными.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long skipped() {
+      return Math.max(present.sum() - materialized.sum(), 0);
+    }
+    /**
+     * Возвращает количество записанных значений.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long encoded() {
+      return encoded.sum();
+    }
+    /**
+     * Возвращает суммарный размер записанных значений в байтах.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long encodedBytes() {
+      return encodedBytes.sum();
+    }
+    /**
+     * Возвращает суммарное время записи в наносекундах.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long encodeNanos() {
+      return encodeNanos.sum();
+    }
+    /**
+     * Возвращает оценку памяти, выделенной под представления и их индексы, в байтах.
+     *
+     * @return Текущее значение счетчика
+     */
+    public long allocated() {
+      return decoded.sum() * footprint;
+    }
+    /**
+     * Возвращает количество декодирований каждого свойства. Свойства, которые никогда не
+     * декодируются, -- кандидаты на исключение из проекции.
+     *
+     * @return Новое отображение имени свойства на количество декодирований в порядке номеров свойств
+     */
+    public Map<String, Long> properties() {
+      final Map<String, Long> result = new LinkedHashMap<>();
+      for (int i = 0; i < names.length; ++i) {
+        result.put(names[i], properties[i].sum());
+      }
+      return result;
+    }
+    /**
+     * Возвращает количество ошибок проверки по нарушенным ограничениям.
+     *
+     * @return Новое отображение ключевого слова на количество ошибок
+     */
+    public Map<String, Long> failures() {
+      final Map<String, Long> result = new TreeMap<>();
+      for (final Map.Entry<String, LongAdder> e : failures.entrySet()) {
+        result.put(e.getKey(), e.getValue().sum());
+      }
+      return result;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Реализация {@link KeyMatcher}, сравнивающая имя свойства прямо с байтами в буфере, без создания
+ * строк. Номер свойства ищется по совершенной хеш-функции: при создании подбирается такое начальное
+ * значение хеша, при котором хеши всех известных имен попадают в разные ячейки таблицы, поэтому для
+ * любого имени достаточно одного сравнения. Функция не минимальна: таблица как минимум вдвое больше
+ * количества имен, что позволяет быстро подобрать начальное значение.
+ * <p>
+ * Имена, записанные в документе с escape-последовательностями, сопоставляются после декодирования.
+ *
+ * @author Mingun
+ */
+final class PerfectKeyMatcher implements KeyMatcher {
+  private static final int FNV_PRIME = 0x01000193;
+  /** Количество попыток подобрать начальное значение хеша перед увеличением таблицы. */
+  private static final int ATTEMPTS = 64;
+  /** Наибольшее количество ячеек таблицы на одно имя, до которого она может быть увеличена. */
+  private static final int MAX_SCALE = 64;
+
+  /** Имена свойств в кодировке UTF-8 в порядке их номеров. */
+  private final byte[][] keys;
+  /** Таблица номеров свойств, увеличенных на единицу. {@code 0} -- пустая ячейка. */
+  private final int[] table;
+  /** Начальное значение хеша, при котором хеши всех имен попадают в разные ячейки. */
+  private final int seed;
+  /** Длина самого длинного имени в байтах. */
+  private final int maxLength;
+  /** Сопоставитель для имен, записанных с escape-последовательностями. */
+  private final HashKeyMatcher escaped;
+
+  private PerfectKeyMatcher(byte[][] keys, int maxLength, HashKeyMatcher escaped, int[] table, int seed) {
+    this.keys = keys;
+    this.maxLength = maxLength;
+    this.escaped = escaped;
+    this.table = table;
+    this.seed = seed;
+  }
+
+  /**
+   * Строит сопоставитель для указанных имен. Перебирает начальные значения хеша, увеличивая таблицу
+   * после каждых {@link #ATTEMPTS} неудачных попыток, но не более чем до {@link #MAX_SCALE} ячеек на
+   * имя.
+   *
+   * @param names Имена свойств в порядке их номеров
+   *
+   * @return Сопоставитель или {@code null}, если подходящее начальное значение хеша не найдено
+   *
+   * @throws IllegalArgumentException Если имена повторяются
+   */
+  static PerfectKeyMatcher of(String[] names) {
+    final HashKeyMatcher escaped = new HashKeyMatcher(names);
+    final byte[][] keys = new byte[names.length][];
+    int max = 0;
+    for (int i = 0; i < names.length; ++i) {
+      keys[i] = names[i].getBytes(UTF_8);
+      max = Math.max(max, keys[i].length);
+    }
+
+    final int limit = Integer.highestOneBit(Math.max(names.length, 1) * MAX_SCALE);
+    for (int size = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1; size <= limit; size <<= 1) {
+      for (int seed = 0; seed < ATTEMPTS; ++seed) {
+        final int[] table = fill(keys, seed, size);
+        if (table != null) {
+          return new PerfectKeyMatcher(keys, max, escaped, table, seed);
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int match(ByteBuffer buffer, int start, int end) {
+    final int length = end - start;
+    if (length > maxLength) {
+      return contains(buffer, start, end, (byte)'\\') ? escaped.match(buffer, start, end) : -1;
+    }
+    int h = seed ^ length;
+    for (int i = start; i < end; ++i) {
+      final byte b = buffer.get(i);
+      if (b == '\\') {
+        return escaped.match(buffer, start, end);
+      }
+      h = (h ^ b) * FNV_PRIME;
+    }
+    final int number = table[(h ^ h >>> 16) & (table.length - 1)] - 1;
+    if (number < 0) return -1;
+
+    final byte[] key = keys[number];
+    if (key.length != length) return -1;
+    for (int i = 0; i < length; ++i) {
+      if (buffer.get(start + i) != key[i]) return -1;
+    }
+    return number;
+  }
+
+  @Override
+  public int number(String name) {
+    return escaped.number(name);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * Пытается разместить все имена в таблице указанного размера.
+   *
+   * @return Заполненная таблица или {@code null}, если хеши двух имен попали в одну ячейку
+   */
+  private static int[] fill(byte[][] keys, int seed, int size) {
+    final int[] t = new int[size];
+    for (int i = 0; i < keys.length; ++i) {
+      final byte[] key = keys[i];
+      int h = seed ^ key.length;
+      for (final byte b : key) {
+        h = (h ^ b) * FNV_PRIME;
+      }
+      final int slot = (h ^ h >>> 16) & (size - 1);
+      if (t[slot] != 0) return null;
+      t[slot] = i + 1;
+    }
+    return t;
+  }
+  private static boolean contains(ByteBuffer buffer, int start, int end, byte value) {
+    for (int i = start; i < end; ++i) {
+      if (buffer.get(i) == value) return true;
+    }
+    return false;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+
+/**
+ * Неизменяемый массив, изменения которого создают новые версии, разделяющие с предыдущими все
+ * неизмененные участки. Версия хранит список сегментов -- участков исходных списков элементов,
+ * например, {@link LazyArray#value() элементов ленивого массива}, -- и каждое изменение копирует
+ * только границы сегментов, не трогая сами элементы. Когда сегментов становится больше корня из
+ * размера массива, они сливаются в один, так что и изменение, и доступ к элементу остаются дешевыми.
+ * <p>
+ * Версии можно без блокировок передавать другим потокам.
+ *
+ * @param <T> Тип элементов массива
+ *
+ * @author Mingun
+ */
+public final class PersistentArray<T extends JsonValue> implements JsonArray<T> {
+  /** Минимальное количество сегментов, при котором они могут быть слиты в один. */
+  private static final int MIN_SEGMENTS = 32;
+
+  /** Списки, участки которых составляют массив. */
+  private final List<?>[] sources;
+  /** Индексы первых элементов участков в их списках. */
+  private final int[] starts;
+  /** Индексы в массиве, следующие за последними элементами участков, по возрастанию. */
+  private final int[] ends;
+  /** Представление массива в виде списка. */
+  private final List<T> value = new Elements();
+
+  private PersistentArray(List<?>[] sources, int[] starts, int[] ends) {
+    this.sources = sources;
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  /**
+   * Создает версию массива, разделяющую с ним все элементы.
+   *
+   * @param <T> Тип элементов массива
+   * @param array Исходный массив
+   *
+   * @return {@code array}, если он уже является версией, иначе версия из одного сегмента
+   */
+  public static <T extends JsonValue> PersistentArray<T> of(JsonArray<T> array) {
+    if (array instanceof PersistentArray) {
+      return (PersistentArray<T>)array;
+    }
+    final List<T> items = array.value();
+    return new PersistentArray<>(new List<?>[] { items }, new int[] { 0 }, new int[] { items.size() });
+  }
+
+  @Override
+  public List<T> value() {
+    return value;
+  }
+  /**
+   * Возвращает количество элементов массива.
+   *
+   * @return Количество элементов, включая равные {@code null}
+   */
+  public int size() {
+    return ends.length == 0 ? 0 : ends[ends.length - 1];
+  }
+  /**
+   * Создает версию, в которой элемент заменен.
+   *
+   * @param index Индекс заменяемого элемента
+   * @param element Новый элемент, может быть {@code null}
+   *
+   * @return Новая версия
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  public PersistentArray<T> with(int index, T element) {
+    check(index, size() - 1);
+    return splice(index, index + 1, element, true);
+  }
+  /**
+   * Создает версию со вставленным элементом.
+   *
+   * @param index Индекс, который получит вставленный элемент; равен размеру для добавления в конец
+   * @param element Вставляемый элемент, может быть {@code null}
+   *
+   * @return Новая версия
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  public PersistentArray<T> plus(int index, T element) {
+    check(index, size());
+    return splice(index, index, element, true);
+  }
+  /**
+   * Создает версию без указанного элемента.
+   *
+   * @param index Индекс удаляемого элемента
+   *
+   * @return Новая версия
+   *
+   * @throws IndexOutOfBoundsException Если индекс за пределами массива
+   */
+  public PersistentArray<T> minus(int index) {
+    check(index, size() - 1);
+    return splice(index, index + 1, null, false);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof PersistentArray && value.equals(((PersistentArray<?>)obj).value);
+  }
+  @Override
+  public int hashCode() {
+    return value.hashCode();
+  }
+
+  /**
+   * Заменяет участок {@code [from; to)} элементом или удаляет его.
+   *
+   * @param from Индекс первого заменяемого элемента
+   * @param to Индекс, следующий за последним заменяемым элементом
+   * @param element Элемент, вставляемый вместо участка
+   * @param insert Вставлять ли {@code element}
+   */
+  private PersistentArray<T> splice(int from, int to, T element, boolean insert) {
+    final Segments result = new Segments(sources.length + 2);
+    // Участки сегментов до заменяемого участка
+    int begin = 0;
+    for (int i = 0; i < sources.length && begin < from; ++i) {
+      result.add(sources[i], starts[i], Math.min(ends[i], from) - begin);
+      begin = ends[i];
+    }
+    if (insert) {
+      result.add(Collections.singletonList(element), 0, 1);
+    }
+    // Участки сегментов после заменяемого участка
+    begin = 0;
+    for (int i = 0; i < sources.length; ++i) {
+      if (ends[i] > to) {
+        final int skip = Math.max(to - begin, 0);
+        result.add(sources[i], starts[i] + skip, ends[i] - begin - skip);
+      }
+      begin = ends[i];
+    }
+    return result.build();
+  }
+  private static void check(int index, int max) {
+    if (index < 0 || index > max) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (max + 1));
+    }
+  }
+
+  /** Накопитель сегментов новой версии. */
+  private final class Segments {
+    final List<?>[] sources;
+    final int[] starts;
+    final int[] ends;
+    int count;
+    int size;
+
+    Segments(int capacity) {
+      this.sources = new List<?>[capacity];
+      this.starts = new int[capacity];
+      this.ends = new int[capacity];
+    }
+
+    void add(List<?> source, int start, int length) {
+      if (length > 0) {
+        sources[count] = source;
+        starts[count] = start;
+        size += length;
+        ends[count++] = size;
+      }
+    }
+    PersistentArray<T> build() {
+      if (count <= Math.max(MIN_SEGMENTS, (int)Math.sqrt(size))) {
+        return new PersistentArray<>(Arrays.copyOf(sources, count), Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+      }
+      // Сегменты сливаются в один; сами элементы при этом не копируются
+      final List<Object> items = new ArrayList<>(size);
+      int begin = 0;
+      for (int i = 0; i < count; ++i) {
+        items.addAll(sources[i].subList(starts[i], starts[i] + ends[i] - begin));
+        begin = ends[i];
+      }
+      return new PersistentArray<>(new List<?>[] { items }, new int[] { 0 }, new int[] { size });
+    }
+  }
+  /** Список элементов всех сегментов. */
+  private final class Elements extends AbstractList<T> implements RandomAccess {
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      check(index, size() - 1);
+      int i = Arrays.binarySearch(ends, index);
+      // Индекс, равный концу сегмента, -- первый элемент следующего сегмента
+      i = i < 0 ? -i - 1 : i + 1;
+      final int begin = i == 0 ? 0 : ends[i - 1];
+      return (T)sources[i].get(starts[i] + index - begin);
+    }
+
+    @Override
+    public int size() {
+      return PersistentArray.this.size();
+    }
+  }
+}
\ No newline at end of file
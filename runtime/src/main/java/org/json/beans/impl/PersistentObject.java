@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import org.json.beans.JsonValue;
+
+/**
+ * Базовый класс для сгенерированных неизменяемых версий объектов, создаваемых методами
+ * {@code with<Имя>(...)}. Версия хранит только ссылку на исходный объект и значения измененных
+ * свойств, а остальные свойства берет у исходного объекта, поэтому все неизмененные поддеревья,
+ * в том числе ленивые представления исходного документа, разделяются всеми версиями. Изменение
+ * свойства создает новую версию, копируя лишь ссылки на значения свойств одного объекта, так что
+ * обновление вложенного свойства стоит пропорционально длине пути к нему, а не размеру документа.
+ * <p>
+ * Все поля версий неизменяемы и заполняются в конструкторе, поэтому версии можно без блокировок
+ * передавать другим потокам, которые продолжают читать старые версии, пока создаются новые.
+ * <p>
+ * Версии интерфейсов, все свойства которых имеют ленивую реализацию, переопределяют
+ * {@code equals} и {@code hashCode}: версия равна ленивой реализации, курсору или другой версии
+ * того же интерфейса, если равны значения их свойств, и имеет тот же хеш, что и
+ * {@link LazyObject} с такими свойствами. Поэтому результат патча, не изменившего ни одного
+ * значения, равен исходному объекту.
+ *
+ * @author Mingun
+ */
+public abstract class PersistentObject implements JsonValue {
+  /** Битовая карта измененных свойств: бит с номером свойства установлен, если оно изменено. */
+  private final long[] changed;
+
+  /**
+   * Создает версию без измененных свойств.
+   *
+   * @param size Количество свойств объекта
+   * @param all Если {@code true}, все свойства считаются измененными, т.е. исходного объекта нет
+   */
+  protected PersistentObject(int size, boolean all) {
+    this.changed = new long[(size + 63) >>> 6];
+    if (all) {
+      for (int i = 0; i < size; ++i) {
+        changed[i >>> 6] |= 1L << i;
+      }
+    }
+  }
+  /**
+   * Создает версию, в которой дополнительно изменено указанное свойство.
+   *
+   * @param source Предыдущая версия
+   * @param property Номер измененного свойства
+   */
+  protected PersistentObject(PersistentObject source, int property) {
+    this.changed = source.changed.clone();
+    changed[property >>> 6] |= 1L << property;
+  }
+
+  /**
+   * Проверяет, изменено ли свойство в этой версии или в одной из предыдущих.
+   *
+   * @param property Номер свойства
+   *
+   * @return {@code true}, если значение свойства хранится в версии, и {@code false}, если оно
+   *         берется у исходного объекта
+   */
+  protected final boolean changed(int property) {
+    return (changed[property >>> 6] & (1L << property)) != 0;
+  }
+}
\ No newline at end of file
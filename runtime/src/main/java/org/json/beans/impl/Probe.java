@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceLoader;
+import org.json.beans.JsonValue;
+import org.json.beans.ValidationException;
+
+/**
+ * Датчик, через который сгенерированные классы одного типа сообщают о своей работе. Сгенерированные
+ * классы получают датчик при инициализации в статическую константу и вызывают его методы, только
+ * если она не равна {@code null}, поэтому без {@link Instrumentation} накладные расходы сводятся
+ * к проверке, которую JIT-компилятор исключает.
+ * <p>
+ * Методы вызываются из разных потоков без синхронизации. Реализации по умолчанию ничего не делают.
+ *
+ * @author Mingun
+ */
+public abstract class Probe {
+  /** Системное свойство с именем класса реализации {@link Instrumentation}. */
+  public static final String PROPERTY = "org.json.beans.instrumentation";
+
+  /** Выбранная реализация или {@code null}, если наблюдение отключено. */
+  private static Instrumentation instrumentation;
+  /** Выбрана ли уже реализация. После выбора ее нельзя заменить. */
+  private static boolean resolved;
+  /** Созданные датчики по типам, включая отсутствующие. */
+  private static final Map<Class<?>, Probe> probes = new HashMap<>();
+
+  /**
+   * Сообщает о построении индекса объекта при создании его представления или перестановке курсора.
+   *
+   * @param bytes Размер объекта в документе
+   * @param nanos Время построения индекса
+   * @param present Количество проиндексированных свойств, присутствующих в объекте; {@code 0} для
+   *        курсоров, декодирование свойств которых не отслеживается
+   */
+  public void decoded(int bytes, long nanos, int present) {}
+  /**
+   * Сообщает о первом обращении к свойству ленивого представления ({@code Impl}), при котором его
+   * значение декодируется и запоминается.
+   * Свойства, присутствующие в объекте, но так и не декодированные, пропущены ленивым разбором.
+   *
+   * @param property Номер свойства
+   */
+  public void materialized(int property) {}
+  /**
+   * Сообщает о записи значения. Для вложенных объектов время включается и во время записи
+   * содержащего их объекта.
+   *
+   * @param bytes Количество записанных байт
+   * @param nanos Время записи
+   */
+  public void encoded(long bytes, long nanos) {}
+  /**
+   * Сообщает о несоответствии документа схеме, обнаруженном проверяющей фабрикой типа.
+   *
+   * @param error Ошибка проверки; {@link ValidationException#getKeyword()} содержит нарушенное
+   *        ограничение
+   */
+  public void invalid(ValidationException error) {}
+
+  /**
+   * Сообщает о построенном индексе объекта. Размер объекта нужен только наблюдению, поэтому он
+   * вычисляется отдельным проходом уже после замера времени.
+   *
+   * @param buffer Буфер с документом
+   * @param offset Позиция первого символа объекта
+   * @param index Построенный индекс или {@code null}, если декодирование свойств не отслеживается
+   * @param nanos Время построения индекса
+   */
+  final void indexed(ByteBuffer buffer, int offset, int[] index, long nanos) {
+    int present = 0;
+    if (index != null) {
+      for (final int at : index) {
+        if (at >= 0) ++present;
+      }
+    }
+    decoded(JsonReader.skipValue(buffer, offset) - offset, nanos, present);
+  }
+
+  /**
+   * Возвращает датчик для сгенерированного типа, создавая его при первом обращении. Вызывается
+   * при инициализации сгенерированных классов, поэтому синхронизация не влияет на производительность.
+   *
+   * @param type Сгенерированный интерфейс или перечисление
+   * @param properties Имена свойств в порядке их номеров
+   *
+   * @return Датчик или {@code null}, если наблюдение отключено
+   */
+  public static synchronized Probe of(Class<? extends JsonValue> type, String... properties) {
+    if (probes.containsKey(type)) {
+      return probes.get(type);
+    }
+    final Instrumentation instrumentation = instrumentation();
+    final Probe probe = instrumentation == null ? null : instrumentation.probe(type, properties);
+    probes.put(type, probe);
+    return probe;
+  }
+  /**
+   * Устанавливает реализацию наблюдения. Так как датчики запоминаются в статических константах,
+   * ее нужно установить до инициализации первого сгенерированного класса.
+   *
+   * @param instrumentation Реализация наблюдения
+   *
+   * @throws IllegalStateException Если реализация уже выбрана
+   */
+  public static synchronized void install(Instrumentation instrumentation) {
+    if (resolved) {
+      throw new IllegalStateException("Instrumentation is already " + (Probe.instrumentation == null ? "disabled" : "installed"));
+    }
+    Probe.instrumentation = instrumentation;
+    resolved = true;
+  }
+
+  private static Instrumentation instrumentation() {
+    if (!resolved) {
+      instrumentation = resolve();
+      resolved = true;
+    }
+    return instrumentation;
+  }
+  private static Instrumentation resolve() {
+    final String name = System.getProperty(PROPERTY);
+    if (name != null && !name.isEmpty()) {
+      try {
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return Class.forName(name, true, loader == null ? Probe.class.getClassLoader() : loader)
+          .asSubclass(Instrumentation.class)
+          .getConstructor()
+          .newInstance();
+      } catch (ReflectiveOperationException | ClassCastException ex) {
+        throw new IllegalStateException("Cannot create instrumentation " + name, ex);
+      }
+    }
+    final Iterator<Instrumentation> it = ServiceLoader.load(Instrumentation.class).iterator();
+    return it.hasNext() ? it.next() : null;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.util.Arrays;
+
+/**
+ * Проекция объекта -- подмножество его свойств, к которым будет обращаться потребитель. Индекс
+ * объекта, построенный по проекции, содержит позиции только этих свойств, а просмотр объекта
+ * прекращается, как только все они найдены: остаток объекта даже не пропускается. Свойства вне
+ * проекции выглядят отсутствующими.
+ * <p>
+ * Так как просмотр прекращается досрочно, при повторении свойства в объекте используется первое
+ * значение, а не последнее, и ошибки синтаксиса в непросмотренном остатке не обнаруживаются.
+ * <p>
+ * Проекция ограничивает только свойства самого объекта: вложенные объекты, полученные через
+ * геттеры свойств проекции, индексируются полностью. Пути к вложенным свойствам (например,
+ * {@code "a.b"} или {@code "/a/b"}) не поддерживаются и отвергаются как неизвестные имена, если
+ * только в схеме нет свойства с таким именем.
+ *
+ * @author Mingun
+ */
+public final class Projection {
+  /** Отметка в индексе свойства проекции, которое еще не найдено. */
+  static final int PENDING = -2;
+
+  /** Сопоставитель имен всех свойств объекта с их номерами. */
+  final KeyMatcher keys;
+  /** Начальное состояние индекса: {@link #PENDING} для свойств проекции, {@code -1} для остальных. */
+  private final int[] template;
+  /** Количество свойств в проекции. */
+  final int count;
+
+  private Projection(KeyMatcher keys, int[] template, int count) {
+    this.keys = keys;
+    this.template = template;
+    this.count = count;
+  }
+
+  /**
+   * Создает проекцию объекта.
+   *
+   * @param keys Сопоставитель имен всех свойств объекта с их номерами
+   * @param properties Имена собственных свойств объекта, как они записаны в схеме
+   *
+   * @return Проекция
+   *
+   * @throws IllegalArgumentException Если среди имен есть свойство, не известное {@code keys}, в
+   *         том числе путь к свойству вложенного объекта
+   */
+  public static Projection of(KeyMatcher keys, String... properties) {
+    final int[] template = new int[keys.size()];
+    Arrays.fill(template, -1);
+    int count = 0;
+    for (final String name : properties) {
+      final int property = keys.number(name);
+      if (property < 0) {
+        throw new IllegalArgumentException("Unknown property '" + name + "'");
+      }
+      if (template[property] != PENDING) {
+        template[property] = PENDING;
+        ++count;
+      }
+    }
+    return new Projection(keys, template, count);
+  }
+
+  /**
+   * Подготавливает массив индекса к заполнению.
+   *
+   * @param index Массив из {@link KeyMatcher#size()} элементов
+   */
+  void reset(int[] index) {
+    System.arraycopy(template, 0, index, 0, template.length);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+/**
+ * Колонка строкового свойства или перечисления со словарным кодированием: каждая строка хранит
+ * номер значения в словаре различных значений, упорядоченном по первому появлению. Значения
+ * перечислений, не являющиеся строками, хранятся текстом их литералов.
+ *
+ * @author Mingun
+ */
+public final class StringColumn extends Column {
+  /** Номера значений в словаре по строкам; {@code -1} в строках без значений. */
+  private final int[] codes;
+  /** Различные значения в порядке первого появления. */
+  private final String[] dictionary;
+
+  StringColumn(int size, long[] nulls, int[] codes, String[] dictionary) {
+    super(size, nulls);
+    this.codes = codes;
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Возвращает значение в строке.
+   *
+   * @param row Номер строки
+   *
+   * @return Значение или {@code null}, если значения нет
+   */
+  public String get(int row) {
+    final int code = codes[row];
+    return code < 0 ? null : dictionary[code];
+  }
+  /**
+   * Возвращает номер значения в словаре для строки.
+   *
+   * @param row Номер строки
+   *
+   * @return Номер значения или {@code -1}, если значения нет
+   */
+  public int code(int row) {
+    return codes[row];
+  }
+  /**
+   * Возвращает номера значений всех строк. Массив не копируется и не должен изменяться.
+   *
+   * @return Массив из {@link #size()} номеров; {@code -1} в строках без значений
+   */
+  public int[] codes() {
+    return codes;
+  }
+  /**
+   * Возвращает словарь различных значений. Массив не копируется и не должен изменяться.
+   *
+   * @return Значения в порядке их первого появления в массиве
+   */
+  public String[] dictionary() {
+    return dictionary;
+  }
+}
\ No newline at end of file
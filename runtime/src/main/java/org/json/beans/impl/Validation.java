@@ -0,0 +1,483 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.json.beans.JsonParseException;
+import org.json.beans.ValidationException;
+
+/**
+ * Вспомогательные методы для сгенерированных валидаторов. Все проверки выполняются прямо над байтами
+ * документа, без создания представлений значений.
+ *
+ * @author Mingun
+ */
+public final class Validation {
+  /** Маска типа {@code "null"}. */
+  public static final int NULL    = 1;
+  /** Маска типа {@code "boolean"}. */
+  public static final int BOOLEAN = 1 << 1;
+  /** Маска типа {@code "object"}. */
+  public static final int OBJECT  = 1 << 2;
+  /** Маска типа {@code "array"}. */
+  public static final int ARRAY   = 1 << 3;
+  /** Маска нецелых чисел. Тип {@code "number"} описывается маской {@code NUMBER | INTEGER}. */
+  public static final int NUMBER  = 1 << 4;
+  /** Маска типа {@code "integer"}: чисел без дробной части, в том числе записанных как {@code 1.0}. */
+  public static final int INTEGER = 1 << 5;
+  /** Маска типа {@code "string"}. */
+  public static final int STRING  = 1 << 6;
+
+  private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+  private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+  private static final Pattern DATE = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})");
+  private static final Pattern TIME = Pattern.compile("(\\d{2}):(\\d{2}):(\\d{2})(?:\\.\\d+)?(?:[Zz]|[+-](\\d{2}):(\\d{2}))");
+  private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9!#$%&'*+/=?^_`{|}~.-]+@([^@]+)");
+  private static final Pattern LABEL = Pattern.compile("[A-Za-z0-9](?:[A-Za-z0-9-]{0,61}[A-Za-z0-9])?");
+  private static final Pattern IPV4 = Pattern.compile("(?:(?:25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)\\.){3}(?:25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)");
+  private static final Pattern HEX = Pattern.compile("[0-9A-Fa-f]{1,4}");
+  private static final Pattern UUID = Pattern.compile("[0-9A-Fa-f]{8}-[0-9A-Fa-f]{4}-[0-9A-Fa-f]{4}-[0-9A-Fa-f]{4}-[0-9A-Fa-f]{12}");
+  private static final Pattern POINTER = Pattern.compile("(?:/(?:[^~/]|~[01])*)*");
+
+  private Validation() {}
+
+  /**
+   * Определяет тип значения.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return Одна из масок типов
+   *
+   * @throws JsonParseException Если в позиции не начинается значение JSON
+   */
+  public static int typeOf(ByteBuffer buffer, int pos) {
+    switch (JsonReader.peek(buffer, pos)) {
+      case 'n': return NULL;
+      case 't':
+      case 'f': return BOOLEAN;
+      case '{': return OBJECT;
+      case '[': return ARRAY;
+      case '"': return STRING;
+    }
+    final int end = JsonReader.skipNumber(buffer, pos);
+    for (int i = pos; i < end; ++i) {
+      final byte b = buffer.get(i);
+      if (b == '.' || b == 'e' || b == 'E') {
+        final BigDecimal value = JsonReader.readDecimal(buffer, pos);
+        return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0 ? INTEGER : NUMBER;
+      }
+    }
+    return INTEGER;
+  }
+  /**
+   * Проверяет, что тип значения входит в число разрешенных.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param allowed Маска разрешенных типов
+   * @param what Описание проверяемого значения для сообщения об ошибке
+   *
+   * @throws ValidationException Если тип значения не разрешен
+   */
+  public static void checkType(ByteBuffer buffer, int pos, int allowed, String what) {
+    if ((typeOf(buffer, pos) & allowed) == 0) {
+      throw new ValidationException(what + " has unexpected type", pos, "type");
+    }
+  }
+  /**
+   * Строит индекс объекта для проверки. В отличие от {@link JsonReader#indexObject} значения
+   * {@code null} не считаются отсутствующими.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   * @param keys Сопоставитель имен свойств с их номерами
+   *
+   * @return Массив из {@link KeyMatcher#size()} позиций значений свойств, {@code -1} для отсутствующих
+   *         свойств, или {@code null}, если значение не является объектом
+   *
+   * @throws JsonParseException Если объект записан некорректно
+   */
+  public static int[] index(ByteBuffer buffer, int pos, KeyMatcher keys) {
+    if (JsonReader.peek(buffer, pos) != '{') return null;
+
+    final int[] index = new int[keys.size()];
+    Arrays.fill(index, -1);
+    pos = JsonReader.skipWhitespace(buffer, pos + 1);
+    if (JsonReader.peek(buffer, pos) == '}') return index;
+    while (true) {
+      final int keyEnd = JsonReader.skipString(buffer, pos);
+      final int property = keys.match(buffer, pos + 1, keyEnd - 1);
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, JsonReader.skipWhitespace(buffer, keyEnd), ':'));
+      if (property >= 0) {
+        index[property] = pos;
+      }
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.skipValue(buffer, pos));
+      if (JsonReader.peek(buffer, pos) == '}') return index;
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, pos, ','));
+    }
+  }
+  /**
+   * Проверяет наличие обязательных свойств, сравнивая битовую маску присутствующих в объекте
+   * свойств с маской обязательных.
+   *
+   * @param index Индекс объекта, построенный {@link #index}
+   * @param required Битовая маска обязательных свойств: бит {@code i % 64} слова {@code i / 64}
+   *        соответствует свойству с номером {@code i}
+   * @param names Имена свойств в порядке их номеров
+   * @param pos Позиция объекта
+   * @param what Описание проверяемого объекта для сообщения об ошибке
+   *
+   * @throws ValidationException Если отсутствует хотя бы одно обязательное свойство
+   */
+  public static void require(int[] index, long[] required, String[] names, int pos, String what) {
+    for (int word = 0; word < required.length; ++word) {
+      long present = 0;
+      final int end = Math.min(index.length, (word + 1) << 6);
+      for (int i = word << 6; i < end; ++i) {
+        if (index[i] >= 0) {
+          present |= 1L << i;
+        }
+      }
+      final long missing = required[word] & ~present;
+      if (missing != 0) {
+        final String name = names[(word << 6) + Long.numberOfTrailingZeros(missing)];
+        throw new ValidationException(what + " requires property '" + name + "'", pos, "required");
+      }
+    }
+  }
+  /**
+   * Проверяет, что в объекте присутствуют все свойства из битовой маски.
+   *
+   * @param index Индекс объекта, построенный {@link #index} или {@link JsonReader#indexObject}
+   * @param required Битовая маска свойств в формате {@link #require}
+   *
+   * @return {@code true}, если все свойства присутствуют
+   */
+  public static boolean present(int[] index, long[] required) {
+    for (int word = 0; word < required.length; ++word) {
+      long bits = required[word];
+      while (bits != 0) {
+        if (index[(word << 6) + Long.numberOfTrailingZeros(bits)] < 0) return false;
+        bits &= bits - 1;
+      }
+    }
+    return true;
+  }
+  /**
+   * Проверяет, что число является целым и помещается в {@code long}. Сгенерированные валидаторы
+   * сравнивают такие числа с границами без преобразований, а остальные целые числа, допустимые
+   * JSON Schema, сравнивают как {@link BigDecimal}.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа числа
+   *
+   * @return {@code true}, если число можно прочитать {@link JsonReader#readLong}
+   *
+   * @throws JsonParseException Если в позиции находится не число
+   */
+  public static boolean isLong(ByteBuffer buffer, int pos) {
+    final int end = JsonReader.skipNumber(buffer, pos);
+    final int start = buffer.get(pos) == '-' ? pos + 1 : pos;
+    // Числа не длиннее 18 цифр без дробной части и экспоненты всегда помещаются в long
+    if (end - start <= 18) {
+      int i = start;
+      while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') ++i;
+      if (i == end) return true;
+    }
+    final BigDecimal value = JsonReader.readDecimal(buffer, pos);
+    return (value.signum() == 0 || value.stripTrailingZeros().scale() <= 0)
+      && value.compareTo(MIN_LONG) >= 0 && value.compareTo(MAX_LONG) <= 0;
+  }
+  /**
+   * Подсчитывает длину строки в кодовых точках Unicode, как того требует JSON Schema. Строки без
+   * escape-последовательностей не декодируются.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей кавычки строки
+   *
+   * @return Количество кодовых точек в строке
+   *
+   * @throws JsonParseException Если в позиции находится не строка
+   */
+  public static int length(ByteBuffer buffer, int pos) {
+    final int end = JsonReader.skipString(buffer, pos) - 1;
+    int length = 0;
+    for (int i = pos + 1; i < end; ++i) {
+      final byte b = buffer.get(i);
+      if (b == '\\') {
+        final String value = JsonReader.readString(buffer, pos);
+        return value.codePointCount(0, value.length());
+      }
+      // Продолжения многобайтовых последовательностей UTF-8 имеют вид 10xxxxxx
+      if ((b & 0xC0) != 0x80) {
+        ++length;
+      }
+    }
+    return length;
+  }
+  /**
+   * Подсчитывает количество элементов массива.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей скобки массива
+   *
+   * @return Количество элементов
+   *
+   * @throws JsonParseException Если в позиции находится не массив или он записан некорректно
+   */
+  public static int size(ByteBuffer buffer, int pos) {
+    int size = 0;
+    for (int p = JsonReader.firstElement(buffer, pos); p >= 0; p = JsonReader.nextElement(buffer, p)) {
+      ++size;
+    }
+    return size;
+  }
+  /**
+   * Собирает позиции имен и значений свойств объекта в порядке записи.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция первого символа значения
+   *
+   * @return Массив, в котором за позицией открывающей кавычки имени каждого свойства следует позиция
+   *         его значения, или {@code null}, если значение не является объектом
+   *
+   * @throws JsonParseException Если объект записан некорректно
+   */
+  public static int[] members(ByteBuffer buffer, int pos) {
+    if (JsonReader.peek(buffer, pos) != '{') return null;
+
+    int[] members = new int[16];
+    int size = 0;
+    pos = JsonReader.skipWhitespace(buffer, pos + 1);
+    if (JsonReader.peek(buffer, pos) == '}') return new int[0];
+    while (true) {
+      final int key = pos;
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, JsonReader.skipWhitespace(buffer, JsonReader.skipString(buffer, key)), ':'));
+      if (size == members.length) {
+        members = Arrays.copyOf(members, size << 1);
+      }
+      members[size++] = key;
+      members[size++] = pos;
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.skipValue(buffer, pos));
+      if (JsonReader.peek(buffer, pos) == '}') return Arrays.copyOf(members, size);
+      pos = JsonReader.skipWhitespace(buffer, JsonReader.expect(buffer, pos, ','));
+    }
+  }
+  /**
+   * Проверяет, что все элементы массива различны. Элементы сравниваются как значения JSON, см.
+   * {@link ContentHash#equal}, и сначала сопоставляются по каноническому хешу, поэтому проверка
+   * выполняется за линейное время.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей скобки массива
+   * @param what Описание проверяемого массива для сообщения об ошибке
+   *
+   * @throws ValidationException Если в массиве есть равные элементы
+   * @throws JsonParseException Если в позиции находится не массив или он записан некорректно
+   */
+  public static void checkUnique(ByteBuffer buffer, int pos, String what) {
+    final Map<Long, Integer> seen = new HashMap<>();
+    int[] items = new int[8];
+    long[] hashes = new long[8];
+    int size = 0;
+    for (int item = JsonReader.firstElement(buffer, pos); item >= 0; item = JsonReader.nextElement(buffer, item)) {
+      final long hash = ContentHash.hash(buffer, item);
+      final Integer first = seen.putIfAbsent(hash, size);
+      if (first != null) {
+        // Совпадение 64-битных хешей у различных значений маловероятно, но возможно
+        for (int i = first; i < size; ++i) {
+          if (hashes[i] == hash && ContentHash.equal(buffer, items[i], buffer, item)) {
+            throw new ValidationException(what + " must not contain duplicate items", item, "uniqueItems");
+          }
+        }
+      }
+      if (size == items.length) {
+        items = Arrays.copyOf(items, size << 1);
+        hashes = Arrays.copyOf(hashes, size << 1);
+      }
+      items[size] = item;
+      hashes[size++] = hash;
+    }
+  }
+  /**
+   * Отвергает любое значение. Используется для схемы {@code false}, например, в
+   * {@code "additionalProperties": false}.
+   *
+   * @param pos Позиция первого символа значения
+   * @param what Описание проверяемого значения для сообщения об ошибке
+   *
+   * @throws ValidationException Всегда
+   */
+  public static void forbid(int pos, String what) {
+    throw new ValidationException(what + " is not allowed", pos, "false");
+  }
+  /**
+   * Проверяет, известен ли формат строк проверке {@link #isFormat}. Неизвестные форматы, как того
+   * требует JSON Schema, являются только аннотациями и не проверяются.
+   *
+   * @param format Значение ключевого слова {@code format}
+   *
+   * @return {@code true}, если строки в этом формате могут быть проверены
+   */
+  public static boolean knowsFormat(String format) {
+    switch (format) {
+      case "date-time":
+      case "date":
+      case "time":
+      case "email":
+      case "hostname":
+      case "ipv4":
+      case "ipv6":
+      case "uri":
+      case "uri-reference":
+      case "uuid":
+      case "regex":
+      case "json-pointer": return true;
+      default: return false;
+    }
+  }
+  /**
+   * Проверяет, что строка записана в указанном формате. Даты и время проверяются по RFC 3339,
+   * адреса электронной почты -- упрощенно: часть до {@code @} из допустимых в RFC 5321 символов,
+   * после -- имя хоста.
+   *
+   * @param buffer Буфер с документом
+   * @param pos Позиция открывающей кавычки строки
+   * @param format Формат, для которого {@link #knowsFormat} возвращает {@code true}
+   *
+   * @return {@code true}, если строка соответствует формату или формат не известен
+   *
+   * @throws JsonParseException Если в позиции находится не строка
+   */
+  public static boolean isFormat(ByteBuffer buffer, int pos, String format) {
+    final String value = JsonReader.readString(buffer, pos);
+    switch (format) {
+      case "date-time": {
+        final int t = Math.max(value.indexOf('T'), value.indexOf('t'));
+        return t > 0 && isDate(value.substring(0, t)) && isTime(value.substring(t + 1));
+      }
+      case "date": return isDate(value);
+      case "time": return isTime(value);
+      case "email": {
+        final Matcher m = EMAIL.matcher(value);
+        return m.matches() && isHostname(m.group(1));
+      }
+      case "hostname": return isHostname(value);
+      case "ipv4": return IPV4.matcher(value).matches();
+      case "ipv6": return isIpv6(value);
+      case "uri":
+      case "uri-reference": {
+        try {
+          final URI uri = new URI(value);
+          return format.equals("uri-reference") || uri.isAbsolute();
+        } catch (URISyntaxException ex) {
+          return false;
+        }
+      }
+      case "uuid": return UUID.matcher(value).matches();
+      case "regex": {
+        try {
+          Pattern.compile(value);
+          return true;
+        } catch (PatternSyntaxException ex) {
+          return false;
+        }
+      }
+      case "json-pointer": return POINTER.matcher(value).matches();
+      default: return true;
+    }
+  }
+
+  private static boolean isDate(String value) {
+    final Matcher m = DATE.matcher(value);
+    if (!m.matches()) return false;
+    try {
+      LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)));
+      return true;
+    } catch (DateTimeException ex) {
+      return false;
+    }
+  }
+  private static boolean isTime(String value) {
+    final Matcher m = TIME.matcher(value);
+    // Секунда 60 допустима для дополнительной секунды
+    return m.matches()
+      && Integer.parseInt(m.group(1)) < 24 && Integer.parseInt(m.group(2)) < 60 && Integer.parseInt(m.group(3)) <= 60
+      && (m.group(4) == null || Integer.parseInt(m.group(4)) < 24 && Integer.parseInt(m.group(5)) < 60);
+  }
+  private static boolean isHostname(String value) {
+    if (value.isEmpty() || value.length() > 253) return false;
+    for (final String label : value.split("\\.", -1)) {
+      if (!LABEL.matcher(label).matches()) return false;
+    }
+    return true;
+  }
+  private static boolean isIpv6(String value) {
+    final int gap = value.indexOf("::");
+    if (gap >= 0 && value.indexOf("::", gap + 1) >= 0) return false;
+    // Последние 32 бита могут быть записаны как адрес IPv4
+    int groups = 0;
+    final int dot = value.lastIndexOf(':');
+    String hex = value;
+    if (value.indexOf('.') > dot && dot >= 0) {
+      if (!IPV4.matcher(value.substring(dot + 1)).matches()) return false;
+      groups = 2;
+      hex = value.substring(0, dot + 1);
+      if (!hex.endsWith("::")) {
+        hex = hex.substring(0, hex.length() - 1);
+      }
+    }
+    if (gap >= 0) {
+      final String head = hex.substring(0, hex.indexOf("::"));
+      final String tail = hex.substring(hex.indexOf("::") + 2);
+      final int h = countGroups(head);
+      final int t = countGroups(tail);
+      return h >= 0 && t >= 0 && h + t + groups < 8;
+    }
+    final int g = countGroups(hex);
+    return g >= 0 && g + groups == 8;
+  }
+  /** Подсчитывает группы шестнадцатеричных цифр, разделенные двоеточиями, или возвращает {@code -1}. */
+  private static int countGroups(String value) {
+    if (value.isEmpty()) return 0;
+    int count = 0;
+    for (final String group : value.split(":", -1)) {
+      if (!HEX.matcher(group).matches()) return -1;
+      ++count;
+    }
+    return count;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.json.beans.JsonInteger;
+import org.json.beans.JsonNumber;
+import org.json.beans.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверки двоичной записи чисел {@link BinaryWriter#value(JsonNumber)} и
+ * {@link BinaryWriter#value(JsonInteger)} и их обратного перевода в JSON {@link BinaryReader#number}
+ * и {@link BinaryReader#integer}: десятичное значение числа должно сохраняться.
+ *
+ * @author Mingun
+ */
+public class BinaryNumberTest {
+  private static LazyNumber number(String json) {
+    return new LazyNumber(ByteBuffer.wrap(json.getBytes(UTF_8)), 0);
+  }
+  private static LazyInteger integer(String json) {
+    return new LazyInteger(ByteBuffer.wrap(json.getBytes(UTF_8)), 0);
+  }
+  private static byte[] write(JsonInteger value) throws IOException {
+    final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    try (BinaryWriter out = new BinaryWriter(binary)) {
+      out.value(value);
+    }
+    return binary.toByteArray();
+  }
+  /**
+   * Записывает число в двоичном виде и переводит сообщение обратно в JSON.
+   *
+   * @param value Число
+   *
+   * @return Размер сообщения
+   */
+  private static int assertRoundTrip(JsonNumber value) throws IOException {
+    final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    try (BinaryWriter out = new BinaryWriter(binary)) {
+      out.value(value);
+    }
+    final ByteArrayOutputStream json = new ByteArrayOutputStream();
+    final BinaryReader in = new BinaryReader(ByteBuffer.wrap(binary.toByteArray()));
+    try (JsonWriter out = new JsonWriter(json)) {
+      in.number(out);
+    }
+    final BigDecimal expected = value.decimalValue();
+    final BigDecimal actual = number(new String(json.toByteArray(), UTF_8)).decimalValue();
+    assertEquals(0, expected.compareTo(actual), () -> expected + " != " + actual);
+    return binary.size();
+  }
+
+  @Test
+  public void writesRepresentableNumbersAsDoubles() throws IOException {
+    for (final String json : new String[] {
+      "0", "-0", "0.0", "1", "-42", "12.5", "0.1", "3.141592653589793", "1e15", "999999999999999",
+      "1.7976931348623157e308", "4.9e-324", "2.2250738585072014E-308",
+    }) {
+      assertEquals(8, assertRoundTrip(number(json)), json);
+    }
+  }
+  @Test
+  public void writesOtherNumbersAsText() throws IOException {
+    for (final String json : new String[] {
+      "12345678901234567890.5", "1.0000000000000001", "1e400", "-1e400", "1e-400",
+      "9007199254740993", "3.14159265358979323846264338327950288",
+    }) {
+      assertEquals(8 + 1 + number(json).decimalValue().toString().length(), assertRoundTrip(number(json)), json);
+    }
+  }
+  @Test
+  public void keepsDecimalValueOfRandomNumbers() throws IOException {
+    final Random random = new Random(0xB1);
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50_000; ++i) {
+      sb.setLength(0);
+      if (random.nextBoolean()) sb.append('-');
+      final int digits = 1 + random.nextInt(20);
+      sb.append(1 + random.nextInt(9));
+      for (int d = 1; d < digits; ++d) {
+        sb.append(random.nextInt(10));
+      }
+      sb.append('e').append(random.nextInt(660) - 330);
+      assertRoundTrip(number(sb.toString()));
+      assertRoundTrip(new LazyInteger(ByteBuffer.wrap(Long.toString(random.nextLong() >> random.nextInt(64)).getBytes(UTF_8)), 0));
+    }
+  }
+  @Test
+  public void writesNumbersCreatedByHand() throws IOException {
+    assertEquals(8, assertRoundTrip(() -> 0.25));
+    assertEquals(8 + 1 + 24, assertRoundTrip(() -> new BigDecimal("123456789012345678901234")));
+    assertThrows(NumberFormatException.class, () -> assertRoundTrip(() -> Double.NaN));
+  }
+  @Test
+  public void writesBigIntegersAsText() throws IOException {
+    for (final String json : new String[] { "12345678901234567890", "-9223372036854775809", "1e30", "1.5e19" }) {
+      final byte[] message = write(integer(json));
+      final BigDecimal expected = integer(json).decimalValue();
+      assertEquals(2 + 1 + expected.toString().length(), message.length, json);
+
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (JsonWriter writer = new JsonWriter(out)) {
+        new BinaryReader(ByteBuffer.wrap(message)).integer(writer);
+      }
+      assertEquals(expected.toString(), new String(out.toByteArray(), UTF_8));
+
+      final JsonInteger decoded = BinaryInteger.decode(ByteBuffer.wrap(message), 0);
+      assertEquals(0, expected.compareTo(decoded.decimalValue()), json);
+      assertThrows(JsonParseException.class, decoded::longValue);
+      assertThrows(JsonParseException.class, () -> new BinaryReader(ByteBuffer.wrap(message)).longValue());
+    }
+    // Числа в диапазоне long записываются как обычно, в том числе записанные в документе дробью
+    for (final String json : new String[] { "9223372036854775807", "-9223372036854775808", "1e18", "0" }) {
+      final byte[] message = write(integer(json));
+      final JsonInteger decoded = BinaryInteger.decode(ByteBuffer.wrap(message), 0);
+      assertInstanceOf(BinaryInteger.class, decoded);
+      assertEquals(integer(json).longValue(), decoded.longValue());
+      assertEquals(integer(json).longValue(), new BinaryReader(ByteBuffer.wrap(message)).longValue());
+    }
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки быстрого декодирования чисел с плавающей точкой {@link FastDouble}. Эталоном служит
+ * {@link Double#parseDouble}: результат быстрого пути должен совпадать с ним бит в бит, а там, где
+ * быстрый путь не может гарантировать правильного округления, он должен вернуть {@link Double#NaN}.
+ *
+ * @author Mingun
+ */
+public class FastDoubleTest {
+  private static ByteBuffer buffer(String json) {
+    return ByteBuffer.wrap(json.getBytes(UTF_8));
+  }
+  /** Декодирует число только быстрым путем. */
+  private static double fast(String json) {
+    return FastDouble.read(buffer(json), 0);
+  }
+  /**
+   * Проверяет, что быстрый путь декодирует число сам и так же, как {@link Double#parseDouble}.
+   *
+   * @param json Запись числа
+   */
+  private static void assertFast(String json) {
+    assertEquals(Double.parseDouble(json), fast(json), json);
+    assertEquals(Double.parseDouble(json), JsonReader.readDouble(buffer(json), 0), json);
+  }
+  /**
+   * Проверяет, что быстрый путь отказывается от числа, а полное декодирование и
+   * {@link LazyNumber#doubleValue()} дают то же значение, что и {@link Double#parseDouble}.
+   *
+   * @param json Запись числа
+   */
+  private static void assertFallback(String json) {
+    assertEquals(Double.NaN, fast(json), json);
+    assertEquals(Double.parseDouble(json), JsonReader.readDouble(buffer(json), 0), json);
+    assertEquals(Double.parseDouble(json), new LazyNumber(buffer(json), 0).doubleValue(), json);
+  }
+  /**
+   * Проверяет, что результат быстрого пути, если он есть, совпадает с {@link Double#parseDouble},
+   * а полное декодирование совпадает всегда.
+   *
+   * @param json Запись числа
+   *
+   * @return {@code true}, если число декодировано быстрым путем
+   */
+  private static boolean assertExact(String json) {
+    final double expected = Double.parseDouble(json);
+    final double value = fast(json);
+    if (!Double.isNaN(value)) {
+      assertEquals(expected, value, json);
+    }
+    assertEquals(expected, JsonReader.readDouble(buffer(json), 0), json);
+    return !Double.isNaN(value);
+  }
+  /**
+   * Проверяет кратчайшую запись значения {@code double}: быстрым путем не должны декодироваться
+   * только денормализованные числа.
+   *
+   * @param json Запись числа
+   */
+  private static void assertRandom(String json) {
+    if (!assertExact(json)) {
+      assertTrue(Math.abs(Double.parseDouble(json)) < Double.MIN_NORMAL, json);
+    }
+  }
+
+  @Test
+  public void decodesSimpleNumbers() {
+    assertFast("0");
+    assertFast("1");
+    assertFast("-1");
+    assertFast("0.5");
+    assertFast("123.456");
+    assertFast("1e10");
+    assertFast("1E+10");
+    assertFast("1.5e-10");
+    assertFast("0.000001");
+    assertFast("3.141592653589793");
+  }
+  @Test
+  public void keepsSignOfZero() {
+    assertEquals(0.0, fast("0"));
+    assertEquals(0.0, fast("0.000"));
+    assertEquals(0.0, fast("0e300"));
+    assertEquals(-0.0, fast("-0"));
+    assertEquals(-0.0, fast("-0.0"));
+    assertEquals(-0.0, fast("-0e-300"));
+    assertEquals(-0.0, fast("-1e-400"));
+    assertEquals(-0.0, JsonReader.readDouble(buffer("-0"), 0));
+  }
+  @Test
+  public void usesClingerWithinExactRange() {
+    // 2^53 и 10^22 -- наибольшие мантисса и степень десяти, точно представимые в double
+    assertFast("9007199254740992");
+    assertFast("9007199254740992e22");
+    assertFast("9007199254740992e-22");
+    assertFast("1e22");
+    assertFast("1e-22");
+    assertFast("-4503599627370497.5");
+  }
+  @Test
+  public void usesEiselLemireOutsideExactRange() {
+    // Мантисса больше 2^53 или степень больше 22: метод Клингера неприменим
+    assertFast("9007199254740995");
+    assertFast("9007199254740997e3");
+    assertFast("8.41e21");
+    assertFast("1e-23");
+    assertFast("9007199254740991e23");
+    assertFast("1.7976931348623157e308");
+    assertFast("2.2250738585072014e-308");
+    assertFast("1e308");
+    assertFast("1e-307");
+  }
+  @Test
+  public void leavesHalfwayCasesToFallback() {
+    // Ровно посередине между соседними double: произведение вычислено точно, но алгоритм не
+    // определяет направление округления и отдает число медленному пути
+    assertFallback("9007199254740993");
+    assertFallback("9007199254740993e0");
+    assertFallback("18014398509481986");
+    // 10^23 = 5^23 * 2^23, а 5^23 занимает 54 бита
+    assertFallback("1e23");
+    // Середина, при которой округление к четному совпадает с округлением вверх
+    assertFast("9007199254740995");
+    assertFast("18014398509481990");
+    // Чуть больше и чуть меньше середины
+    assertFast("900719925474099301e-2");
+    assertFast("900719925474099299e-2");
+    assertFast("9.999999999999999e22");
+    assertFast("1.0000000000000001e23");
+  }
+  @Test
+  public void leavesSubnormalsToFallback() {
+    assertFallback("4.9e-324");
+    assertFallback("2.4703282292062328e-324");
+    assertFallback("2.2250738585072009e-308");
+    assertFallback("1e-310");
+    assertFallback("-1e-320");
+    // Переполнение после округления
+    assertFallback("1.7976931348623159e308");
+    assertFallback("1.8e308");
+  }
+  @Test
+  public void countsSignificantDigits() {
+    // 19 значимых цифр помещаются в long
+    assertFast("1234567890123456789");
+    assertFast("9999999999999999999");
+    assertFast("1.234567890123456789");
+    assertFast("0.0000000001234567890123456789");
+    assertFast("-9999999999999999999e-10");
+    // 20 и более -- нет
+    assertFallback("12345678901234567890");
+    assertFallback("10000000000000000000");
+    assertFallback("1.2345678901234567890");
+    assertFallback("0.00000000012345678901234567890");
+    assertFallback("123456789012345678901234567890e-300");
+    assertFallback("3.14159265358979323846264338327950288");
+  }
+  @Test
+  public void clampsExponentsOutsideTable() {
+    assertFast("1e-343");
+    assertFast("9999999999999999999e-343");
+    assertFast("1e-100000");
+    assertFast("1e-9999999999");
+    assertFast("-1e-400");
+    assertFast("1e309");
+    assertFast("1e100000");
+    assertFast("-1e9999999999");
+    assertFast("0.0000000001e318");
+    assertFast("100000e-347");
+  }
+  @Test
+  public void rejectsMalformedNumbers() {
+    assertEquals(Double.NaN, fast(""));
+    assertEquals(Double.NaN, fast("-"));
+    assertEquals(Double.NaN, fast("1."));
+    assertEquals(Double.NaN, fast(".5"));
+    assertEquals(Double.NaN, fast("1e"));
+    assertEquals(Double.NaN, fast("1e+"));
+    assertEquals(Double.NaN, fast("01"));
+    assertEquals(Double.NaN, fast("1.5.5"));
+    assertEquals(Double.NaN, fast("1e5e5"));
+    // Число заканчивается на разделителе
+    assertEquals(1.5, fast("1.5,"));
+    assertEquals(1.5, fast("1.5]"));
+  }
+  @Test
+  public void matchesParseDoubleOnRandomDoubles() {
+    final Random random = new Random(0x5EED);
+    for (int i = 0; i < 200_000; ++i) {
+      final double value = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(value) || Double.isInfinite(value)) continue;
+      // Double.toString выдает кратчайшую запись, допустимую в JSON
+      assertRandom(Double.toString(value));
+      final float single = (float)value;
+      if (!Float.isInfinite(single)) {
+        assertRandom(Double.toString(single));
+      }
+    }
+  }
+  @Test
+  public void matchesParseDoubleOnRandomDecimals() {
+    final Random random = new Random(0xDEC);
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200_000; ++i) {
+      sb.setLength(0);
+      if (random.nextBoolean()) sb.append('-');
+      final int digits = 1 + random.nextInt(19);
+      sb.append(1 + random.nextInt(9));
+      for (int d = 1; d < digits; ++d) {
+        sb.append(random.nextInt(10));
+      }
+      final int point = random.nextInt(digits + 1);
+      if (point > 0 && point < digits) {
+        sb.insert(sb.length() - digits + point, '.');
+      }
+      sb.append('e').append(random.nextInt(700) - 350);
+      assertExact(sb.toString());
+    }
+  }
+  @Test
+  public void eiselLemireIsCorrectOrGivesUp() {
+    final Random random = new Random(0xE15E1);
+    for (int i = 0; i < 200_000; ++i) {
+      long mantissa = random.nextLong() >>> random.nextInt(64);
+      if (mantissa == 0) mantissa = 1;
+      final int exponent = -342 + random.nextInt(308 + 342 + 1);
+      final double value = FastDouble.eiselLemire(mantissa, exponent);
+      if (Double.isNaN(value)) continue;
+      final String json = Long.toUnsignedString(mantissa) + 'e' + exponent;
+      assertEquals(Double.parseDouble(json), value, json);
+    }
+    // Результат за пределами нормализованных чисел оставляется медленному пути
+    assertEquals(Double.NaN, FastDouble.eiselLemire(1, -320));
+    assertEquals(Double.NaN, FastDouble.eiselLemire(2, 308));
+    assertEquals(Double.MIN_NORMAL, FastDouble.eiselLemire(22250738585072014L, -324));
+  }
+  @Test
+  public void computesPowersOfFive() {
+    final long[] powers = FastDouble.powers();
+    assertEquals((308 + 342 + 1) * 2, powers.length);
+    // Крайние значения таблицы из статьи
+    assertEquals(0xeef453d6923bd65aL, powers[0]);
+    assertEquals(0x113faa2906a13b3fL, powers[1]);
+    assertEquals(0x8000000000000000L, powers[342 * 2]);
+    assertEquals(0L, powers[342 * 2 + 1]);
+    assertEquals(0x8e679c2f5e44ff8fL, powers[powers.length - 2]);
+    assertEquals(0x570f09eaa7ea7648L, powers[powers.length - 1]);
+
+    final BigInteger five = BigInteger.valueOf(5);
+    for (int q = -342; q <= 308; ++q) {
+      final int index = (q + 342) * 2;
+      final BigInteger power = new BigInteger(1, ByteBuffer.allocate(16)
+        .putLong(powers[index])
+        .putLong(powers[index + 1])
+        .array());
+      assertEquals(128, power.bitLength(), "5^" + q);
+      // Приближение отличается от нормализованной точной степени меньше чем на единицу
+      final BigInteger exact;
+      final BigInteger scale;
+      if (q < 0) {
+        scale = five.pow(-q);
+        exact = BigInteger.ONE.shiftLeft(127 + scale.bitLength());
+      } else {
+        final BigInteger value = five.pow(q);
+        final int shift = 128 - value.bitLength();
+        exact = shift > 0 ? value.shiftLeft(shift) : value;
+        scale = shift < 0 ? BigInteger.ONE.shiftLeft(-shift) : BigInteger.ONE;
+      }
+      final BigInteger floor = exact.divide(scale);
+      final BigInteger delta = power.subtract(floor);
+      assertTrue(delta.signum() >= 0 && delta.compareTo(BigInteger.ONE) <= 0, "5^" + q);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.json.beans.JsonValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки разбиения последовательностей документов на записи в {@link JsonLinesReader} и
+ * {@link MappedStore}.
+ *
+ * @author Mingun
+ */
+public class JsonLinesReaderTest {
+  private static final Encoder<JsonValue> ENCODER = JsonWriter::value;
+
+  private static ByteBuffer json(String text) {
+    return ByteBuffer.wrap(text.getBytes(UTF_8));
+  }
+  private static void assertDocument(String expected, JsonValue actual) {
+    final ByteBuffer doc = ByteBuffer.wrap(JsonWriter.encode(ENCODER, actual));
+    assertTrue(ContentHash.equal(json(expected), 0, doc, 0), () -> expected + " != " + new String(doc.array(), UTF_8));
+  }
+  private static void assertDocuments(List<String> expected, String text, boolean parallel) {
+    final List<JsonValue> actual = StreamSupport.stream(JsonLinesReader.spliterator(json(text), LazyValue::new), parallel)
+      .collect(Collectors.toList());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < actual.size(); ++i) {
+      assertDocument(expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public void readsJsonLines() {
+    assertDocuments(asList("{\"a\":1}", "[2]", "3"), "{\"a\": 1}\r\n\n[2]\n3", false);
+  }
+  /** В RFC 7464 переводы строк внутри записи являются пробельными символами документа. */
+  @Test
+  public void readsMultilineTextSequence() {
+    final String text = "\u001E{\n  \"a\": 1\n}\n\u001E{\"a\": 2}\n";
+    assertDocuments(asList("{\"a\":1}", "{\"a\":2}"), text, false);
+  }
+  @Test
+  public void splitsTextSequenceOnRecordSeparators() {
+    final StringBuilder text = new StringBuilder();
+    final List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      text.append("\u001E{\n  \"a\": [\n    ").append(i).append("\n  ]\n}\n");
+      expected.add("{\"a\":[" + i + "]}");
+    }
+    assertDocuments(expected, text.toString(), true);
+  }
+  @Test
+  public void indexesMultilineTextSequence(@TempDir Path dir) throws IOException {
+    final Path data = dir.resolve("data.json-seq");
+    Files.write(data, "\u001E{\n  \"a\": 1\n}\n\u001E{\"a\": 2}\n".getBytes(UTF_8));
+
+    final MappedStore<JsonValue> store = MappedStore.open(data, dir.resolve("data.idx"), LazyValue::new);
+    assertEquals(2, store.size());
+    assertDocument("{\"a\":1}", store.get(0));
+    assertDocument("{\"a\":2}", store.get(1));
+  }
+}
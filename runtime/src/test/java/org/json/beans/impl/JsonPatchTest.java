@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonPatchException;
+import org.json.beans.JsonValue;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки соответствия {@link JsonPatch} RFC 6902 для значений без собственной функции
+ * применения и для {@link JsonPatch#array массивов}.
+ *
+ * @author Mingun
+ */
+public class JsonPatchTest {
+  private static final Encoder<JsonValue> ENCODER = JsonWriter::value;
+  private static final JsonPatch.Patcher<JsonValue> LEAF = JsonPatch.leaf(ENCODER, LazyValue::new);
+  private static final JsonPatch.Patcher<JsonArray<JsonValue>> ARRAY = JsonPatch.array(LEAF, ENCODER, LazyValue::new);
+
+  private static ByteBuffer json(String text) {
+    return ByteBuffer.wrap(text.getBytes(UTF_8));
+  }
+  private static JsonValue value(String text) {
+    return new LazyValue(json(text), 0);
+  }
+  private static JsonValue patch(String target, String patch) {
+    return JsonPatch.apply(value(target), json(patch), 0, LEAF);
+  }
+  private static void assertJson(String expected, JsonValue actual) {
+    final ByteBuffer doc = ByteBuffer.wrap(JsonWriter.encode(ENCODER, actual));
+    assertTrue(ContentHash.equal(json(expected), 0, doc, 0), () -> expected + " != " + new String(doc.array(), UTF_8));
+  }
+  private static void assertFails(String target, String patch) {
+    assertThrows(JsonPatchException.class, () -> patch(target, patch));
+  }
+
+  @Test
+  public void decodesEscapesInPointer() {
+    assertJson("{\"a/b\":10}", patch(
+      "{\"a/b\":1,\"m~n\":2}",
+      "[{\"op\":\"replace\",\"path\":\"/a~1b\",\"value\":10},{\"op\":\"remove\",\"path\":\"/m~0n\"}]"
+    ));
+    // "~01" -- это "~1", а не "/"
+    assertJson("{\"~1\":10,\"/\":2}", patch(
+      "{\"~1\":1,\"/\":2}",
+      "[{\"op\":\"replace\",\"path\":\"/~01\",\"value\":10}]"
+    ));
+    assertJson("{\"\":1,\"x\":{\"\":2}}", patch("{\"\":1,\"x\":{}}", "[{\"op\":\"add\",\"path\":\"/x/\",\"value\":2}]"));
+  }
+  @Test
+  public void rejectsPointerWithoutLeadingSlash() {
+    assertFails("{\"a\":1}", "[{\"op\":\"remove\",\"path\":\"a\"}]");
+  }
+  @Test
+  public void appendsWithDashIndex() {
+    assertJson("[1,2,3]", patch("[1,2]", "[{\"op\":\"add\",\"path\":\"/-\",\"value\":3}]"));
+    assertJson("{\"a\":[0]}", patch("{\"a\":[]}", "[{\"op\":\"add\",\"path\":\"/a/-\",\"value\":0}]"));
+    assertFails("[1,2]", "[{\"op\":\"replace\",\"path\":\"/-\",\"value\":3}]");
+    assertFails("[1,2]", "[{\"op\":\"remove\",\"path\":\"/-\"}]");
+  }
+  @Test
+  public void rejectsMalformedArrayIndexes() {
+    assertJson("[0,9,1]", patch("[0,1]", "[{\"op\":\"add\",\"path\":\"/1\",\"value\":9}]"));
+    assertJson("[9,1]", patch("[0,1]", "[{\"op\":\"replace\",\"path\":\"/0\",\"value\":9}]"));
+    assertFails("[0,1]", "[{\"op\":\"replace\",\"path\":\"/01\",\"value\":9}]");
+    assertFails("[0,1]", "[{\"op\":\"replace\",\"path\":\"/+1\",\"value\":9}]");
+    assertFails("[0,1]", "[{\"op\":\"replace\",\"path\":\"/\",\"value\":9}]");
+    assertFails("[0,1]", "[{\"op\":\"replace\",\"path\":\"/2\",\"value\":9}]");
+    assertFails("[0,1]", "[{\"op\":\"add\",\"path\":\"/3\",\"value\":9}]");
+  }
+  @Test
+  public void copiesAndMovesValues() {
+    assertJson("{\"a\":{\"x\":1},\"b\":{\"x\":1}}", patch(
+      "{\"a\":{\"x\":1}}",
+      "[{\"op\":\"copy\",\"from\":\"/a\",\"path\":\"/b\"}]"
+    ));
+    assertJson("{\"a\":{},\"c\":[1,1]}", patch(
+      "{\"a\":{\"x\":1},\"c\":[1]}",
+      "[{\"op\":\"move\",\"from\":\"/a/x\",\"path\":\"/c/-\"}]"
+    ));
+    // Перемещение в самого себя ничего не меняет
+    assertJson("{\"a\":1}", patch("{\"a\":1}", "[{\"op\":\"move\",\"from\":\"/a\",\"path\":\"/a\"}]"));
+    assertFails("{\"a\":1}", "[{\"op\":\"copy\",\"from\":\"/b\",\"path\":\"/c\"}]");
+  }
+  @Test
+  public void rejectsMoveIntoOwnChild() {
+    assertFails("{\"a\":{\"b\":{}}}", "[{\"op\":\"move\",\"from\":\"/a\",\"path\":\"/a/b\"}]");
+    // Общий префикс имен -- не вложенность
+    assertJson("{\"ab\":{\"b\":1}}", patch("{\"a\":{\"b\":1}}", "[{\"op\":\"move\",\"from\":\"/a\",\"path\":\"/ab\"}]"));
+  }
+  @Test
+  public void testsNullAndAbsentValues() {
+    final String doc = "{\"a\":null,\"b\":{\"c\":[1,2.0]}}";
+    assertJson(doc, patch(doc, "[{\"op\":\"test\",\"path\":\"/a\",\"value\":null}]"));
+    assertJson(doc, patch(doc, "[{\"op\":\"test\",\"path\":\"/b\",\"value\":{\"c\":[1.0,2]}}]"));
+    assertFails(doc, "[{\"op\":\"test\",\"path\":\"/x\",\"value\":null}]");
+    assertFails(doc, "[{\"op\":\"test\",\"path\":\"/a\",\"value\":0}]");
+    assertFails(doc, "[{\"op\":\"test\",\"path\":\"/b/c/1\",\"value\":\"2\"}]");
+  }
+  @Test
+  public void reportsPathOfFailedOperation() {
+    final JsonPatchException ex = assertThrows(JsonPatchException.class, () -> patch(
+      "{\"a\":1}",
+      "[{\"op\":\"test\",\"path\":\"/a\",\"value\":1},{\"op\":\"remove\",\"path\":\"/a~1b\"}]"
+    ));
+    assertEquals("/a~1b", ex.getPath());
+  }
+  @Test
+  public void rejectsMalformedOperations() {
+    assertFails("{}", "[{\"op\":\"rename\",\"path\":\"/a\"}]");
+    assertFails("{}", "[{\"op\":\"add\",\"path\":\"/a\"}]");
+    assertFails("{\"a\":1}", "[{\"op\":\"copy\",\"path\":\"/b\"}]");
+  }
+  @Test
+  public void keepsTargetOnFailure() {
+    final JsonValue target = value("{\"a\":1}");
+    assertThrows(JsonPatchException.class, () -> JsonPatch.apply(target, json(
+      "[{\"op\":\"add\",\"path\":\"/b\",\"value\":2},{\"op\":\"remove\",\"path\":\"/c\"}]"
+    ), 0, LEAF));
+    assertJson("{\"a\":1}", target);
+  }
+  @Test
+  public void sharesUnchangedArrayElements() {
+    final JsonArray<JsonValue> source = new LazyArray<>(json("[{\"x\":1},{\"x\":2},{\"x\":3}]"), 0, LazyValue::new);
+    final List<JsonValue> items = source.value();
+
+    final JsonArray<JsonValue> replaced = JsonPatch.apply(source, json("[{\"op\":\"replace\",\"path\":\"/1/x\",\"value\":5}]"), 0, ARRAY);
+    assertJson("[{\"x\":1},{\"x\":5},{\"x\":3}]", replaced);
+    assertSame(items.get(0), replaced.value().get(0));
+    assertSame(items.get(2), replaced.value().get(2));
+
+    final JsonArray<JsonValue> added = JsonPatch.apply(source, json("[{\"op\":\"add\",\"path\":\"/-\",\"value\":{}}]"), 0, ARRAY);
+    assertJson("[{\"x\":1},{\"x\":2},{\"x\":3},{}]", added);
+    for (int i = 0; i < items.size(); ++i) {
+      assertSame(items.get(i), added.value().get(i));
+    }
+
+    final JsonArray<JsonValue> removed = JsonPatch.apply(source, json("[{\"op\":\"remove\",\"path\":\"/0\"}]"), 0, ARRAY);
+    assertJson("[{\"x\":2},{\"x\":3}]", removed);
+    assertSame(items.get(1), removed.value().get(0));
+
+    // Операция, не изменяющая массив, возвращает его же
+    assertSame(source, JsonPatch.apply(source, json("[{\"op\":\"test\",\"path\":\"/2/x\",\"value\":3}]"), 0, ARRAY));
+    assertJson("[{\"x\":1},{\"x\":2},{\"x\":3}]", source);
+  }
+  @Test
+  public void copiesBetweenArrayElements() {
+    final JsonArray<JsonValue> source = new LazyArray<>(json("[{\"x\":1},{\"y\":2}]"), 0, LazyValue::new);
+    assertJson("[{\"x\":1},{\"y\":2,\"z\":1}]", JsonPatch.apply(source, json(
+      "[{\"op\":\"copy\",\"from\":\"/0/x\",\"path\":\"/1/z\"}]"
+    ), 0, ARRAY));
+    assertJson("[{\"y\":2},{\"x\":1}]", JsonPatch.apply(source, json(
+      "[{\"op\":\"move\",\"from\":\"/0\",\"path\":\"/-\"}]"
+    ), 0, ARRAY));
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверки сопоставления имен свойств {@link KeyMatcher#of} и {@link PerfectKeyMatcher}.
+ *
+ * @author Mingun
+ */
+public class KeyMatcherTest {
+  /**
+   * Сопоставляет имя, записанное в документе как есть, т.е. вместе с escape-последовательностями.
+   *
+   * @param matcher Сопоставитель
+   * @param raw Имя в том виде, в котором оно записано между кавычками
+   */
+  private static int match(KeyMatcher matcher, String raw) {
+    final byte[] bytes = ('"' + raw + '"').getBytes(UTF_8);
+    return matcher.match(ByteBuffer.wrap(bytes), 1, bytes.length - 1);
+  }
+
+  @Test
+  public void matchesDeclaredNames() {
+    final KeyMatcher matcher = KeyMatcher.of("id", "name", "", "имя", "a/b");
+    assertEquals(5, matcher.size());
+    assertEquals(0, match(matcher, "id"));
+    assertEquals(1, match(matcher, "name"));
+    assertEquals(2, match(matcher, ""));
+    assertEquals(3, match(matcher, "имя"));
+    assertEquals(4, match(matcher, "a/b"));
+  }
+  @Test
+  public void missesUndeclaredNames() {
+    final KeyMatcher matcher = KeyMatcher.of("id", "name");
+    assertEquals(-1, match(matcher, ""));
+    assertEquals(-1, match(matcher, "i"));
+    assertEquals(-1, match(matcher, "ID"));
+    assertEquals(-1, match(matcher, "nam"));
+    assertEquals(-1, match(matcher, "nome"));
+    assertEquals(-1, match(KeyMatcher.of(), "id"));
+  }
+  @Test
+  public void missesNamesLongerThanAnyDeclared() {
+    final KeyMatcher matcher = KeyMatcher.of("id", "name");
+    assertEquals(-1, match(matcher, "names"));
+    assertEquals(-1, match(matcher, "identifier"));
+  }
+  @Test
+  public void decodesEscapedNames() {
+    final KeyMatcher matcher = KeyMatcher.of("id", "a/b", "q\"", "имя");
+    assertEquals(0, match(matcher, "\\u0069d"));
+    assertEquals(1, match(matcher, "a\\/b"));
+    assertEquals(2, match(matcher, "q\\\""));
+    assertEquals(3, match(matcher, "\\u0438\\u043c\\u044f"));
+    assertEquals(-1, match(matcher, "\\u0069"));
+    // Запись с escape-последовательностями длиннее самого длинного имени
+    assertEquals(0, match(matcher, "\\u0069\\u0064"));
+    assertEquals(-1, match(matcher, "\\u0069\\u0064\\u0064"));
+  }
+  @Test
+  public void rejectsDuplicateNames() {
+    assertThrows(IllegalArgumentException.class, () -> KeyMatcher.of("a", "b", "a"));
+    assertThrows(IllegalArgumentException.class, () -> PerfectKeyMatcher.of(new String[] { "", "" }));
+  }
+  @Test
+  public void findsHashForWideObjects() {
+    final String[] names = names(64);
+    final PerfectKeyMatcher matcher = PerfectKeyMatcher.of(names);
+    assertNotNull(matcher);
+    for (int i = 0; i < names.length; ++i) {
+      assertEquals(i, match(matcher, names[i]));
+    }
+    assertEquals(-1, match(matcher, "property64"));
+  }
+  /** Для очень большого количества имен поиск ограничен, и используется универсальный сопоставитель. */
+  @Test
+  public void fallsBackForManyNames() {
+    final String[] names = names(4096);
+    final KeyMatcher matcher = KeyMatcher.of(names);
+    assertInstanceOf(HashKeyMatcher.class, matcher);
+    assertEquals(names.length, matcher.size());
+    for (int i = 0; i < names.length; ++i) {
+      assertEquals(i, match(matcher, names[i]));
+    }
+    assertEquals(-1, match(matcher, "property4096"));
+  }
+  @Test
+  public void numbersNamesFromSchema() {
+    for (final KeyMatcher matcher : new KeyMatcher[] {
+      KeyMatcher.of("id", "a\"b", "c\\d", "имя"),
+      new HashKeyMatcher(new String[] { "id", "a\"b", "c\\d", "имя" }),
+    }) {
+      assertEquals(0, matcher.number("id"));
+      assertEquals(1, matcher.number("a\"b"));
+      assertEquals(2, matcher.number("c\\d"));
+      assertEquals(3, matcher.number("имя"));
+      assertEquals(-1, matcher.number("a\\\"b"));
+      assertEquals(-1, matcher.number(""));
+    }
+  }
+  @Test
+  public void projectsNamesWithQuotesAndBackslashes() {
+    final byte[] doc = "{\"plain\":1,\"a\\\"b\":2,\"c\\\\d\":3}".getBytes(UTF_8);
+    for (final KeyMatcher keys : new KeyMatcher[] {
+      KeyMatcher.of("plain", "a\"b", "c\\d"),
+      new HashKeyMatcher(new String[] { "plain", "a\"b", "c\\d" }),
+    }) {
+      final Projection projection = Projection.of(keys, "a\"b", "c\\d");
+      final int[] index = JsonReader.indexObject(ByteBuffer.wrap(doc), 0, projection, new int[keys.size()]);
+      assertEquals(-1, index[0]);
+      assertEquals('2', doc[index[1]]);
+      assertEquals('3', doc[index[2]]);
+    }
+  }
+  @Test
+  public void projectsOnlyOwnProperties() {
+    final KeyMatcher keys = KeyMatcher.of("a", "b");
+    assertThrows(IllegalArgumentException.class, () -> Projection.of(keys, "a.b"));
+    assertThrows(IllegalArgumentException.class, () -> Projection.of(keys, "/a/b"));
+    assertThrows(IllegalArgumentException.class, () -> Projection.of(keys, "c"));
+  }
+
+  private static String[] names(int count) {
+    final String[] names = new String[count];
+    for (int i = 0; i < count; ++i) {
+      names[i] = "property" + i;
+    }
+    return names;
+  }
+}
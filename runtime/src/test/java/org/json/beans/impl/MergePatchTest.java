@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import org.json.beans.JsonPatchException;
+import org.json.beans.JsonValue;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки соответствия {@link MergePatch} RFC 7386.
+ *
+ * @author Mingun
+ */
+public class MergePatchTest {
+  private static final Encoder<JsonValue> ENCODER = JsonWriter::value;
+
+  private static ByteBuffer json(String text) {
+    return ByteBuffer.wrap(text.getBytes(UTF_8));
+  }
+  private static JsonValue merge(String target, String patch) {
+    return MergePatch.merge(target == null ? null : new LazyValue(json(target), 0), ENCODER, LazyValue::new, json(patch), 0);
+  }
+  private static void assertMerge(String expected, String target, String patch) {
+    final JsonValue actual = merge(target, patch);
+    final ByteBuffer doc = ByteBuffer.wrap(JsonWriter.encode(ENCODER, actual));
+    assertTrue(ContentHash.equal(json(expected), 0, doc, 0), () -> expected + " != " + new String(doc.array(), UTF_8));
+  }
+
+  /** Примеры из приложения A RFC 7386. */
+  @Test
+  public void appliesRfcExamples() {
+    assertMerge("{\"a\":\"c\"}", "{\"a\":\"b\"}", "{\"a\":\"c\"}");
+    assertMerge("{\"a\":\"b\",\"b\":\"c\"}", "{\"a\":\"b\"}", "{\"b\":\"c\"}");
+    assertMerge("{}", "{\"a\":\"b\"}", "{\"a\":null}");
+    assertMerge("{\"b\":\"c\"}", "{\"a\":\"b\",\"b\":\"c\"}", "{\"a\":null}");
+    assertMerge("{\"a\":\"c\"}", "{\"a\":[\"b\"]}", "{\"a\":\"c\"}");
+    assertMerge("{\"a\":[\"b\"]}", "{\"a\":\"c\"}", "{\"a\":[\"b\"]}");
+    assertMerge("{\"a\":{\"b\":\"d\"}}", "{\"a\":{\"b\":\"c\"}}", "{\"a\":{\"b\":\"d\",\"c\":null}}");
+    assertMerge("{\"a\":[1]}", "{\"a\":[{\"b\":\"c\"}]}", "{\"a\":[1]}");
+    assertMerge("[\"c\",\"d\"]", "[\"a\",\"b\"]", "[\"c\",\"d\"]");
+    assertMerge("[\"c\"]", "{\"a\":\"b\"}", "[\"c\"]");
+    assertMerge("{\"a\":\"b\"}", "[1,2]", "{\"a\":\"b\",\"c\":null}");
+    assertMerge("\"bar\"", "[1,2]", "\"bar\"");
+    assertMerge("{\"e\":null,\"a\":1}", "{\"e\":null}", "{\"a\":1}");
+    assertMerge("{\"a\":{\"bb\":{}}}", "[1,2]", "{\"a\":{\"bb\":{\"ccc\":null}}}");
+  }
+  @Test
+  public void mergesIntoAbsentTarget() {
+    assertMerge("{\"a\":{\"c\":1}}", null, "{\"a\":{\"b\":null,\"c\":1}}");
+    assertMerge("{}", null, "{\"a\":null}");
+    assertMerge("[null]", null, "[null]");
+  }
+  @Test
+  public void removesValueWithNullPatch() {
+    assertNull(merge("{\"a\":1}", "null"));
+    assertNull(merge(null, "null"));
+  }
+  @Test
+  public void keepsTargetUnchanged() {
+    final LazyValue target = new LazyValue(json("{\"a\":{\"b\":1}}"), 0);
+    MergePatch.merge(target, ENCODER, LazyValue::new, json("{\"a\":{\"b\":2}}"), 0);
+    assertTrue(ContentHash.equal(json("{\"a\":{\"b\":1}}"), 0, target.buffer, target.offset));
+  }
+  @Test
+  public void indexesPatchMembers() {
+    final ByteBuffer patch = json("{\"b\": 1, \"a\": null, \"z\": 3}");
+    assertTrue(MergePatch.isObject(patch, 0));
+    assertFalse(MergePatch.isObject(json("[{}]"), 0));
+    final int[] index = MergePatch.index(patch, 0, KeyMatcher.of("a", "b", "z"));
+    assertArrayEquals(new int[] { 14, 6, 25 }, index);
+    assertArrayEquals(new int[] { 14, 6, -1 }, MergePatch.index(patch, 0, KeyMatcher.of("a", "b", "c"), false));
+  }
+  /** Как и JSON Patch, Merge Patch не может изменять свойства, не объявленные в схеме. */
+  @Test
+  public void rejectsUndeclaredMembers() {
+    final KeyMatcher keys = KeyMatcher.of("a", "b");
+    final JsonPatchException ex = assertThrows(
+      JsonPatchException.class,
+      () -> MergePatch.index(json("{\"a\": 1, \"c/d\": null}"), 0, keys)
+    );
+    assertEquals("/c~1d", ex.getPath());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Mingun.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.json.beans.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.json.beans.JsonArray;
+import org.json.beans.JsonValue;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверки {@link PersistentArray}: изменения создают новые версии, не затрагивая старые, и
+ * разделяют с ними неизмененные элементы.
+ *
+ * @author Mingun
+ */
+public class PersistentArrayTest {
+  private static JsonValue value(String text) {
+    return new LazyValue(ByteBuffer.wrap(text.getBytes(UTF_8)), 0);
+  }
+  private static PersistentArray<JsonValue> array(String text) {
+    final JsonArray<JsonValue> array = new LazyArray<>(ByteBuffer.wrap(text.getBytes(UTF_8)), 0, LazyValue::new);
+    return PersistentArray.of(array);
+  }
+
+  @Test
+  public void wrapsArrayOnce() {
+    final PersistentArray<JsonValue> array = array("[1,2]");
+    assertSame(array, PersistentArray.of(array));
+    assertEquals(2, array.size());
+    assertEquals(0, array("[]").size());
+  }
+  @Test
+  public void keepsPreviousVersions() {
+    final PersistentArray<JsonValue> v1 = array("[1,2,3]");
+    final JsonValue x = value("\"x\"");
+    final PersistentArray<JsonValue> v2 = v1.with(1, x);
+    final PersistentArray<JsonValue> v3 = v2.plus(0, null);
+    final PersistentArray<JsonValue> v4 = v3.minus(3);
+
+    assertEquals("[1, 2, 3]", v1.value().toString());
+    assertEquals("[1, \"x\", 3]", v2.value().toString());
+    assertEquals("[null, 1, \"x\", 3]", v3.value().toString());
+    assertEquals("[null, 1, \"x\"]", v4.value().toString());
+    assertNull(v4.value().get(0));
+    assertSame(x, v4.value().get(2));
+  }
+  @Test
+  public void sharesUnchangedElements() {
+    final PersistentArray<JsonValue> source = array("[{\"a\":1},{\"b\":2},{\"c\":3}]");
+    final List<JsonValue> items = source.value();
+    final PersistentArray<JsonValue> changed = source.with(1, value("{}")).plus(3, value("[]")).minus(1);
+    assertEquals(3, changed.size());
+    assertSame(items.get(0), changed.value().get(0));
+    assertSame(items.get(2), changed.value().get(1));
+  }
+  @Test
+  public void checksBounds() {
+    final PersistentArray<JsonValue> array = array("[1,2]");
+    assertThrows(IndexOutOfBoundsException.class, () -> array.with(2, null));
+    assertThrows(IndexOutOfBoundsException.class, () -> array.with(-1, null));
+    assertThrows(IndexOutOfBoundsException.class, () -> array.minus(2));
+    assertThrows(IndexOutOfBoundsException.class, () -> array.plus(3, null));
+    assertThrows(IndexOutOfBoundsException.class, () -> array.value().get(2));
+    assertEquals(3, array.plus(2, null).size());
+  }
+  @Test
+  public void comparesByElements() {
+    final PersistentArray<JsonValue> array = array("[1,2]");
+    assertEquals(array.with(0, value("1")), array);
+    assertEquals(array.with(0, value("1")).hashCode(), array.hashCode());
+    assertNotEquals(array.minus(0), array);
+  }
+  /** Сравнивает результат длинной случайной последовательности изменений со списком. */
+  @Test
+  public void matchesListUnderRandomEdits() {
+    PersistentArray<JsonValue> array = array("[0,1,2,3,4,5,6,7,8,9]");
+    final List<JsonValue> expected = new ArrayList<>(array.value());
+    final Random random = new Random(42);
+    for (int step = 0; step < 5000; ++step) {
+      final int size = expected.size();
+      final JsonValue item = value(Integer.toString(step));
+      switch (size == 0 ? 0 : random.nextInt(3)) {
+        case 0: {
+          final int i = random.nextInt(size + 1);
+          array = array.plus(i, item);
+          expected.add(i, item);
+          break;
+        }
+        case 1: {
+          final int i = random.nextInt(size);
+          array = array.minus(i);
+          expected.remove(i);
+          break;
+        }
+        default: {
+          final int i = random.nextInt(size);
+          array = array.with(i, item);
+          expected.set(i, item);
+        }
+      }
+      assertEquals(expected.size(), array.size());
+      if (step % 100 == 0) {
+        for (int i = 0; i < expected.size(); ++i) {
+          assertSame(expected.get(i), array.value().get(i));
+        }
+      }
+    }
+    assertEquals(expected, array.value());
+  }
+}